@@ -0,0 +1,231 @@
+package com.rocketpartners.onboarding.possystem.benchmark;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import com.rocketpartners.onboarding.commons.model.Item;
+import com.rocketpartners.onboarding.possystem.repository.ItemRepository;
+import com.rocketpartners.onboarding.possystem.repository.inmemory.CompactInMemoryItemRepository;
+import com.rocketpartners.onboarding.possystem.repository.inmemory.InMemoryItemRepository;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Compares the heap footprint and the lookup time of the item catalog kept in a map of item objects, i.e. the
+ * {@link InMemoryItemRepository}, with the {@link CompactInMemoryItemRepository}. Both load the same generated item
+ * book of 12-digit UPCs, and the benchmark reports the heap retained per item, measured after a full GC, and the time
+ * taken and the bytes allocated per lookup of a random UPC. Run it with {@code ./gradlew catalogFootprintBenchmark},
+ * which gives it a heap of 4 GB, enough for the map catalog of 5 million items.
+ */
+public class CatalogFootprintBenchmark {
+
+    /**
+     * Command line arguments for the catalog footprint benchmark.
+     */
+    @Getter
+    @Setter
+    @ToString
+    public static class Arguments {
+
+        private static final int DEFAULT_ITEMS = 1_000_000;
+        private static final int DEFAULT_LOOKUPS = 5_000_000;
+        private static final long DEFAULT_SEED = 42;
+
+        @Parameter(names = "-items", description = "The number of items in the generated catalog. Default: 1000000.")
+        private int items = DEFAULT_ITEMS;
+
+        @Parameter(names = "-lookups", description = "The number of lookups per measurement. Default: 5000000.")
+        private int lookups = DEFAULT_LOOKUPS;
+
+        @Parameter(names = "-seed", description = "The seed of the looked up UPCs. Default: 42.")
+        private long seed = DEFAULT_SEED;
+    }
+
+    /**
+     * Result of measuring one catalog.
+     *
+     * @param name           the name of the catalog
+     * @param items          the number of items in the catalog
+     * @param retainedBytes  the heap retained by the catalog after a full GC
+     * @param lookups        the number of lookups
+     * @param elapsedNanos   the time the lookups took
+     * @param allocatedBytes the number of bytes allocated by the lookups, or -1 if not supported
+     */
+    public record Result(@NonNull String name, int items, long retainedBytes, long lookups, long elapsedNanos,
+                         long allocatedBytes) {
+
+        public double retainedBytesPerItem() {
+            return items == 0 ? 0.0 : (double) retainedBytes / items;
+        }
+
+        public double nanosPerLookup() {
+            return lookups == 0 ? 0.0 : (double) elapsedNanos / lookups;
+        }
+
+        public double allocatedBytesPerLookup() {
+            return lookups == 0 || allocatedBytes < 0 ? -1.0 : (double) allocatedBytes / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %.1f MB retained, %.1f bytes/item, %.1f ns/lookup, %.1f bytes/lookup", name,
+                    retainedBytes / (1024.0 * 1024.0), retainedBytesPerItem(), nanosPerLookup(),
+                    allocatedBytesPerLookup());
+        }
+    }
+
+    private final int items;
+    private final long seed;
+
+    /**
+     * Constructor that accepts the size of the generated catalog.
+     *
+     * @param items the number of items in the catalog
+     * @param seed  the seed of the looked up UPCs
+     */
+    public CatalogFootprintBenchmark(int items, long seed) {
+        if (items <= 0) {
+            throw new IllegalArgumentException("Items must be greater than 0");
+        }
+        this.items = items;
+        this.seed = seed;
+    }
+
+    /**
+     * Generate the item with an index, which is the same for every catalog.
+     *
+     * @param index the index of the item
+     * @return the item
+     */
+    public static Item createItem(int index) {
+        return new Item(upcOf(index), "Item " + index + " Family Size", BigDecimal.valueOf(99 + index % 10_000L, 2),
+                "Category " + index % 50, "Description of item " + index);
+    }
+
+    /**
+     * Load the generated catalog into a repository.
+     *
+     * @param itemRepository the repository
+     * @return the repository
+     */
+    public ItemRepository load(@NonNull ItemRepository itemRepository) {
+        for (int i = 0; i < items; i++) {
+            itemRepository.saveItem(createItem(i));
+        }
+        return itemRepository;
+    }
+
+    /**
+     * Measure the map catalog.
+     *
+     * @param lookups the number of lookups
+     * @return the result
+     */
+    public Result measureMap(int lookups) {
+        return measure("Map", InMemoryItemRepository::new, lookups);
+    }
+
+    /**
+     * Measure the compact catalog.
+     *
+     * @param lookups the number of lookups
+     * @return the result
+     */
+    public Result measureCompact(int lookups) {
+        return measure("Compact", CompactInMemoryItemRepository::new, lookups);
+    }
+
+    private Result measure(@NonNull String name, @NonNull Supplier<ItemRepository> repositorySupplier, int lookups) {
+        long heapBefore = getUsedHeapAfterGc();
+        ItemRepository itemRepository = load(repositorySupplier.get());
+        long retainedBytes = Math.max(0L, getUsedHeapAfterGc() - heapBefore);
+
+        Random random = new Random(seed);
+        String[] upcs = new String[Math.min(lookups, 4096)];
+        for (int i = 0; i < upcs.length; i++) {
+            upcs[i] = upcOf(random.nextInt(items));
+        }
+
+        // Warm up the lookups before measuring
+        long checksum = lookUp(itemRepository, upcs, Math.min(lookups, 100_000));
+
+        long allocatedBytesBefore = getAllocatedBytes();
+        long start = System.nanoTime();
+        checksum += lookUp(itemRepository, upcs, lookups);
+        long elapsedNanos = System.nanoTime() - start;
+        long allocatedBytesAfter = getAllocatedBytes();
+
+        // Keeps the lookups from being optimized away, and the catalog reachable until they are done
+        if (checksum == Long.MIN_VALUE) {
+            System.out.println(itemRepository);
+        }
+
+        long allocatedBytes = allocatedBytesBefore >= 0 && allocatedBytesAfter >= 0 ?
+                allocatedBytesAfter - allocatedBytesBefore : -1;
+        return new Result(name, items, retainedBytes, lookups, elapsedNanos, allocatedBytes);
+    }
+
+    private static long lookUp(ItemRepository itemRepository, String[] upcs, int lookups) {
+        long checksum = 0L;
+        for (int i = 0; i < lookups; i++) {
+            Item item = itemRepository.getItemByUpc(upcs[i % upcs.length]);
+            checksum += item.getUnitPrice().unscaledValue().longValue();
+        }
+        return checksum;
+    }
+
+    private static String upcOf(int index) {
+        return String.format("%012d", index * 7L);
+    }
+
+    private static long getUsedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long getAllocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadMXBean &&
+                threadMXBean.isThreadAllocatedMemorySupported()) {
+            return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * The main entry point for the catalog footprint benchmark.
+     *
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        Arguments arguments = new Arguments();
+        JCommander jCommander = JCommander.newBuilder().addObject(arguments).build();
+        try {
+            jCommander.parse(args);
+        } catch (ParameterException e) {
+            System.err.println("[CatalogFootprintBenchmark] Error while parsing parameters: " + e.getMessage());
+            jCommander.usage();
+            System.exit(1);
+        }
+        System.out.println("[CatalogFootprintBenchmark] Starting catalog footprint benchmark with args: " + arguments);
+
+        CatalogFootprintBenchmark benchmark = new CatalogFootprintBenchmark(arguments.getItems(), arguments.getSeed());
+        int lookups = Math.max(1, arguments.getLookups());
+        Result mapResult = benchmark.measureMap(lookups);
+        System.out.println("[CatalogFootprintBenchmark] " + mapResult);
+        Result compactResult = benchmark.measureCompact(lookups);
+        System.out.println("[CatalogFootprintBenchmark] " + compactResult);
+        if (compactResult.retainedBytes() > 0) {
+            System.out.printf("[CatalogFootprintBenchmark] The compact catalog is %.1fx smaller%n",
+                    (double) mapResult.retainedBytes() / compactResult.retainedBytes());
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.rocketpartners.onboarding.possystem.benchmark;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import com.rocketpartners.onboarding.commons.model.Item;
+import com.rocketpartners.onboarding.possystem.component.LocalTestTsvItemBookLoaderComponent;
+import com.rocketpartners.onboarding.possystem.repository.inmemory.InMemoryItemRepository;
+import com.rocketpartners.onboarding.possystem.service.ItemService;
+import com.rocketpartners.onboarding.possystem.service.TaxService;
+import com.rocketpartners.onboarding.possystem.utils.Money;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the totals math of a transaction done with {@link BigDecimal}, the way the transaction service used to do
+ * it, with the same math done in cents with {@link Money}. Both compute the subtotal, the taxes, and the total of the
+ * same generated baskets, and the benchmark reports the bytes allocated and the time taken per basket. The cents
+ * variant includes the conversions at the boundary, i.e. reading the item prices and the discount and producing the
+ * three {@link BigDecimal} fields of the transaction. Run it with {@code ./gradlew moneyBenchmark}.
+ */
+public class MoneyBenchmark {
+
+    /**
+     * Command line arguments for the money benchmark.
+     */
+    @Getter
+    @Setter
+    @ToString
+    public static class Arguments {
+
+        private static final int DEFAULT_BASKETS = 1000;
+        private static final int DEFAULT_BASKET_SIZE = 30;
+        private static final int DEFAULT_ITERATIONS = 200;
+        private static final long DEFAULT_SEED = 42;
+
+        @Parameter(names = "-baskets", description = "The number of generated baskets. Default: 1000.")
+        private int baskets = DEFAULT_BASKETS;
+
+        @Parameter(names = "-basketSize", description = "The number of line items per basket. Default: 30.")
+        private int basketSize = DEFAULT_BASKET_SIZE;
+
+        @Parameter(names = "-iterations", description = "The number of passes over all baskets per measurement. " +
+                "Default: 200.")
+        private int iterations = DEFAULT_ITERATIONS;
+
+        @Parameter(names = "-seed", description = "The seed of the generated baskets. Default: 42.")
+        private long seed = DEFAULT_SEED;
+    }
+
+    /**
+     * The totals of a basket.
+     *
+     * @param subtotal the subtotal
+     * @param taxes    the taxes
+     * @param total    the total
+     */
+    public record Totals(@NonNull BigDecimal subtotal, @NonNull BigDecimal taxes, @NonNull BigDecimal total) {
+
+        /**
+         * Round the totals half up to the cent, which is what the database stores.
+         *
+         * @return the rounded totals
+         */
+        public Totals roundedToCents() {
+            return new Totals(subtotal.setScale(2, RoundingMode.HALF_UP), taxes.setScale(2, RoundingMode.HALF_UP),
+                    total.setScale(2, RoundingMode.HALF_UP));
+        }
+    }
+
+    /**
+     * Result of measuring one variant.
+     *
+     * @param name           the name of the variant
+     * @param baskets        the number of baskets computed
+     * @param elapsedNanos   the time the computations took
+     * @param allocatedBytes the number of bytes allocated by the measuring thread, or -1 if not supported
+     */
+    public record Result(@NonNull String name, long baskets, long elapsedNanos, long allocatedBytes) {
+
+        public double nanosPerBasket() {
+            return baskets == 0 ? 0.0 : (double) elapsedNanos / baskets;
+        }
+
+        public double allocatedBytesPerBasket() {
+            return baskets == 0 || allocatedBytes < 0 ? -1.0 : (double) allocatedBytes / baskets;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %.1f ns/basket, %.1f bytes/basket", name, nanosPerBasket(),
+                    allocatedBytesPerBasket());
+        }
+    }
+
+    private final Item[][] basketItems;
+    private final int[][] basketQuantities;
+    private final BigDecimal[] basketDiscounts;
+    private final TaxService taxService;
+
+    /**
+     * Constructor that generates the baskets from the given items.
+     *
+     * @param items      the items to pick from
+     * @param baskets    the number of baskets
+     * @param basketSize the number of line items per basket
+     * @param seed       the seed of the generated baskets
+     */
+    public MoneyBenchmark(@NonNull List<Item> items, int baskets, int basketSize, long seed) {
+        if (items.isEmpty()) {
+            throw new IllegalArgumentException("Items cannot be empty");
+        }
+        basketItems = new Item[baskets][basketSize];
+        basketQuantities = new int[baskets][basketSize];
+        basketDiscounts = new BigDecimal[baskets];
+        taxService = new TaxService();
+
+        Random random = new Random(seed);
+        for (int i = 0; i < baskets; i++) {
+            for (int j = 0; j < basketSize; j++) {
+                basketItems[i][j] = items.get(random.nextInt(items.size()));
+                basketQuantities[i][j] = 1 + random.nextInt(3);
+            }
+            basketDiscounts[i] = random.nextInt(4) == 0 ? BigDecimal.valueOf(random.nextInt(500), 2) : BigDecimal.ZERO;
+        }
+    }
+
+    public int getBasketCount() {
+        return basketItems.length;
+    }
+
+    /**
+     * Compute the totals of a basket with {@link BigDecimal} arithmetic, like the transaction service did before it
+     * switched to cents. The result is not rounded.
+     *
+     * @param basket the index of the basket
+     * @return the totals
+     */
+    public Totals computeWithBigDecimal(int basket) {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (int j = 0; j < basketItems[basket].length; j++) {
+            subtotal = subtotal.add(basketItems[basket][j].getUnitPrice()
+                    .multiply(BigDecimal.valueOf(basketQuantities[basket][j])));
+        }
+        BigDecimal taxes = subtotal.multiply(BigDecimal.valueOf(0.04));
+        BigDecimal total = BigDecimal.ZERO;
+        total = total.add(subtotal);
+        total = total.add(taxes);
+        total = total.subtract(basketDiscounts[basket]);
+        return new Totals(subtotal, taxes, total);
+    }
+
+    /**
+     * Compute the totals of a basket in cents, like the transaction service does.
+     *
+     * @param basket the index of the basket
+     * @return the totals
+     */
+    public Totals computeWithCents(int basket) {
+        long subtotalCents = 0L;
+        for (int j = 0; j < basketItems[basket].length; j++) {
+            subtotalCents = Money.add(subtotalCents,
+                    Money.multiply(Money.toCents(basketItems[basket][j].getUnitPrice()), basketQuantities[basket][j]));
+        }
+        long taxCents = taxService.computeTaxCentsFor(subtotalCents);
+        long totalCents =
+                Money.subtract(Money.add(subtotalCents, taxCents), Money.toCents(basketDiscounts[basket]));
+        return new Totals(Money.toBigDecimal(subtotalCents), Money.toBigDecimal(taxCents),
+                Money.toBigDecimal(totalCents));
+    }
+
+    /**
+     * Measure the {@link BigDecimal} variant.
+     *
+     * @param iterations the number of passes over all baskets
+     * @return the result
+     */
+    public Result measureBigDecimal(int iterations) {
+        return measure("BigDecimal", iterations, false);
+    }
+
+    /**
+     * Measure the cents variant.
+     *
+     * @param iterations the number of passes over all baskets
+     * @return the result
+     */
+    public Result measureCents(int iterations) {
+        return measure("Cents", iterations, true);
+    }
+
+    private Result measure(@NonNull String name, int iterations, boolean cents) {
+        long checksum = 0L;
+        long allocatedBytesBefore = getAllocatedBytes();
+        long start = System.nanoTime();
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            for (int basket = 0; basket < basketItems.length; basket++) {
+                Totals totals = cents ? computeWithCents(basket) : computeWithBigDecimal(basket);
+                checksum += totals.total().signum();
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        long allocatedBytesAfter = getAllocatedBytes();
+
+        // Keeps the computations from being optimized away
+        if (checksum == Long.MIN_VALUE) {
+            System.out.println(checksum);
+        }
+
+        long allocatedBytes = allocatedBytesBefore >= 0 && allocatedBytesAfter >= 0 ?
+                allocatedBytesAfter - allocatedBytesBefore : -1;
+        return new Result(name, (long) iterations * basketItems.length, elapsedNanos, allocatedBytes);
+    }
+
+    private static long getAllocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadMXBean &&
+                threadMXBean.isThreadAllocatedMemorySupported()) {
+            return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * The main entry point for the money benchmark. The items are loaded from the TSV file configured in the
+     * application properties. Before measuring, the totals of every basket are checked to match between the two
+     * variants once the {@link BigDecimal} totals are rounded to the cent.
+     *
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        Arguments arguments = new Arguments();
+        JCommander jCommander = JCommander.newBuilder().addObject(arguments).build();
+        try {
+            jCommander.parse(args);
+        } catch (ParameterException e) {
+            System.err.println("[MoneyBenchmark] Error while parsing parameters: " + e.getMessage());
+            jCommander.usage();
+            System.exit(1);
+        }
+        System.out.println("[MoneyBenchmark] Starting money benchmark with args: " + arguments);
+
+        ItemService itemService = new ItemService(new InMemoryItemRepository());
+        new LocalTestTsvItemBookLoaderComponent().loadItemBook(itemService);
+        List<Item> items = itemService.getAllItems().stream().sorted(Comparator.comparing(Item::getUpc)).toList();
+        MoneyBenchmark benchmark =
+                new MoneyBenchmark(items, arguments.getBaskets(), arguments.getBasketSize(), arguments.getSeed());
+
+        for (int basket = 0; basket < benchmark.getBasketCount(); basket++) {
+            Totals expected = benchmark.computeWithBigDecimal(basket).roundedToCents();
+            Totals actual = benchmark.computeWithCents(basket);
+            if (!expected.equals(actual)) {
+                throw new IllegalStateException("Totals of basket " + basket + " differ: expected " + expected +
+                        ", actual " + actual);
+            }
+        }
+        System.out.println("[MoneyBenchmark] Totals of " + benchmark.getBasketCount() + " baskets match");
+
+        // Warm up both variants before measuring
+        benchmark.measureBigDecimal(Math.max(1, arguments.getIterations() / 4));
+        benchmark.measureCents(Math.max(1, arguments.getIterations() / 4));
+
+        Result bigDecimalResult = benchmark.measureBigDecimal(arguments.getIterations());
+        Result centsResult = benchmark.measureCents(arguments.getIterations());
+        System.out.println("[MoneyBenchmark] " + bigDecimalResult);
+        System.out.println("[MoneyBenchmark] " + centsResult);
+        if (bigDecimalResult.allocatedBytesPerBasket() > 0 && centsResult.allocatedBytesPerBasket() >= 0) {
+            System.out.printf("[MoneyBenchmark] Allocation reduced by %.1f%%%n",
+                    100.0 * (1.0 - centsResult.allocatedBytesPerBasket() / bigDecimalResult.allocatedBytesPerBasket()));
+        }
+    }
+}
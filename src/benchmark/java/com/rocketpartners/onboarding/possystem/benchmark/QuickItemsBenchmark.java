@@ -0,0 +1,233 @@
+package com.rocketpartners.onboarding.possystem.benchmark;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import com.rocketpartners.onboarding.commons.model.Item;
+import com.rocketpartners.onboarding.possystem.constant.ConstVals;
+import com.rocketpartners.onboarding.possystem.repository.ItemRepository;
+import com.rocketpartners.onboarding.possystem.repository.inmemory.InMemoryItemRepository;
+import com.rocketpartners.onboarding.possystem.service.ItemService;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compares picking the quick items by shuffling a copy of the whole catalog, the way the item service used to do it,
+ * with picking them from the index of random UPCs of the item service. Both pick {@link ConstVals#QUICK_ITEMS_COUNT}
+ * items that are not in a small basket from a generated in-memory catalog, and the benchmark reports the time taken
+ * and the bytes allocated per pick. Run it with {@code ./gradlew quickItemsBenchmark}.
+ */
+public class QuickItemsBenchmark {
+
+    /**
+     * Command line arguments for the quick items benchmark.
+     */
+    @Getter
+    @Setter
+    @ToString
+    public static class Arguments {
+
+        private static final int DEFAULT_ITEMS = 1_000_000;
+        private static final int DEFAULT_PICKS = 200;
+        private static final int DEFAULT_BASKET_SIZE = 20;
+
+        @Parameter(names = "-items", description = "The number of items in the generated catalog. Default: 1000000.")
+        private int items = DEFAULT_ITEMS;
+
+        @Parameter(names = "-picks", description = "The number of picks per measurement. Default: 200.")
+        private int picks = DEFAULT_PICKS;
+
+        @Parameter(names = "-basketSize", description = "The number of UPCs to exclude from each pick. Default: 20.")
+        private int basketSize = DEFAULT_BASKET_SIZE;
+    }
+
+    /**
+     * Result of measuring one variant.
+     *
+     * @param name           the name of the variant
+     * @param picks          the number of picks
+     * @param elapsedNanos   the time the picks took
+     * @param allocatedBytes the number of bytes allocated by the measuring thread, or -1 if not supported
+     */
+    public record Result(@NonNull String name, long picks, long elapsedNanos, long allocatedBytes) {
+
+        public double nanosPerPick() {
+            return picks == 0 ? 0.0 : (double) elapsedNanos / picks;
+        }
+
+        public double allocatedBytesPerPick() {
+            return picks == 0 || allocatedBytes < 0 ? -1.0 : (double) allocatedBytes / picks;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %.1f us/pick, %.1f bytes/pick", name, nanosPerPick() / 1000.0,
+                    allocatedBytesPerPick());
+        }
+    }
+
+    private final ItemRepository itemRepository;
+    private final ItemService itemService;
+    private final Set<String> basketUpcs;
+
+    /**
+     * Constructor that generates the catalog.
+     *
+     * @param items      the number of items in the catalog
+     * @param basketSize the number of UPCs in the basket, which are excluded from the picks
+     */
+    public QuickItemsBenchmark(int items, int basketSize) {
+        if (items <= 0) {
+            throw new IllegalArgumentException("Items must be greater than 0");
+        }
+        itemRepository = new InMemoryItemRepository();
+        for (int i = 0; i < items; i++) {
+            Item item = new Item();
+            item.setUpc(String.format("%012d", i));
+            item.setName("Item " + i);
+            item.setUnitPrice(BigDecimal.valueOf(100 + i % 10_000, 2));
+            itemRepository.saveItem(item);
+        }
+        itemService = new ItemService(itemRepository);
+
+        List<String> upcs = new ArrayList<>(basketSize);
+        for (int i = 0; i < Math.min(basketSize, items); i++) {
+            upcs.add(String.format("%012d", (long) i * items / Math.max(basketSize, 1)));
+        }
+        basketUpcs = Set.copyOf(upcs);
+    }
+
+    /**
+     * Pick the quick items by shuffling a copy of the whole catalog, like the item service did before it indexed the
+     * UPCs.
+     *
+     * @return the picked items
+     */
+    public List<Item> pickByShuffling() {
+        List<Item> allItems = new ArrayList<>(itemRepository.getAllItems());
+        Collections.shuffle(allItems);
+        int max = Math.min(ConstVals.QUICK_ITEMS_COUNT, allItems.size());
+        List<Item> itemsToReturn = new ArrayList<>();
+        for (Item item : allItems) {
+            if (basketUpcs.contains(item.getUpc())) {
+                continue;
+            }
+            itemsToReturn.add(item);
+            if (itemsToReturn.size() >= max) {
+                break;
+            }
+        }
+        return itemsToReturn;
+    }
+
+    /**
+     * Pick the quick items with the item service.
+     *
+     * @return the picked items
+     */
+    public List<Item> pickFromIndex() {
+        return itemService.getRandomItemsNotIn(basketUpcs, ConstVals.QUICK_ITEMS_COUNT);
+    }
+
+    public Set<String> getBasketUpcs() {
+        return basketUpcs;
+    }
+
+    /**
+     * Measure picking by shuffling the catalog.
+     *
+     * @param picks the number of picks
+     * @return the result
+     */
+    public Result measureShuffling(int picks) {
+        return measure("Shuffle", picks, false);
+    }
+
+    /**
+     * Measure picking from the index. The index is loaded before measuring, since that happens once per process.
+     *
+     * @param picks the number of picks
+     * @return the result
+     */
+    public Result measureIndex(int picks) {
+        pickFromIndex();
+        return measure("Index", picks, true);
+    }
+
+    private Result measure(@NonNull String name, int picks, boolean index) {
+        long checksum = 0L;
+        long allocatedBytesBefore = getAllocatedBytes();
+        long start = System.nanoTime();
+        for (int pick = 0; pick < picks; pick++) {
+            List<Item> items = index ? pickFromIndex() : pickByShuffling();
+            checksum += items.size();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        long allocatedBytesAfter = getAllocatedBytes();
+
+        // Keeps the picks from being optimized away
+        if (checksum == Long.MIN_VALUE) {
+            System.out.println(checksum);
+        }
+
+        long allocatedBytes = allocatedBytesBefore >= 0 && allocatedBytesAfter >= 0 ?
+                allocatedBytesAfter - allocatedBytesBefore : -1;
+        return new Result(name, picks, elapsedNanos, allocatedBytes);
+    }
+
+    private static long getAllocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadMXBean &&
+                threadMXBean.isThreadAllocatedMemorySupported()) {
+            return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * The main entry point for the quick items benchmark.
+     *
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        Arguments arguments = new Arguments();
+        JCommander jCommander = JCommander.newBuilder().addObject(arguments).build();
+        try {
+            jCommander.parse(args);
+        } catch (ParameterException e) {
+            System.err.println("[QuickItemsBenchmark] Error while parsing parameters: " + e.getMessage());
+            jCommander.usage();
+            System.exit(1);
+        }
+        System.out.println("[QuickItemsBenchmark] Starting quick items benchmark with args: " + arguments);
+
+        QuickItemsBenchmark benchmark = new QuickItemsBenchmark(arguments.getItems(), arguments.getBasketSize());
+
+        long start = System.nanoTime();
+        benchmark.pickFromIndex();
+        System.out.printf("[QuickItemsBenchmark] Loaded the index of %d UPCs in %.1f ms%n", arguments.getItems(),
+                (System.nanoTime() - start) / 1_000_000.0);
+
+        // Warm up both variants before measuring
+        int picks = Math.max(1, arguments.getPicks());
+        benchmark.measureShuffling(Math.max(1, picks / 10));
+        benchmark.measureIndex(picks * 10);
+
+        Result shuffleResult = benchmark.measureShuffling(picks);
+        Result indexResult = benchmark.measureIndex(picks * 100);
+        System.out.println("[QuickItemsBenchmark] " + shuffleResult);
+        System.out.println("[QuickItemsBenchmark] " + indexResult);
+        if (indexResult.nanosPerPick() > 0) {
+            System.out.printf("[QuickItemsBenchmark] Picking is %.0fx faster%n",
+                    shuffleResult.nanosPerPick() / indexResult.nanosPerPick());
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.rocketpartners.onboarding.possystem.benchmark;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import com.rocketpartners.onboarding.commons.model.Item;
+import com.rocketpartners.onboarding.commons.model.PosSystem;
+import com.rocketpartners.onboarding.possystem.component.LocalTestTsvItemBookLoaderComponent;
+import com.rocketpartners.onboarding.possystem.component.PosComponent;
+import com.rocketpartners.onboarding.possystem.component.PosEventRecording;
+import com.rocketpartners.onboarding.possystem.component.StubDiscountService;
+import com.rocketpartners.onboarding.possystem.event.IPosEventListener;
+import com.rocketpartners.onboarding.possystem.event.PosEvent;
+import com.rocketpartners.onboarding.possystem.event.PosEventType;
+import com.rocketpartners.onboarding.possystem.metrics.LatencyStats;
+import com.rocketpartners.onboarding.possystem.repository.inmemory.InMemoryItemRepository;
+import com.rocketpartners.onboarding.possystem.repository.inmemory.InMemoryTransactionRepository;
+import com.rocketpartners.onboarding.possystem.service.ItemService;
+import com.rocketpartners.onboarding.possystem.service.TaxService;
+import com.rocketpartners.onboarding.possystem.service.TransactionService;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Replays a recorded sequence of POS events against a headless {@link PosComponent} wired to in-memory repositories
+ * and a {@link StubDiscountService}, and reports the throughput, the latency percentiles per event type, and the
+ * allocation rate. The latency of an event covers handling the event and every event it causes, and delivering the
+ * resulting events to the listeners. Run it with {@code ./gradlew replayBenchmark}.
+ */
+public class ReplayBenchmark {
+
+    /**
+     * Command line arguments for the replay benchmark.
+     */
+    @Getter
+    @Setter
+    @ToString
+    public static class Arguments {
+
+        private static final String DEFAULT_RECORDING = "";
+        private static final String DEFAULT_WRITE_RECORDING = "";
+        private static final int DEFAULT_TRANSACTIONS = 10000;
+        private static final int DEFAULT_WARMUP_TRANSACTIONS = 2000;
+        private static final long DEFAULT_SEED = 42;
+
+        @Parameter(names = "-recording", description = "The path of the TSV recording to replay. If empty, a " +
+                "synthetic day is generated. Default: empty.")
+        private String recording = DEFAULT_RECORDING;
+
+        @Parameter(names = "-writeRecording", description = "The path to write the replayed recording to, e.g. to " +
+                "keep a generated day. Default: empty.")
+        private String writeRecording = DEFAULT_WRITE_RECORDING;
+
+        @Parameter(names = "-transactions", description = "The number of transactions in the generated day. " +
+                "Default: 10000.")
+        private int transactions = DEFAULT_TRANSACTIONS;
+
+        @Parameter(names = "-warmupTransactions", description = "The number of generated transactions replayed " +
+                "before measuring. Default: 2000.")
+        private int warmupTransactions = DEFAULT_WARMUP_TRANSACTIONS;
+
+        @Parameter(names = "-seed", description = "The seed of the generated day. Default: 42.")
+        private long seed = DEFAULT_SEED;
+    }
+
+    /**
+     * Result of a replay.
+     *
+     * @param events             the number of events replayed
+     * @param transactions       the number of transactions that were completed or voided
+     * @param errors             the number of error events dispatched
+     * @param elapsedNanos       the time the replay took
+     * @param allocatedBytes     the number of bytes allocated by the replaying thread, or -1 if not supported
+     * @param latencyStatsByType the latency stats per replayed event type
+     */
+    public record Result(long events, long transactions, long errors, long elapsedNanos, long allocatedBytes,
+                         @NonNull Map<PosEventType, LatencyStats> latencyStatsByType) {
+
+        public double eventsPerSecond() {
+            return events / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        public double transactionsPerSecond() {
+            return transactions / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        public double allocatedMegabytesPerSecond() {
+            return allocatedBytes / (1024.0 * 1024.0) / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        public long allocatedBytesPerEvent() {
+            return events == 0 ? 0 : allocatedBytes / events;
+        }
+
+        /**
+         * Format the result as a human-readable report.
+         *
+         * @return the report
+         */
+        public String toReport() {
+            StringBuilder report = new StringBuilder();
+            report.append(String.format("Events: %d, transactions: %d, errors: %d, elapsed: %.3f s%n", events,
+                    transactions, errors, elapsedNanos / 1_000_000_000.0));
+            report.append(String.format("Throughput: %.1f events/s, %.1f transactions/s%n", eventsPerSecond(),
+                    transactionsPerSecond()));
+            if (allocatedBytes >= 0) {
+                report.append(String.format("Allocation: %.1f MB/s, %d bytes/event%n",
+                        allocatedMegabytesPerSecond(), allocatedBytesPerEvent()));
+            } else {
+                report.append("Allocation: not supported by this JVM").append(System.lineSeparator());
+            }
+            latencyStatsByType.values().forEach(stats -> report.append(stats).append(System.lineSeparator()));
+            return report.toString();
+        }
+    }
+
+    private static final int LATENCY_SAMPLE_CAPACITY = 1 << 16;
+
+    private final ItemService itemService;
+
+    /**
+     * Constructor that accepts the item service with the item book already loaded. The item service is shared by
+     * every replay, while each replay gets a fresh lane with its own transactions.
+     *
+     * @param itemService the item service
+     */
+    public ReplayBenchmark(@NonNull ItemService itemService) {
+        this.itemService = itemService;
+    }
+
+    /**
+     * Get the sorted UPCs of the items in the item book, e.g. to generate a recording.
+     *
+     * @return the item UPCs
+     */
+    public List<String> getItemUpcs() {
+        return itemService.getAllItems().stream().map(Item::getUpc).sorted().toList();
+    }
+
+    /**
+     * Replay the events against a fresh headless lane. Each event is dispatched and then delivered with
+     * {@link PosComponent#update()}, which is what push mode does on the Event Dispatch Thread.
+     *
+     * @param events the events to replay
+     * @return the result of the replay
+     */
+    public Result replay(@NonNull List<PosEvent> events) {
+        PosComponent posComponent = createHeadlessPosComponent();
+        long[] transactionsAndErrors = new long[2];
+        posComponent.registerPosEventListener(new IPosEventListener() {
+            @Override
+            public @NonNull Set<PosEventType> getEventTypesToListenFor() {
+                return EnumSet.of(PosEventType.TRANSACTION_COMPLETED, PosEventType.TRANSACTION_VOIDED,
+                        PosEventType.ERROR);
+            }
+
+            @Override
+            public void onPosEvent(@NonNull PosEvent event) {
+                transactionsAndErrors[event.getType() == PosEventType.ERROR ? 1 : 0]++;
+            }
+        });
+        posComponent.bootUp();
+        posComponent.update();
+
+        Map<PosEventType, LatencyStats> latencyStatsByType = new EnumMap<>(PosEventType.class);
+        for (PosEvent event : events) {
+            latencyStatsByType.computeIfAbsent(event.getType(),
+                    type -> new LatencyStats(type.name(), LATENCY_SAMPLE_CAPACITY));
+        }
+
+        long allocatedBytesBefore = getAllocatedBytes();
+        long start = System.nanoTime();
+        for (PosEvent event : events) {
+            long eventStart = System.nanoTime();
+            posComponent.dispatchPosEvent(event);
+            posComponent.update();
+            latencyStatsByType.get(event.getType()).record(System.nanoTime() - eventStart);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        long allocatedBytesAfter = getAllocatedBytes();
+
+        long allocatedBytes = allocatedBytesBefore >= 0 && allocatedBytesAfter >= 0 ?
+                allocatedBytesAfter - allocatedBytesBefore : -1;
+        return new Result(events.size(), transactionsAndErrors[0], transactionsAndErrors[1], elapsedNanos,
+                allocatedBytes, latencyStatsByType);
+    }
+
+    private PosComponent createHeadlessPosComponent() {
+        TransactionService transactionService =
+                new TransactionService(new InMemoryTransactionRepository(), itemService, new TaxService());
+        PosComponent posComponent = new PosComponent(service -> {
+        }, transactionService, itemService, new StubDiscountService());
+
+        PosSystem posSystem = new PosSystem();
+        posSystem.setId(UUID.randomUUID().toString());
+        posSystem.setStoreName("Benchmark Store");
+        posSystem.setPosLane(1);
+        posComponent.setPosSystem(posSystem);
+        return posComponent;
+    }
+
+    private static long getAllocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadMXBean &&
+                threadMXBean.isThreadAllocatedMemorySupported()) {
+            return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * The main entry point for the replay benchmark. The item book is loaded from the TSV file configured in the
+     * application properties.
+     *
+     * @param args the command line arguments
+     * @throws IOException if the recording cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        Arguments arguments = new Arguments();
+        JCommander jCommander = JCommander.newBuilder().addObject(arguments).build();
+        try {
+            jCommander.parse(args);
+        } catch (ParameterException e) {
+            System.err.println("[ReplayBenchmark] Error while parsing parameters: " + e.getMessage());
+            jCommander.usage();
+            System.exit(1);
+        }
+        System.out.println("[ReplayBenchmark] Starting replay benchmark with args: " + arguments);
+
+        ItemService itemService = new ItemService(new InMemoryItemRepository());
+        new LocalTestTsvItemBookLoaderComponent().loadItemBook(itemService);
+        ReplayBenchmark benchmark = new ReplayBenchmark(itemService);
+
+        List<PosEvent> events = arguments.getRecording().isBlank() ?
+                PosEventRecording.generateDay(benchmark.getItemUpcs(), arguments.getTransactions(),
+                        arguments.getSeed()) :
+                PosEventRecording.read(Paths.get(arguments.getRecording()));
+        if (!arguments.getWriteRecording().isBlank()) {
+            PosEventRecording.write(Paths.get(arguments.getWriteRecording()), events);
+        }
+
+        if (arguments.getWarmupTransactions() > 0) {
+            List<PosEvent> warmupEvents = PosEventRecording.generateDay(benchmark.getItemUpcs(),
+                    arguments.getWarmupTransactions(), arguments.getSeed() + 1);
+            Result warmupResult = benchmark.replay(warmupEvents);
+            System.out.printf("[ReplayBenchmark] Warmup: %d events in %.3f s%n", warmupResult.events(),
+                    warmupResult.elapsedNanos() / 1_000_000_000.0);
+        }
+
+        Result result = benchmark.replay(events);
+        System.out.println("[ReplayBenchmark] Result:");
+        System.out.print(result.toReport());
+    }
+}
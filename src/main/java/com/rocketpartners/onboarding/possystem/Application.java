@@ -4,19 +4,32 @@ import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.ParameterException;
 import com.formdev.flatlaf.FlatLightLaf;
+import com.rocketpartners.onboarding.commons.model.Item;
 import com.rocketpartners.onboarding.commons.model.PosSystem;
+import com.rocketpartners.onboarding.possystem.component.HeadlessLaneRunner;
 import com.rocketpartners.onboarding.possystem.component.ItemBookLoaderComponent;
+import com.rocketpartners.onboarding.possystem.component.LaneHost;
 import com.rocketpartners.onboarding.possystem.component.LocalTestTsvItemBookLoaderComponent;
 import com.rocketpartners.onboarding.possystem.component.PosComponent;
+import com.rocketpartners.onboarding.possystem.component.PosEventRecording;
+import com.rocketpartners.onboarding.possystem.component.StubDiscountService;
 import com.rocketpartners.onboarding.possystem.component.journal.LocalJournal;
 import com.rocketpartners.onboarding.possystem.component.journal.RemoteJournal;
+import com.rocketpartners.onboarding.possystem.component.journal.SpillJournal;
 import com.rocketpartners.onboarding.possystem.display.*;
+import com.rocketpartners.onboarding.possystem.event.AsyncPosEventListener;
+import com.rocketpartners.onboarding.possystem.event.PosEvent;
+import com.rocketpartners.onboarding.possystem.event.PosEventLog;
+import com.rocketpartners.onboarding.possystem.repository.CachingItemRepository;
 import com.rocketpartners.onboarding.possystem.repository.ItemRepository;
 import com.rocketpartners.onboarding.possystem.repository.PosSystemRepository;
 import com.rocketpartners.onboarding.possystem.repository.TransactionRepository;
+import com.rocketpartners.onboarding.possystem.repository.WriteBehindTransactionRepository;
+import com.rocketpartners.onboarding.possystem.repository.inmemory.CompactInMemoryItemRepository;
 import com.rocketpartners.onboarding.possystem.repository.inmemory.InMemoryItemRepository;
 import com.rocketpartners.onboarding.possystem.repository.inmemory.InMemoryPosSystemRepository;
 import com.rocketpartners.onboarding.possystem.repository.inmemory.InMemoryTransactionRepository;
+import com.rocketpartners.onboarding.possystem.repository.mapped.MappedItemRepository;
 import com.rocketpartners.onboarding.possystem.repository.mysql.*;
 import com.rocketpartners.onboarding.possystem.service.*;
 import lombok.Getter;
@@ -26,7 +39,16 @@ import lombok.ToString;
 
 import javax.swing.*;
 import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 /**
  * The main entry point for the Point of Sale application. Starts up a new {@link PosComponent} with the
@@ -36,6 +58,8 @@ public class Application {
 
     public static boolean DEBUG;
 
+    private static final long SHUTDOWN_TIMEOUT_MS = 5000;
+
     /**
      * Command line arguments for the Point of Sale application.
      */
@@ -56,6 +80,27 @@ public class Application {
         private static final String DEFAULT_REMOTE_JOURNAL_HOST = "localhost";
         private static final String DEFAULT_REMOTE_JOURNAL_PORT = "12345";
         private static final int DEFAULT_LANE_NUMBER = 1;
+        private static final String DEFAULT_EVENT_DELIVERY = "push";
+        private static final int DEFAULT_UPDATE_INTERVAL_MS = 500;
+        private static final int DEFAULT_REMOTE_JOURNAL_QUEUE_CAPACITY = 1024;
+        private static final String DEFAULT_REMOTE_JOURNAL_OVERFLOW_POLICY = "drop_oldest";
+        private static final String DEFAULT_REMOTE_JOURNAL_SPILL_FILE = "remote-journal.spill";
+        private static final String DEFAULT_EVENT_LOG_PATH = "";
+        private static final long DEFAULT_EVENT_LOG_FSYNC_INTERVAL_MS = 100;
+        private static final String DEFAULT_HEADLESS_INPUT = "";
+        private static final long DEFAULT_HEADLESS_TRANSACTIONS = 1000;
+        private static final long DEFAULT_HEADLESS_SEED = 42;
+        private static final int DEFAULT_HEADLESS_TRANSACTIONS_PER_MINUTE = 0;
+        private static final String DEFAULT_HEADLESS_DISCOUNTS = "stub";
+        private static final int DEFAULT_LANES = 8;
+        private static final int DEFAULT_DISCOUNT_ENGINE_MAX_CONNECTIONS = 20;
+        private static final boolean DEFAULT_RUNNING_TOTALS = true;
+        private static final int DEFAULT_RUNNING_TOTALS_VERIFICATION_INTERVAL = 64;
+        private static final long DEFAULT_WRITE_BEHIND_FLUSH_INTERVAL_MS = 200;
+        private static final String DEFAULT_ITEM_CATALOG = "map";
+        private static final String DEFAULT_ITEM_CATALOG_FILE = "pricebook.catalog";
+        private static final int DEFAULT_ITEM_CACHE_SIZE = 10_000;
+        private static final long DEFAULT_ITEM_CACHE_TTL_MS = 60_000;
 
         @Parameter(names = "-debug", description = "Enable debug mode. Values: true, false. Default: false.")
         private boolean debug = DEFAULT_DEBUG;
@@ -79,7 +124,9 @@ public class Application {
                 description = "NOT IMPLEMENTED! The MySQL database password. Default: password.")
         private String mySqlPassword = DEFAULT_MYSQL_PASSWORD;
 
-        @Parameter(names = "-appMode", description = "The mode of the application. Values: dev, prod. Default: dev.")
+        @Parameter(names = "-appMode", description = "The mode of the application. Values: dev, prod, headless " +
+                "(no views, scanner input from a recording or generator), lanehost (many headless lanes in one " +
+                "process). Default: dev.")
         private String appMode = DEFAULT_APP_MODE;
 
         @Parameter(names = "-storeName", description = "The name of the store. Default: Rocket Partners Store.")
@@ -96,6 +143,95 @@ public class Application {
 
         @Parameter(names = "-remoteJournalPort", description = "The port of the remote journal. Default: 12345.")
         private int remoteJournalPort = Integer.parseInt(DEFAULT_REMOTE_JOURNAL_PORT);
+
+        @Parameter(names = "-remoteJournalQueueCapacity", description = "The maximum number of events waiting to be " +
+                "written to the remote journal. Default: 1024.")
+        private int remoteJournalQueueCapacity = DEFAULT_REMOTE_JOURNAL_QUEUE_CAPACITY;
+
+        @Parameter(names = "-remoteJournalOverflowPolicy", description = "What to do with an event when the remote " +
+                "journal queue is full. Values: drop_newest, drop_oldest, block, spill (append to the spill file). " +
+                "Default: drop_oldest.")
+        private String remoteJournalOverflowPolicy = DEFAULT_REMOTE_JOURNAL_OVERFLOW_POLICY;
+
+        @Parameter(names = "-remoteJournalSpillFile", description = "The file the events that do not fit in the " +
+                "remote journal queue are appended to with the spill overflow policy. Default: remote-journal.spill.")
+        private String remoteJournalSpillFile = DEFAULT_REMOTE_JOURNAL_SPILL_FILE;
+
+        @Parameter(names = "-eventLogPath", description = "The path of the event log used to restore the transaction " +
+                "in progress after a crash. The event log is disabled if empty. Default: empty.")
+        private String eventLogPath = DEFAULT_EVENT_LOG_PATH;
+
+        @Parameter(names = "-eventLogFsyncIntervalMs", description = "How often in milliseconds the event log is " +
+                "forced to disk. 0 forces every append, a negative value leaves it to the OS. Default: 100.")
+        private long eventLogFsyncIntervalMs = DEFAULT_EVENT_LOG_FSYNC_INTERVAL_MS;
+
+        @Parameter(names = "-headlessInput", description = "The path of the TSV recording of scanner input replayed " +
+                "in headless mode. If empty, the input is generated. Default: empty.")
+        private String headlessInput = DEFAULT_HEADLESS_INPUT;
+
+        @Parameter(names = "-headlessTransactions", description = "The number of transactions generated in headless " +
+                "mode, or a negative number to run until stopped. Default: 1000.")
+        private long headlessTransactions = DEFAULT_HEADLESS_TRANSACTIONS;
+
+        @Parameter(names = "-headlessSeed", description = "The seed of the generated headless input. Default: 42.")
+        private long headlessSeed = DEFAULT_HEADLESS_SEED;
+
+        @Parameter(names = "-headlessTransactionsPerMinute", description = "The target number of transactions per " +
+                "minute in headless mode, or 0 to run unthrottled. Default: 0.")
+        private int headlessTransactionsPerMinute = DEFAULT_HEADLESS_TRANSACTIONS_PER_MINUTE;
+
+        @Parameter(names = "-headlessDiscounts", description = "Where discounts come from in headless mode. Values: " +
+                "stub (no discounts), engine (the discount engine). Default: stub.")
+        private String headlessDiscounts = DEFAULT_HEADLESS_DISCOUNTS;
+
+        @Parameter(names = "-lanes", description = "The number of lanes in lanehost mode, numbered from the lane " +
+                "number. Default: 8.")
+        private int lanes = DEFAULT_LANES;
+
+        @Parameter(names = "-discountEngineMaxConnections", description = "The maximum number of pooled " +
+                "connections to the discount engine shared by the lanes in lanehost mode. Default: 20.")
+        private int discountEngineMaxConnections = DEFAULT_DISCOUNT_ENGINE_MAX_CONNECTIONS;
+
+        @Parameter(names = "-runningTotals", arity = 1, description = "Maintain the subtotal, taxes, and total of a " +
+                "transaction by applying only the change of each scanned, removed, or voided item instead of " +
+                "recomputing every line item. Values: true, false. Default: true.")
+        private boolean runningTotals = DEFAULT_RUNNING_TOTALS;
+
+        @Parameter(names = "-runningTotalsVerificationInterval", description = "Every how many running totals " +
+                "updates a full recompute verifies the subtotal, or 0 to never verify. Default: 64.")
+        private int runningTotalsVerificationInterval = DEFAULT_RUNNING_TOTALS_VERIFICATION_INTERVAL;
+
+        @Parameter(names = "-writeBehindFlushIntervalMs", description = "How often in milliseconds the MySQL " +
+                "transactions saved while scanning are written in one batch. Transactions are also written when they " +
+                "are completed or voided. 0 writes every save immediately. Default: 200.")
+        private long writeBehindFlushIntervalMs = DEFAULT_WRITE_BEHIND_FLUSH_INTERVAL_MS;
+
+        @Parameter(names = "-itemCatalog", description = "How the in-memory item catalog is stored. Values: map " +
+                "(item objects in a map), compact (primitive arrays, for item books of millions of items), mapped " +
+                "(read-only catalog file built by MappedItemCatalogBuilder, memory-mapped instead of loading the " +
+                "item book). Default: map.")
+        private String itemCatalog = DEFAULT_ITEM_CATALOG;
+
+        @Parameter(names = "-itemCatalogFile", description = "The catalog file of the mapped item catalog. Default: " +
+                "pricebook.catalog.")
+        private String itemCatalogFile = DEFAULT_ITEM_CATALOG_FILE;
+
+        @Parameter(names = "-itemCacheSize", description = "The maximum number of UPCs whose MySQL item lookups " +
+                "are cached, or 0 to not cache them. Default: 10000.")
+        private int itemCacheSize = DEFAULT_ITEM_CACHE_SIZE;
+
+        @Parameter(names = "-itemCacheTtlMs", description = "The time in milliseconds after which a cached item " +
+                "lookup is looked up in MySQL again and the UPC filter is rebuilt, or 0 to never expire them. " +
+                "Default: 60000.")
+        private long itemCacheTtlMs = DEFAULT_ITEM_CACHE_TTL_MS;
+
+        @Parameter(names = "-eventDelivery", description = "How POS events are delivered to listeners. Values: push " +
+                "(delivered right after dispatch), poll (delivered on the update timer only). Default: push.")
+        private String eventDelivery = DEFAULT_EVENT_DELIVERY;
+
+        @Parameter(names = "-updateIntervalMs",
+                description = "The interval in milliseconds of the update timer. Default: 500.")
+        private int updateIntervalMs = DEFAULT_UPDATE_INTERVAL_MS;
     }
 
     private record Services(@NonNull PosSystemService posSystemService, @NonNull ItemService itemService,
@@ -137,8 +273,15 @@ public class Application {
         } else if (mode.equals("prod")) {
             // Starts the application with a production database.
             startProdApplication(arguments);
+        } else if (mode.equals("headless")) {
+            // Starts a lane without any views on the main thread, e.g. to soak test on a machine without a display.
+            startHeadlessApplication(arguments);
+        } else if (mode.equals("lanehost")) {
+            // Starts many headless lanes in one process that share the item catalog and the services.
+            startLaneHostApplication(arguments);
         } else {
-            throw new RuntimeException("Invalid mode: " + mode + ". Please use 'dev' or 'prod'");
+            throw new RuntimeException("Invalid mode: " + mode + ". Please use 'dev', 'prod', 'headless', or " +
+                    "'lanehost'");
         }
     }
 
@@ -151,7 +294,7 @@ public class Application {
                         "[Application] Starting Point of Sale application in dev mode with args: " + arguments);
             }
 
-            ItemBookLoaderComponent itemBookLoaderComponent = new LocalTestTsvItemBookLoaderComponent();
+            ItemBookLoaderComponent itemBookLoaderComponent = createItemBookLoaderComponent(arguments);
             Services services = createServices(arguments);
 
             String storeName = arguments.getStoreName();
@@ -168,13 +311,32 @@ public class Application {
             }
             posComponent.setPosSystem(posSystem);
 
+            // The event log records the changes to the transaction in progress so that it can be restored when the
+            // POS component boots up after a crash.
+            String eventLogPath = arguments.getEventLogPath();
+            if (!eventLogPath.isBlank()) {
+                try {
+                    posComponent.setEventLog(
+                            new PosEventLog(Paths.get(eventLogPath), arguments.getEventLogFsyncIntervalMs()));
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to open event log: " + eventLogPath, e);
+                }
+            }
+
             LocalJournal localJournal = new LocalJournal();
             posComponent.registerPosEventListener(localJournal);
 
+            // The remote journal writes to a blocking socket, so it runs on its own worker thread. Otherwise, a slow
+            // or unresponsive journal server would freeze the whole register.
             RemoteJournal remoteJournal =
                     new RemoteJournal(arguments.getRemoteJournalHost(), arguments.getRemoteJournalPort());
-            posComponent.registerPosEventListener(remoteJournal);
-            posComponent.registerChildComponent(remoteJournal);
+            // The spill journal is not registered for events, since the local journal already receives them. The async
+            // remote journal boots it up and shuts it down after its queue has drained.
+            SpillJournal spillJournal = new SpillJournal(Paths.get(arguments.getRemoteJournalSpillFile()));
+            AsyncPosEventListener asyncRemoteJournal = new AsyncPosEventListener("RemoteJournal", remoteJournal,
+                    arguments.getRemoteJournalQueueCapacity(), getOverflowPolicy(arguments), spillJournal);
+            posComponent.registerPosEventListener(asyncRemoteJournal);
+            posComponent.registerChildComponent(asyncRemoteJournal);
 
             CustomerViewController customerViewController =
                     new CustomerViewController(posComponent, storeName, laneNumber);
@@ -210,38 +372,253 @@ public class Application {
                     new PoleDisplayViewController("Pole Display View - Lane " + laneNumber);
             posComponent.registerPosEventListener(poleDisplayViewController);
 
+            // In push mode, every dispatch schedules a delivery of the pending events on the Event Dispatch Thread
+            // (EDT). Dispatches made before the scheduled delivery runs are coalesced into that one delivery, so
+            // listeners see events within the same EDT turn instead of waiting for the next timer tick.
+            String eventDelivery = arguments.getEventDelivery();
+            if (eventDelivery.equals("push")) {
+                posComponent.setDeliveryScheduler(SwingUtilities::invokeLater);
+            } else if (!eventDelivery.equals("poll")) {
+                throw new RuntimeException("Invalid event delivery: " + eventDelivery + ". Please use 'push' or " +
+                        "'poll'.");
+            }
+
             // Boot up the POS component and all child components.
             posComponent.bootUp();
 
             // The javax.swing.Timer ensures that the action performed in the ActionListener is executed on the Event
             // Dispatch Thread (EDT). Also, by default, the Timer ensures that the next update is scheduled only after
-            // the previous one completes because it runs on the same thread.
-            Timer timer = new Timer(500, e -> posComponent.update());
+            // the previous one completes because it runs on the same thread. In push mode, the timer is only a
+            // fallback heartbeat that updates the child components and delivers any events that were left pending.
+            Timer timer = new Timer(arguments.getUpdateIntervalMs(), e -> posComponent.update());
             timer.setRepeats(true);
             timer.start();
 
             // The shutdown hook is used to ensure that the application is properly shut down when the JVM is stopped.
+            // The timer and the push deliveries use the POS component on the EDT, so the timer is stopped first and the
+            // POS component is shut down on the EDT.
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
                 System.out.println("[Application] Shutting down Point of Sale application...");
-                posComponent.shutDown();
                 timer.stop();
+                System.out.println("[Application] " + posComponent.getDeliveryLatencyStats());
+                System.out.println("[Application] POS event cascades: roots=" + posComponent.getRootEventCount() +
+                        ", max depth=" + posComponent.getMaxCascadeDepth());
+                System.out.println("[Application] " + asyncRemoteJournal);
+                shutDownOnEventDispatchThread(posComponent);
             }));
         });
     }
 
+    private static void shutDownOnEventDispatchThread(@NonNull PosComponent posComponent) {
+        FutureTask<Void> shutDown = new FutureTask<>(posComponent::shutDown, null);
+        SwingUtilities.invokeLater(shutDown);
+        try {
+            shutDown.get(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // The EDT is blocked, e.g. in a call to System.exit, so it no longer uses the POS component either
+            if (shutDown.cancel(false)) {
+                System.err.println("[Application] The Event Dispatch Thread is blocked, shutting down the POS " +
+                        "component on the shutdown hook thread");
+                posComponent.shutDown();
+            }
+        } catch (ExecutionException e) {
+            System.err.println("[Application] Failed to shut down the POS component: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void startHeadlessApplication(@NonNull Arguments arguments) {
+        if (Application.DEBUG) {
+            System.out.println("[Application] Starting Point of Sale application in headless mode with args: " +
+                    arguments);
+        }
+
+        Services services = createServices(arguments);
+        DiscountService discountService = getHeadlessDiscountService(arguments, services.discountService());
+
+        String storeName = arguments.getStoreName();
+        int laneNumber = arguments.getLaneNumber();
+
+        PosComponent posComponent = new PosComponent(createItemBookLoaderComponent(arguments),
+                services.transactionService(), services.itemService(), discountService);
+        PosSystem posSystem;
+        if (services.posSystemService().posSystemExistsByStoreNameAndPosLane(storeName, laneNumber)) {
+            posSystem = services.posSystemService().getPosSystemByStoreNameAndPosLane(storeName, laneNumber);
+        } else {
+            posSystem = services.posSystemService().createAndPersist(storeName, laneNumber);
+        }
+        posComponent.setPosSystem(posSystem);
+
+        String eventLogPath = arguments.getEventLogPath();
+        if (!eventLogPath.isBlank()) {
+            try {
+                posComponent.setEventLog(
+                        new PosEventLog(Paths.get(eventLogPath), arguments.getEventLogFsyncIntervalMs()));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to open event log: " + eventLogPath, e);
+            }
+        }
+
+        // Events are delivered by the runner right after each dispatch, so no delivery scheduler or update timer is
+        // needed.
+        HeadlessLaneRunner headlessLaneRunner = new HeadlessLaneRunner(posComponent,
+                createHeadlessInputSourceSupplier(arguments, readHeadlessInput(arguments), services.itemService(),
+                        arguments.getHeadlessSeed()), arguments.getHeadlessTransactionsPerMinute());
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (headlessLaneRunner.isRunning()) {
+                System.out.println("[Application] Stopping headless Point of Sale application...");
+                headlessLaneRunner.stop();
+                headlessLaneRunner.awaitStopped(5000);
+            }
+            System.out.println("[Application] POS event cascades: roots=" + posComponent.getRootEventCount() +
+                    ", max depth=" + posComponent.getMaxCascadeDepth());
+        }));
+
+        headlessLaneRunner.run();
+    }
+
+    private static void startLaneHostApplication(@NonNull Arguments arguments) {
+        if (Application.DEBUG) {
+            System.out.println("[Application] Starting Point of Sale application in lanehost mode with args: " +
+                    arguments);
+        }
+
+        int laneCount = arguments.getLanes();
+        if (laneCount <= 0) {
+            throw new RuntimeException("Invalid number of lanes: " + laneCount + ". Please use a positive number.");
+        }
+
+        // All lanes share the repositories, the services, and one pooled discount engine client.
+        Repositories repositories = createRepositories(arguments);
+        ItemService itemService = createItemService(arguments, repositories.itemRepository());
+        TransactionService transactionService = createTransactionService(arguments,
+                repositories.transactionRepository(), itemService, new TaxService());
+        DiscountService discountService = getHeadlessDiscountService(arguments,
+                new DiscountService(arguments.getDiscountEngineBaseUrl(), arguments.getDiscountEngineMaxConnections()));
+        PosSystemService posSystemService = new PosSystemService(repositories.posSystemRepository());
+
+        LaneHost laneHost = new LaneHost(createItemBookLoaderComponent(arguments), itemService, transactionService,
+                discountService, posSystemService, arguments.getStoreName());
+        List<PosEvent> recording = readHeadlessInput(arguments);
+        for (int i = 0; i < laneCount; i++) {
+            int laneNumber = arguments.getLaneNumber() + i;
+            LaneHost.Lane lane = laneHost.addLane(laneNumber,
+                    createHeadlessInputSourceSupplier(arguments, recording, itemService,
+                            arguments.getHeadlessSeed() + laneNumber),
+                    arguments.getHeadlessTransactionsPerMinute());
+
+            // Each lane gets its own event log, since a log only holds the transaction in progress of one lane.
+            String eventLogPath = arguments.getEventLogPath();
+            if (!eventLogPath.isBlank()) {
+                String laneEventLogPath = eventLogPath + ".lane" + laneNumber;
+                try {
+                    lane.posComponent().setEventLog(
+                            new PosEventLog(Paths.get(laneEventLogPath), arguments.getEventLogFsyncIntervalMs()));
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to open event log: " + laneEventLogPath, e);
+                }
+            }
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (laneHost.getRunningLaneCount() > 0) {
+                System.out.println("[Application] Stopping lane host...");
+                laneHost.stop();
+                laneHost.awaitStopped(5000);
+            }
+            System.out.println("[Application] " + laneHost);
+        }));
+
+        laneHost.start();
+        while (!laneHost.awaitStopped(10000)) {
+            System.out.println("[Application] " + laneHost);
+        }
+    }
+
+    private static DiscountService getHeadlessDiscountService(@NonNull Arguments arguments,
+                                                              @NonNull DiscountService engineDiscountService) {
+        return switch (arguments.getHeadlessDiscounts()) {
+            case "stub" -> new StubDiscountService();
+            case "engine" -> engineDiscountService;
+            default -> throw new RuntimeException("Invalid headless discounts: " + arguments.getHeadlessDiscounts() +
+                    ". Please use 'stub' or 'engine'.");
+        };
+    }
+
+    private static List<PosEvent> readHeadlessInput(@NonNull Arguments arguments) {
+        String headlessInput = arguments.getHeadlessInput();
+        if (headlessInput.isBlank()) {
+            return null;
+        }
+        try {
+            return PosEventRecording.read(Paths.get(headlessInput));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read headless input: " + headlessInput, e);
+        }
+    }
+
+    private static Supplier<Iterator<PosEvent>> createHeadlessInputSourceSupplier(@NonNull Arguments arguments,
+                                                                                  List<PosEvent> recording,
+                                                                                  @NonNull ItemService itemService,
+                                                                                  long seed) {
+        if (recording != null) {
+            return recording::iterator;
+        }
+        // The generator is created after boot up because it picks items from the loaded item book.
+        return () -> {
+            List<String> itemUpcs = itemService.getAllItems().stream().map(Item::getUpc).sorted().toList();
+            return PosEventRecording.generate(itemUpcs, arguments.getHeadlessTransactions(), seed);
+        };
+    }
+
+    private static AsyncPosEventListener.OverflowPolicy getOverflowPolicy(@NonNull Arguments arguments) {
+        String overflowPolicy = arguments.getRemoteJournalOverflowPolicy();
+        try {
+            return AsyncPosEventListener.OverflowPolicy.valueOf(overflowPolicy.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid remote journal overflow policy: " + overflowPolicy + ". Please use " +
+                    "'drop_newest', 'drop_oldest', 'block', or 'spill'.");
+        }
+    }
+
     private static Services createServices(@NonNull Arguments arguments) {
         Repositories repositories = createRepositories(arguments);
 
         PosSystemService posSystemService = new PosSystemService(repositories.posSystemRepository());
-        ItemService itemService = new ItemService(repositories.itemRepository());
+        ItemService itemService = createItemService(arguments, repositories.itemRepository());
         DiscountService discountService = new DiscountService(arguments.getDiscountEngineBaseUrl());
         TaxService taxService = new TaxService();
         TransactionService transactionService =
-                new TransactionService(repositories.transactionRepository(), itemService, taxService);
+                createTransactionService(arguments, repositories.transactionRepository(), itemService, taxService);
 
         return new Services(posSystemService, itemService, discountService, taxService, transactionService);
     }
 
+    private static ItemService createItemService(@NonNull Arguments arguments, @NonNull ItemRepository itemRepository) {
+        ItemService itemService = new ItemService(itemRepository);
+        // Other lane processes can add items to MySQL, which the UPC filter would otherwise reject forever
+        if (arguments.getDbSource().equals("mysql")) {
+            itemService.setUpcFilterMaxAgeMs(arguments.getItemCacheTtlMs());
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() ->
+                System.out.println("[Application] UPC filter: hits=" + itemService.getUpcFilterHitCount() +
+                        ", misses=" + itemService.getUpcFilterMissCount() + ", false positives=" +
+                        itemService.getUpcFilterFalsePositiveCount())));
+        return itemService;
+    }
+
+    private static TransactionService createTransactionService(@NonNull Arguments arguments,
+                                                               @NonNull TransactionRepository transactionRepository,
+                                                               @NonNull ItemService itemService,
+                                                               @NonNull TaxService taxService) {
+        TransactionService transactionService = new TransactionService(transactionRepository, itemService, taxService);
+        transactionService.setRunningTotals(arguments.isRunningTotals());
+        transactionService.setVerificationInterval(arguments.getRunningTotalsVerificationInterval());
+        return transactionService;
+    }
+
     private static Repositories createRepositories(@NonNull Arguments arguments) {
         String dbSource = arguments.getDbSource();
 
@@ -252,7 +629,7 @@ public class Application {
         if (dbSource.equals("inmemory")) {
             transactionRepository = new InMemoryTransactionRepository();
             posSystemRepository = new InMemoryPosSystemRepository();
-            itemRepository = new InMemoryItemRepository();
+            itemRepository = createInMemoryItemRepository(arguments);
         } else if (dbSource.equals("mysql")) {
             String url = arguments.getMySqlUrl();
             String username = arguments.getMySqlUser();
@@ -262,9 +639,31 @@ public class Application {
                 MySQLDatabaseInitializer.getInstance().initializeDatabase(url, dbName, username, password);
 
                 DatabaseConnectionManager connectionManager = new DatabaseConnectionManager(url, username, password);
-                transactionRepository = new MySQLTransactionRepository(connectionManager);
+                MySQLTransactionRepository mySqlTransactionRepository =
+                        new MySQLTransactionRepository(connectionManager);
+                Runtime.getRuntime().addShutdownHook(new Thread(() ->
+                        System.out.println("[Application] " + mySqlTransactionRepository)));
+                transactionRepository = mySqlTransactionRepository;
+                // Scans save the transaction on every change, so the saves are batched instead of each opening a
+                // connection on the Event Dispatch Thread.
+                if (arguments.getWriteBehindFlushIntervalMs() > 0) {
+                    WriteBehindTransactionRepository writeBehindTransactionRepository =
+                            new WriteBehindTransactionRepository(transactionRepository,
+                                    arguments.getWriteBehindFlushIntervalMs());
+                    Runtime.getRuntime().addShutdownHook(new Thread(() ->
+                            System.out.println("[Application] " + writeBehindTransactionRepository)));
+                    transactionRepository = writeBehindTransactionRepository;
+                }
                 posSystemRepository = new MySQLPosSystemRepository(connectionManager);
                 itemRepository = new MySQLItemRepository(connectionManager);
+                // Items are looked up several times per scan, and each lookup would open a connection.
+                if (arguments.getItemCacheSize() > 0) {
+                    CachingItemRepository cachingItemRepository = new CachingItemRepository(itemRepository,
+                            arguments.getItemCacheSize(), arguments.getItemCacheTtlMs());
+                    Runtime.getRuntime().addShutdownHook(new Thread(() ->
+                            System.out.println("[Application] " + cachingItemRepository)));
+                    itemRepository = cachingItemRepository;
+                }
             } catch (Exception e) {
                 System.err.println("Failed to initialize MySQL assets: " + e.getMessage());
                 throw new RuntimeException("Failed to initialize MySQL assets", e);
@@ -276,6 +675,30 @@ public class Application {
         return new Repositories(posSystemRepository, itemRepository, transactionRepository);
     }
 
+    private static ItemRepository createInMemoryItemRepository(@NonNull Arguments arguments) {
+        String itemCatalog = arguments.getItemCatalog();
+        return switch (itemCatalog) {
+            case "map" -> new InMemoryItemRepository();
+            case "compact" -> new CompactInMemoryItemRepository();
+            case "mapped" -> new MappedItemRepository(Paths.get(arguments.getItemCatalogFile()));
+            default -> throw new RuntimeException("Invalid item catalog: " + itemCatalog + ". Please use 'map', " +
+                    "'compact', or 'mapped'.");
+        };
+    }
+
+    private static ItemBookLoaderComponent createItemBookLoaderComponent(@NonNull Arguments arguments) {
+        // The mapped item catalog is built from the item book ahead of time and is read-only
+        if (arguments.getDbSource().equals("inmemory") && arguments.getItemCatalog().equals("mapped")) {
+            return itemService -> {
+                if (Application.DEBUG) {
+                    System.out.println("[Application] Using the item book of the mapped item catalog: " +
+                            arguments.getItemCatalogFile());
+                }
+            };
+        }
+        return new LocalTestTsvItemBookLoaderComponent();
+    }
+
     private static void startProdApplication(@NonNull Arguments arguments) {
         if (Application.DEBUG) {
             System.out.println("Starting Point of Sale application in production mode with args: " + arguments);
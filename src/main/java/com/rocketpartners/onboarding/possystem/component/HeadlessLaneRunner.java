@@ -0,0 +1,207 @@
+package com.rocketpartners.onboarding.possystem.component;
+
+import com.rocketpartners.onboarding.possystem.Application;
+import com.rocketpartners.onboarding.possystem.event.IPosEventListener;
+import com.rocketpartners.onboarding.possystem.event.PosEvent;
+import com.rocketpartners.onboarding.possystem.event.PosEventType;
+import lombok.NonNull;
+import lombok.Setter;
+
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Runs a {@link PosComponent} without any views, feeding it the events of a scripted or generated scanner input
+ * source on the calling thread. This is used to soak test the services and the persistence layer on a machine
+ * without a display. Each event is dispatched and then delivered with {@link PosComponent#update()}, so the lane
+ * processes one scanner input at a time, just like a cashier would.
+ * <p>
+ * The runner can be throttled to a target number of transactions per minute, where the end of a transaction is the
+ * {@link PosEventType#REQUEST_RESET_POS} event. Progress is printed periodically unless reporting is turned off, e.g.
+ * when a {@link LaneHost} reports the progress of all its lanes instead.
+ */
+public class HeadlessLaneRunner implements IPosEventListener {
+
+    private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final PosComponent posComponent;
+    private final Supplier<Iterator<PosEvent>> inputSourceSupplier;
+    private final long transactionIntervalNanos;
+    private final AtomicLong completedCount;
+    private final AtomicLong voidedCount;
+    private final AtomicLong errorCount;
+    private final AtomicLong dispatchedCount;
+    private final CountDownLatch stoppedLatch;
+
+    @Setter
+    private boolean reportingProgress;
+    private volatile boolean running;
+    private volatile boolean stopRequested;
+    private volatile long startNanos;
+
+    /**
+     * Constructor that accepts the POS component, the supplier of the scanner input source, and the target number of
+     * transactions per minute. The supplier is called after the POS component has booted up, so that a generated
+     * source can use the item book loaded during boot up.
+     *
+     * @param posComponent                The POS component to run. The POS system must already be set.
+     * @param inputSourceSupplier         The supplier of the scanner input source.
+     * @param targetTransactionsPerMinute The target number of transactions per minute, or 0 to run unthrottled.
+     */
+    public HeadlessLaneRunner(@NonNull PosComponent posComponent,
+                              @NonNull Supplier<Iterator<PosEvent>> inputSourceSupplier,
+                              int targetTransactionsPerMinute) {
+        if (targetTransactionsPerMinute < 0) {
+            throw new IllegalArgumentException("Target transactions per minute cannot be negative");
+        }
+        this.posComponent = posComponent;
+        this.inputSourceSupplier = inputSourceSupplier;
+        transactionIntervalNanos =
+                targetTransactionsPerMinute > 0 ? TimeUnit.MINUTES.toNanos(1) / targetTransactionsPerMinute : 0L;
+        completedCount = new AtomicLong();
+        voidedCount = new AtomicLong();
+        errorCount = new AtomicLong();
+        dispatchedCount = new AtomicLong();
+        stoppedLatch = new CountDownLatch(1);
+        reportingProgress = true;
+        posComponent.registerPosEventListener(this);
+    }
+
+    @Override
+    public @NonNull Set<PosEventType> getEventTypesToListenFor() {
+        return EnumSet.of(PosEventType.TRANSACTION_COMPLETED, PosEventType.TRANSACTION_VOIDED, PosEventType.ERROR);
+    }
+
+    @Override
+    public void onPosEvent(@NonNull PosEvent event) {
+        switch (event.getType()) {
+            case TRANSACTION_COMPLETED -> completedCount.incrementAndGet();
+            case TRANSACTION_VOIDED -> voidedCount.incrementAndGet();
+            case ERROR -> {
+                errorCount.incrementAndGet();
+                if (Application.DEBUG) {
+                    System.err.println("[HeadlessLaneRunner] Error event: " + event);
+                }
+            }
+        }
+    }
+
+    /**
+     * Boot up the POS component, feed it the scanner input source until the source is exhausted or {@link #stop()}
+     * is called, and shut the POS component down. This method blocks the calling thread.
+     */
+    public void run() {
+        running = true;
+        try {
+            posComponent.bootUp();
+            posComponent.update();
+
+            Iterator<PosEvent> inputSource = inputSourceSupplier.get();
+            startNanos = System.nanoTime();
+            long nextReportNanos = startNanos + REPORT_INTERVAL_NANOS;
+            long endedTransactions = 0;
+            while (!stopRequested && inputSource.hasNext()) {
+                PosEvent event = inputSource.next();
+                posComponent.dispatchPosEvent(event);
+                posComponent.update();
+                dispatchedCount.incrementAndGet();
+
+                if (event.getType() == PosEventType.REQUEST_RESET_POS) {
+                    endedTransactions++;
+                    if (transactionIntervalNanos > 0) {
+                        awaitNanos(startNanos + endedTransactions * transactionIntervalNanos);
+                    }
+                }
+
+                long now = System.nanoTime();
+                if (reportingProgress && now >= nextReportNanos) {
+                    System.out.println("[HeadlessLaneRunner] " + this);
+                    nextReportNanos = now + REPORT_INTERVAL_NANOS;
+                }
+            }
+        } finally {
+            running = false;
+            posComponent.shutDown();
+            if (reportingProgress) {
+                System.out.println("[HeadlessLaneRunner] Finished: " + this);
+            }
+            stoppedLatch.countDown();
+        }
+    }
+
+    /**
+     * Ask the runner to stop after the event it is currently processing. If the runner has not started yet, it stops
+     * right after booting up.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Wait for the runner to stop, e.g. from a shutdown hook after calling {@link #stop()}.
+     *
+     * @param timeoutMs The maximum time to wait in milliseconds.
+     * @return True if the runner stopped, false if the timeout elapsed first.
+     */
+    public boolean awaitStopped(long timeoutMs) {
+        try {
+            return stoppedLatch.await(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public long getCompletedCount() {
+        return completedCount.get();
+    }
+
+    public long getVoidedCount() {
+        return voidedCount.get();
+    }
+
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+
+    public long getDispatchedCount() {
+        return dispatchedCount.get();
+    }
+
+    /**
+     * Get the number of completed and voided transactions per minute since the input source started.
+     *
+     * @return The transactions per minute, or 0 if the runner has not started yet.
+     */
+    public double getTransactionsPerMinute() {
+        if (startNanos == 0L) {
+            return 0.0;
+        }
+        long elapsedNanos = Math.max(1L, System.nanoTime() - startNanos);
+        return (getCompletedCount() + getVoidedCount()) * (double) TimeUnit.MINUTES.toNanos(1) / elapsedNanos;
+    }
+
+    private void awaitNanos(long deadlineNanos) {
+        long remainingNanos;
+        while (!stopRequested && (remainingNanos = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remainingNanos);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("HeadlessLaneRunner(dispatched=%d, completed=%d, voided=%d, errors=%d, " +
+                        "transactions/min=%.1f, %s)", getDispatchedCount(), getCompletedCount(), getVoidedCount(),
+                getErrorCount(), getTransactionsPerMinute(), posComponent.getDeliveryLatencyStats());
+    }
+}
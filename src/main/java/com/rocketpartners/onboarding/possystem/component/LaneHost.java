@@ -0,0 +1,215 @@
+package com.rocketpartners.onboarding.possystem.component;
+
+import com.rocketpartners.onboarding.commons.model.PosSystem;
+import com.rocketpartners.onboarding.possystem.Application;
+import com.rocketpartners.onboarding.possystem.event.PosEvent;
+import com.rocketpartners.onboarding.possystem.service.DiscountService;
+import com.rocketpartners.onboarding.possystem.service.ItemService;
+import com.rocketpartners.onboarding.possystem.service.PosSystemService;
+import com.rocketpartners.onboarding.possystem.service.TransactionService;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Hosts many headless lanes in one process. Each lane is a {@link PosComponent} with its own
+ * {@link HeadlessLaneRunner} event loop on its own thread, while the item catalog, the transaction service, and the
+ * discount service are shared by all lanes. The item book is loaded once by the host instead of once per lane, which
+ * is where most of the memory of a lane used to go.
+ * <p>
+ * The shared services must be safe for concurrent use, e.g. backed by the in-memory repositories or MySQL and a
+ * pooled {@link DiscountService}.
+ */
+public class LaneHost {
+
+    /**
+     * A lane of the host.
+     *
+     * @param laneNumber   The lane number.
+     * @param posComponent The POS component of the lane.
+     * @param runner       The event loop of the lane.
+     */
+    public record Lane(int laneNumber, @NonNull PosComponent posComponent, @NonNull HeadlessLaneRunner runner) {
+    }
+
+    // The item book is loaded once by the host, so the lanes must not load it again.
+    private static final ItemBookLoaderComponent SHARED_ITEM_BOOK = itemService -> {
+    };
+
+    private final ItemBookLoaderComponent itemBookLoaderComponent;
+    private final ItemService itemService;
+    private final TransactionService transactionService;
+    private final DiscountService discountService;
+    private final PosSystemService posSystemService;
+    @Getter
+    private final String storeName;
+    private final List<Lane> lanes;
+    private final List<Thread> threads;
+
+    private boolean started;
+
+    /**
+     * Constructor that accepts the item book loader and the services shared by all lanes.
+     *
+     * @param itemBookLoaderComponent The item book loader, called once when the host starts.
+     * @param itemService             The shared item service.
+     * @param transactionService      The shared transaction service.
+     * @param discountService         The shared discount service.
+     * @param posSystemService        The POS system service used to look up or create the POS system of each lane.
+     * @param storeName               The name of the store of the lanes.
+     */
+    public LaneHost(@NonNull ItemBookLoaderComponent itemBookLoaderComponent, @NonNull ItemService itemService,
+                    @NonNull TransactionService transactionService, @NonNull DiscountService discountService,
+                    @NonNull PosSystemService posSystemService, @NonNull String storeName) {
+        this.itemBookLoaderComponent = itemBookLoaderComponent;
+        this.itemService = itemService;
+        this.transactionService = transactionService;
+        this.discountService = discountService;
+        this.posSystemService = posSystemService;
+        this.storeName = storeName;
+        lanes = new ArrayList<>();
+        threads = new ArrayList<>();
+    }
+
+    /**
+     * Add a lane to the host. Lanes must be added before the host is started.
+     *
+     * @param laneNumber                  The lane number.
+     * @param inputSourceSupplier         The supplier of the scanner input source of the lane. It is called on the
+     *                                    lane thread after the item book has been loaded.
+     * @param targetTransactionsPerMinute The target number of transactions per minute of the lane, or 0 to run
+     *                                    unthrottled.
+     * @return The added lane, e.g. to set an event log on its POS component.
+     */
+    public synchronized Lane addLane(int laneNumber, @NonNull Supplier<Iterator<PosEvent>> inputSourceSupplier,
+                                     int targetTransactionsPerMinute) {
+        if (started) {
+            throw new IllegalStateException("Cannot add a lane after the lane host has started");
+        }
+        if (lanes.stream().anyMatch(lane -> lane.laneNumber() == laneNumber)) {
+            throw new IllegalArgumentException("Lane " + laneNumber + " already exists");
+        }
+
+        PosComponent posComponent =
+                new PosComponent(SHARED_ITEM_BOOK, transactionService, itemService, discountService);
+        PosSystem posSystem;
+        if (posSystemService.posSystemExistsByStoreNameAndPosLane(storeName, laneNumber)) {
+            posSystem = posSystemService.getPosSystemByStoreNameAndPosLane(storeName, laneNumber);
+        } else {
+            posSystem = posSystemService.createAndPersist(storeName, laneNumber);
+        }
+        posComponent.setPosSystem(posSystem);
+
+        HeadlessLaneRunner runner =
+                new HeadlessLaneRunner(posComponent, inputSourceSupplier, targetTransactionsPerMinute);
+        runner.setReportingProgress(false);
+
+        Lane lane = new Lane(laneNumber, posComponent, runner);
+        lanes.add(lane);
+        return lane;
+    }
+
+    /**
+     * Load the item book and start the thread of every lane.
+     */
+    public synchronized void start() {
+        if (started) {
+            throw new IllegalStateException("Lane host has already started");
+        }
+        started = true;
+
+        long start = System.nanoTime();
+        itemBookLoaderComponent.loadItemBook(itemService);
+        if (Application.DEBUG) {
+            System.out.println("[LaneHost] Loaded item book in " +
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        }
+
+        for (Lane lane : lanes) {
+            Thread thread = new Thread(() -> {
+                try {
+                    lane.runner().run();
+                } catch (RuntimeException e) {
+                    System.err.println("[LaneHost] Lane " + lane.laneNumber() + " failed: " + e.getMessage());
+                }
+            }, "lane-" + lane.laneNumber());
+            threads.add(thread);
+            thread.start();
+        }
+        System.out.println("[LaneHost] Started " + lanes.size() + " lanes for store " + storeName);
+    }
+
+    /**
+     * Ask every lane to stop after the event it is currently processing.
+     */
+    public synchronized void stop() {
+        lanes.forEach(lane -> lane.runner().stop());
+    }
+
+    /**
+     * Wait for the threads of all lanes to finish.
+     *
+     * @param timeoutMs The maximum time to wait in milliseconds, shared by all lanes.
+     * @return True if every lane finished, false if the timeout elapsed first.
+     */
+    public boolean awaitStopped(long timeoutMs) {
+        List<Thread> threads;
+        synchronized (this) {
+            threads = new ArrayList<>(this.threads);
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        try {
+            for (Thread thread : threads) {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) {
+                    break;
+                }
+                thread.join(remainingMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return threads.stream().noneMatch(Thread::isAlive);
+    }
+
+    /**
+     * Get the lanes of the host.
+     *
+     * @return An unmodifiable view of the lanes.
+     */
+    public synchronized List<Lane> getLanes() {
+        return Collections.unmodifiableList(new ArrayList<>(lanes));
+    }
+
+    /**
+     * Get the number of lanes whose event loop is still running.
+     *
+     * @return The number of running lanes.
+     */
+    public synchronized int getRunningLaneCount() {
+        return (int) lanes.stream().filter(lane -> lane.runner().isRunning()).count();
+    }
+
+    @Override
+    public synchronized String toString() {
+        long completed = 0;
+        long voided = 0;
+        long errors = 0;
+        double transactionsPerMinute = 0.0;
+        for (Lane lane : lanes) {
+            completed += lane.runner().getCompletedCount();
+            voided += lane.runner().getVoidedCount();
+            errors += lane.runner().getErrorCount();
+            transactionsPerMinute += lane.runner().getTransactionsPerMinute();
+        }
+        return String.format("LaneHost(store=%s, lanes=%d, running=%d, completed=%d, voided=%d, errors=%d, " +
+                        "transactions/min=%.1f)", storeName, lanes.size(), getRunningLaneCount(), completed, voided,
+                errors, transactionsPerMinute);
+    }
+}
@@ -3,21 +3,22 @@ package com.rocketpartners.onboarding.possystem.component;
 import com.rocketpartners.onboarding.commons.model.*;
 import com.rocketpartners.onboarding.commons.utils.UtilMethods;
 import com.rocketpartners.onboarding.possystem.Application;
-import com.rocketpartners.onboarding.possystem.constant.ConstKeys;
 import com.rocketpartners.onboarding.possystem.constant.ConstVals;
 import com.rocketpartners.onboarding.possystem.constant.TransactionState;
-import com.rocketpartners.onboarding.possystem.event.IPosEventListener;
-import com.rocketpartners.onboarding.possystem.event.IPosEventManager;
-import com.rocketpartners.onboarding.possystem.event.PosEvent;
-import com.rocketpartners.onboarding.possystem.event.PosEventType;
+import com.rocketpartners.onboarding.possystem.event.*;
+import com.rocketpartners.onboarding.possystem.metrics.LatencyStats;
 import com.rocketpartners.onboarding.possystem.service.DiscountService;
 import com.rocketpartners.onboarding.possystem.service.ItemService;
 import com.rocketpartners.onboarding.possystem.service.TransactionService;
+import com.rocketpartners.onboarding.possystem.utils.Money;
 import lombok.*;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -31,10 +32,41 @@ public class PosComponent implements IComponent, IPosEventManager {
     private final TransactionService transactionService;
     private final ItemService itemService;
     private final DiscountService discountService;
+    private final TransactionDtoCache transactionDtoCache;
 
-    private final Map<PosEventType, List<PosEvent>> events;
     private final Set<IComponent> childComponents;
     private final Set<IPosEventListener> posEventListeners;
+    private final Map<PosEventType, PosEventRoute[]> posEventRoutes;
+    private PosEventRoute[] coalescingRoutes;
+
+    private List<PosEvent> pendingEvents;
+    private List<PosEvent> deliveringEvents;
+    private boolean delivering;
+
+    @Getter
+    private final LatencyStats deliveryLatencyStats;
+    @Setter
+    private IPosEventDeliveryScheduler deliveryScheduler;
+    private boolean deliveryScheduled;
+    private long oldestPendingEventNanos;
+    @Getter
+    private long coalescedEventCount;
+
+    @Setter
+    private PosEventLog eventLog;
+    private final AtomicInteger flushedTransactionNumber;
+    private int lastEndedTransactionNumber;
+    private boolean endedTransactionInEventLog;
+
+    private final PosEventWorkQueue workQueue;
+    private boolean draining;
+    private int currentCascadeDepth;
+    @Getter
+    private int lastCascadeDepth;
+    @Getter
+    private int maxCascadeDepth;
+    @Getter
+    private long rootEventCount;
 
     @Getter
     private boolean on;
@@ -69,10 +101,17 @@ public class PosComponent implements IComponent, IPosEventManager {
         this.transactionService = transactionService;
         this.itemService = itemService;
         this.discountService = discountService;
+        transactionDtoCache = new TransactionDtoCache(itemService, transactionService);
 
-        events = new EnumMap<>(PosEventType.class);
         childComponents = new LinkedHashSet<>();
         posEventListeners = new LinkedHashSet<>();
+        posEventRoutes = new EnumMap<>(PosEventType.class);
+        coalescingRoutes = new PosEventRoute[0];
+        pendingEvents = new ArrayList<>();
+        deliveringEvents = new ArrayList<>();
+        workQueue = new PosEventWorkQueue();
+        deliveryLatencyStats = new LatencyStats("POS event delivery latency");
+        flushedTransactionNumber = new AtomicInteger();
         transactionState = TransactionState.NOT_STARTED;
         transactionNumber = 1;
     }
@@ -80,18 +119,70 @@ public class PosComponent implements IComponent, IPosEventManager {
     /**
      * {@inheritDoc}
      * <p>
-     * In this implementation, this {@link PosComponent} instance listens and acts on the event immediately. However,
-     * {@link IPosEventListener} instances do not receive the event until the {@link #update()} method call is made.
+     * In this implementation, this {@link PosComponent} instance listens and acts on the event immediately. Events
+     * dispatched while another event is being handled are queued and handled after it in the order they were
+     * dispatched, so handling runs to completion iteratively instead of recursing through nested dispatches. The
+     * deepest cascade caused by each root event is recorded, see {@link #getLastCascadeDepth()} and
+     * {@link #getMaxCascadeDepth()}. If an event handler throws an exception, then the remaining queued events are
+     * discarded and the exception is rethrown.
+     * <p>
+     * If a {@link IPosEventDeliveryScheduler} is set, then a delivery of the pending events to the
+     * {@link IPosEventListener} instances is scheduled right away; multiple dispatches before the scheduled delivery
+     * runs are coalesced into a single delivery. Otherwise, the listeners do not receive the event until the
+     * {@link #update()} method call is made.
      *
      * @param event The event to dispatch.
      */
     @Override
     public void dispatchPosEvent(@NonNull PosEvent event) {
-        handlePosEvent(event);
-        PosEventType type = event.getType();
-        List<PosEvent> eventsOfType = events.getOrDefault(type, new ArrayList<>());
-        eventsOfType.add(event);
-        events.put(type, eventsOfType);
+        if (draining) {
+            workQueue.offer(event, currentCascadeDepth + 1);
+            return;
+        }
+
+        workQueue.offer(event, 0);
+        draining = true;
+        int rootCascadeDepth = 0;
+        try {
+            while (!workQueue.isEmpty()) {
+                currentCascadeDepth = workQueue.peekDepth();
+                rootCascadeDepth = Math.max(rootCascadeDepth, currentCascadeDepth);
+                PosEvent next = workQueue.poll();
+                handlePosEvent(next);
+                pendingEvents.add(next);
+                scheduleDelivery();
+            }
+        } catch (RuntimeException e) {
+            workQueue.clear();
+            throw e;
+        } finally {
+            draining = false;
+            currentCascadeDepth = 0;
+            recordCascadeDepth(event, rootCascadeDepth);
+        }
+    }
+
+    private void recordCascadeDepth(@NonNull PosEvent rootEvent, int cascadeDepth) {
+        rootEventCount++;
+        lastCascadeDepth = cascadeDepth;
+        if (cascadeDepth > maxCascadeDepth) {
+            maxCascadeDepth = cascadeDepth;
+        }
+        if (Application.DEBUG && cascadeDepth > 0) {
+            System.out.println("[PosComponent] Root event " + rootEvent.getType() + " cascaded to depth " +
+                    cascadeDepth + " (max: " + maxCascadeDepth + ")");
+        }
+    }
+
+    private void scheduleDelivery() {
+        if (oldestPendingEventNanos == 0L) {
+            oldestPendingEventNanos = System.nanoTime();
+        }
+        if (deliveryScheduler == null || deliveryScheduled) {
+            return;
+        }
+        deliveryScheduled = true;
+        deliveryScheduler.scheduleDelivery(this::deliverPosEvents);
     }
 
     private void handlePosEvent(@NonNull PosEvent event) {
@@ -101,6 +192,7 @@ public class PosComponent implements IComponent, IPosEventManager {
             case REQUEST_OPEN_POLE_DISPLAY -> handleRequestOpenPoleDisplay();
             case REQUEST_SHOW_DISCOUNTS -> handleRequestShowDiscounts();
             case REQUEST_ADD_ITEM -> handleRequestAddItem(event);
+            case ITEM_ADDED -> handleItemAdded(event);
             case REQUEST_REMOVE_ITEM -> handleRequestRemoveItem(event);
             case REQUEST_UPDATE_QUICK_ITEMS -> handleRequestUpdateQuickItems();
             case REQUEST_VOID_LINE_ITEMS -> handleRequestVoidLineItems(event);
@@ -120,7 +212,7 @@ public class PosComponent implements IComponent, IPosEventManager {
             String error = "Cannot start transaction when transaction state is not NOT_STARTED. Current transaction " +
                     "state: " + transactionState;
             System.err.println(error);
-            dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+            dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             return;
         }
 
@@ -152,11 +244,11 @@ public class PosComponent implements IComponent, IPosEventManager {
         } catch (Exception e) {
             String error = "Failed to get discounts: " + e.getMessage();
             System.err.println(error);
-            dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+            dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             return;
         }
 
-        dispatchPosEvent(new PosEvent(PosEventType.DO_SHOW_DISCOUNTS, Map.of(ConstKeys.DISCOUNTS, discounts)));
+        dispatchPosEvent(new PosEvent(PosEventType.DO_SHOW_DISCOUNTS, PosEventKey.DISCOUNTS, discounts));
     }
 
     private void handleRequestAddItem(@NonNull PosEvent event) {
@@ -164,7 +256,7 @@ public class PosComponent implements IComponent, IPosEventManager {
             if (Application.DEBUG) {
                 System.out.println("[PosComponent] Request to add item deferred until after transaction " + "starts");
             }
-            dispatchPosEvent(new PosEvent(PosEventType.REQUEST_START_TRANSACTION, event.getCopyOfProps()));
+            dispatchPosEvent(event.copyAs(PosEventType.REQUEST_START_TRANSACTION));
             return;
         }
 
@@ -173,45 +265,52 @@ public class PosComponent implements IComponent, IPosEventManager {
                 String error = "Cannot add item to transaction when transaction state is not SCANNING_IN_PROGRESS. " +
                         "Current transaction state: " + transactionState;
                 System.err.println(error);
-                dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+                dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             }
 
             if (!isTransactionEditable()) {
                 String error = "Cannot add item to transaction when transaction is not editable. Current " +
                         "transaction state: " + transactionState;
                 System.err.println(error);
-                dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+                dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             }
 
             return;
         }
 
-        String itemUpc = event.getProperty(ConstKeys.ITEM_UPC, String.class);
+        if (event.containsProperty(PosEventKey.ITEM_UPCS) || event.containsProperty(PosEventKey.QUANTITY)) {
+            addItemBatch(event);
+            return;
+        }
+
+        String itemUpc = event.getProperty(PosEventKey.ITEM_UPC, String.class);
 
         if (itemUpc == null) {
             String error = "Cannot add item to transaction because item UPC is null";
             System.err.println(error);
-            dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+            dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             return;
         }
 
         if (itemUpc.isBlank()) {
             String error = "Cannot add item to transaction because item UPC is blank";
             System.err.println(error);
-            dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+            dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             return;
         }
 
         if (itemService.itemExists(itemUpc) && transactionService.addItemToTransaction(transaction, itemUpc)) {
+            appendToEventLog(PosEventType.ITEM_ADDED, itemUpc);
+
             TransactionDto transactionDto = getTransactionDto();
 
             Item item = itemService.getItemByUpc(itemUpc);
             ItemDto itemDto = ItemDto.from(item);
 
             dispatchPosEvent(new PosEvent(PosEventType.ITEM_ADDED,
-                    Map.of(ConstKeys.ITEM_DTO, itemDto, ConstKeys.TRANSACTION_DTO, transactionDto)));
+                    PosEventKey.ITEM_DTO, itemDto, PosEventKey.TRANSACTION_DTO, transactionDto));
             dispatchPosEvent(new PosEvent(PosEventType.LOG,
-                    Map.of(ConstKeys.MESSAGE, "Item " + itemUpc + " added to transaction.")));
+                    PosEventKey.MESSAGE, "Item " + itemUpc + " added to transaction."));
 
             if (Application.DEBUG) {
                 System.out.println("[PosComponent] Item added to transaction: " + itemUpc);
@@ -219,7 +318,119 @@ public class PosComponent implements IComponent, IPosEventManager {
         } else {
             String error = "Cannot add item to transaction because item with UPC [ " + itemUpc + " ] does not exist";
             System.err.println(error);
-            dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+            dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
+        }
+    }
+
+    /**
+     * Add a batch of items to the transaction. The UPCs are the {@link PosEventKey#ITEM_UPCS} of the event, in which a
+     * UPC may appear more than once, or else its {@link PosEventKey#ITEM_UPC}, and each of them is added
+     * {@link PosEventKey#QUANTITY} times, which defaults to one. The batch is applied atomically: if any UPC is blank
+     * or unknown, or the quantity is invalid, then nothing is added. Otherwise, the transaction is recomputed and
+     * saved once, and a single {@link PosEventType#ITEM_ADDED} event carries the DTO of every added item.
+     */
+    private void addItemBatch(@NonNull PosEvent event) {
+        List<String> itemUpcs = new ArrayList<>();
+        if (event.containsProperty(PosEventKey.ITEM_UPCS)) {
+            Object property = event.getProperty(PosEventKey.ITEM_UPCS);
+            if (!(property instanceof Collection<?> collection)) {
+                String error = "Cannot add items to transaction because item UPCs is not a collection: " + property;
+                System.err.println(error);
+                dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
+                return;
+            }
+            collection.forEach(it -> itemUpcs.add(it != null ? it.toString() : null));
+        } else {
+            itemUpcs.add(event.getProperty(PosEventKey.ITEM_UPC, String.class));
+        }
+
+        Integer quantity = parseQuantity(event.getProperty(PosEventKey.QUANTITY));
+        if (quantity == null) {
+            String error = "Cannot add items to transaction because quantity is not a positive whole number: " +
+                    event.getProperty(PosEventKey.QUANTITY);
+            System.err.println(error);
+            dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
+            return;
+        }
+
+        Map<String, Integer> quantitiesByUpc = new LinkedHashMap<>();
+        for (String itemUpc : itemUpcs) {
+            if (itemUpc == null || itemUpc.isBlank() || !itemService.itemExists(itemUpc)) {
+                String error = "Cannot add items to transaction because item with UPC [ " + itemUpc + " ] does not " +
+                        "exist. No items of the batch were added.";
+                System.err.println(error);
+                dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
+                return;
+            }
+            quantitiesByUpc.merge(itemUpc, quantity, Integer::sum);
+        }
+
+        if (quantitiesByUpc.isEmpty() || !transactionService.addItemsToTransaction(transaction, quantitiesByUpc)) {
+            String error = "Cannot add items to transaction because the batch is empty";
+            System.err.println(error);
+            dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
+            return;
+        }
+
+        String[] logFields = new String[quantitiesByUpc.size() * 2];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : quantitiesByUpc.entrySet()) {
+            logFields[i++] = entry.getKey();
+            logFields[i++] = String.valueOf(entry.getValue());
+        }
+        appendToEventLog(PosEventType.ITEM_ADDED, logFields);
+
+        TransactionDto transactionDto = getTransactionDto();
+        List<ItemDto> itemDtos = new ArrayList<>(quantitiesByUpc.size());
+        quantitiesByUpc.keySet().forEach(itemUpc -> itemDtos.add(ItemDto.from(itemService.getItemByUpc(itemUpc))));
+
+        dispatchPosEvent(new PosEvent(PosEventType.ITEM_ADDED,
+                PosEventKey.ITEM_DTO, itemDtos.get(itemDtos.size() - 1), PosEventKey.ITEM_DTOS, itemDtos,
+                PosEventKey.TRANSACTION_DTO, transactionDto));
+        dispatchPosEvent(new PosEvent(PosEventType.LOG,
+                PosEventKey.MESSAGE, "Items " + quantitiesByUpc + " added to transaction."));
+
+        if (Application.DEBUG) {
+            System.out.println("[PosComponent] Items added to transaction: " + quantitiesByUpc);
+        }
+    }
+
+    /**
+     * Parse the quantity of a batch, which is an Integer when dispatched by a view and a String when read from a
+     * recording.
+     *
+     * @param property The quantity property. (Nullable)
+     * @return The quantity, one if the property is null, or null if it is not a positive whole number.
+     */
+    private static Integer parseQuantity(Object property) {
+        if (property == null) {
+            return 1;
+        }
+        int quantity;
+        if (property instanceof Integer integer) {
+            quantity = integer;
+        } else {
+            try {
+                quantity = Integer.parseInt(property.toString().trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return quantity > 0 ? quantity : null;
+    }
+
+    /**
+     * Count the added items towards the most scanned items offered as quick items. A batch counts each of its items
+     * once, no matter the quantity.
+     */
+    private void handleItemAdded(@NonNull PosEvent event) {
+        Collection<?> itemDtos = event.containsProperty(PosEventKey.ITEM_DTOS) ?
+                (Collection<?>) event.getProperty(PosEventKey.ITEM_DTOS) :
+                Collections.singletonList(event.getProperty(PosEventKey.ITEM_DTO));
+        for (Object itemDto : itemDtos) {
+            if (itemDto instanceof ItemDto dto && dto.getUpc() != null) {
+                itemService.recordItemScanned(dto.getUpc());
+            }
         }
     }
 
@@ -229,41 +440,43 @@ public class PosComponent implements IComponent, IPosEventManager {
                 String error = "Cannot remove item from transaction when transaction state is not " +
                         "SCANNING_IN_PROGRESS. " + "Current transaction state: " + transactionState;
                 System.err.println(error);
-                dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+                dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             }
 
             if (!isTransactionEditable()) {
                 String error = "Cannot remove item from transaction when transaction is not editable. Current " +
                         "transaction state: " + transactionState;
                 System.err.println(error);
-                dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+                dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             }
 
             return;
         }
 
-        String itemUpc = event.getProperty(ConstKeys.ITEM_UPC, String.class);
+        String itemUpc = event.getProperty(PosEventKey.ITEM_UPC, String.class);
         if (itemUpc == null) {
             String error = "Cannot remove item from transaction because item UPC is null";
             System.err.println(error);
-            dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+            dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             return;
         }
 
         if (itemService.itemExists(itemUpc) && transactionService.removeItemFromTransaction(transaction, itemUpc)) {
+            appendToEventLog(PosEventType.ITEM_REMOVED, itemUpc);
+
             TransactionDto transactionDto = getTransactionDto();
 
             Item item = itemService.getItemByUpc(itemUpc);
             ItemDto itemDto = ItemDto.from(item);
 
             dispatchPosEvent(new PosEvent(PosEventType.ITEM_REMOVED,
-                    Map.of(ConstKeys.ITEM_DTO, itemDto, ConstKeys.TRANSACTION_DTO, transactionDto)));
+                    PosEventKey.ITEM_DTO, itemDto, PosEventKey.TRANSACTION_DTO, transactionDto));
             dispatchPosEvent(new PosEvent(PosEventType.LOG,
-                    Map.of(ConstKeys.MESSAGE, "Item " + itemUpc + " removed from transaction.")));
+                    PosEventKey.MESSAGE, "Item " + itemUpc + " removed from transaction."));
         } else {
             String error = "Cannot remove item from transaction because item with UPC " + itemUpc + " does not exist";
             System.err.println(error);
-            dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+            dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
         }
     }
 
@@ -274,7 +487,7 @@ public class PosComponent implements IComponent, IPosEventManager {
                         "Cannot void line items when transaction is not in progress. Current " + "transaction state: " +
                                 transactionState;
                 System.err.println(error);
-                dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+                dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             }
 
             if (!isTransactionEditable()) {
@@ -282,27 +495,28 @@ public class PosComponent implements IComponent, IPosEventManager {
                         "Cannot void line items when transaction is not editable. Current " + "transaction state: " +
                                 transactionState;
                 System.err.println(error);
-                dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+                dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             }
 
             return;
         }
 
-        Collection<String> itemUpcs = (Collection<String>) event.getProperty(ConstKeys.ITEM_UPCS);
+        Collection<String> itemUpcs = (Collection<String>) event.getProperty(PosEventKey.ITEM_UPCS);
         if (itemUpcs == null) {
             String error = "Cannot void line items because item UPCs is null";
             System.err.println(error);
-            dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+            dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             return;
         }
 
         itemUpcs.forEach(it -> transactionService.voidLineItemInTransaction(transaction, it));
+        appendToEventLog(PosEventType.LINE_ITEMS_VOIDED, itemUpcs.toArray(new String[0]));
 
         TransactionDto transactionDto = getTransactionDto();
         dispatchPosEvent(
-                new PosEvent(PosEventType.LINE_ITEMS_VOIDED, Map.of(ConstKeys.TRANSACTION_DTO, transactionDto)));
+                new PosEvent(PosEventType.LINE_ITEMS_VOIDED, PosEventKey.TRANSACTION_DTO, transactionDto));
         dispatchPosEvent(new PosEvent(PosEventType.LOG,
-                Map.of(ConstKeys.MESSAGE, "Line items voided from transaction: " + itemUpcs)));
+                PosEventKey.MESSAGE, "Line items voided from transaction: " + itemUpcs));
     }
 
     private void handleRequestVoidTransaction() {
@@ -311,7 +525,7 @@ public class PosComponent implements IComponent, IPosEventManager {
                 String error = "Cannot void transaction when transaction is not in progress. Current " +
                         "transaction state: " + transactionState;
                 System.err.println(error);
-                dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+                dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             }
 
             if (!isTransactionEditable()) {
@@ -319,7 +533,7 @@ public class PosComponent implements IComponent, IPosEventManager {
                         "Cannot void transaction when transaction is not editable. Current " + "transaction state: " +
                                 transactionState;
                 System.err.println(error);
-                dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+                dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             }
 
             return;
@@ -333,17 +547,17 @@ public class PosComponent implements IComponent, IPosEventManager {
             String error = "Cannot update quick items when transaction state is not SCANNING_IN_PROGRESS. Current " +
                     "transaction state: " + transactionState;
             System.err.println(error);
-            dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+            dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             return;
         }
 
         Set<String> itemUpcsInTransaction =
                 transaction.getLineItems().stream().map(LineItem::getItemUpc).collect(Collectors.toSet());
         List<ItemDto> quickItemDtos =
-                itemService.getRandomItemsNotIn(itemUpcsInTransaction, ConstVals.QUICK_ITEMS_COUNT).stream()
+                itemService.getQuickItemsNotIn(itemUpcsInTransaction, ConstVals.QUICK_ITEMS_COUNT).stream()
                         .map(ItemDto::from).toList();
 
-        dispatchPosEvent(new PosEvent(PosEventType.DO_UPDATE_QUICK_ITEMS, Map.of(ConstKeys.ITEM_DTOS, quickItemDtos)));
+        dispatchPosEvent(new PosEvent(PosEventType.DO_UPDATE_QUICK_ITEMS, PosEventKey.ITEM_DTOS, quickItemDtos));
     }
 
     private void handleRequestStartPayWithCardProcess() {
@@ -354,21 +568,21 @@ public class PosComponent implements IComponent, IPosEventManager {
         if (transactionState != TransactionState.SCANNING_IN_PROGRESS) {
             String error = "Cannot start card payment process when transaction state is not SCANNING_IN_PROGRESS";
             System.err.println(error);
-            dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+            dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             return;
         }
 
         if (transaction.getLineItems().isEmpty()) {
             String error = "Cannot start card payment process when transaction has no line items";
             System.err.println(error);
-            dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+            dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             return;
         }
 
         if (transaction.getLineItems().stream().allMatch(LineItem::isVoided)) {
             String error = "Cannot start card payment process when transaction has only voided line items";
             System.err.println(error);
-            dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+            dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             return;
         }
 
@@ -376,7 +590,7 @@ public class PosComponent implements IComponent, IPosEventManager {
         computeDiscountsAndSave();
 
         dispatchPosEvent(new PosEvent(PosEventType.START_PAY_WITH_CARD_PROCESS));
-        dispatchPosEvent(new PosEvent(PosEventType.LOG, Map.of(ConstKeys.MESSAGE, "Card payment process started.")));
+        dispatchPosEvent(new PosEvent(PosEventType.LOG, PosEventKey.MESSAGE, "Card payment process started."));
     }
 
     private void handleRequestStartPayWithCashProcesss() {
@@ -387,21 +601,21 @@ public class PosComponent implements IComponent, IPosEventManager {
         if (transactionState != TransactionState.SCANNING_IN_PROGRESS) {
             String error = "Cannot start cash payment process when transaction state is not SCANNING_IN_PROGRESS";
             System.err.println(error);
-            dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+            dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             return;
         }
 
         if (transaction.getLineItems().isEmpty()) {
             String error = "Cannot start cash payment process when transaction has no line items";
             System.err.println(error);
-            dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+            dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             return;
         }
 
         if (transaction.getLineItems().stream().allMatch(LineItem::isVoided)) {
             String error = "Cannot start cash payment process when transaction has only voided line items";
             System.err.println(error);
-            dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+            dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             return;
         }
 
@@ -409,7 +623,7 @@ public class PosComponent implements IComponent, IPosEventManager {
         computeDiscountsAndSave();
 
         dispatchPosEvent(new PosEvent(PosEventType.START_PAY_WITH_CASH_PROCESS));
-        dispatchPosEvent(new PosEvent(PosEventType.LOG, Map.of(ConstKeys.MESSAGE, "Cash payment process started.")));
+        dispatchPosEvent(new PosEvent(PosEventType.LOG, PosEventKey.MESSAGE, "Cash payment process started."));
     }
 
     private void computeDiscountsAndSave() {
@@ -419,7 +633,7 @@ public class PosComponent implements IComponent, IPosEventManager {
         } catch (Exception e) {
             String error = "Failed to compute discounts for transaction: " + e.getMessage();
             System.err.println(error);
-            dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+            dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             return;
         }
 
@@ -430,7 +644,7 @@ public class PosComponent implements IComponent, IPosEventManager {
         computation.getAppliedDiscounts().forEach(
                 (itemUpc, discount) -> builder.append("\n\tItem: ").append(itemUpc).append(", Discount: ")
                         .append(discount));
-        dispatchPosEvent(new PosEvent(PosEventType.LOG, Map.of(ConstKeys.MESSAGE, "Discounts applied: " + builder)));
+        dispatchPosEvent(new PosEvent(PosEventType.LOG, PosEventKey.MESSAGE, "Discounts applied: " + builder));
     }
 
     private void handleRequestEnterCardNumber(@NonNull PosEvent event) {
@@ -438,15 +652,15 @@ public class PosComponent implements IComponent, IPosEventManager {
             String error = "Cannot enter card number when transaction state is not AWAITING_CARD_PAYMENT. " +
                     "Current transaction state: " + transactionState;
             System.err.println(error);
-            dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+            dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             return;
         }
 
-        String cardNumber = event.getProperty(ConstKeys.CARD_NUMBER, String.class);
+        String cardNumber = event.getProperty(PosEventKey.CARD_NUMBER, String.class);
         if (cardNumber == null) {
             String error = "Cannot enter card number because card number is null";
             System.err.println(error);
-            dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+            dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             return;
         }
 
@@ -461,39 +675,42 @@ public class PosComponent implements IComponent, IPosEventManager {
             String error = "Cannot insert cash when transaction state is not AWAITING_CASH_PAYMENT. " +
                     "Current transaction state: " + transactionState;
             System.err.println(error);
-            dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+            dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             return;
         }
 
-        String cashAmountToAddString = event.getProperty(ConstKeys.CASH_AMOUNT, String.class);
+        String cashAmountToAddString = event.getProperty(PosEventKey.CASH_AMOUNT, String.class);
 
         if (cashAmountToAddString == null) {
             String error = "Cannot insert cash because cash amount is null";
             System.err.println(error);
-            dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+            dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             return;
         }
 
         if (!UtilMethods.isDouble(cashAmountToAddString)) {
             String error = "Cannot insert cash because cash amount is not a number: " + cashAmountToAddString;
             System.err.println(error);
-            dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+            dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             return;
         }
 
-        BigDecimal cashAmountToAdd = new BigDecimal(cashAmountToAddString);
-        transaction.setAmountTendered(transaction.getAmountTendered().add(cashAmountToAdd));
+        long amountTenderedCents = Money.add(Money.toCents(transaction.getAmountTendered()),
+                Money.toCents(new BigDecimal(cashAmountToAddString)));
+        long totalCents = Money.toCents(transaction.getTotal());
+        transaction.setAmountTendered(Money.toBigDecimal(amountTenderedCents));
+        appendToEventLog(PosEventType.REQUEST_INSERT_CASH, cashAmountToAddString);
 
-        if (transaction.getAmountTendered().compareTo(transaction.getTotal()) >= 0) {
-            transaction.setChangeDue(transaction.getAmountTendered().subtract(transaction.getTotal()));
+        if (amountTenderedCents >= totalCents) {
+            transaction.setChangeDue(Money.toBigDecimal(Money.subtract(amountTenderedCents, totalCents)));
             dispatchPosEvent(new PosEvent(PosEventType.REQUEST_COMPLETE_TRANSACTION));
         } else {
-            BigDecimal amountNeeded = transaction.getTotal().subtract(transaction.getAmountTendered());
+            BigDecimal amountNeeded = Money.toBigDecimal(Money.subtract(totalCents, amountTenderedCents));
             TransactionDto transactionDto = getTransactionDto();
             dispatchPosEvent(new PosEvent(PosEventType.INSUFFICIENT_FUNDS,
-                    Map.of(ConstKeys.AMOUNT_NEEDED, amountNeeded, ConstKeys.TRANSACTION_DTO, transactionDto)));
-            dispatchPosEvent(new PosEvent(PosEventType.LOG, Map.of(ConstKeys.MESSAGE,
-                    "Cash inserted: " + cashAmountToAddString + ". Amount still needed: " + amountNeeded)));
+                    PosEventKey.AMOUNT_NEEDED, amountNeeded, PosEventKey.TRANSACTION_DTO, transactionDto));
+            dispatchPosEvent(new PosEvent(PosEventType.LOG, PosEventKey.MESSAGE,
+                    "Cash inserted: " + cashAmountToAddString + ". Amount still needed: " + amountNeeded));
         }
     }
 
@@ -503,7 +720,7 @@ public class PosComponent implements IComponent, IPosEventManager {
                     "Cannot cancel payment when transaction is not awaiting payment. Current transaction state: " +
                             transactionState;
             System.err.println(error);
-            dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+            dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             return;
         }
 
@@ -513,7 +730,7 @@ public class PosComponent implements IComponent, IPosEventManager {
 
         dispatchPosEvent(new PosEvent(PosEventType.DO_CANCEL_PAYMENT));
         dispatchPosEvent(new PosEvent(PosEventType.LOG,
-                Map.of(ConstKeys.MESSAGE, "Payment cancelled. Any discounts that were applied have been removed.")));
+                PosEventKey.MESSAGE, "Payment cancelled. Any discounts that were applied have been removed."));
     }
 
     private void handleRequestCompleteTransaction() {
@@ -521,7 +738,7 @@ public class PosComponent implements IComponent, IPosEventManager {
             String error = "Cannot complete transaction when transaction is not awaiting payment. Current transaction" +
                     " state: " + transactionState;
             System.err.println(error);
-            dispatchPosEvent(new PosEvent(PosEventType.ERROR, Map.of(ConstKeys.MESSAGE, error)));
+            dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
             return;
         }
 
@@ -575,7 +792,8 @@ public class PosComponent implements IComponent, IPosEventManager {
         transactionState = TransactionState.NOT_STARTED;
 
         itemBookLoaderComponent.loadItemBook(itemService);
-        dispatchPosEvent(new PosEvent(PosEventType.POS_BOOTUP, Map.of(ConstKeys.POS_SYSTEM_ID, posSystem.getId())));
+        dispatchPosEvent(new PosEvent(PosEventType.POS_BOOTUP, PosEventKey.POS_SYSTEM_ID, posSystem.getId()));
+        restoreFromEventLog();
 
         if (Application.DEBUG) {
             System.out.println("[PosComponent] POS component booted up: " + this);
@@ -591,16 +809,7 @@ public class PosComponent implements IComponent, IPosEventManager {
         }
 
         childComponents.forEach(IComponent::update);
-        posEventListeners.forEach(listener -> {
-            Set<PosEventType> eventTypesToListenFor = listener.getEventTypesToListenFor();
-            eventTypesToListenFor.forEach(type -> {
-                List<PosEvent> eventsOfType = events.get(type);
-                if (eventsOfType != null) {
-                    eventsOfType.forEach(listener::onPosEvent);
-                }
-            });
-        });
-        events.clear();
+        deliverPosEvents();
 
         // Turn off the POS component if it is shutting down so that it and its children do not process any more events
         if (shuttingDown) {
@@ -611,9 +820,96 @@ public class PosComponent implements IComponent, IPosEventManager {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Shuts down all child components, e.g. so that asynchronous listeners can flush their queued events, and closes
+     * the event log if one is set. This does not exit the application, which makes it safe to call from a JVM
+     * shutdown hook.
+     */
+    @Override
+    public void shutDown() {
+        if (Application.DEBUG) {
+            System.out.println("[PosComponent] Shutting down POS component: " + this);
+        }
+        childComponents.forEach(IComponent::shutDown);
+        try {
+            transactionService.flushTransactions();
+        } catch (RuntimeException e) {
+            System.err.println("[PosComponent] Failed to flush transactions: " + e.getMessage());
+        }
+        if (eventLog != null) {
+            try {
+                eventLog.close();
+            } catch (IOException e) {
+                System.err.println("[PosComponent] Failed to close event log: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Deliver the pending POS events to the registered listeners. This is called on every {@link #update()} and also
+     * by the {@link IPosEventDeliveryScheduler}, if one is set, right after events are dispatched. The time between
+     * the oldest pending event being dispatched and all listeners having received it is recorded in the
+     * {@link #getDeliveryLatencyStats()}. Package-private for testing purposes.
+     * <p>
+     * Events are delivered in the order they were dispatched. Each event is routed through the precomputed routing
+     * table, so delivery is a single array walk per event. The pending and delivering lists are swapped rather than
+     * reallocated, and events dispatched by a listener during delivery are kept for the next delivery.
+     * <p>
+     * If a listener declares an {@link IPosEventCoalescer} for an event type, then the pending events of that type
+     * are first merged into one event, which is delivered to the listener at the position of the last merged event.
+     */
+    void deliverPosEvents() {
+        deliveryScheduled = false;
+        if (!on || delivering || pendingEvents.isEmpty()) {
+            return;
+        }
+
+        List<PosEvent> eventsToDeliver = pendingEvents;
+        pendingEvents = deliveringEvents;
+        deliveringEvents = eventsToDeliver;
+        long oldestEventNanos = oldestPendingEventNanos;
+        oldestPendingEventNanos = 0L;
+
+        delivering = true;
+        try {
+            if (coalescingRoutes.length > 0) {
+                coalescePosEvents(eventsToDeliver);
+            }
+            for (int i = 0; i < eventsToDeliver.size(); i++) {
+                PosEvent event = eventsToDeliver.get(i);
+                PosEventRoute[] routes = posEventRoutes.get(event.getType());
+                if (routes == null) {
+                    continue;
+                }
+                for (PosEventRoute route : routes) {
+                    if (route.coalescer == null) {
+                        route.listener.onPosEvent(event);
+                    } else if (route.lastIndex == i) {
+                        route.listener.onPosEvent(route.pending);
+                    }
+                }
+            }
+        } finally {
+            eventsToDeliver.clear();
+            for (PosEventRoute route : coalescingRoutes) {
+                route.pending = null;
+                route.lastIndex = -1;
+            }
+            delivering = false;
+        }
+
+        deliveryLatencyStats.record(System.nanoTime() - oldestEventNanos);
+
+        if (!pendingEvents.isEmpty()) {
+            scheduleDelivery();
+        }
+    }
+
     /**
      * Start a new transaction. Accepts a {@link PosEvent} instance that is nullable. If the event contains a
-     * String property with the key {@link ConstKeys#ITEM_UPC}, then a {@link PosEventType#REQUEST_ADD_ITEM}
+     * String property with the key {@link PosEventKey#ITEM_UPC}, then a {@link PosEventType#REQUEST_ADD_ITEM}
      * event is triggered. Method is package-private for testing purposes.
      *
      * @param event The event that triggered the transaction. (Nullable)
@@ -623,26 +919,32 @@ public class PosComponent implements IComponent, IPosEventManager {
             System.out.println("[PosComponent] Starting new transaction: " + this);
         }
 
+        if (endedTransactionInEventLog) {
+            compactEventLogIfFlushed();
+        }
         transaction = transactionService.createAndPersist(posSystem.getId(), transactionNumber);
         transactionNumber++;
         transactionState = TransactionState.SCANNING_IN_PROGRESS;
+        LocalDateTime timeCreated = transaction.getTimeCreated();
+        appendToEventLog(PosEventType.TRANSACTION_STARTED, transaction.getId(),
+                String.valueOf(transaction.getTransactionNumber()), timeCreated != null ? timeCreated.toString() : "");
 
         dispatchPosEvent(new PosEvent(PosEventType.TRANSACTION_STARTED,
-                Map.of(ConstKeys.TRANSACTION_NUMBER, transaction.getTransactionNumber())));
+                PosEventKey.TRANSACTION_NUMBER, transaction.getTransactionNumber()));
         dispatchPosEvent(new PosEvent(PosEventType.LOG,
-                Map.of(ConstKeys.MESSAGE, "Transaction " + transaction.getTransactionNumber() + " started.")));
+                PosEventKey.MESSAGE, "Transaction " + transaction.getTransactionNumber() + " started."));
 
         if (Application.DEBUG) {
             System.out.println("[PosComponent] New transaction started: " + this);
         }
 
         List<ItemDto> quickItemDtos =
-                itemService.getRandomItems(ConstVals.QUICK_ITEMS_COUNT).stream().map(ItemDto::from).toList();
-        dispatchPosEvent(new PosEvent(PosEventType.DO_UPDATE_QUICK_ITEMS, Map.of(ConstKeys.ITEM_DTOS, quickItemDtos)));
+                itemService.getQuickItems(ConstVals.QUICK_ITEMS_COUNT).stream().map(ItemDto::from).toList();
+        dispatchPosEvent(new PosEvent(PosEventType.DO_UPDATE_QUICK_ITEMS, PosEventKey.ITEM_DTOS, quickItemDtos));
 
-        if (event != null && event.containsProperty(ConstKeys.ITEM_UPC)) {
+        if (event != null && event.containsProperty(PosEventKey.ITEM_UPC)) {
             dispatchPosEvent(new PosEvent(PosEventType.REQUEST_ADD_ITEM,
-                    Map.of(ConstKeys.ITEM_UPC, event.getProperty(ConstKeys.ITEM_UPC))));
+                    PosEventKey.ITEM_UPC, event.getProperty(PosEventKey.ITEM_UPC)));
         }
     }
 
@@ -653,9 +955,12 @@ public class PosComponent implements IComponent, IPosEventManager {
         transactionState = TransactionState.VOIDED;
         transaction.setVoided(true);
         transactionService.saveTransaction(transaction);
+        appendToEventLog(PosEventType.TRANSACTION_VOIDED);
+        flushTransactionsAsync(transaction.getTransactionNumber());
+        compactEventLogIfFlushed();
         dispatchPosEvent(new PosEvent(PosEventType.TRANSACTION_VOIDED));
         dispatchPosEvent(new PosEvent(PosEventType.LOG,
-                Map.of(ConstKeys.MESSAGE, "Transaction " + transaction.getTransactionNumber() + " voided.")));
+                PosEventKey.MESSAGE, "Transaction " + transaction.getTransactionNumber() + " voided."));
         if (Application.DEBUG) {
             System.out.println("[PosComponent] Transaction voided: " + this);
         }
@@ -670,12 +975,17 @@ public class PosComponent implements IComponent, IPosEventManager {
         transaction.setTendered(true);
         transaction.setTimeCompleted(LocalDateTime.now());
         transactionService.saveTransaction(transaction);
+        appendToEventLog(PosEventType.TRANSACTION_COMPLETED, transaction.getTimeCompleted().toString(),
+                transaction.getDiscountAmount().toPlainString(), transaction.getAmountTendered().toPlainString(),
+                transaction.getChangeDue().toPlainString());
+        flushTransactionsAsync(transaction.getTransactionNumber());
+        compactEventLogIfFlushed();
 
         TransactionDto transactionDto = getTransactionDto();
         dispatchPosEvent(
-                new PosEvent(PosEventType.TRANSACTION_COMPLETED, Map.of(ConstKeys.TRANSACTION_DTO, transactionDto)));
+                new PosEvent(PosEventType.TRANSACTION_COMPLETED, PosEventKey.TRANSACTION_DTO, transactionDto));
         dispatchPosEvent(new PosEvent(PosEventType.LOG,
-                Map.of(ConstKeys.MESSAGE, "Transaction " + transaction.getTransactionNumber() + " completed.")));
+                PosEventKey.MESSAGE, "Transaction " + transaction.getTransactionNumber() + " completed."));
 
         if (Application.DEBUG) {
             System.out.println("[PosComponent] Transaction completed: " + this);
@@ -687,29 +997,203 @@ public class PosComponent implements IComponent, IPosEventManager {
      */
     void resetPos() {
         transaction = null;
+        transactionDtoCache.reset();
         transactionState = TransactionState.NOT_STARTED;
+        compactEventLogIfFlushed();
 
         dispatchPosEvent(new PosEvent(PosEventType.POS_RESET));
-        dispatchPosEvent(new PosEvent(PosEventType.LOG, Map.of(ConstKeys.MESSAGE, "POS system reset.")));
+        dispatchPosEvent(new PosEvent(PosEventType.LOG, PosEventKey.MESSAGE, "POS system reset."));
 
         if (Application.DEBUG) {
             System.out.println("[PosComponent] POS component reset: " + this);
         }
     }
 
-    private List<LineItemDto> getLineItemDtos() {
-        return transaction.getLineItems().stream().map(lineItem -> {
-            Item item = itemService.getItemByUpc(lineItem.getItemUpc());
-            return LineItemDto.from(lineItem, item);
-        }).toList();
+    /**
+     * Rebuild the transaction that was in progress when the application stopped from the entries recovered from the
+     * event log, if one is set. The transaction number continues from the last transaction in the log. A transaction
+     * that was awaiting payment is restored to SCANNING_IN_PROGRESS as if the payment had been cancelled: cash that
+     * was inserted stays tendered, and discounts are removed. Transactions in the log that were completed or voided,
+     * but not written by a flush before the application stopped, are saved again as they ended. If an entry cannot be
+     * replayed, e.g. a number or a date that does not parse, then the error is logged and the log is compacted without
+     * restoring the transaction in progress, so that the POS still boots. Package-private for testing purposes.
+     */
+    void restoreFromEventLog() {
+        if (eventLog == null) {
+            return;
+        }
+
+        transactionNumber = Math.max(transactionNumber, eventLog.getNextTransactionNumber());
+
+        Transaction restoredTransaction;
+        try {
+            restoredTransaction = replayEventLog();
+        } catch (RuntimeException e) {
+            String error = "Failed to restore from event log, dropping it: " + e;
+            System.err.println("[PosComponent] " + error);
+            dispatchPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, error));
+            compactEventLog();
+            return;
+        }
+        if (restoredTransaction == null) {
+            return;
+        }
+
+        transaction = restoredTransaction;
+        transactionState = TransactionState.SCANNING_IN_PROGRESS;
+        transactionService.recomputeAndSaveTransaction(transaction);
+
+        dispatchPosEvent(new PosEvent(PosEventType.TRANSACTION_STARTED,
+                PosEventKey.TRANSACTION_NUMBER, transaction.getTransactionNumber()));
+        List<ItemDto> quickItemDtos =
+                itemService.getQuickItems(ConstVals.QUICK_ITEMS_COUNT).stream().map(ItemDto::from).toList();
+        dispatchPosEvent(new PosEvent(PosEventType.DO_UPDATE_QUICK_ITEMS, PosEventKey.ITEM_DTOS, quickItemDtos));
+        dispatchPosEvent(new PosEvent(PosEventType.TRANSACTION_RESTORED, PosEventKey.TRANSACTION_DTO,
+                getTransactionDto()));
+        dispatchPosEvent(new PosEvent(PosEventType.LOG, PosEventKey.MESSAGE,
+                "Transaction " + transaction.getTransactionNumber() + " restored from event log."));
+
+        if (Application.DEBUG) {
+            System.out.println("[PosComponent] Transaction restored from event log: " + this);
+        }
+    }
+
+    /**
+     * Replay the entries recovered from the event log, saving the transactions in it and flushing the ones that ended.
+     *
+     * @return The transaction that was in progress, or null if every transaction in the log ended.
+     * @throws RuntimeException if an entry cannot be replayed
+     */
+    private Transaction replayEventLog() {
+        Transaction restoredTransaction = null;
+        int endedTransactionNumber = 0;
+        for (PosEventLog.Entry entry : eventLog.getRecoveredEntries()) {
+            List<String> fields = entry.fields();
+            if (entry.type() == PosEventType.TRANSACTION_STARTED) {
+                restoredTransaction = new Transaction();
+                restoredTransaction.setId(fields.get(0));
+                restoredTransaction.setPosSystemId(posSystem.getId());
+                restoredTransaction.setTransactionNumber(Integer.parseInt(fields.get(1)));
+                restoredTransaction.setTimeCreated(
+                        fields.get(2).isEmpty() ? LocalDateTime.now() : LocalDateTime.parse(fields.get(2)));
+                transactionService.saveTransaction(restoredTransaction);
+                transactionNumber = Math.max(transactionNumber, restoredTransaction.getTransactionNumber() + 1);
+                continue;
+            }
+
+            if (restoredTransaction == null) {
+                System.err.println("[PosComponent] Skipping event log entry without a started transaction: " + entry);
+                continue;
+            }
+
+            switch (entry.type()) {
+                case ITEM_ADDED -> {
+                    // A single scan is logged as its UPC, a batch as pairs of UPC and quantity
+                    if (fields.size() == 1) {
+                        transactionService.addItemToTransaction(restoredTransaction, fields.get(0));
+                    } else {
+                        Map<String, Integer> quantitiesByUpc = new LinkedHashMap<>();
+                        for (int i = 0; i + 1 < fields.size(); i += 2) {
+                            quantitiesByUpc.merge(fields.get(i), Integer.parseInt(fields.get(i + 1)), Integer::sum);
+                        }
+                        transactionService.addItemsToTransaction(restoredTransaction, quantitiesByUpc);
+                    }
+                }
+                case ITEM_REMOVED -> transactionService.removeItemFromTransaction(restoredTransaction, fields.get(0));
+                case LINE_ITEMS_VOIDED -> {
+                    for (String itemUpc : fields) {
+                        transactionService.voidLineItemInTransaction(restoredTransaction, itemUpc);
+                    }
+                }
+                case REQUEST_INSERT_CASH -> restoredTransaction.setAmountTendered(
+                        restoredTransaction.getAmountTendered().add(new BigDecimal(fields.get(0))));
+                case TRANSACTION_COMPLETED -> {
+                    // The transaction ended but was not written by a flush, so it is saved again as it ended
+                    restoredTransaction.setTimeCompleted(LocalDateTime.parse(fields.get(0)));
+                    restoredTransaction.setDiscountAmount(new BigDecimal(fields.get(1)));
+                    restoredTransaction.setAmountTendered(new BigDecimal(fields.get(2)));
+                    restoredTransaction.setChangeDue(new BigDecimal(fields.get(3)));
+                    restoredTransaction.setTendered(true);
+                    transactionService.recomputeAndSaveTransaction(restoredTransaction);
+                    endedTransactionNumber = restoredTransaction.getTransactionNumber();
+                    restoredTransaction = null;
+                }
+                case TRANSACTION_VOIDED -> {
+                    restoredTransaction.setVoided(true);
+                    transactionService.recomputeAndSaveTransaction(restoredTransaction);
+                    endedTransactionNumber = restoredTransaction.getTransactionNumber();
+                    restoredTransaction = null;
+                }
+                default -> System.err.println("[PosComponent] Skipping unexpected event log entry: " + entry);
+            }
+        }
+
+        if (endedTransactionNumber > 0) {
+            flushTransactionsAsync(endedTransactionNumber);
+            if (restoredTransaction == null) {
+                compactEventLogIfFlushed();
+            }
+        }
+        return restoredTransaction;
+    }
+
+    private void appendToEventLog(@NonNull PosEventType type, @NonNull String... fields) {
+        if (eventLog == null) {
+            return;
+        }
+        try {
+            eventLog.append(type, fields);
+        } catch (RuntimeException e) {
+            System.err.println("[PosComponent] Failed to append " + type + " to event log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Flush the saved transactions without waiting for the database, after a transaction ended. If the flush fails,
+     * then the transactions stay queued in the repository, and the ended transaction is kept in the event log so that
+     * it can be recovered.
+     *
+     * @param endedTransactionNumber The number of the transaction that ended.
+     */
+    private void flushTransactionsAsync(int endedTransactionNumber) {
+        lastEndedTransactionNumber = Math.max(lastEndedTransactionNumber, endedTransactionNumber);
+        endedTransactionInEventLog = true;
+        transactionService.flushTransactionsAsync().whenComplete((result, e) -> {
+            if (e == null) {
+                flushedTransactionNumber.accumulateAndGet(endedTransactionNumber, Math::max);
+                return;
+            }
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            System.err.println("[PosComponent] Failed to flush transaction " + endedTransactionNumber +
+                    ", keeping it in the event log: " + cause.getMessage());
+        });
+    }
+
+    /**
+     * Compact the event log if the transactions in it have ended and been written by a flush. This must only be called
+     * when no transaction is in progress, since compacting discards every record in the log.
+     */
+    private void compactEventLogIfFlushed() {
+        if (flushedTransactionNumber.get() < lastEndedTransactionNumber) {
+            return;
+        }
+        compactEventLog();
+    }
+
+    private void compactEventLog() {
+        if (eventLog == null) {
+            return;
+        }
+        try {
+            eventLog.compact(transactionNumber);
+            endedTransactionInEventLog = false;
+        } catch (RuntimeException e) {
+            System.err.println("[PosComponent] Failed to compact event log: " + e.getMessage());
+        }
     }
 
     private TransactionDto getTransactionDto() {
-        List<LineItemDto> lineItemDtos = getLineItemDtos();
-        return TransactionDto.from(lineItemDtos, posSystem.getStoreName(), posSystem.getPosLane(),
-                transaction.getTransactionNumber(), transaction.getSubtotal(), transaction.getDiscountAmount(),
-                transaction.getTaxes(), transaction.getTotal(), transaction.getAmountTendered(),
-                transaction.getChangeDue());
+        return transactionDtoCache.getSnapshot(transaction, posSystem);
     }
 
     /**
@@ -725,9 +1209,21 @@ public class PosComponent implements IComponent, IPosEventManager {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The routes of the listener are added to the routing table from event type to listeners when it is registered,
+     * and removed when it is unregistered. This means that the {@link IPosEventListener#getEventTypesToListenFor()}
+     * method of the listener is called only once here, and changes to the returned set after registration are not
+     * picked up.
+     *
+     * @param listener The POS event listener to register.
+     */
     @Override
     public void registerPosEventListener(@NonNull IPosEventListener listener) {
-        posEventListeners.add(listener);
+        if (posEventListeners.add(listener)) {
+            addPosEventRoutes(listener);
+        }
         if (Application.DEBUG) {
             System.out.println("[PosComponent] Registered POS event listener: " + listener);
         }
@@ -735,9 +1231,78 @@ public class PosComponent implements IComponent, IPosEventManager {
 
     @Override
     public void unregisterPosEventListener(@NonNull IPosEventListener listener) {
-        posEventListeners.remove(listener);
+        if (posEventListeners.remove(listener)) {
+            removePosEventRoutes(listener);
+        }
         if (Application.DEBUG) {
             System.out.println("[PosComponent] Unregistered POS event listener: " + listener);
         }
     }
+
+    private void coalescePosEvents(@NonNull List<PosEvent> eventsToDeliver) {
+        for (int i = 0; i < eventsToDeliver.size(); i++) {
+            PosEvent event = eventsToDeliver.get(i);
+            PosEventRoute[] routes = posEventRoutes.get(event.getType());
+            if (routes == null) {
+                continue;
+            }
+            for (PosEventRoute route : routes) {
+                if (route.coalescer == null) {
+                    continue;
+                }
+                if (route.pending == null) {
+                    route.pending = event;
+                } else {
+                    route.pending = route.coalescer.coalesce(route.pending, event);
+                    coalescedEventCount++;
+                }
+                route.lastIndex = i;
+            }
+        }
+    }
+
+    private void addPosEventRoutes(@NonNull IPosEventListener listener) {
+        // The arrays are replaced instead of modified, so that a delivery in progress keeps its routes
+        for (PosEventType type : listener.getEventTypesToListenFor()) {
+            PosEventRoute route = new PosEventRoute(listener, listener.getCoalescer(type));
+            posEventRoutes.merge(type, new PosEventRoute[]{route}, PosComponent::concatRoutes);
+            if (route.coalescer != null) {
+                coalescingRoutes = concatRoutes(coalescingRoutes, new PosEventRoute[]{route});
+            }
+        }
+    }
+
+    private void removePosEventRoutes(@NonNull IPosEventListener listener) {
+        posEventRoutes.replaceAll((type, routes) -> routesWithoutListener(routes, listener));
+        posEventRoutes.values().removeIf(routes -> routes.length == 0);
+        coalescingRoutes = routesWithoutListener(coalescingRoutes, listener);
+    }
+
+    private static PosEventRoute[] concatRoutes(@NonNull PosEventRoute[] routes, @NonNull PosEventRoute[] newRoutes) {
+        PosEventRoute[] concatenated = Arrays.copyOf(routes, routes.length + newRoutes.length);
+        System.arraycopy(newRoutes, 0, concatenated, routes.length, newRoutes.length);
+        return concatenated;
+    }
+
+    private static PosEventRoute[] routesWithoutListener(@NonNull PosEventRoute[] routes,
+                                                         @NonNull IPosEventListener listener) {
+        return Arrays.stream(routes).filter(route -> !route.listener.equals(listener)).toArray(PosEventRoute[]::new);
+    }
+
+    /**
+     * Route of one event type to one listener. Holds the coalescing state of the route during a delivery.
+     */
+    private static class PosEventRoute {
+
+        private final IPosEventListener listener;
+        private final IPosEventCoalescer coalescer;
+
+        private PosEvent pending;
+        private int lastIndex = -1;
+
+        private PosEventRoute(@NonNull IPosEventListener listener, IPosEventCoalescer coalescer) {
+            this.listener = listener;
+            this.coalescer = coalescer;
+        }
+    }
 }
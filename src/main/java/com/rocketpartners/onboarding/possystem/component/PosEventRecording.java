@@ -0,0 +1,188 @@
+package com.rocketpartners.onboarding.possystem.component;
+
+import com.rocketpartners.onboarding.possystem.event.PosEvent;
+import com.rocketpartners.onboarding.possystem.event.PosEventKey;
+import com.rocketpartners.onboarding.possystem.event.PosEventType;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Reads, writes, and generates recordings of the POS events that a lane dispatches, e.g. a day of scans and payments.
+ * A recording is a TSV file with one event per line: the event type followed by the properties of the event as
+ * {@code key=value} pairs, where the key is the legacy name of the {@link PosEventKey}. The values of
+ * {@link PosEventKey#ITEM_UPCS} are separated by commas. All other values are Strings.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class PosEventRecording {
+
+    private static final String CARD_NUMBER = "4111111111111111";
+    private static final int GENERATED_BATCH_TRANSACTIONS = 100;
+
+    /**
+     * Read a recording from a TSV file. Blank lines and lines starting with {@code #} are skipped.
+     *
+     * @param path the path of the recording
+     * @return the recorded events
+     * @throws IOException if the recording cannot be read
+     */
+    public static List<PosEvent> read(@NonNull Path path) throws IOException {
+        List<PosEvent> events = new ArrayList<>();
+        for (String line : Files.readAllLines(path)) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] columns = line.split("\t");
+            PosEventType type = PosEventType.valueOf(columns[0]);
+            Map<String, Object> props = new HashMap<>();
+            for (int i = 1; i < columns.length; i++) {
+                int separator = columns[i].indexOf('=');
+                if (separator < 0) {
+                    throw new IOException("Invalid property in recording: " + columns[i]);
+                }
+                String key = columns[i].substring(0, separator);
+                String value = columns[i].substring(separator + 1);
+                props.put(key, key.equals(PosEventKey.ITEM_UPCS.getName()) ?
+                        new LinkedHashSet<>(Arrays.asList(value.split(","))) : value);
+            }
+            events.add(new PosEvent(type, props));
+        }
+        return events;
+    }
+
+    /**
+     * Write a recording to a TSV file.
+     *
+     * @param path   the path of the recording
+     * @param events the events to record
+     * @throws IOException if the recording cannot be written
+     */
+    public static void write(@NonNull Path path, @NonNull List<PosEvent> events) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            for (PosEvent event : events) {
+                StringBuilder line = new StringBuilder(event.getType().name());
+                for (PosEventKey key : PosEventKey.values()) {
+                    Object value = event.getProperty(key);
+                    if (value == null) {
+                        continue;
+                    }
+                    line.append('\t').append(key.getName()).append('=');
+                    if (value instanceof Collection<?> collection) {
+                        line.append(String.join(",", collection.stream().map(String::valueOf).toList()));
+                    } else {
+                        line.append(value);
+                    }
+                }
+                writer.write(line.toString());
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Generate a synthetic day of transactions. Each transaction scans between 1 and 30 items, sometimes removes a
+     * unit of an item that was scanned more than once or voids a line item, and is then either voided or paid with
+     * cash or card, after which the POS is reset. Some cash payments are made in two steps to exercise the insufficient
+     * funds path. The same seed always generates the same recording.
+     *
+     * @param itemUpcs     the UPCs of the items that can be scanned
+     * @param transactions the number of transactions
+     * @param seed         the seed of the random generator
+     * @return the generated events
+     */
+    public static List<PosEvent> generateDay(@NonNull List<String> itemUpcs, int transactions, long seed) {
+        if (itemUpcs.isEmpty()) {
+            throw new IllegalArgumentException("Item UPCs cannot be empty");
+        }
+        Random random = new Random(seed);
+        List<PosEvent> events = new ArrayList<>();
+        for (int i = 0; i < transactions; i++) {
+            List<String> scannedUpcs = new ArrayList<>();
+            int scans = 1 + random.nextInt(30);
+            for (int j = 0; j < scans; j++) {
+                // Shoppers often scan several units of the same item in a row
+                String itemUpc = !scannedUpcs.isEmpty() && random.nextInt(4) == 0 ?
+                        scannedUpcs.get(scannedUpcs.size() - 1) : itemUpcs.get(random.nextInt(itemUpcs.size()));
+                scannedUpcs.add(itemUpc);
+                events.add(new PosEvent(PosEventType.REQUEST_ADD_ITEM, PosEventKey.ITEM_UPC, itemUpc));
+
+                // Removing the last unit of an item is rejected, so only remove items that were scanned more than once
+                if (Collections.frequency(scannedUpcs, itemUpc) > 1 && random.nextInt(5) == 0) {
+                    scannedUpcs.remove(itemUpc);
+                    events.add(new PosEvent(PosEventType.REQUEST_REMOVE_ITEM, PosEventKey.ITEM_UPC, itemUpc));
+                }
+            }
+
+            if (scannedUpcs.size() > 1 && random.nextInt(30) == 0) {
+                Set<String> voidedUpcs = new LinkedHashSet<>(List.of(scannedUpcs.get(0)));
+                events.add(new PosEvent(PosEventType.REQUEST_VOID_LINE_ITEMS, PosEventKey.ITEM_UPCS, voidedUpcs));
+            }
+
+            int outcome = random.nextInt(100);
+            if (outcome < 3) {
+                events.add(new PosEvent(PosEventType.REQUEST_VOID_TRANSACTION));
+            } else if (outcome < 60) {
+                events.add(new PosEvent(PosEventType.REQUEST_START_PAY_WITH_CASH_PROCESS));
+                if (random.nextInt(10) == 0) {
+                    events.add(new PosEvent(PosEventType.REQUEST_INSERT_CASH, PosEventKey.CASH_AMOUNT, "0.01"));
+                }
+                events.add(new PosEvent(PosEventType.REQUEST_INSERT_CASH, PosEventKey.CASH_AMOUNT, "10000.00"));
+            } else {
+                events.add(new PosEvent(PosEventType.REQUEST_START_PAY_WITH_CARD_PROCESS));
+                events.add(new PosEvent(PosEventType.REQUEST_ENTER_CARD_NUMBER, PosEventKey.CARD_NUMBER,
+                        CARD_NUMBER));
+            }
+            events.add(new PosEvent(PosEventType.REQUEST_RESET_POS));
+        }
+        return events;
+    }
+
+    /**
+     * Generate transactions lazily in batches of {@value #GENERATED_BATCH_TRANSACTIONS}, e.g. for a soak test that
+     * runs too long to hold its events in memory. Each batch is generated with {@link #generateDay} and a seed derived
+     * from the specified seed, so the same seed always generates the same events.
+     *
+     * @param itemUpcs     the UPCs of the items that can be scanned
+     * @param transactions the number of transactions, or a negative number to generate transactions forever
+     * @param seed         the seed of the random generator
+     * @return an iterator over the generated events
+     */
+    public static Iterator<PosEvent> generate(@NonNull List<String> itemUpcs, long transactions, long seed) {
+        if (itemUpcs.isEmpty()) {
+            throw new IllegalArgumentException("Item UPCs cannot be empty");
+        }
+        return new Iterator<>() {
+
+            private Iterator<PosEvent> batch = Collections.emptyIterator();
+            private long remainingTransactions = transactions;
+            private long batchIndex;
+
+            @Override
+            public boolean hasNext() {
+                if (!batch.hasNext() && remainingTransactions != 0) {
+                    int batchTransactions = remainingTransactions < 0 ? GENERATED_BATCH_TRANSACTIONS :
+                            (int) Math.min(GENERATED_BATCH_TRANSACTIONS, remainingTransactions);
+                    batch = generateDay(itemUpcs, batchTransactions, seed + batchIndex++).iterator();
+                    if (remainingTransactions > 0) {
+                        remainingTransactions -= batchTransactions;
+                    }
+                }
+                return batch.hasNext();
+            }
+
+            @Override
+            public PosEvent next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return batch.next();
+            }
+        };
+    }
+}
@@ -0,0 +1,35 @@
+package com.rocketpartners.onboarding.possystem.component;
+
+import com.rocketpartners.onboarding.commons.model.Discount;
+import com.rocketpartners.onboarding.commons.model.DiscountComputation;
+import com.rocketpartners.onboarding.commons.model.TransactionDto;
+import com.rocketpartners.onboarding.possystem.service.DiscountService;
+import lombok.NonNull;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Discount service that never calls the discount engine. No discounts are available and no discounts are applied,
+ * so headless lanes and benchmarks measure the POS system itself and not the network.
+ */
+public class StubDiscountService extends DiscountService {
+
+    /**
+     * Constructor for the stub discount service.
+     */
+    public StubDiscountService() {
+        super("http://localhost");
+    }
+
+    @Override
+    public @NonNull Map<String, Discount> getDiscounts() {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public @NonNull DiscountComputation computeDiscounts(@NonNull TransactionDto transaction) {
+        return new DiscountComputation(BigDecimal.ZERO, Collections.emptyMap(), Collections.emptyMap());
+    }
+}
@@ -0,0 +1,148 @@
+package com.rocketpartners.onboarding.possystem.component;
+
+import com.rocketpartners.onboarding.commons.model.*;
+import com.rocketpartners.onboarding.possystem.service.ItemService;
+import com.rocketpartners.onboarding.possystem.service.TransactionService;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cached {@link TransactionDto} view of the current transaction of a {@link PosComponent}. The line item DTOs are kept
+ * in step with the line items of the transaction: a line item that was appended gets a new DTO, a line item whose
+ * quantity or voided flag changed gets its DTO replaced, and every other DTO is reused. The item of a UPC is looked up
+ * in the {@link ItemService} only the first time the UPC appears in the transaction, instead of once per line item on
+ * every snapshot. When a full recompute of the {@link TransactionService} finds that the running subtotal drifted, e.g.
+ * because the price of an item changed, the items are looked up again and every line item DTO is rebuilt, so that the
+ * line items agree with the corrected totals.
+ * <p>
+ * Snapshots are never modified after they are returned, since DTOs are replaced rather than updated and the line item
+ * list of a snapshot is unmodifiable. Consumers must treat them as read-only too. The same snapshot is returned until
+ * the transaction changes, so it can be published to listeners and reused as the request body for the discount
+ * service. This class is not thread-safe; it is used on the thread of the POS component only.
+ */
+class TransactionDtoCache {
+
+    private final ItemService itemService;
+    private final TransactionService transactionService;
+    private final List<LineItemDto> lineItemDtos;
+    private final Map<String, LineItemDto> templates;
+
+    private Transaction transaction;
+    private List<LineItem> lineItems;
+    private TransactionDto snapshot;
+    private long runningTotalsMismatchCount;
+
+    /**
+     * Constructor that accepts the item service used to look up the items of new UPCs, and the transaction service
+     * whose full recomputes tell when the looked up items are out of date.
+     *
+     * @param itemService        The item service.
+     * @param transactionService The transaction service.
+     */
+    TransactionDtoCache(@NonNull ItemService itemService, @NonNull TransactionService transactionService) {
+        this.itemService = itemService;
+        this.transactionService = transactionService;
+        lineItemDtos = new ArrayList<>();
+        templates = new HashMap<>();
+    }
+
+    /**
+     * Get the snapshot of a transaction, updating the cached view with the line items and totals that changed since
+     * the last snapshot. If the transaction is not the one of the last snapshot, the view is rebuilt.
+     *
+     * @param transaction The transaction.
+     * @param posSystem   The POS system of the transaction.
+     * @return The snapshot of the transaction.
+     */
+    TransactionDto getSnapshot(@NonNull Transaction transaction, @NonNull PosSystem posSystem) {
+        if (transaction != this.transaction || transaction.getLineItems() != lineItems) {
+            reset();
+            this.transaction = transaction;
+            lineItems = transaction.getLineItems();
+        }
+        long mismatchCount = transactionService.getRunningTotalsMismatchCount();
+        if (mismatchCount != runningTotalsMismatchCount) {
+            runningTotalsMismatchCount = mismatchCount;
+            templates.clear();
+            lineItemDtos.clear();
+            snapshot = null;
+        }
+
+        boolean changed = syncLineItemDtos();
+        if (changed || snapshot == null || !matches(snapshot, transaction, posSystem)) {
+            snapshot = TransactionDto.from(List.copyOf(lineItemDtos), posSystem.getStoreName(),
+                    posSystem.getPosLane(), transaction.getTransactionNumber(), transaction.getSubtotal(),
+                    transaction.getDiscountAmount(), transaction.getTaxes(), transaction.getTotal(),
+                    transaction.getAmountTendered(), transaction.getChangeDue());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Forget the cached view, e.g. when the POS is reset.
+     */
+    void reset() {
+        transaction = null;
+        lineItems = null;
+        snapshot = null;
+        lineItemDtos.clear();
+        templates.clear();
+    }
+
+    private boolean syncLineItemDtos() {
+        boolean changed = false;
+
+        // Line items are only ever appended, so a shorter list means it was modified behind our back
+        if (lineItems.size() < lineItemDtos.size()) {
+            lineItemDtos.clear();
+            changed = true;
+        }
+
+        for (int i = 0; i < lineItemDtos.size(); i++) {
+            LineItem lineItem = lineItems.get(i);
+            LineItemDto lineItemDto = lineItemDtos.get(i);
+            if (lineItem.getQuantity() != lineItemDto.getQuantity() || lineItem.isVoided() != lineItemDto.isVoided() ||
+                    !lineItem.getItemUpc().equals(lineItemDto.getItemUpc())) {
+                lineItemDtos.set(i, createLineItemDto(lineItem));
+                changed = true;
+            }
+        }
+        for (int i = lineItemDtos.size(); i < lineItems.size(); i++) {
+            lineItemDtos.add(createLineItemDto(lineItems.get(i)));
+            changed = true;
+        }
+
+        return changed;
+    }
+
+    private LineItemDto createLineItemDto(@NonNull LineItem lineItem) {
+        LineItemDto template = templates.get(lineItem.getItemUpc());
+        if (template == null) {
+            Item item = itemService.getItemByUpc(lineItem.getItemUpc());
+            LineItemDto lineItemDto = LineItemDto.from(lineItem, item);
+            templates.put(lineItem.getItemUpc(), lineItemDto);
+            return lineItemDto;
+        }
+        return new LineItemDto(template.getItemUpc(), template.getItemName(), lineItem.getTransactionId(),
+                template.getUnitPrice(), lineItem.getQuantity(), lineItem.isVoided(), template.getCategory(),
+                template.getDescription());
+    }
+
+    // BigDecimal values are immutable, so a total that changed is always a different instance
+    private static boolean matches(@NonNull TransactionDto snapshot, @NonNull Transaction transaction,
+                                   @NonNull PosSystem posSystem) {
+        return snapshot.getTransactionNumber() == transaction.getTransactionNumber() &&
+                snapshot.getPosLane() == posSystem.getPosLane() &&
+                snapshot.getStoreName() == posSystem.getStoreName() &&
+                snapshot.getSubtotal() == transaction.getSubtotal() &&
+                snapshot.getDiscounts() == transaction.getDiscountAmount() &&
+                snapshot.getTaxes() == transaction.getTaxes() &&
+                snapshot.getTotal() == transaction.getTotal() &&
+                snapshot.getAmountTendered() == transaction.getAmountTendered() &&
+                snapshot.getChangeDue() == transaction.getChangeDue();
+    }
+}
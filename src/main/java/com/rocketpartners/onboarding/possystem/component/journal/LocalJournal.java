@@ -2,6 +2,7 @@ package com.rocketpartners.onboarding.possystem.component.journal;
 
 import com.rocketpartners.onboarding.possystem.event.IPosEventListener;
 import com.rocketpartners.onboarding.possystem.event.PosEvent;
+import com.rocketpartners.onboarding.possystem.event.PosEventKey;
 import com.rocketpartners.onboarding.possystem.event.PosEventType;
 import com.rocketpartners.onboarding.possystem.utils.LogFormatter;
 import lombok.NonNull;
@@ -22,7 +23,7 @@ public class LocalJournal implements IPosEventListener {
 
     @Override
     public void onPosEvent(@NonNull PosEvent event) {
-        String message = event.getProperty("message", String.class);
+        String message = event.getProperty(PosEventKey.MESSAGE, String.class);
         switch (event.getType()) {
             case LOG:
                 System.out.println(LogFormatter.formatLog(message));
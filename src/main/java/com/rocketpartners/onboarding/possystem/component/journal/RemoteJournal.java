@@ -3,6 +3,7 @@ package com.rocketpartners.onboarding.possystem.component.journal;
 import com.rocketpartners.onboarding.possystem.component.IComponent;
 import com.rocketpartners.onboarding.possystem.event.IPosEventListener;
 import com.rocketpartners.onboarding.possystem.event.PosEvent;
+import com.rocketpartners.onboarding.possystem.event.PosEventKey;
 import com.rocketpartners.onboarding.possystem.event.PosEventType;
 import com.rocketpartners.onboarding.possystem.utils.LogFormatter;
 import lombok.NonNull;
@@ -46,7 +47,7 @@ public class RemoteJournal implements IPosEventListener, IComponent {
         if (out == null) {
             return;
         }
-        String message = event.getProperty("message", String.class);
+        String message = event.getProperty(PosEventKey.MESSAGE, String.class);
         switch (event.getType()) {
             case LOG:
                 out.println(LogFormatter.formatLog(message));
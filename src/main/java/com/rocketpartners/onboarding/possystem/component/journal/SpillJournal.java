@@ -0,0 +1,89 @@
+package com.rocketpartners.onboarding.possystem.component.journal;
+
+import com.rocketpartners.onboarding.possystem.component.IComponent;
+import com.rocketpartners.onboarding.possystem.event.IPosEventListener;
+import com.rocketpartners.onboarding.possystem.event.PosEvent;
+import com.rocketpartners.onboarding.possystem.event.PosEventKey;
+import com.rocketpartners.onboarding.possystem.event.PosEventType;
+import com.rocketpartners.onboarding.possystem.utils.LogFormatter;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * A journal listener that appends {@link PosEventType#LOG} and {@link PosEventType#ERROR} event logs to a file, in the
+ * format of the {@link RemoteJournal}. It receives the events that did not fit in the queue of the remote journal, so
+ * that they can be sent to the journal server later. It is not registered for events itself, since every event it
+ * receives was also delivered to the other journals.
+ * <p>
+ * The file is opened on the first event, so no file is created when nothing is spilled.
+ */
+public class SpillJournal implements IPosEventListener, IComponent {
+
+    @Getter
+    private final Path path;
+    private BufferedWriter writer;
+
+    /**
+     * Constructor that accepts the path of the spill file.
+     *
+     * @param path the file the events are appended to
+     */
+    public SpillJournal(@NonNull Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public @NonNull Set<PosEventType> getEventTypesToListenFor() {
+        return EnumSet.of(PosEventType.LOG, PosEventType.ERROR);
+    }
+
+    @Override
+    public synchronized void onPosEvent(@NonNull PosEvent event) {
+        String message = event.getProperty(PosEventKey.MESSAGE, String.class);
+        String line;
+        switch (event.getType()) {
+            case LOG:
+                line = LogFormatter.formatLog(message);
+                break;
+            case ERROR:
+                line = LogFormatter.formatError(message);
+                break;
+            default:
+                return;
+        }
+
+        try {
+            if (writer == null) {
+                writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND);
+            }
+            writer.write(line);
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            System.err.println("[SpillJournal] Failed to write to " + path + ": " + e.getMessage() + ". Lost: " + line);
+        }
+    }
+
+    @Override
+    public synchronized void shutDown() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            System.err.println("[SpillJournal] Error closing " + path + ": " + e.getMessage());
+        }
+        writer = null;
+    }
+}
@@ -1,7 +1,9 @@
 package com.rocketpartners.onboarding.possystem.constant;
 
 /**
- * Constants for keys used in the application.
+ * Constants for keys used in the application. Event properties should be keyed by
+ * {@link com.rocketpartners.onboarding.possystem.event.PosEventKey} instead, which maps each of these keys to a fixed
+ * property slot.
  */
 public class ConstKeys {
     public static final String MESSAGE = "message";
@@ -16,4 +18,5 @@ public class ConstKeys {
     public static final String DISCOUNTS = "discounts";
     public static final String TRANSACTION_NUMBER = "transaction_number";
     public static final String AMOUNT_NEEDED = "amount_needed";
+    public static final String QUANTITY = "quantity";
 }
@@ -1,12 +1,12 @@
 package com.rocketpartners.onboarding.possystem.display;
 
 import com.rocketpartners.onboarding.possystem.Application;
-import com.rocketpartners.onboarding.possystem.constant.ConstKeys;
 import com.rocketpartners.onboarding.possystem.constant.ConstVals;
 import com.rocketpartners.onboarding.commons.model.ItemDto;
 import com.rocketpartners.onboarding.commons.model.LineItemDto;
 import com.rocketpartners.onboarding.possystem.event.IPosEventDispatcher;
 import com.rocketpartners.onboarding.possystem.event.PosEvent;
+import com.rocketpartners.onboarding.possystem.event.PosEventKey;
 import com.rocketpartners.onboarding.possystem.event.PosEventType;
 import lombok.NonNull;
 import org.apache.commons.collections4.queue.CircularFifoQueue;
@@ -22,7 +22,6 @@ import java.math.BigDecimal;
 import java.text.NumberFormat;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 /**
@@ -246,7 +245,7 @@ public class CustomerView extends JFrame {
                     quantityField.setText(String.valueOf(value));
                     decrementButton.setEnabled(value > 1);
                     parentEventDispatcher.dispatchPosEvent(new PosEvent(PosEventType.REQUEST_REMOVE_ITEM,
-                            Map.of(ConstKeys.ITEM_UPC, upc)));
+                            PosEventKey.ITEM_UPC, upc));
                 } else if (Application.DEBUG) {
                     System.out.println("[CustomerView] Quantity cannot be less than 1");
                 }
@@ -267,7 +266,7 @@ public class CustomerView extends JFrame {
                 quantityField.setText(String.valueOf(value));
                 decrementButton.setEnabled(value > 1);
                 parentEventDispatcher.dispatchPosEvent(new PosEvent(PosEventType.REQUEST_ADD_ITEM,
-                        Map.of(ConstKeys.ITEM_UPC, upc)));
+                        PosEventKey.ITEM_UPC, upc));
 
                 stopCellEditing();
             }));
@@ -453,7 +452,8 @@ public class CustomerView extends JFrame {
                         "Shut Down the Application?",
                         JOptionPane.YES_NO_OPTION,
                         JOptionPane.QUESTION_MESSAGE) == JOptionPane.YES_OPTION) {
-                    System.exit(0);
+                    // System.exit blocks until the shutdown hooks finish, and the shutdown hook needs the EDT
+                    new Thread(() -> System.exit(0), "pos-exit").start();
                 }
             }
         });
@@ -896,7 +896,7 @@ public class CustomerView extends JFrame {
                 JOptionPane.QUESTION_MESSAGE) == JOptionPane.YES_OPTION) {
             SwingUtilities.invokeLater(() -> {
                 parentEventDispatcher.dispatchPosEvent(new PosEvent(PosEventType.REQUEST_VOID_LINE_ITEMS,
-                        Map.of(ConstKeys.ITEM_UPCS, new HashSet<>(selectedLineItemUpcs))));
+                        PosEventKey.ITEM_UPCS, new HashSet<>(selectedLineItemUpcs)));
                 clearTransactionsTableSelections();
             });
         }
@@ -980,7 +980,7 @@ public class CustomerView extends JFrame {
                 System.out.println("[CustomerView] Click on quick add item button: " + item.getName());
             }
             parentEventDispatcher.dispatchPosEvent(new PosEvent(PosEventType.REQUEST_ADD_ITEM,
-                    Map.of(ConstKeys.ITEM_UPC, item.getUpc())));
+                    PosEventKey.ITEM_UPC, item.getUpc()));
 
         });
         return button;
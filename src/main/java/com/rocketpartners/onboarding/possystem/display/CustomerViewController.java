@@ -2,13 +2,14 @@ package com.rocketpartners.onboarding.possystem.display;
 
 import com.rocketpartners.onboarding.possystem.Application;
 import com.rocketpartners.onboarding.possystem.component.IComponent;
-import com.rocketpartners.onboarding.possystem.constant.ConstKeys;
 import com.rocketpartners.onboarding.possystem.constant.TransactionState;
 import com.rocketpartners.onboarding.commons.model.ItemDto;
 import com.rocketpartners.onboarding.commons.model.TransactionDto;
+import com.rocketpartners.onboarding.possystem.event.IPosEventCoalescer;
 import com.rocketpartners.onboarding.possystem.event.IPosEventDispatcher;
 import com.rocketpartners.onboarding.possystem.event.IPosEventListener;
 import com.rocketpartners.onboarding.possystem.event.PosEvent;
+import com.rocketpartners.onboarding.possystem.event.PosEventKey;
 import com.rocketpartners.onboarding.possystem.event.PosEventType;
 import lombok.NonNull;
 
@@ -25,6 +26,7 @@ public class CustomerViewController implements IPosEventDispatcher, IPosEventLis
             PosEventType.POS_BOOTUP,
             PosEventType.POS_RESET,
             PosEventType.TRANSACTION_STARTED,
+            PosEventType.TRANSACTION_RESTORED,
             PosEventType.TRANSACTION_VOIDED,
             PosEventType.TRANSACTION_COMPLETED,
             PosEventType.DO_UPDATE_QUICK_ITEMS,
@@ -36,6 +38,13 @@ public class CustomerViewController implements IPosEventDispatcher, IPosEventLis
             PosEventType.DO_CANCEL_PAYMENT
     );
 
+    // Each of these events carries the full transaction DTO, so only the latest one per delivery needs to be rendered
+    private static final Set<PosEventType> latestTransactionDtoWinsEventTypes = EnumSet.of(
+            PosEventType.ITEM_ADDED,
+            PosEventType.ITEM_REMOVED,
+            PosEventType.LINE_ITEMS_VOIDED
+    );
+
     @NonNull
     private final IPosEventDispatcher parentPosEventDispatcher;
     @NonNull
@@ -75,6 +84,11 @@ public class CustomerViewController implements IPosEventDispatcher, IPosEventLis
         return eventTypesToListenFor;
     }
 
+    @Override
+    public IPosEventCoalescer getCoalescer(@NonNull PosEventType eventType) {
+        return latestTransactionDtoWinsEventTypes.contains(eventType) ? IPosEventCoalescer.LATEST_WINS : null;
+    }
+
     @Override
     public void dispatchPosEvent(@NonNull PosEvent event) {
         parentPosEventDispatcher.dispatchPosEvent(event);
@@ -85,17 +99,17 @@ public class CustomerViewController implements IPosEventDispatcher, IPosEventLis
         switch (posEvent.getType()) {
             case POS_BOOTUP, POS_RESET -> setTransactionState(TransactionState.NOT_STARTED);
             case TRANSACTION_STARTED -> {
-                int transactionNumber = posEvent.getProperty(ConstKeys.TRANSACTION_NUMBER, Integer.class);
+                int transactionNumber = posEvent.getProperty(PosEventKey.TRANSACTION_NUMBER, Integer.class);
                 customerView.updateTransactionNumber(transactionNumber);
                 setTransactionState(TransactionState.SCANNING_IN_PROGRESS);
             }
             case DO_CANCEL_PAYMENT -> setTransactionState(TransactionState.SCANNING_IN_PROGRESS);
             case DO_UPDATE_QUICK_ITEMS -> {
-                List<ItemDto> itemDtos = (List<ItemDto>) posEvent.getProperty(ConstKeys.ITEM_DTOS);
+                List<ItemDto> itemDtos = (List<ItemDto>) posEvent.getProperty(PosEventKey.ITEM_DTOS);
                 customerView.updateQuickItems(itemDtos);
             }
             case INSUFFICIENT_FUNDS -> {
-                TransactionDto transactionDto = posEvent.getProperty(ConstKeys.TRANSACTION_DTO, TransactionDto.class);
+                TransactionDto transactionDto = posEvent.getProperty(PosEventKey.TRANSACTION_DTO, TransactionDto.class);
                 customerView.updateTransactionMetadata(
                         transactionDto.getSubtotal(),
                         transactionDto.getDiscounts(),
@@ -105,8 +119,8 @@ public class CustomerViewController implements IPosEventDispatcher, IPosEventLis
                         transactionDto.getChangeDue()
                 );
             }
-            case ITEM_ADDED, ITEM_REMOVED, LINE_ITEMS_VOIDED -> {
-                TransactionDto transactionDto = posEvent.getProperty(ConstKeys.TRANSACTION_DTO, TransactionDto.class);
+            case ITEM_ADDED, ITEM_REMOVED, LINE_ITEMS_VOIDED, TRANSACTION_RESTORED -> {
+                TransactionDto transactionDto = posEvent.getProperty(PosEventKey.TRANSACTION_DTO, TransactionDto.class);
                 customerView.updateTransactionsTable(transactionDto.getLineItemDtos());
                 customerView.updateTransactionMetadata(
                         transactionDto.getSubtotal(),
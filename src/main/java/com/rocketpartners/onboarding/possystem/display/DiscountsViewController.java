@@ -2,9 +2,9 @@ package com.rocketpartners.onboarding.possystem.display;
 
 import com.rocketpartners.onboarding.commons.model.Discount;
 import com.rocketpartners.onboarding.possystem.Application;
-import com.rocketpartners.onboarding.possystem.constant.ConstKeys;
 import com.rocketpartners.onboarding.possystem.event.IPosEventListener;
 import com.rocketpartners.onboarding.possystem.event.PosEvent;
+import com.rocketpartners.onboarding.possystem.event.PosEventKey;
 import com.rocketpartners.onboarding.possystem.event.PosEventType;
 import lombok.NonNull;
 
@@ -37,7 +37,7 @@ public class DiscountsViewController implements IPosEventListener {
             }
             discountsView.setVisible(true);
 
-            Map<String, Discount> discounts = (Map<String, Discount>) event.getProperty(ConstKeys.DISCOUNTS);
+            Map<String, Discount> discounts = (Map<String, Discount>) event.getProperty(PosEventKey.DISCOUNTS);
             if (Application.DEBUG) {
                 System.out.println("[DiscountsViewController] Discounts: " + discounts);
             }
@@ -1,8 +1,8 @@
 package com.rocketpartners.onboarding.possystem.display;
 
-import com.rocketpartners.onboarding.possystem.constant.ConstKeys;
 import com.rocketpartners.onboarding.possystem.event.IPosEventListener;
 import com.rocketpartners.onboarding.possystem.event.PosEvent;
+import com.rocketpartners.onboarding.possystem.event.PosEventKey;
 import com.rocketpartners.onboarding.possystem.event.PosEventType;
 import lombok.NonNull;
 
@@ -26,7 +26,7 @@ public class ErrorPopupViewController implements IPosEventListener {
     @Override
     public void onPosEvent(@NonNull PosEvent event) {
         if (event.getType() == PosEventType.ERROR) {
-            String error = event.getProperty(ConstKeys.MESSAGE, String.class);
+            String error = event.getProperty(PosEventKey.MESSAGE, String.class);
             JOptionPane.showMessageDialog(null, error, "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
@@ -1,8 +1,8 @@
 package com.rocketpartners.onboarding.possystem.display;
 
-import com.rocketpartners.onboarding.possystem.constant.ConstKeys;
 import com.rocketpartners.onboarding.possystem.event.IPosEventDispatcher;
 import com.rocketpartners.onboarding.possystem.event.PosEvent;
+import com.rocketpartners.onboarding.possystem.event.PosEventKey;
 import com.rocketpartners.onboarding.possystem.event.PosEventType;
 import lombok.NonNull;
 
@@ -10,7 +10,6 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
-import java.util.Map;
 
 /**
  * View for the card keypad. This class is responsible for displaying the keypad and handling user input. The keypad is
@@ -72,7 +71,7 @@ public class PayWithCardView extends KeypadView {
                             JOptionPane.YES_NO_OPTION,
                             JOptionPane.QUESTION_MESSAGE) == JOptionPane.YES_OPTION) {
                 SwingUtilities.invokeLater(() -> parentPosDispatcher.dispatchPosEvent(new PosEvent(
-                        PosEventType.REQUEST_ENTER_CARD_NUMBER, Map.of(ConstKeys.CARD_NUMBER, currentText))));
+                        PosEventType.REQUEST_ENTER_CARD_NUMBER, PosEventKey.CARD_NUMBER, currentText)));
             }
         });
 
@@ -1,8 +1,8 @@
 package com.rocketpartners.onboarding.possystem.display;
 
-import com.rocketpartners.onboarding.possystem.constant.ConstKeys;
 import com.rocketpartners.onboarding.possystem.event.IPosEventDispatcher;
 import com.rocketpartners.onboarding.possystem.event.PosEvent;
+import com.rocketpartners.onboarding.possystem.event.PosEventKey;
 import com.rocketpartners.onboarding.possystem.event.PosEventType;
 import lombok.NonNull;
 
@@ -10,7 +10,6 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
-import java.util.Map;
 
 /**
  * View for the cash keypad. This class is responsible for displaying the keypad and handling user input. The keypad is
@@ -68,7 +67,7 @@ public class PayWithCashView extends KeypadView {
                 clearDisplayAreaText();
 
                 SwingUtilities.invokeLater(() -> parentPosDispatcher.dispatchPosEvent(new PosEvent(
-                        PosEventType.REQUEST_INSERT_CASH, Map.of(ConstKeys.CASH_AMOUNT, currentText))));
+                        PosEventType.REQUEST_INSERT_CASH, PosEventKey.CASH_AMOUNT, currentText)));
             }
         });
 
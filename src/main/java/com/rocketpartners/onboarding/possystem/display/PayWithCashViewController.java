@@ -1,10 +1,10 @@
 package com.rocketpartners.onboarding.possystem.display;
 
 import com.rocketpartners.onboarding.possystem.component.IComponent;
-import com.rocketpartners.onboarding.possystem.constant.ConstKeys;
 import com.rocketpartners.onboarding.possystem.event.IPosEventDispatcher;
 import com.rocketpartners.onboarding.possystem.event.IPosEventListener;
 import com.rocketpartners.onboarding.possystem.event.PosEvent;
+import com.rocketpartners.onboarding.possystem.event.PosEventKey;
 import com.rocketpartners.onboarding.possystem.event.PosEventType;
 import lombok.NonNull;
 
@@ -55,7 +55,7 @@ public class PayWithCashViewController implements IPosEventDispatcher, IPosEvent
         switch (event.getType()) {
             case START_PAY_WITH_CASH_PROCESS -> payWithCashView.setVisible(true);
             case INSUFFICIENT_FUNDS -> {
-                BigDecimal amountNeeded = event.getProperty(ConstKeys.AMOUNT_NEEDED, BigDecimal.class);
+                BigDecimal amountNeeded = event.getProperty(PosEventKey.AMOUNT_NEEDED, BigDecimal.class);
                 NumberFormat currencyFormat = NumberFormat.getCurrencyInstance();
                 String formattedAmountNeeded = currencyFormat.format(amountNeeded);
                 payWithCashView.notifyInsufficientFunds(formattedAmountNeeded);
@@ -1,14 +1,15 @@
 package com.rocketpartners.onboarding.possystem.display;
 
 import com.rocketpartners.onboarding.possystem.component.IComponent;
-import com.rocketpartners.onboarding.possystem.constant.ConstKeys;
 import com.rocketpartners.onboarding.commons.model.ItemDto;
 import com.rocketpartners.onboarding.possystem.event.IPosEventDispatcher;
 import com.rocketpartners.onboarding.possystem.event.IPosEventListener;
 import com.rocketpartners.onboarding.possystem.event.PosEvent;
+import com.rocketpartners.onboarding.possystem.event.PosEventKey;
 import com.rocketpartners.onboarding.possystem.event.PosEventType;
 import lombok.NonNull;
 
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -53,11 +54,17 @@ public class PoleDisplayViewController implements IPosEventListener {
             }
             case DO_OPEN_POLE_DISPLAY -> poleDisplayView.setVisible(true);
             case ITEM_ADDED -> {
-                ItemDto itemDto = event.getProperty(ConstKeys.ITEM_DTO, ItemDto.class);
-                poleDisplayView.addItem(itemDto);
+                // A batch of items is added with one event that carries every added item
+                if (event.containsProperty(PosEventKey.ITEM_DTOS)) {
+                    List<ItemDto> itemDtos = (List<ItemDto>) event.getProperty(PosEventKey.ITEM_DTOS);
+                    itemDtos.forEach(poleDisplayView::addItem);
+                } else {
+                    ItemDto itemDto = event.getProperty(PosEventKey.ITEM_DTO, ItemDto.class);
+                    poleDisplayView.addItem(itemDto);
+                }
             }
             case ITEM_REMOVED -> {
-                ItemDto itemDto = event.getProperty(ConstKeys.ITEM_DTO, ItemDto.class);
+                ItemDto itemDto = event.getProperty(PosEventKey.ITEM_DTO, ItemDto.class);
                 poleDisplayView.removeItem(itemDto);
             }
         }
@@ -1,11 +1,11 @@
 package com.rocketpartners.onboarding.possystem.display;
 
 import com.rocketpartners.onboarding.possystem.component.IComponent;
-import com.rocketpartners.onboarding.possystem.constant.ConstKeys;
 import com.rocketpartners.onboarding.commons.model.TransactionDto;
 import com.rocketpartners.onboarding.possystem.event.IPosEventDispatcher;
 import com.rocketpartners.onboarding.possystem.event.IPosEventListener;
 import com.rocketpartners.onboarding.possystem.event.PosEvent;
+import com.rocketpartners.onboarding.possystem.event.PosEventKey;
 import com.rocketpartners.onboarding.possystem.event.PosEventType;
 import lombok.NonNull;
 
@@ -48,7 +48,7 @@ public class ReceiptViewController implements IPosEventListener {
     public void onPosEvent(@NonNull PosEvent event) {
         switch (event.getType()) {
             case TRANSACTION_COMPLETED -> {
-                TransactionDto transactionDto = event.getProperty(ConstKeys.TRANSACTION_DTO, TransactionDto.class);
+                TransactionDto transactionDto = event.getProperty(PosEventKey.TRANSACTION_DTO, TransactionDto.class);
                 receiptView.update(transactionDto);
                 receiptView.setVisible(true);
             }
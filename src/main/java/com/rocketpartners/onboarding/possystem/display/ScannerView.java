@@ -1,9 +1,9 @@
 package com.rocketpartners.onboarding.possystem.display;
 
 import com.rocketpartners.onboarding.possystem.Application;
-import com.rocketpartners.onboarding.possystem.constant.ConstKeys;
 import com.rocketpartners.onboarding.possystem.event.IPosEventDispatcher;
 import com.rocketpartners.onboarding.possystem.event.PosEvent;
+import com.rocketpartners.onboarding.possystem.event.PosEventKey;
 import com.rocketpartners.onboarding.possystem.event.PosEventType;
 import lombok.NonNull;
 
@@ -12,7 +12,8 @@ import java.awt.*;
 import java.awt.event.KeyEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
-import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * View for the scanner. This class is responsible for displaying the scanner view and handling user input.
@@ -23,7 +24,10 @@ public class ScannerView extends JFrame implements KeyEventDispatcher {
     private static final int MIN_HEIGHT = 200;
     private static final int SCANNER_INPUT_COLUMNS = 30;
     private static final String NOT_IN_PROGRESS_TEXT = "Scanning not currently in progress";
-    private static final String PROMPT_TEXT = "Scan a barcode or input it manually. Press ENTER to submit.";
+    private static final String PROMPT_TEXT = "Scan a barcode or input it manually, e.g. 12x<barcode> to add 12. " +
+            "Press ENTER to submit.";
+    // A keyed-in quantity, e.g. 12x041594904794, is added as one batch instead of 12 scans
+    private static final Pattern QUANTITY_INPUT = Pattern.compile("^(\\d{1,3})[xX](.+)$");
 
     private final IPosEventDispatcher parentPosDispatcher;
     private final JTextArea scannerInput;
@@ -115,8 +119,15 @@ public class ScannerView extends JFrame implements KeyEventDispatcher {
     }
 
     void onEnter() {
-        parentPosDispatcher.dispatchPosEvent(new PosEvent(PosEventType.REQUEST_ADD_ITEM,
-                Map.of(ConstKeys.ITEM_UPC, getScannerInput())));
+        String input = getScannerInput();
+        Matcher matcher = QUANTITY_INPUT.matcher(input);
+        if (matcher.matches()) {
+            parentPosDispatcher.dispatchPosEvent(new PosEvent(PosEventType.REQUEST_ADD_ITEM,
+                    PosEventKey.ITEM_UPC, matcher.group(2), PosEventKey.QUANTITY, Integer.parseInt(matcher.group(1))));
+        } else {
+            parentPosDispatcher.dispatchPosEvent(new PosEvent(PosEventType.REQUEST_ADD_ITEM,
+                    PosEventKey.ITEM_UPC, input));
+        }
         clearScannerInput();
     }
 
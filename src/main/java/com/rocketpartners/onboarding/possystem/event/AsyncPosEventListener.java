@@ -0,0 +1,275 @@
+package com.rocketpartners.onboarding.possystem.event;
+
+import com.rocketpartners.onboarding.possystem.Application;
+import com.rocketpartners.onboarding.possystem.component.IComponent;
+import com.rocketpartners.onboarding.possystem.metrics.LatencyStats;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decorator that runs a POS event listener on its own worker thread so that a slow listener, e.g. one that writes to
+ * a blocking socket, cannot stall the thread that delivers events. Events are handed to the worker thread through a
+ * bounded queue, and the {@link OverflowPolicy} decides what happens when the queue is full. The delegate receives
+ * the events in the order they were delivered.
+ * <p>
+ * If the delegate is an {@link IComponent}, then its {@link IComponent#bootUp()} and {@link IComponent#shutDown()}
+ * methods are called on the worker thread as well, before the first event and after the last event respectively. The
+ * {@link IComponent#update()} method of the delegate is not called. If the spill listener is an {@link IComponent},
+ * then it is booted up with this listener and shut down after the queue has drained, since it receives events until
+ * then. Listeners that touch Swing components must not be wrapped, since they have to stay on the Event Dispatch
+ * Thread.
+ */
+public class AsyncPosEventListener implements IPosEventListener, IComponent {
+
+    /**
+     * What to do with an event when the queue of the listener is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Drop the event that could not be queued.
+         */
+        DROP_NEWEST,
+        /**
+         * Drop the oldest queued event to make room for the new event.
+         */
+        DROP_OLDEST,
+        /**
+         * Block the delivering thread until there is room in the queue. This applies backpressure to the lane.
+         */
+        BLOCK,
+        /**
+         * Deliver the event to the spill listener on the delivering thread instead.
+         */
+        SPILL
+    }
+
+    private static final long POLL_TIMEOUT_MS = 100;
+    private static final long SHUTDOWN_TIMEOUT_MS = 2000;
+
+    private record QueuedPosEvent(PosEvent event, long enqueuedNanos) {
+    }
+
+    @Getter
+    private final String name;
+    private final IPosEventListener delegate;
+    @Getter
+    private final OverflowPolicy overflowPolicy;
+    private final IPosEventListener spillListener;
+    private final BlockingQueue<QueuedPosEvent> queue;
+
+    @Getter
+    private final LatencyStats lagStats;
+    private final AtomicLong droppedCount;
+    private final AtomicLong spilledCount;
+    private final AtomicLong deliveredCount;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    /**
+     * Constructor that accepts a name, the delegate listener, the queue capacity, and an overflow policy other than
+     * {@link OverflowPolicy#SPILL}.
+     *
+     * @param name           The name of the listener, used for the worker thread and in logs.
+     * @param delegate       The listener to run on the worker thread.
+     * @param queueCapacity  The maximum number of events waiting for the delegate.
+     * @param overflowPolicy The overflow policy.
+     */
+    public AsyncPosEventListener(@NonNull String name, @NonNull IPosEventListener delegate, int queueCapacity,
+                                 @NonNull OverflowPolicy overflowPolicy) {
+        this(name, delegate, queueCapacity, overflowPolicy, null);
+    }
+
+    /**
+     * Constructor that accepts a name, the delegate listener, the queue capacity, an overflow policy, and the
+     * listener that receives the events that do not fit in the queue when the policy is {@link OverflowPolicy#SPILL}.
+     *
+     * @param name           The name of the listener, used for the worker thread and in logs.
+     * @param delegate       The listener to run on the worker thread.
+     * @param queueCapacity  The maximum number of events waiting for the delegate.
+     * @param overflowPolicy The overflow policy.
+     * @param spillListener  The spill listener. Required if the policy is {@link OverflowPolicy#SPILL}.
+     */
+    public AsyncPosEventListener(@NonNull String name, @NonNull IPosEventListener delegate, int queueCapacity,
+                                 @NonNull OverflowPolicy overflowPolicy, IPosEventListener spillListener) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be greater than 0");
+        }
+        if (overflowPolicy == OverflowPolicy.SPILL && spillListener == null) {
+            throw new IllegalArgumentException("Spill listener is required when the overflow policy is SPILL");
+        }
+        this.name = name;
+        this.delegate = delegate;
+        this.overflowPolicy = overflowPolicy;
+        this.spillListener = spillListener;
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        lagStats = new LatencyStats(name + " lag");
+        droppedCount = new AtomicLong();
+        spilledCount = new AtomicLong();
+        deliveredCount = new AtomicLong();
+    }
+
+    @Override
+    public @NonNull Set<PosEventType> getEventTypesToListenFor() {
+        return delegate.getEventTypesToListenFor();
+    }
+
+    @Override
+    public IPosEventCoalescer getCoalescer(@NonNull PosEventType eventType) {
+        return delegate.getCoalescer(eventType);
+    }
+
+    @Override
+    public void onPosEvent(@NonNull PosEvent event) {
+        QueuedPosEvent queuedEvent = new QueuedPosEvent(event, System.nanoTime());
+        switch (overflowPolicy) {
+            case DROP_NEWEST -> {
+                if (!queue.offer(queuedEvent)) {
+                    droppedCount.incrementAndGet();
+                }
+            }
+            case DROP_OLDEST -> {
+                while (!queue.offer(queuedEvent)) {
+                    if (queue.poll() != null) {
+                        droppedCount.incrementAndGet();
+                    }
+                }
+            }
+            case BLOCK -> {
+                try {
+                    queue.put(queuedEvent);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    droppedCount.incrementAndGet();
+                }
+            }
+            case SPILL -> {
+                if (!queue.offer(queuedEvent)) {
+                    spilledCount.incrementAndGet();
+                    spillListener.onPosEvent(event);
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Starts the worker thread. Events received before this method is called wait in the queue.
+     */
+    @Override
+    public synchronized void bootUp() {
+        if (running) {
+            return;
+        }
+        if (spillListener instanceof IComponent component) {
+            component.bootUp();
+        }
+        running = true;
+        worker = new Thread(this::runWorker, "async-listener-" + name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Stops the worker thread after it has delivered the queued events, waiting at most two seconds, and then shuts
+     * down the spill listener.
+     */
+    @Override
+    public synchronized void shutDown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            worker.join(SHUTDOWN_TIMEOUT_MS);
+            if (worker.isAlive()) {
+                System.err.println("[AsyncPosEventListener] " + name + " did not drain in time, " + queue.size() +
+                        " events left");
+                worker.interrupt();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (spillListener instanceof IComponent component) {
+            component.shutDown();
+        }
+    }
+
+    private void runWorker() {
+        if (delegate instanceof IComponent component) {
+            component.bootUp();
+        }
+        try {
+            while (running || !queue.isEmpty()) {
+                QueuedPosEvent queuedEvent = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (queuedEvent == null) {
+                    continue;
+                }
+                try {
+                    delegate.onPosEvent(queuedEvent.event());
+                } catch (Exception e) {
+                    System.err.println("[AsyncPosEventListener] " + name + " failed to handle event " +
+                            queuedEvent.event().getType() + ": " + e.getMessage());
+                }
+                deliveredCount.incrementAndGet();
+                lagStats.record(System.nanoTime() - queuedEvent.enqueuedNanos());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (delegate instanceof IComponent component) {
+                component.shutDown();
+            }
+            if (Application.DEBUG) {
+                System.out.println("[AsyncPosEventListener] Worker stopped: " + this);
+            }
+        }
+    }
+
+    /**
+     * Get the number of events waiting for the delegate.
+     *
+     * @return The queue depth.
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Get how long the oldest event waiting for the delegate has been in the queue.
+     *
+     * @return The lag in nanoseconds, or 0 if the queue is empty.
+     */
+    public long getCurrentLagNanos() {
+        QueuedPosEvent oldest = queue.peek();
+        return oldest != null ? System.nanoTime() - oldest.enqueuedNanos() : 0L;
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getSpilledCount() {
+        return spilledCount.get();
+    }
+
+    public long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncPosEventListener(name=" + name + ", policy=" + overflowPolicy + ", depth=" + getQueueDepth() +
+                ", delivered=" + getDeliveredCount() + ", dropped=" + getDroppedCount() + ", spilled=" +
+                getSpilledCount() + ", " + lagStats + ")";
+    }
+}
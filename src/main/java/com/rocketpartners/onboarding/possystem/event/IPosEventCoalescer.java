@@ -0,0 +1,28 @@
+package com.rocketpartners.onboarding.possystem.event;
+
+import lombok.NonNull;
+
+/**
+ * Interface for merging POS events of the same type that are pending delivery to a listener. A listener declares a
+ * coalescer for an event type through {@link IPosEventListener#getCoalescer(PosEventType)}, and then receives a single
+ * consolidated event per delivery for that type instead of one event per dispatch. The consolidated event is delivered
+ * at the position of the last event it replaces, so it keeps its order relative to the other events.
+ */
+@FunctionalInterface
+public interface IPosEventCoalescer {
+
+    /**
+     * Coalescer that keeps only the latest event. Useful when each event carries the full state, e.g. a
+     * {@link com.rocketpartners.onboarding.commons.model.TransactionDto}, so older events are superseded.
+     */
+    IPosEventCoalescer LATEST_WINS = (previous, next) -> next;
+
+    /**
+     * Merge the previous pending event with the next event of the same type.
+     *
+     * @param previous The event pending delivery, which may itself be the result of a previous merge.
+     * @param next     The event that was dispatched after the previous event.
+     * @return The event to deliver in place of both events.
+     */
+    @NonNull PosEvent coalesce(@NonNull PosEvent previous, @NonNull PosEvent next);
+}
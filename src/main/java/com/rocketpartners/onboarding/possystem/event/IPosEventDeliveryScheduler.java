@@ -0,0 +1,19 @@
+package com.rocketpartners.onboarding.possystem.event;
+
+import lombok.NonNull;
+
+/**
+ * Interface for classes that schedule the delivery of dispatched POS events to listeners. A POS event manager calls
+ * the scheduler when an event is dispatched so that listeners receive the event right away instead of waiting for the
+ * next update tick. For a Swing application, the delivery should be scheduled on the Event Dispatch Thread, e.g.
+ * with {@code SwingUtilities::invokeLater}.
+ */
+public interface IPosEventDeliveryScheduler {
+
+    /**
+     * Schedule the delivery to run as soon as possible.
+     *
+     * @param delivery The delivery to run.
+     */
+    void scheduleDelivery(@NonNull Runnable delivery);
+}
@@ -23,4 +23,17 @@ public interface IPosEventListener {
      * @param event The event that was dispatched.
      */
     void onPosEvent(@NonNull PosEvent event);
+
+    /**
+     * Get the coalescer to apply to pending events of the specified type before they are delivered to this listener.
+     * If a coalescer is returned, then the listener receives one consolidated event of that type per delivery instead
+     * of every event that was dispatched since the last delivery. Called once per event type when the listener is
+     * registered. By default, events are not coalesced.
+     *
+     * @param eventType The event type.
+     * @return The coalescer for the event type, or null if events of the type should not be coalesced.
+     */
+    default IPosEventCoalescer getCoalescer(@NonNull PosEventType eventType) {
+        return null;
+    }
 }
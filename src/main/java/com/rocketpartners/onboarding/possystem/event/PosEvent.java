@@ -2,39 +2,154 @@ package com.rocketpartners.onboarding.possystem.event;
 
 import lombok.Getter;
 import lombok.NonNull;
-import lombok.ToString;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Represents a point of sale event. An event has a type and a map of properties.
+ * Represents a point of sale event. An event has a type and a set of properties. Properties are stored in fixed slots
+ * indexed by {@link PosEventKey}, so creating an event and reading its properties does not hash or allocate a map.
+ * <p>
+ * The String based property methods are kept as an adapter for code that has not been migrated to
+ * {@link PosEventKey} yet: a String key that matches the legacy name of a {@link PosEventKey} is mapped to its slot,
+ * and any other String key is stored in an overflow map. Null values are treated as absent properties.
  */
-@ToString
 public class PosEvent {
 
     @Getter
     private final PosEventType type;
-    private final Map<String, Object> props;
+    private final Object[] slots;
+    private Map<String, Object> extraProps;
 
     /**
-     * Constructor that accepts a type and creates an empty properties map.
+     * Constructor that accepts a type and creates an event without properties.
      *
      * @param type The type of the event.
      */
     public PosEvent(@NonNull PosEventType type) {
-        this(type, new HashMap<>());
+        this.type = type;
+        this.slots = new Object[PosEventKey.count()];
     }
 
     /**
-     * Constructor that accepts a type and a map of properties.
+     * Constructor that accepts a type and one property.
+     *
+     * @param type  The type of the event.
+     * @param key   The key of the property.
+     * @param value The value of the property.
+     */
+    public PosEvent(@NonNull PosEventType type, @NonNull PosEventKey key, Object value) {
+        this(type);
+        slots[key.ordinal()] = value;
+    }
+
+    /**
+     * Constructor that accepts a type and two properties.
+     *
+     * @param type   The type of the event.
+     * @param key1   The key of the first property.
+     * @param value1 The value of the first property.
+     * @param key2   The key of the second property.
+     * @param value2 The value of the second property.
+     */
+    public PosEvent(@NonNull PosEventType type, @NonNull PosEventKey key1, Object value1, @NonNull PosEventKey key2,
+                    Object value2) {
+        this(type);
+        slots[key1.ordinal()] = value1;
+        slots[key2.ordinal()] = value2;
+    }
+
+    /**
+     * Constructor that accepts a type and three properties.
+     *
+     * @param type   The type of the event.
+     * @param key1   The key of the first property.
+     * @param value1 The value of the first property.
+     * @param key2   The key of the second property.
+     * @param value2 The value of the second property.
+     * @param key3   The key of the third property.
+     * @param value3 The value of the third property.
+     */
+    public PosEvent(@NonNull PosEventType type, @NonNull PosEventKey key1, Object value1, @NonNull PosEventKey key2,
+                    Object value2, @NonNull PosEventKey key3, Object value3) {
+        this(type, key1, value1, key2, value2);
+        slots[key3.ordinal()] = value3;
+    }
+
+    /**
+     * Constructor that accepts a type and a map of properties keyed by String. This is the adapter for code that
+     * has not been migrated to {@link PosEventKey} yet.
      *
      * @param type  The type of the event.
      * @param props The properties of the event.
      */
     public PosEvent(@NonNull PosEventType type, @NonNull Map<String, Object> props) {
+        this(type);
+        props.forEach(this::putProperty);
+    }
+
+    private PosEvent(@NonNull PosEventType type, @NonNull PosEvent source) {
         this.type = type;
-        this.props = props;
+        this.slots = source.slots.clone();
+        this.extraProps = source.extraProps != null ? new HashMap<>(source.extraProps) : null;
+    }
+
+    /**
+     * Create a new event of the specified type with a copy of the properties of this event.
+     *
+     * @param type The type of the new event.
+     * @return The new event.
+     */
+    public PosEvent copyAs(@NonNull PosEventType type) {
+        return new PosEvent(type, this);
+    }
+
+    /**
+     * Returns true if the event contains a property with the specified key.
+     *
+     * @param key The key of the property.
+     * @return True if the event contains the property, false otherwise.
+     */
+    public boolean containsProperty(@NonNull PosEventKey key) {
+        return slots[key.ordinal()] != null;
+    }
+
+    /**
+     * Get a property of the event.
+     *
+     * @param key The key of the property.
+     * @return The property, or null if the event does not contain the property.
+     */
+    public Object getProperty(@NonNull PosEventKey key) {
+        return slots[key.ordinal()];
+    }
+
+    /**
+     * Get a property of the event and cast it to the specified class.
+     *
+     * @param key   The key of the property.
+     * @param clazz The class to cast the property to.
+     * @param <T>   The type of the property.
+     * @return The property cast to the specified class.
+     */
+    public <T> T getProperty(@NonNull PosEventKey key, @NonNull Class<T> clazz) {
+        return clazz.cast(slots[key.ordinal()]);
+    }
+
+    /**
+     * Get a property of the event and cast it to the specified class. If the property does not exist, return the
+     * default value. If the property exists but cannot be cast to the specified class, an exception will be thrown.
+     *
+     * @param key          The key of the property.
+     * @param clazz        The class to cast the property to.
+     * @param defaultValue The default value to return if the property does not exist.
+     * @param <T>          The type of the property.
+     * @return The property cast to the specified class or the default value if the property does not exist.
+     */
+    public <T> T getOrDefaultProperty(@NonNull PosEventKey key, @NonNull Class<T> clazz, T defaultValue) {
+        Object value = slots[key.ordinal()];
+        return value != null ? clazz.cast(value) : defaultValue;
     }
 
     /**
@@ -44,17 +159,21 @@ public class PosEvent {
      * @return True if the event contains the property, false otherwise.
      */
     public boolean containsProperty(@NonNull String key) {
-        return props.containsKey(key);
+        return getProperty(key) != null;
     }
 
     /**
-     * Add a property to the event.
+     * Get a property of the event.
      *
      * @param key The key of the property.
-     * @return The event.
+     * @return The property, or null if the event does not contain the property.
      */
     public Object getProperty(@NonNull String key) {
-        return props.get(key);
+        PosEventKey posEventKey = PosEventKey.fromName(key);
+        if (posEventKey != null) {
+            return slots[posEventKey.ordinal()];
+        }
+        return extraProps != null ? extraProps.get(key) : null;
     }
 
     /**
@@ -70,22 +189,20 @@ public class PosEvent {
     }
 
     /**
-     * Get a property of the event and cast it to the specified class. If the property does not exist, return the
-     * default
-     * value. If the property exists but cannot be cast to the specified class, an exception will be thrown.
+     * Get a property of the event. If the property does not exist, return the default value.
      *
      * @param key          The key of the property.
      * @param defaultValue The default value to return if the property does not exist.
-     * @return The property cast to the specified class or the default value if the property does not exist.
+     * @return The property or the default value if the property does not exist.
      */
     public Object getOrDefaultProperty(@NonNull String key, Object defaultValue) {
-        return props.containsKey(key) ? getProperty(key) : defaultValue;
+        Object value = getProperty(key);
+        return value != null ? value : defaultValue;
     }
 
     /**
      * Get a property of the event and cast it to the specified class. If the property does not exist, return the
-     * default
-     * value. If the property exists but cannot be cast to the specified class, an exception will be thrown.
+     * default value. If the property exists but cannot be cast to the specified class, an exception will be thrown.
      *
      * @param key          The key of the property.
      * @param clazz        The class to cast the property to.
@@ -94,15 +211,61 @@ public class PosEvent {
      * @return The property cast to the specified class or the default value if the property does not exist.
      */
     public <T> T getOrDefaultProperty(@NonNull String key, @NonNull Class<T> clazz, T defaultValue) {
-        return props.containsKey(key) ? getProperty(key, clazz) : defaultValue;
+        Object value = getProperty(key);
+        return value != null ? clazz.cast(value) : defaultValue;
     }
 
     /**
-     * Returns a copy of the properties map.
+     * Returns a copy of the properties keyed by String. Properties stored in slots are keyed by the legacy name of
+     * their {@link PosEventKey}.
      *
      * @return A copy of the properties map.
      */
     public Map<String, Object> getCopyOfProps() {
-        return new HashMap<>(props);
+        Map<String, Object> props = extraProps != null ? new HashMap<>(extraProps) : new HashMap<>();
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] != null) {
+                props.put(PosEventKey.fromOrdinal(i).getName(), slots[i]);
+            }
+        }
+        return props;
+    }
+
+    private void putProperty(@NonNull String key, Object value) {
+        PosEventKey posEventKey = PosEventKey.fromName(key);
+        if (posEventKey != null) {
+            slots[posEventKey.ordinal()] = value;
+            return;
+        }
+        if (extraProps == null) {
+            extraProps = new HashMap<>();
+        }
+        extraProps.put(key, value);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("PosEvent(type=").append(type).append(", props={");
+        boolean first = true;
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] == null) {
+                continue;
+            }
+            if (!first) {
+                builder.append(", ");
+            }
+            builder.append(PosEventKey.fromOrdinal(i).getName()).append('=').append(slots[i]);
+            first = false;
+        }
+        if (extraProps != null) {
+            for (Map.Entry<String, Object> entry : extraProps.entrySet()) {
+                if (!first) {
+                    builder.append(", ");
+                }
+                builder.append(entry.getKey()).append('=').append(entry.getValue());
+                first = false;
+            }
+        }
+        return builder.append("})").toString();
     }
 }
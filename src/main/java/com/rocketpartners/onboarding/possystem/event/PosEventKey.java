@@ -0,0 +1,74 @@
+package com.rocketpartners.onboarding.possystem.event;
+
+import com.rocketpartners.onboarding.possystem.constant.ConstKeys;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keys of the properties a {@link PosEvent} can carry. Each key owns a fixed slot in the event, indexed by its
+ * ordinal, so reading or writing a property is an array access instead of a hash lookup. Each key also has the legacy
+ * String name from {@link ConstKeys} so that code using the String based property methods keeps working.
+ */
+public enum PosEventKey {
+    MESSAGE(ConstKeys.MESSAGE),
+    ITEM_UPC(ConstKeys.ITEM_UPC),
+    ITEM_UPCS(ConstKeys.ITEM_UPCS),
+    ITEM_DTOS(ConstKeys.ITEM_DTOS),
+    ITEM_DTO(ConstKeys.ITEM_DTO),
+    TRANSACTION_DTO(ConstKeys.TRANSACTION_DTO),
+    POS_SYSTEM_ID(ConstKeys.POS_SYSTEM_ID),
+    CARD_NUMBER(ConstKeys.CARD_NUMBER),
+    CASH_AMOUNT(ConstKeys.CASH_AMOUNT),
+    DISCOUNTS(ConstKeys.DISCOUNTS),
+    TRANSACTION_NUMBER(ConstKeys.TRANSACTION_NUMBER),
+    AMOUNT_NEEDED(ConstKeys.AMOUNT_NEEDED),
+    QUANTITY(ConstKeys.QUANTITY);
+
+    private static final PosEventKey[] VALUES = values();
+    private static final Map<String, PosEventKey> KEYS_BY_NAME = new HashMap<>();
+
+    static {
+        for (PosEventKey key : VALUES) {
+            KEYS_BY_NAME.put(key.name, key);
+        }
+    }
+
+    @Getter
+    private final String name;
+
+    PosEventKey(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Get the key with the specified legacy String name.
+     *
+     * @param name The legacy String name of the key.
+     * @return The key, or null if there is no key with the name.
+     */
+    public static PosEventKey fromName(@NonNull String name) {
+        return KEYS_BY_NAME.get(name);
+    }
+
+    /**
+     * Get the number of keys, which is also the number of property slots in an event.
+     *
+     * @return The number of keys.
+     */
+    public static int count() {
+        return VALUES.length;
+    }
+
+    /**
+     * Get the key with the specified ordinal.
+     *
+     * @param ordinal The ordinal of the key.
+     * @return The key.
+     */
+    static PosEventKey fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
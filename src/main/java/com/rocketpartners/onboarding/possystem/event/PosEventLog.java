@@ -0,0 +1,328 @@
+package com.rocketpartners.onboarding.possystem.event;
+
+import com.rocketpartners.onboarding.possystem.Application;
+import com.rocketpartners.onboarding.possystem.metrics.LatencyStats;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary log of the POS events that change the state of the current transaction, written through a
+ * {@link MappedByteBuffer}. On boot, the records recovered from the log are replayed to rebuild the transaction that
+ * was in progress when the application stopped. When a transaction ends and has been written to the transaction
+ * repository, the log is compacted down to the next transaction number.
+ * <p>
+ * The file starts with a 16 byte header: a magic number, the format version, the next transaction number, and a
+ * reserved int. Each record that follows is an int length, the CRC-32 of the payload, and the payload: the event type
+ * name, the number of fields, and the UTF-8 bytes of each field. A record is committed by writing its length last,
+ * after its payload, its CRC and the zero length end marker that follows it, so a record that was only partially
+ * written is never read back. Recovery stops at the first record whose CRC or lengths do not match, e.g. a page that
+ * was torn by a crash of the OS, and truncates the log there, so that a corrupt log loses its tail instead of keeping
+ * the POS from booting. A log of an older version is discarded with a warning.
+ * <p>
+ * Appends are written to the mapped memory, which survives a crash of the JVM. Surviving a crash of the OS requires
+ * the pages to be forced to disk, which is controlled by the fsync interval: 0 forces the log on every append, a
+ * positive interval forces it on a background thread at most that often (group commit), and a negative interval
+ * leaves it to the OS.
+ */
+public class PosEventLog implements Closeable {
+
+    /**
+     * A record recovered from the log.
+     *
+     * @param type   The type of the event.
+     * @param fields The fields of the event.
+     */
+    public record Entry(@NonNull PosEventType type, @NonNull List<String> fields) {
+    }
+
+    private static final int MAGIC = 0x504F534C;
+    private static final int VERSION = 2;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int NEXT_TRANSACTION_NUMBER_OFFSET = 8;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int INITIAL_CAPACITY = 1024 * 1024;
+
+    private static final byte[][] TYPE_NAMES = new byte[PosEventType.values().length][];
+
+    static {
+        for (PosEventType type : PosEventType.values()) {
+            TYPE_NAMES[type.ordinal()] = type.name().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    @Getter
+    private final Path path;
+    private final FileChannel channel;
+    private final long fsyncIntervalMs;
+    private final ScheduledExecutorService fsyncExecutor;
+    private final AtomicBoolean dirty;
+    @Getter
+    private final LatencyStats appendLatencyStats;
+    @Getter
+    private final List<Entry> recoveredEntries;
+
+    private volatile MappedByteBuffer buffer;
+    private int writePosition;
+
+    /**
+     * Constructor that opens the log at the specified path, creating it if it does not exist, and recovers the
+     * records it contains.
+     *
+     * @param path            The path of the log file.
+     * @param fsyncIntervalMs The fsync interval in milliseconds. 0 forces every append, a negative value never
+     *                        forces explicitly.
+     * @throws IOException if the file cannot be opened or is not a POS event log
+     */
+    public PosEventLog(@NonNull Path path, long fsyncIntervalMs) throws IOException {
+        this.path = path;
+        this.fsyncIntervalMs = fsyncIntervalMs;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), INITIAL_CAPACITY));
+        dirty = new AtomicBoolean();
+        appendLatencyStats = new LatencyStats("POS event log append latency");
+
+        int magic = buffer.getInt(MAGIC_OFFSET);
+        if (magic == 0) {
+            buffer.putInt(VERSION_OFFSET, VERSION);
+            buffer.putInt(NEXT_TRANSACTION_NUMBER_OFFSET, 1);
+            buffer.putInt(HEADER_SIZE, 0);
+            buffer.putInt(MAGIC_OFFSET, MAGIC);
+            buffer.force();
+        } else if (magic != MAGIC) {
+            channel.close();
+            throw new IOException("File is not a POS event log: " + path);
+        } else if (buffer.getInt(VERSION_OFFSET) != VERSION) {
+            System.err.println("[PosEventLog] Discarding the records of event log " + path + " with version " +
+                    buffer.getInt(VERSION_OFFSET) + ", expected version " + VERSION);
+            buffer.putInt(HEADER_SIZE, 0);
+            buffer.putInt(VERSION_OFFSET, VERSION);
+            buffer.force();
+        }
+        recoveredEntries = Collections.unmodifiableList(readEntries());
+
+        if (fsyncIntervalMs > 0) {
+            fsyncExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "pos-event-log-fsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            fsyncExecutor.scheduleWithFixedDelay(this::forceIfDirty, fsyncIntervalMs, fsyncIntervalMs,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            fsyncExecutor = null;
+        }
+
+        if (Application.DEBUG) {
+            System.out.println("[PosEventLog] Opened event log " + path + " with " + recoveredEntries.size() +
+                    " recovered entries");
+        }
+    }
+
+    /**
+     * Get the next transaction number stored in the header, i.e. the number that was current when the log was last
+     * compacted.
+     *
+     * @return The next transaction number.
+     */
+    public synchronized int getNextTransactionNumber() {
+        return buffer.getInt(NEXT_TRANSACTION_NUMBER_OFFSET);
+    }
+
+    /**
+     * Append a record to the log.
+     *
+     * @param type   The type of the event.
+     * @param fields The fields of the event.
+     */
+    public synchronized void append(@NonNull PosEventType type, @NonNull String... fields) {
+        long start = System.nanoTime();
+
+        byte[] typeName = TYPE_NAMES[type.ordinal()];
+        byte[][] fieldBytes = new byte[fields.length][];
+        int length = 1 + typeName.length + 2;
+        for (int i = 0; i < fields.length; i++) {
+            fieldBytes[i] = fields[i].getBytes(StandardCharsets.UTF_8);
+            length += 4 + fieldBytes[i].length;
+        }
+
+        ensureCapacity(writePosition + RECORD_HEADER_SIZE + length + 4);
+        MappedByteBuffer buffer = this.buffer;
+        int payloadPosition = writePosition + RECORD_HEADER_SIZE;
+        buffer.position(payloadPosition);
+        buffer.put((byte) typeName.length);
+        buffer.put(typeName);
+        buffer.putShort((short) fields.length);
+        for (byte[] bytes : fieldBytes) {
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+        buffer.putInt(0);
+        buffer.putInt(writePosition + 4, crc(payloadPosition, length));
+        buffer.putInt(writePosition, length);
+        writePosition += RECORD_HEADER_SIZE + length;
+
+        markDirty();
+        appendLatencyStats.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Discard all records and store the next transaction number in the header. The header is written before the
+     * records are discarded, so the log stays consistent if the application stops in between.
+     *
+     * @param nextTransactionNumber The next transaction number.
+     */
+    public synchronized void compact(int nextTransactionNumber) {
+        buffer.putInt(NEXT_TRANSACTION_NUMBER_OFFSET, nextTransactionNumber);
+        buffer.putInt(HEADER_SIZE, 0);
+        writePosition = HEADER_SIZE;
+        markDirty();
+    }
+
+    /**
+     * Force the log to disk.
+     */
+    public void force() {
+        dirty.set(false);
+        buffer.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (fsyncExecutor != null) {
+            fsyncExecutor.shutdownNow();
+        }
+        force();
+        channel.close();
+        if (Application.DEBUG) {
+            System.out.println("[PosEventLog] Closed event log " + path + ": " + appendLatencyStats);
+        }
+    }
+
+    private List<Entry> readEntries() {
+        List<Entry> entries = new ArrayList<>();
+        int position = HEADER_SIZE;
+        while (position + 4 <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length == 0) {
+                break;
+            }
+            try {
+                if (length < 0 || length > buffer.capacity() - position - RECORD_HEADER_SIZE - 4) {
+                    throw new IllegalArgumentException("record length " + length + " out of bounds");
+                }
+                if (buffer.getInt(position + 4) != crc(position + RECORD_HEADER_SIZE, length)) {
+                    throw new IllegalArgumentException("CRC mismatch");
+                }
+                Entry entry = readEntry(position + RECORD_HEADER_SIZE, length);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            } catch (IllegalArgumentException e) {
+                System.err.println("[PosEventLog] Truncating event log " + path + " at invalid record at position " +
+                        position + ": " + e.getMessage());
+                buffer.putInt(position, 0);
+                buffer.force();
+                break;
+            }
+            position += RECORD_HEADER_SIZE + length;
+        }
+        writePosition = position;
+        return entries;
+    }
+
+    private Entry readEntry(int position, int length) {
+        int end = position + length;
+        int typeNameLength = Byte.toUnsignedInt(buffer.get(position));
+        position += 1;
+        checkLength(typeNameLength + 2, position, end);
+        byte[] typeName = new byte[typeNameLength];
+        buffer.get(position, typeName);
+        position += typeNameLength;
+
+        int fieldCount = Short.toUnsignedInt(buffer.getShort(position));
+        position += 2;
+        List<String> fields = new ArrayList<>(Math.min(fieldCount, (end - position) / 4));
+        for (int i = 0; i < fieldCount; i++) {
+            checkLength(4, position, end);
+            int fieldLength = buffer.getInt(position);
+            position += 4;
+            checkLength(fieldLength, position, end);
+            byte[] field = new byte[fieldLength];
+            buffer.get(position, field);
+            fields.add(new String(field, StandardCharsets.UTF_8));
+            position += fieldLength;
+        }
+        if (position != end) {
+            throw new IllegalArgumentException("record length " + length + " does not match its fields");
+        }
+
+        String typeNameString = new String(typeName, StandardCharsets.US_ASCII);
+        try {
+            return new Entry(PosEventType.valueOf(typeNameString), fields);
+        } catch (IllegalArgumentException e) {
+            System.err.println("[PosEventLog] Skipping entry with unknown event type: " + typeNameString);
+            return null;
+        }
+    }
+
+    private static void checkLength(int length, int position, int end) {
+        if (length < 0 || length > end - position) {
+            throw new IllegalArgumentException("length " + length + " out of bounds");
+        }
+    }
+
+    private int crc(int position, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(position, length));
+        return (int) crc.getValue();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= buffer.capacity()) {
+            return;
+        }
+        long newCapacity = buffer.capacity();
+        while (newCapacity < capacity) {
+            newCapacity *= 2;
+        }
+        try {
+            buffer.force();
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, newCapacity);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to grow POS event log " + path + " to " + newCapacity + " bytes", e);
+        }
+    }
+
+    private void markDirty() {
+        if (fsyncIntervalMs == 0) {
+            force();
+        } else {
+            dirty.set(true);
+        }
+    }
+
+    private void forceIfDirty() {
+        if (dirty.getAndSet(false)) {
+            buffer.force();
+        }
+    }
+}
@@ -13,6 +13,7 @@ public enum PosEventType {
 
     REQUEST_START_TRANSACTION,
     TRANSACTION_STARTED,
+    TRANSACTION_RESTORED,
     REQUEST_VOID_TRANSACTION,
     TRANSACTION_VOIDED,
     REQUEST_COMPLETE_TRANSACTION,
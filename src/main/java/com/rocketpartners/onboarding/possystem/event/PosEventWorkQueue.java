@@ -0,0 +1,126 @@
+package com.rocketpartners.onboarding.possystem.event;
+
+import lombok.NonNull;
+
+/**
+ * Array-based FIFO queue of POS events waiting to be handled. Each event is stored alongside its cascade depth, i.e.
+ * the number of dispatches between the event and the root event that caused it. The queue grows by doubling and never
+ * shrinks, so a dispatcher that reuses a single instance does not allocate once the queue has reached its working
+ * size.
+ */
+public class PosEventWorkQueue {
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+    private PosEvent[] events;
+    private int[] depths;
+    private int head;
+    private int size;
+
+    /**
+     * Constructor that uses the default initial capacity.
+     */
+    public PosEventWorkQueue() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructor that accepts the initial capacity.
+     *
+     * @param initialCapacity the initial capacity
+     */
+    public PosEventWorkQueue(int initialCapacity) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("Initial capacity must be greater than 0");
+        }
+        events = new PosEvent[initialCapacity];
+        depths = new int[initialCapacity];
+    }
+
+    /**
+     * Add an event to the tail of the queue.
+     *
+     * @param event the event
+     * @param depth the cascade depth of the event
+     */
+    public void offer(@NonNull PosEvent event, int depth) {
+        if (size == events.length) {
+            grow();
+        }
+        int tail = (head + size) % events.length;
+        events[tail] = event;
+        depths[tail] = depth;
+        size++;
+    }
+
+    /**
+     * Get the cascade depth of the event at the head of the queue.
+     *
+     * @return the cascade depth of the head event
+     * @throws IllegalStateException if the queue is empty
+     */
+    public int peekDepth() {
+        if (size == 0) {
+            throw new IllegalStateException("Queue is empty");
+        }
+        return depths[head];
+    }
+
+    /**
+     * Remove and return the event at the head of the queue.
+     *
+     * @return the head event
+     * @throws IllegalStateException if the queue is empty
+     */
+    public PosEvent poll() {
+        if (size == 0) {
+            throw new IllegalStateException("Queue is empty");
+        }
+        PosEvent event = events[head];
+        events[head] = null;
+        head = (head + 1) % events.length;
+        size--;
+        return event;
+    }
+
+    /**
+     * Remove all events from the queue.
+     */
+    public void clear() {
+        while (size > 0) {
+            poll();
+        }
+        head = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the number of events the queue can hold before it needs to grow. Package-private for testing purposes.
+     *
+     * @return the capacity
+     */
+    int capacity() {
+        return events.length;
+    }
+
+    private void grow() {
+        int capacity = events.length * 2;
+        PosEvent[] newEvents = new PosEvent[capacity];
+        int[] newDepths = new int[capacity];
+        for (int i = 0; i < size; i++) {
+            int index = (head + i) % events.length;
+            newEvents[i] = events[index];
+            newDepths[i] = depths[index];
+        }
+        events = newEvents;
+        depths = newDepths;
+        head = 0;
+    }
+}
@@ -0,0 +1,125 @@
+package com.rocketpartners.onboarding.possystem.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Records latency samples in nanoseconds and reports count, mean, max, and percentiles. The most recent samples are
+ * kept in a fixed-size ring buffer so that recording a sample never allocates. Percentiles are computed over the
+ * samples currently held in the ring buffer, while the count, mean, and max cover every sample ever recorded. All
+ * methods are synchronized so that samples can be recorded on one thread and read on another.
+ */
+public class LatencyStats {
+
+    private static final int DEFAULT_SAMPLE_CAPACITY = 4096;
+
+    private final String name;
+    private final long[] samples;
+
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+
+    /**
+     * Constructor that accepts a name and uses the default sample capacity.
+     *
+     * @param name the name of the stats, used in {@link #toString()}
+     */
+    public LatencyStats(String name) {
+        this(name, DEFAULT_SAMPLE_CAPACITY);
+    }
+
+    /**
+     * Constructor that accepts a name and the number of recent samples to keep for percentile computation.
+     *
+     * @param name           the name of the stats, used in {@link #toString()}
+     * @param sampleCapacity the number of recent samples to keep
+     */
+    public LatencyStats(String name, int sampleCapacity) {
+        if (sampleCapacity <= 0) {
+            throw new IllegalArgumentException("Sample capacity must be greater than 0");
+        }
+        this.name = name;
+        this.samples = new long[sampleCapacity];
+    }
+
+    /**
+     * Record a latency sample.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public synchronized void record(long nanos) {
+        samples[(int) (count % samples.length)] = nanos;
+        count++;
+        totalNanos += nanos;
+        if (nanos > maxNanos) {
+            maxNanos = nanos;
+        }
+    }
+
+    /**
+     * Get the number of samples recorded.
+     *
+     * @return the number of samples recorded
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Get the mean latency of all samples recorded.
+     *
+     * @return the mean latency in nanoseconds, or 0 if no samples have been recorded
+     */
+    public synchronized long getMeanNanos() {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+
+    /**
+     * Get the max latency of all samples recorded.
+     *
+     * @return the max latency in nanoseconds
+     */
+    public synchronized long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Get the latency at the given percentile over the most recent samples.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the latency in nanoseconds at the percentile, or 0 if no samples have been recorded
+     */
+    public synchronized long getPercentileNanos(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        int size = (int) Math.min(count, samples.length);
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        return sorted[Math.max(0, Math.min(size - 1, index))];
+    }
+
+    /**
+     * Clear all recorded samples.
+     */
+    public synchronized void reset() {
+        count = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%s: count=%d, mean=%.3f ms, p50=%.3f ms, p99=%.3f ms, max=%.3f ms", name, count,
+                toMillis(getMeanNanos()), toMillis(getPercentileNanos(50)), toMillis(getPercentileNanos(99)),
+                toMillis(maxNanos));
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,119 @@
+package com.rocketpartners.onboarding.possystem.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Records size samples, e.g. the number of rows written by a save, and reports count, mean, max, and percentiles. Like
+ * {@link LatencyStats}, the most recent samples are kept in a fixed-size ring buffer for the percentiles, while the
+ * count, total, mean, and max cover every sample ever recorded. All methods are synchronized.
+ */
+public class SizeStats {
+
+    private static final int DEFAULT_SAMPLE_CAPACITY = 4096;
+
+    private final String name;
+    private final long[] samples;
+
+    private long count;
+    private long total;
+    private long max;
+
+    /**
+     * Constructor that accepts a name and uses the default sample capacity.
+     *
+     * @param name the name of the stats, used in {@link #toString()}
+     */
+    public SizeStats(String name) {
+        this(name, DEFAULT_SAMPLE_CAPACITY);
+    }
+
+    /**
+     * Constructor that accepts a name and the number of recent samples to keep for percentile computation.
+     *
+     * @param name           the name of the stats, used in {@link #toString()}
+     * @param sampleCapacity the number of recent samples to keep
+     */
+    public SizeStats(String name, int sampleCapacity) {
+        if (sampleCapacity <= 0) {
+            throw new IllegalArgumentException("Sample capacity must be greater than 0");
+        }
+        this.name = name;
+        this.samples = new long[sampleCapacity];
+    }
+
+    /**
+     * Record a size sample.
+     *
+     * @param size the size
+     */
+    public synchronized void record(long size) {
+        samples[(int) (count % samples.length)] = size;
+        count++;
+        total += size;
+        if (size > max) {
+            max = size;
+        }
+    }
+
+    /**
+     * Get the number of samples recorded.
+     *
+     * @return the number of samples recorded
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Get the sum of all samples recorded.
+     *
+     * @return the total
+     */
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    /**
+     * Get the mean of all samples recorded.
+     *
+     * @return the mean, or 0 if no samples have been recorded
+     */
+    public synchronized double getMean() {
+        return count == 0 ? 0.0 : (double) total / count;
+    }
+
+    /**
+     * Get the max of all samples recorded.
+     *
+     * @return the max
+     */
+    public synchronized long getMax() {
+        return max;
+    }
+
+    /**
+     * Get the size at the given percentile over the most recent samples.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the size at the percentile, or 0 if no samples have been recorded
+     */
+    public synchronized long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        int size = (int) Math.min(count, samples.length);
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        return sorted[Math.max(0, Math.min(size - 1, index))];
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%s: count=%d, total=%d, mean=%.2f, p50=%d, p99=%d, max=%d", name, count, total,
+                getMean(), getPercentile(50), getPercentile(99), max);
+    }
+}
@@ -0,0 +1,414 @@
+package com.rocketpartners.onboarding.possystem.repository;
+
+import com.rocketpartners.onboarding.commons.model.Item;
+import com.rocketpartners.onboarding.possystem.utils.CountMinSketch;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Read-through cache in front of an item repository, e.g. the MySQL one, which opens a connection for every lookup.
+ * {@link #getItemByUpc(String)} and {@link #itemExists(String)} are served from the cache, and a UPC that is not cached
+ * is looked up in the delegate once and then cached, including when the delegate has no item for it, so that repeated
+ * lookups of an unknown UPC do not reach the delegate either. Saving or deleting an item invalidates its entry. The
+ * other queries are not cached.
+ * <p>
+ * The cache holds a bounded number of UPCs and evicts with W-TinyLFU. New entries enter a small LRU window, and an
+ * entry leaving the window is only admitted to the main space if it was looked up more often than the entry the main
+ * space would evict, going by the frequencies in a {@link CountMinSketch} that are halved periodically. The main space
+ * is a segmented LRU, in which entries looked up again are protected from entries looked up once. This keeps the hot
+ * UPCs cached through a scan of many UPCs that are each looked up once.
+ * <p>
+ * Entries expire after a time to live, so that items changed by another process, e.g. another lane host sharing the
+ * database, are eventually seen. The cache is safe to share between threads. Lookups in the delegate are made outside
+ * the lock, and their results are discarded if an item was saved or deleted in the meantime.
+ */
+public class CachingItemRepository implements ItemRepository {
+
+    private static final int WINDOW_PERCENT = 1;
+    private static final int PROTECTED_PERCENT = 80;
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SAMPLES_PER_ENTRY = 10;
+
+    private static final class Node {
+
+        private final String upc;
+        private final Item item;
+        private final long expiresAtNanos;
+        private Node previous;
+        private Node next;
+        private AccessOrder queue;
+
+        private Node(String upc, Item item, long expiresAtNanos) {
+            this.upc = upc;
+            this.item = item;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    /**
+     * Doubly linked list of nodes from the least to the most recently used.
+     */
+    private static final class AccessOrder {
+
+        private final Node head = new Node(null, null, 0L);
+        private int size;
+
+        private AccessOrder() {
+            head.previous = head;
+            head.next = head;
+        }
+
+        private Node first() {
+            return head.next != head ? head.next : null;
+        }
+
+        private void add(Node node) {
+            node.previous = head.previous;
+            node.next = head;
+            head.previous.next = node;
+            head.previous = node;
+            node.queue = this;
+            size++;
+        }
+
+        private void remove(Node node) {
+            node.previous.next = node.next;
+            node.next.previous = node.previous;
+            node.previous = null;
+            node.next = null;
+            node.queue = null;
+            size--;
+        }
+
+        private void moveToLast(Node node) {
+            remove(node);
+            add(node);
+        }
+    }
+
+    private final ItemRepository delegate;
+    @Getter
+    private final int maximumSize;
+    @Getter
+    private final long timeToLiveMs;
+    private final LongSupplier nanoTime;
+
+    private final Map<String, Node> nodes;
+    private final AccessOrder window;
+    private final AccessOrder probation;
+    private final AccessOrder protectedQueue;
+    private final int maximumWindowSize;
+    private final int maximumProtectedSize;
+    private final CountMinSketch sketch;
+    private final int sampleSize;
+    private int samples;
+    private long invalidationCount;
+
+    private final AtomicLong hitCount;
+    private final AtomicLong missCount;
+    private final AtomicLong negativeHitCount;
+    private final AtomicLong evictionCount;
+    private final AtomicLong expirationCount;
+
+    /**
+     * Constructor that accepts the delegate repository, the maximum number of cached UPCs, and the time to live of an
+     * entry.
+     *
+     * @param delegate     the repository the items are looked up in
+     * @param maximumSize  the maximum number of cached UPCs, which must be greater than 0
+     * @param timeToLiveMs the time in milliseconds after which an entry is looked up again, or 0 to never expire
+     */
+    public CachingItemRepository(@NonNull ItemRepository delegate, int maximumSize, long timeToLiveMs) {
+        this(delegate, maximumSize, timeToLiveMs, System::nanoTime);
+    }
+
+    /**
+     * Constructor that also accepts the source of the current time in nanoseconds. Package-private for testing
+     * purposes.
+     *
+     * @param delegate     the repository the items are looked up in
+     * @param maximumSize  the maximum number of cached UPCs, which must be greater than 0
+     * @param timeToLiveMs the time in milliseconds after which an entry is looked up again, or 0 to never expire
+     * @param nanoTime     the source of the current time in nanoseconds
+     */
+    CachingItemRepository(@NonNull ItemRepository delegate, int maximumSize, long timeToLiveMs,
+                          @NonNull LongSupplier nanoTime) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be greater than 0");
+        }
+        if (timeToLiveMs < 0) {
+            throw new IllegalArgumentException("Time to live cannot be negative");
+        }
+        this.delegate = delegate;
+        this.maximumSize = maximumSize;
+        this.timeToLiveMs = timeToLiveMs;
+        this.nanoTime = nanoTime;
+
+        nodes = new HashMap<>();
+        window = new AccessOrder();
+        probation = new AccessOrder();
+        protectedQueue = new AccessOrder();
+        maximumWindowSize = Math.max(1, maximumSize * WINDOW_PERCENT / 100);
+        maximumProtectedSize = (maximumSize - maximumWindowSize) * PROTECTED_PERCENT / 100;
+        int sketchWidth = Integer.highestOneBit(Math.max(16, Math.min(maximumSize, 1 << 24)) - 1) << 1;
+        sketch = new CountMinSketch(SKETCH_DEPTH, sketchWidth);
+        sampleSize = (int) Math.min(Integer.MAX_VALUE, (long) maximumSize * SAMPLES_PER_ENTRY);
+
+        hitCount = new AtomicLong();
+        missCount = new AtomicLong();
+        negativeHitCount = new AtomicLong();
+        evictionCount = new AtomicLong();
+        expirationCount = new AtomicLong();
+    }
+
+    @Override
+    public void saveItem(@NonNull Item item) {
+        try {
+            delegate.saveItem(item);
+        } finally {
+            invalidate(item.getUpc());
+        }
+    }
+
+    @Override
+    public List<Item> getAllItems() {
+        return delegate.getAllItems();
+    }
+
+    @Override
+    public void deleteItemByUpc(@NonNull String upc) {
+        try {
+            delegate.deleteItemByUpc(upc);
+        } finally {
+            invalidate(upc);
+        }
+    }
+
+    @Override
+    public Item getItemByUpc(@NonNull String upc) {
+        long invalidationCountBeforeLoad;
+        synchronized (this) {
+            Node node = getIfPresent(upc);
+            if (node != null) {
+                return node.item;
+            }
+            invalidationCountBeforeLoad = invalidationCount;
+        }
+
+        Item item = delegate.getItemByUpc(upc);
+        synchronized (this) {
+            // An item saved or deleted during the lookup may not be in the result, so the result is not cached
+            if (invalidationCount == invalidationCountBeforeLoad && !nodes.containsKey(upc)) {
+                put(upc, item);
+            }
+        }
+        return item;
+    }
+
+    @Override
+    public boolean itemExists(@NonNull String upc) {
+        // Looks up the whole item on a miss, which costs the delegate the same round trip and caches the item for the
+        // lookup of it that usually follows
+        return getItemByUpc(upc) != null;
+    }
+
+    @Override
+    public List<Item> getItemsByName(@NonNull String name) {
+        return delegate.getItemsByName(name);
+    }
+
+    @Override
+    public List<Item> getItemsByCategory(@NonNull String category) {
+        return delegate.getItemsByCategory(category);
+    }
+
+    /**
+     * Remove the entry of a UPC, so that the next lookup of it reaches the delegate repository.
+     *
+     * @param upc the UPC
+     */
+    public synchronized void invalidate(@NonNull String upc) {
+        invalidationCount++;
+        Node node = nodes.remove(upc);
+        if (node != null) {
+            node.queue.remove(node);
+        }
+    }
+
+    /**
+     * Remove every entry.
+     */
+    public synchronized void invalidateAll() {
+        invalidationCount++;
+        for (Node node : nodes.values()) {
+            node.queue.remove(node);
+        }
+        nodes.clear();
+    }
+
+    /**
+     * Get the number of cached UPCs, including the ones the delegate has no item for.
+     *
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Get the number of lookups that were served from the cache.
+     *
+     * @return the number of hits
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Get the number of lookups that reached the delegate repository, including the ones of expired entries.
+     *
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Get the number of hits that were served from the entry of a UPC the delegate has no item for.
+     *
+     * @return the number of negative hits, which are included in the hit count
+     */
+    public long getNegativeHitCount() {
+        return negativeHitCount.get();
+    }
+
+    /**
+     * Get the number of entries that were evicted because the cache was full.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * Get the number of entries that were removed because their time to live had passed.
+     *
+     * @return the number of expirations
+     */
+    public long getExpirationCount() {
+        return expirationCount.get();
+    }
+
+    /**
+     * Get the ratio of the lookups that were served from the cache.
+     *
+     * @return the hit ratio, or 0 if there were no lookups
+     */
+    public double getHitRatio() {
+        long hits = hitCount.get();
+        long lookups = hits + missCount.get();
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    /**
+     * Check whether a UPC was admitted to the main space of the cache. Package-private for testing purposes.
+     *
+     * @param upc the UPC
+     * @return true if the UPC is cached outside the window
+     */
+    synchronized boolean isInMainSpace(@NonNull String upc) {
+        Node node = nodes.get(upc);
+        return node != null && node.queue != window;
+    }
+
+    private Node getIfPresent(String upc) {
+        recordAccess(upc);
+        Node node = nodes.get(upc);
+        if (node != null && timeToLiveMs > 0 && nanoTime.getAsLong() - node.expiresAtNanos >= 0) {
+            nodes.remove(upc);
+            node.queue.remove(node);
+            expirationCount.incrementAndGet();
+            node = null;
+        }
+        if (node == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+
+        hitCount.incrementAndGet();
+        if (node.item == null) {
+            negativeHitCount.incrementAndGet();
+        }
+        if (node.queue == probation) {
+            // An entry looked up again in probation is protected, which may demote the least recently used protected
+            // entry to probation
+            probation.remove(node);
+            protectedQueue.add(node);
+            if (protectedQueue.size > maximumProtectedSize) {
+                Node demoted = protectedQueue.first();
+                protectedQueue.remove(demoted);
+                probation.add(demoted);
+            }
+        } else {
+            node.queue.moveToLast(node);
+        }
+        return node;
+    }
+
+    private void recordAccess(String upc) {
+        sketch.increment(upc);
+        if (++samples >= sampleSize) {
+            sketch.halve();
+            samples = 0;
+        }
+    }
+
+    private void put(String upc, Item item) {
+        long expiresAtNanos = nanoTime.getAsLong() + TimeUnit.MILLISECONDS.toNanos(timeToLiveMs);
+        Node node = new Node(upc, item, expiresAtNanos);
+        nodes.put(upc, node);
+        window.add(node);
+        if (window.size <= maximumWindowSize) {
+            return;
+        }
+
+        // The least recently used entry of the window is a candidate for the main space. If the cache is full, either
+        // it or the main space's victim is evicted, whichever was looked up less often.
+        Node candidate = window.first();
+        window.remove(candidate);
+        probation.add(candidate);
+        if (nodes.size() <= maximumSize) {
+            return;
+        }
+        Node victim = probation.first();
+        if (victim == candidate) {
+            evict(candidate);
+        } else if (sketch.estimate(candidate.upc) > sketch.estimate(victim.upc)) {
+            evict(victim);
+        } else {
+            evict(candidate);
+        }
+    }
+
+    private void evict(Node node) {
+        nodes.remove(node.upc);
+        node.queue.remove(node);
+        evictionCount.incrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CachingItemRepository(maximumSize=%d, timeToLiveMs=%d, size=%d, hits=%d, misses=%d, " +
+                        "negativeHits=%d, hitRatio=%.3f, evictions=%d, expirations=%d)", maximumSize, timeToLiveMs,
+                size(), getHitCount(), getMissCount(), getNegativeHitCount(), getHitRatio(), getEvictionCount(),
+                getExpirationCount());
+    }
+}
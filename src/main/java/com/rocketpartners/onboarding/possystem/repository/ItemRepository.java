@@ -52,7 +52,7 @@ public interface ItemRepository {
      * Retrieves a list of {@code Item} objects from the repository that have the specified name.
      *
      * @param name the name of the items to be retrieved
-     * @return a list of items with the specified name
+     * @return a list of items with the specified name, which may be unmodifiable
      */
     List<Item> getItemsByName(String name);
 
@@ -60,7 +60,7 @@ public interface ItemRepository {
      * Retrieves a list of {@code Item} objects from the repository that belong to the specified category.
      *
      * @param category the category of the items to be retrieved
-     * @return a list of items with the specified category
+     * @return a list of items with the specified category, which may be unmodifiable
      */
     List<Item> getItemsByCategory(String category);
 }
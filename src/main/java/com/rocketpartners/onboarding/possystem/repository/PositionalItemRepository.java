@@ -0,0 +1,42 @@
+package com.rocketpartners.onboarding.possystem.repository;
+
+import com.rocketpartners.onboarding.commons.model.Item;
+
+/**
+ * An {@link ItemRepository} whose items are stored at fixed positions from 0 to {@link #size()} - 1, e.g. the records
+ * of a memory-mapped catalog file. The items can be sampled and scanned by position without reading the whole catalog
+ * into the heap, and looking up an item by UPC never leaves memory.
+ */
+public interface PositionalItemRepository extends ItemRepository {
+
+    /**
+     * Returns the number of items in the repository.
+     *
+     * @return the number of items
+     */
+    int size();
+
+    /**
+     * Returns the UPC of the item at the specified position.
+     *
+     * @param position the position of the item, from 0 to {@link #size()} - 1
+     * @return the UPC of the item
+     */
+    String getUpcAt(int position);
+
+    /**
+     * Returns the name of the item at the specified position.
+     *
+     * @param position the position of the item, from 0 to {@link #size()} - 1
+     * @return the name of the item, or null if it has none
+     */
+    String getNameAt(int position);
+
+    /**
+     * Returns the item at the specified position.
+     *
+     * @param position the position of the item, from 0 to {@link #size()} - 1
+     * @return the item
+     */
+    Item getItemAt(int position);
+}
@@ -2,7 +2,9 @@ package com.rocketpartners.onboarding.possystem.repository;
 
 import com.rocketpartners.onboarding.commons.model.Transaction;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The {@code TransactionRepository} interface provides methods for performing CRUD operations
@@ -18,6 +20,38 @@ public interface TransactionRepository {
      */
     void saveTransaction(Transaction transaction);
 
+    /**
+     * Saves the given transactions to the repository. Implementations that can write many transactions at once, e.g.
+     * in one database transaction, should override this method.
+     *
+     * @param transactions the transactions to be saved
+     */
+    default void saveTransactions(Collection<Transaction> transactions) {
+        transactions.forEach(this::saveTransaction);
+    }
+
+    /**
+     * Writes any transactions that were saved but not written yet. Repositories that write every transaction as it
+     * is saved have nothing to flush.
+     */
+    default void flush() {
+    }
+
+    /**
+     * Writes any transactions that were saved but not written yet without waiting for the write, e.g. on a background
+     * thread. By default, this flushes on the calling thread.
+     *
+     * @return a future that completes when the transactions are written, or completes exceptionally if the write fails
+     */
+    default CompletableFuture<Void> flushAsync() {
+        try {
+            flush();
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
     /**
      * Retrieves the {@code Transaction} with the specified ID from the repository.
      *
@@ -0,0 +1,264 @@
+package com.rocketpartners.onboarding.possystem.repository;
+
+import com.rocketpartners.onboarding.commons.model.LineItem;
+import com.rocketpartners.onboarding.commons.model.Transaction;
+import com.rocketpartners.onboarding.possystem.Application;
+import com.rocketpartners.onboarding.possystem.metrics.LatencyStats;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decorator that saves transactions to the delegate repository in the background. A saved transaction is snapshotted
+ * and marked dirty, and the dirty transactions are written to the delegate with one
+ * {@link TransactionRepository#saveTransactions(Collection)} call every flush interval, or earlier when
+ * {@link #flush()} or {@link #flushAsync()} is called, e.g. when a transaction is completed or voided. Saving the same
+ * transaction again before a flush only replaces its snapshot, so a burst of scans costs one write.
+ * <p>
+ * The durability window is the time between a transaction first becoming dirty and the flush that writes it. It is
+ * bounded by the flush interval plus the duration of a flush, and is recorded in {@link #getDurabilityWindowStats()}.
+ * Reads see the snapshots that are dirty or being flushed, so callers never observe a transaction older than what they
+ * saved.
+ */
+public class WriteBehindTransactionRepository implements TransactionRepository, Closeable {
+
+    private record DirtyTransaction(Transaction snapshot, long dirtySinceNanos) {
+    }
+
+    private final TransactionRepository delegate;
+    @Getter
+    private final long flushIntervalMs;
+    private final ScheduledExecutorService flushExecutor;
+    private final Object flushLock;
+
+    @Getter
+    private final LatencyStats durabilityWindowStats;
+    @Getter
+    private final LatencyStats flushLatencyStats;
+    private final AtomicLong flushCount;
+    private final AtomicLong flushedTransactionCount;
+
+    private Map<String, DirtyTransaction> dirtyTransactions;
+    private Map<String, DirtyTransaction> flushingTransactions;
+
+    /**
+     * Constructor that accepts the delegate repository and the flush interval.
+     *
+     * @param delegate        The repository the transactions are written to.
+     * @param flushIntervalMs The flush interval in milliseconds. Must be greater than 0.
+     */
+    public WriteBehindTransactionRepository(@NonNull TransactionRepository delegate, long flushIntervalMs) {
+        if (flushIntervalMs <= 0) {
+            throw new IllegalArgumentException("Flush interval must be greater than 0");
+        }
+        this.delegate = delegate;
+        this.flushIntervalMs = flushIntervalMs;
+        flushLock = new Object();
+        durabilityWindowStats = new LatencyStats("Write-behind durability window");
+        flushLatencyStats = new LatencyStats("Write-behind flush latency");
+        flushCount = new AtomicLong();
+        flushedTransactionCount = new AtomicLong();
+        dirtyTransactions = new LinkedHashMap<>();
+        flushingTransactions = Map.of();
+
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "transaction-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushExecutor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void saveTransaction(@NonNull Transaction transaction) {
+        Transaction snapshot = copyOf(transaction);
+        synchronized (this) {
+            DirtyTransaction previous = dirtyTransactions.get(transaction.getId());
+            long dirtySinceNanos = previous != null ? previous.dirtySinceNanos() : System.nanoTime();
+            dirtyTransactions.put(transaction.getId(), new DirtyTransaction(snapshot, dirtySinceNanos));
+        }
+    }
+
+    /**
+     * Write all dirty transactions to the delegate repository with one batch. Returns after the batch is written.
+     */
+    @Override
+    public void flush() {
+        // Flushes are serialized so that an older snapshot can never overwrite a newer one.
+        synchronized (flushLock) {
+            Map<String, DirtyTransaction> batch;
+            synchronized (this) {
+                if (dirtyTransactions.isEmpty()) {
+                    return;
+                }
+                batch = dirtyTransactions;
+                dirtyTransactions = new LinkedHashMap<>();
+                flushingTransactions = batch;
+            }
+
+            long start = System.nanoTime();
+            List<Transaction> snapshots = new ArrayList<>(batch.size());
+            batch.values().forEach(dirty -> snapshots.add(dirty.snapshot()));
+            try {
+                delegate.saveTransactions(snapshots);
+            } catch (RuntimeException e) {
+                // Put the batch back unless a newer snapshot was saved in the meantime.
+                synchronized (this) {
+                    Map<String, DirtyTransaction> requeued = new LinkedHashMap<>(batch);
+                    requeued.putAll(dirtyTransactions);
+                    dirtyTransactions = requeued;
+                }
+                throw e;
+            } finally {
+                synchronized (this) {
+                    flushingTransactions = Map.of();
+                }
+            }
+
+            long end = System.nanoTime();
+            flushLatencyStats.record(end - start);
+            batch.values().forEach(dirty -> durabilityWindowStats.record(end - dirty.dirtySinceNanos()));
+            flushCount.incrementAndGet();
+            flushedTransactionCount.addAndGet(batch.size());
+        }
+    }
+
+    /**
+     * Write all dirty transactions to the delegate repository with one batch on the write-behind thread. If the batch
+     * fails, it is put back and retried by the next flush.
+     */
+    @Override
+    public CompletableFuture<Void> flushAsync() {
+        try {
+            return CompletableFuture.runAsync(this::flush, flushExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public Transaction getTransactionById(@NonNull String id) {
+        synchronized (this) {
+            DirtyTransaction dirty = dirtyTransactions.get(id);
+            if (dirty == null) {
+                dirty = flushingTransactions.get(id);
+            }
+            if (dirty != null) {
+                return copyOf(dirty.snapshot());
+            }
+        }
+        return delegate.getTransactionById(id);
+    }
+
+    @Override
+    public void deleteTransactionById(@NonNull String id) {
+        synchronized (flushLock) {
+            synchronized (this) {
+                dirtyTransactions.remove(id);
+            }
+            delegate.deleteTransactionById(id);
+        }
+    }
+
+    @Override
+    public boolean transactionExists(@NonNull String id) {
+        synchronized (this) {
+            if (dirtyTransactions.containsKey(id) || flushingTransactions.containsKey(id)) {
+                return true;
+            }
+        }
+        return delegate.transactionExists(id);
+    }
+
+    @Override
+    public List<Transaction> getTransactionsByCustomerId(@NonNull String customerId) {
+        flush();
+        return delegate.getTransactionsByCustomerId(customerId);
+    }
+
+    @Override
+    public List<Transaction> getTransactionsByPosSystemId(@NonNull String posSystemId) {
+        flush();
+        return delegate.getTransactionsByPosSystemId(posSystemId);
+    }
+
+    /**
+     * Get the number of transactions waiting to be flushed.
+     *
+     * @return The number of dirty transactions.
+     */
+    public synchronized int getDirtyCount() {
+        return dirtyTransactions.size();
+    }
+
+    /**
+     * Get how long the oldest dirty transaction has been waiting to be flushed.
+     *
+     * @return The age in nanoseconds, or 0 if there are no dirty transactions.
+     */
+    public synchronized long getOldestDirtyAgeNanos() {
+        long now = System.nanoTime();
+        return dirtyTransactions.values().stream().mapToLong(dirty -> now - dirty.dirtySinceNanos()).max()
+                .orElse(0L);
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    public long getFlushedTransactionCount() {
+        return flushedTransactionCount.get();
+    }
+
+    /**
+     * Stop the background flushes and flush the dirty transactions. A failure of the last flush is logged rather than
+     * thrown, since this is called on shutdown.
+     */
+    @Override
+    public void close() {
+        flushExecutor.shutdownNow();
+        flushQuietly();
+        if (Application.DEBUG) {
+            System.out.println("[WriteBehindTransactionRepository] Closed: " + this);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            System.err.println("[WriteBehindTransactionRepository] Failed to flush transactions: " + e.getMessage());
+        }
+    }
+
+    private static Transaction copyOf(@NonNull Transaction transaction) {
+        List<LineItem> lineItems = new ArrayList<>(transaction.getLineItems().size());
+        transaction.getLineItems().forEach(lineItem -> lineItems.add(new LineItem(lineItem.getItemUpc(),
+                lineItem.getTransactionId(), lineItem.getQuantity(), lineItem.isVoided())));
+        return new Transaction(transaction.getId(), transaction.getPosSystemId(), lineItems,
+                transaction.getTransactionNumber(), transaction.getSubtotal(), transaction.getTaxes(),
+                transaction.getDiscountAmount(), transaction.getTotal(), transaction.getAmountTendered(),
+                transaction.getChangeDue(), transaction.getCustomerId(), transaction.isVoided(),
+                transaction.isTendered(), transaction.getTimeCreated(), transaction.getTimeCompleted());
+    }
+
+    @Override
+    public String toString() {
+        return "WriteBehindTransactionRepository(flushIntervalMs=" + flushIntervalMs + ", dirty=" + getDirtyCount() +
+                ", flushes=" + getFlushCount() + ", flushed=" + getFlushedTransactionCount() + ", " +
+                durabilityWindowStats + ", " + flushLatencyStats + ")";
+    }
+}
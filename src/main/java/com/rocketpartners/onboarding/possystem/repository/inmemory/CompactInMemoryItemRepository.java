@@ -0,0 +1,456 @@
+package com.rocketpartners.onboarding.possystem.repository.inmemory;
+
+import com.rocketpartners.onboarding.commons.model.Item;
+import com.rocketpartners.onboarding.possystem.repository.ItemRepository;
+import com.rocketpartners.onboarding.possystem.utils.Money;
+import lombok.NonNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact in-memory implementation of the {@link ItemRepository} interface for item books of millions of items,
+ * where the {@link InMemoryItemRepository} would spend a few hundred bytes per item on the UPC string, the map entry,
+ * the item, its {@link java.math.BigDecimal} price, and its strings.
+ * <p>
+ * Items are not kept as objects. Each item is a record in parallel primitive arrays: its price in cents, the offsets
+ * and lengths of its name and description in a shared UTF-8 byte arena, and the id of its category in a table of
+ * distinct categories. A numeric UPC of up to {@value #MAX_NUMERIC_UPC_DIGITS} digits is encoded as a {@code long}
+ * key that also holds the number of digits, so that leading zeros are kept, and the keys are mapped to their records
+ * by an open-addressing hash table with linear probing. Other UPCs are mapped by a regular hash map. Deleting an item
+ * moves the last record into its place, and the arena is compacted once most of it is taken by deleted strings.
+ * <p>
+ * Since items are not kept, every lookup returns new {@link Item} objects, and modifying them does not modify the
+ * catalog until they are saved. Prices are stored to the cent, i.e. a price with more than two decimal places is
+ * rounded half up, and every price is returned with two decimal places. Looking up items by name or by category
+ * scans the records, comparing the hash of the name or the category id first. The catalog is safe to share between
+ * threads, e.g. by every lane of a lane host.
+ */
+public class CompactInMemoryItemRepository implements ItemRepository {
+
+    static final int MAX_NUMERIC_UPC_DIGITS = 17;
+
+    private static final int DIGITS_BITS = 5;
+    private static final long EMPTY_KEY = 0L;
+    private static final long NO_PRICE = Long.MIN_VALUE;
+    private static final int NO_STRING = -1;
+    private static final int NO_CATEGORY = -1;
+    private static final int INITIAL_TABLE_CAPACITY = 16;
+    private static final int INITIAL_RECORD_CAPACITY = 16;
+    private static final int INITIAL_ARENA_CAPACITY = 256;
+    private static final int MAX_ARENA_CAPACITY = Integer.MAX_VALUE - 8;
+    private static final int MIN_COMPACTION_BYTES = 1 << 16;
+
+    // Open-addressing table from the keys of numeric UPCs to record indexes. A slot is empty if its key is 0.
+    private long[] tableKeys = new long[INITIAL_TABLE_CAPACITY];
+    private int[] tableRecords = new int[INITIAL_TABLE_CAPACITY];
+    private int tableSize;
+
+    // UPCs that are not numeric, or too long to encode, and the reverse mapping to get the UPC of a record
+    private final Map<String, Integer> otherRecordsByUpc = new HashMap<>();
+    private final Map<Integer, String> otherUpcsByRecord = new HashMap<>();
+
+    // Records, where the UPC key of a record is 0 if its UPC is in the maps above
+    private long[] upcKeys = new long[INITIAL_RECORD_CAPACITY];
+    private long[] priceCents = new long[INITIAL_RECORD_CAPACITY];
+    private int[] nameOffsets = new int[INITIAL_RECORD_CAPACITY];
+    private int[] nameLengths = new int[INITIAL_RECORD_CAPACITY];
+    private int[] nameHashes = new int[INITIAL_RECORD_CAPACITY];
+    private int[] descriptionOffsets = new int[INITIAL_RECORD_CAPACITY];
+    private int[] descriptionLengths = new int[INITIAL_RECORD_CAPACITY];
+    private int[] categoryIds = new int[INITIAL_RECORD_CAPACITY];
+    private int recordCount;
+
+    private byte[] arena = new byte[INITIAL_ARENA_CAPACITY];
+    private int arenaSize;
+    private int garbageBytes;
+
+    // Categories are few and are never removed
+    private final List<String> categories = new ArrayList<>();
+    private final Map<String, Integer> categoryIdsByName = new HashMap<>();
+
+    @Override
+    public synchronized void saveItem(@NonNull Item item) {
+        String upc = item.getUpc();
+        if (upc == null) {
+            throw new IllegalArgumentException("Cannot save an item without a UPC");
+        }
+        long priceInCents = item.getUnitPrice() != null ? Money.toCents(item.getUnitPrice()) : NO_PRICE;
+
+        long key = encodeUpc(upc);
+        int record = findRecord(upc, key);
+        if (record < 0) {
+            record = addRecord(upc, key);
+        } else {
+            releaseStrings(record);
+        }
+
+        priceCents[record] = priceInCents;
+        categoryIds[record] = item.getCategory() != null ? internCategory(item.getCategory()) : NO_CATEGORY;
+        nameHashes[record] = item.getName() != null ? item.getName().hashCode() : 0;
+        // Each string is given its length right after it is appended, since appending may compact the arena
+        byte[] name = toBytes(item.getName());
+        nameOffsets[record] = appendToArena(name);
+        nameLengths[record] = name != null ? name.length : NO_STRING;
+        byte[] description = toBytes(item.getDescription());
+        descriptionOffsets[record] = appendToArena(description);
+        descriptionLengths[record] = description != null ? description.length : NO_STRING;
+        compactArenaIfNeeded();
+    }
+
+    @Override
+    public synchronized List<Item> getAllItems() {
+        List<Item> items = new ArrayList<>(recordCount);
+        for (int record = 0; record < recordCount; record++) {
+            items.add(toItem(record));
+        }
+        return items;
+    }
+
+    @Override
+    public synchronized void deleteItemByUpc(@NonNull String upc) {
+        long key = encodeUpc(upc);
+        int record;
+        if (key != EMPTY_KEY) {
+            int slot = findSlot(key);
+            if (slot < 0) {
+                return;
+            }
+            record = tableRecords[slot];
+            removeSlot(slot);
+        } else {
+            Integer otherRecord = otherRecordsByUpc.remove(upc);
+            if (otherRecord == null) {
+                return;
+            }
+            record = otherRecord;
+            otherUpcsByRecord.remove(record);
+        }
+        releaseStrings(record);
+        moveLastRecordTo(record);
+        compactArenaIfNeeded();
+    }
+
+    @Override
+    public synchronized Item getItemByUpc(@NonNull String upc) {
+        int record = findRecord(upc, encodeUpc(upc));
+        // The UPC that was looked up is reused instead of decoding the key of the record
+        return record >= 0 ? toItem(record, upc) : null;
+    }
+
+    @Override
+    public synchronized boolean itemExists(@NonNull String upc) {
+        return findRecord(upc, encodeUpc(upc)) >= 0;
+    }
+
+    @Override
+    public synchronized List<Item> getItemsByName(@NonNull String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int hash = name.hashCode();
+        List<Item> items = new ArrayList<>();
+        for (int record = 0; record < recordCount; record++) {
+            if (nameHashes[record] == hash && nameLengths[record] == bytes.length &&
+                    Arrays.equals(arena, nameOffsets[record], nameOffsets[record] + bytes.length, bytes, 0,
+                            bytes.length)) {
+                items.add(toItem(record));
+            }
+        }
+        return items;
+    }
+
+    @Override
+    public synchronized List<Item> getItemsByCategory(@NonNull String category) {
+        Integer categoryId = categoryIdsByName.get(category);
+        if (categoryId == null) {
+            return List.of();
+        }
+        List<Item> items = new ArrayList<>();
+        for (int record = 0; record < recordCount; record++) {
+            if (categoryIds[record] == categoryId) {
+                items.add(toItem(record));
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Get the number of items in the catalog.
+     *
+     * @return the number of items
+     */
+    public synchronized int size() {
+        return recordCount;
+    }
+
+    /**
+     * Get the number of bytes taken by the names and descriptions, including those of deleted or replaced items that
+     * were not compacted yet. Package-private for testing purposes.
+     *
+     * @return the number of bytes used in the arena
+     */
+    synchronized int getArenaSize() {
+        return arenaSize;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "CompactInMemoryItemRepository(items=" + recordCount + ", arenaBytes=" + arenaSize +
+                ", garbageBytes=" + garbageBytes + ", categories=" + categories.size() + ")";
+    }
+
+    /**
+     * Encode a numeric UPC as a key that is never 0: the value of the digits shifted left, plus the number of digits.
+     * Package-private for testing purposes.
+     *
+     * @param upc the UPC
+     * @return the key, or 0 if the UPC is empty, not numeric, or longer than {@value #MAX_NUMERIC_UPC_DIGITS} digits
+     */
+    static long encodeUpc(@NonNull String upc) {
+        int digits = upc.length();
+        if (digits == 0 || digits > MAX_NUMERIC_UPC_DIGITS) {
+            return EMPTY_KEY;
+        }
+        long value = 0L;
+        for (int i = 0; i < digits; i++) {
+            char c = upc.charAt(i);
+            if (c < '0' || c > '9') {
+                return EMPTY_KEY;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return (value << DIGITS_BITS) | digits;
+    }
+
+    /**
+     * Decode a key made by {@link #encodeUpc(String)} back to the UPC. Package-private for testing purposes.
+     *
+     * @param key the key
+     * @return the UPC
+     */
+    static String decodeUpc(long key) {
+        int digits = (int) (key & ((1 << DIGITS_BITS) - 1));
+        char[] chars = new char[digits];
+        long value = key >>> DIGITS_BITS;
+        for (int i = digits - 1; i >= 0; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return new String(chars);
+    }
+
+    private Item toItem(int record) {
+        String upc = upcKeys[record] != EMPTY_KEY ? decodeUpc(upcKeys[record]) : otherUpcsByRecord.get(record);
+        return toItem(record, upc);
+    }
+
+    private Item toItem(int record, String upc) {
+        return new Item(upc, readString(nameOffsets[record], nameLengths[record]),
+                priceCents[record] != NO_PRICE ? Money.toBigDecimal(priceCents[record]) : null,
+                categoryIds[record] != NO_CATEGORY ? categories.get(categoryIds[record]) : null,
+                readString(descriptionOffsets[record], descriptionLengths[record]));
+    }
+
+    private int findRecord(String upc, long key) {
+        if (key == EMPTY_KEY) {
+            Integer record = otherRecordsByUpc.get(upc);
+            return record != null ? record : -1;
+        }
+        int slot = findSlot(key);
+        return slot >= 0 ? tableRecords[slot] : -1;
+    }
+
+    private int addRecord(String upc, long key) {
+        if (recordCount == upcKeys.length) {
+            growRecords();
+        }
+        int record = recordCount++;
+        upcKeys[record] = key;
+        if (key != EMPTY_KEY) {
+            putSlot(key, record);
+        } else {
+            otherRecordsByUpc.put(upc, record);
+            otherUpcsByRecord.put(record, upc);
+        }
+        return record;
+    }
+
+    private void moveLastRecordTo(int record) {
+        int last = --recordCount;
+        if (record != last) {
+            upcKeys[record] = upcKeys[last];
+            priceCents[record] = priceCents[last];
+            nameOffsets[record] = nameOffsets[last];
+            nameLengths[record] = nameLengths[last];
+            nameHashes[record] = nameHashes[last];
+            descriptionOffsets[record] = descriptionOffsets[last];
+            descriptionLengths[record] = descriptionLengths[last];
+            categoryIds[record] = categoryIds[last];
+            if (upcKeys[record] != EMPTY_KEY) {
+                tableRecords[findSlot(upcKeys[record])] = record;
+            } else {
+                String upc = otherUpcsByRecord.remove(last);
+                otherUpcsByRecord.put(record, upc);
+                otherRecordsByUpc.put(upc, record);
+            }
+        }
+        upcKeys[last] = EMPTY_KEY;
+    }
+
+    private void growRecords() {
+        int capacity = upcKeys.length + (upcKeys.length >> 1);
+        upcKeys = Arrays.copyOf(upcKeys, capacity);
+        priceCents = Arrays.copyOf(priceCents, capacity);
+        nameOffsets = Arrays.copyOf(nameOffsets, capacity);
+        nameLengths = Arrays.copyOf(nameLengths, capacity);
+        nameHashes = Arrays.copyOf(nameHashes, capacity);
+        descriptionOffsets = Arrays.copyOf(descriptionOffsets, capacity);
+        descriptionLengths = Arrays.copyOf(descriptionLengths, capacity);
+        categoryIds = Arrays.copyOf(categoryIds, capacity);
+    }
+
+    private int findSlot(long key) {
+        int mask = tableKeys.length - 1;
+        for (int slot = hash(key) & mask; tableKeys[slot] != EMPTY_KEY; slot = (slot + 1) & mask) {
+            if (tableKeys[slot] == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void putSlot(long key, int record) {
+        // Keeps the load factor at most 2/3, so that probe sequences stay short
+        if ((tableSize + 1) * 3 > tableKeys.length * 2) {
+            resizeTable(tableKeys.length * 2);
+        }
+        int mask = tableKeys.length - 1;
+        int slot = hash(key) & mask;
+        while (tableKeys[slot] != EMPTY_KEY) {
+            slot = (slot + 1) & mask;
+        }
+        tableKeys[slot] = key;
+        tableRecords[slot] = record;
+        tableSize++;
+    }
+
+    private void removeSlot(int slot) {
+        // Shifts the following keys of the probe sequence back instead of leaving a tombstone, so that lookups never
+        // probe past deleted keys
+        int mask = tableKeys.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; tableKeys[next] != EMPTY_KEY; next = (next + 1) & mask) {
+            int home = hash(tableKeys[next]) & mask;
+            // The key can fill the hole if the hole is between its home slot and its slot, cyclically
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                tableKeys[hole] = tableKeys[next];
+                tableRecords[hole] = tableRecords[next];
+                hole = next;
+            }
+        }
+        tableKeys[hole] = EMPTY_KEY;
+        tableSize--;
+    }
+
+    private void resizeTable(int capacity) {
+        long[] oldKeys = tableKeys;
+        int[] oldRecords = tableRecords;
+        tableKeys = new long[capacity];
+        tableRecords = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY_KEY) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (tableKeys[slot] != EMPTY_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                tableKeys[slot] = oldKeys[i];
+                tableRecords[slot] = oldRecords[i];
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        // Finalizer of MurmurHash3, since consecutive UPCs would otherwise cluster in consecutive slots
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    private int internCategory(String category) {
+        Integer id = categoryIdsByName.get(category);
+        if (id == null) {
+            id = categories.size();
+            categories.add(category);
+            categoryIdsByName.put(category, id);
+        }
+        return id;
+    }
+
+    private static byte[] toBytes(String string) {
+        return string != null ? string.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private String readString(int offset, int length) {
+        return length != NO_STRING ? new String(arena, offset, length, StandardCharsets.UTF_8) : null;
+    }
+
+    private void releaseStrings(int record) {
+        garbageBytes += Math.max(nameLengths[record], 0) + Math.max(descriptionLengths[record], 0);
+        nameLengths[record] = NO_STRING;
+        descriptionLengths[record] = NO_STRING;
+    }
+
+    private int appendToArena(byte[] bytes) {
+        if (bytes == null) {
+            return 0;
+        }
+        if (arenaSize + bytes.length > arena.length) {
+            if ((long) arenaSize + bytes.length > MAX_ARENA_CAPACITY) {
+                compactArena();
+                if ((long) arenaSize + bytes.length > MAX_ARENA_CAPACITY) {
+                    throw new IllegalStateException("The names and descriptions of the catalog exceed " +
+                            MAX_ARENA_CAPACITY + " bytes");
+                }
+            }
+            long capacity = Math.max((long) arena.length * 2, (long) arenaSize + bytes.length);
+            arena = Arrays.copyOf(arena, (int) Math.min(capacity, MAX_ARENA_CAPACITY));
+        }
+        int offset = arenaSize;
+        System.arraycopy(bytes, 0, arena, offset, bytes.length);
+        arenaSize += bytes.length;
+        return offset;
+    }
+
+    private void compactArenaIfNeeded() {
+        if (garbageBytes >= MIN_COMPACTION_BYTES && garbageBytes * 2 >= arenaSize) {
+            compactArena();
+        }
+    }
+
+    private void compactArena() {
+        byte[] compacted = new byte[Math.max(arenaSize - garbageBytes, INITIAL_ARENA_CAPACITY)];
+        int size = 0;
+        for (int record = 0; record < recordCount; record++) {
+            if (nameLengths[record] > 0) {
+                System.arraycopy(arena, nameOffsets[record], compacted, size, nameLengths[record]);
+                nameOffsets[record] = size;
+                size += nameLengths[record];
+            }
+            if (descriptionLengths[record] > 0) {
+                System.arraycopy(arena, descriptionOffsets[record], compacted, size, descriptionLengths[record]);
+                descriptionOffsets[record] = size;
+                size += descriptionLengths[record];
+            }
+        }
+        arena = compacted;
+        arenaSize = size;
+        garbageBytes = 0;
+    }
+}
@@ -6,21 +6,32 @@ import lombok.NonNull;
 import lombok.ToString;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * An in-memory implementation of the {@link ItemRepository} interface.
+ * An in-memory implementation of the {@link ItemRepository} interface. The item catalog is safe to share between
+ * threads, e.g. by every lane of a lane host.
+ * <p>
+ * Items are also indexed by category and by name, so that looking them up by either is O(result) instead of a scan of
+ * the catalog. The indexes are kept consistent on {@link #saveItem(Item)} and {@link #deleteItemByUpc(String)}, and the
+ * lists they return are immutable.
  */
 @ToString
 public class InMemoryItemRepository implements ItemRepository {
 
-    private final Map<String, Item> items = new HashMap<>();
+    private final Map<String, Item> items = new ConcurrentHashMap<>();
+    @ToString.Exclude
+    private final SecondaryItemIndex itemsByCategory = new SecondaryItemIndex(Item::getCategory);
+    @ToString.Exclude
+    private final SecondaryItemIndex itemsByName = new SecondaryItemIndex(Item::getName);
 
     @Override
-    public void saveItem(Item item) {
+    public synchronized void saveItem(Item item) {
         items.put(item.getUpc(), item);
+        itemsByCategory.put(item);
+        itemsByName.put(item);
     }
 
     @Override
@@ -29,8 +40,10 @@ public class InMemoryItemRepository implements ItemRepository {
     }
 
     @Override
-    public void deleteItemByUpc(@NonNull String upc) {
+    public synchronized void deleteItemByUpc(@NonNull String upc) {
         items.remove(upc);
+        itemsByCategory.remove(upc);
+        itemsByName.remove(upc);
     }
 
     @Override
@@ -45,23 +58,11 @@ public class InMemoryItemRepository implements ItemRepository {
 
     @Override
     public List<Item> getItemsByName(@NonNull String name) {
-        List<Item> items = new ArrayList<>();
-        this.items.values().forEach(it -> {
-            if (name.equals(it.getName())) {
-                items.add(it);
-            }
-        });
-        return items;
+        return itemsByName.get(name);
     }
 
     @Override
     public List<Item> getItemsByCategory(@NonNull String category) {
-        List<Item> items = new ArrayList<>();
-        this.items.values().forEach(it -> {
-            if (category.equals(it.getCategory())) {
-                items.add(it);
-            }
-        });
-        return items;
+        return itemsByCategory.get(category);
     }
 }
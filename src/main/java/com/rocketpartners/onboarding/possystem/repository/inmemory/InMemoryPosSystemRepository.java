@@ -6,14 +6,15 @@ import lombok.NonNull;
 import lombok.ToString;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * An in-memory implementation of the {@link PosSystemRepository} interface.
+ * An in-memory implementation of the {@link PosSystemRepository} interface. Safe for concurrent use.
  */
 @ToString
 public class InMemoryPosSystemRepository implements PosSystemRepository {
 
-    private final Map<String, PosSystem> posSystems = new HashMap<>();
+    private final Map<String, PosSystem> posSystems = new ConcurrentHashMap<>();
 
     @Override
     public void savePosSystem(@NonNull PosSystem posSystem) {
@@ -5,17 +5,18 @@ import com.rocketpartners.onboarding.possystem.repository.TransactionRepository;
 import lombok.NonNull;
 import lombok.ToString;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * An in-memory implementation of the {@link TransactionRepository} interface.
+ * An in-memory implementation of the {@link TransactionRepository} interface. Safe for concurrent use, so lanes that
+ * run on different threads can save their transactions to the same repository.
  */
 @ToString
 public class InMemoryTransactionRepository implements TransactionRepository {
 
-    private final Map<String, Transaction> transactions = new HashMap<>();
+    private final Map<String, Transaction> transactions = new ConcurrentHashMap<>();
 
     @Override
     public void saveTransaction(@NonNull Transaction transaction) {
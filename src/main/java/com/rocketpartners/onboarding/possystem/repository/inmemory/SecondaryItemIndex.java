@@ -0,0 +1,100 @@
+package com.rocketpartners.onboarding.possystem.repository.inmemory;
+
+import com.rocketpartners.onboarding.commons.model.Item;
+import lombok.NonNull;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Secondary index of the items of an in-memory repository by an attribute, e.g. the category. Each key maps to the
+ * items that have it, in the order they were indexed. The key that each UPC was indexed under is remembered, so that
+ * re-indexing an item that was modified in place still removes it from its old key.
+ * <p>
+ * Lookups return an immutable snapshot of the items of a key. The snapshot is built on the first lookup after the
+ * items of the key changed and then shared by every following lookup, so a lookup is O(1) as long as the key does not
+ * change, and O(result) otherwise. Writes are serialized; lookups of a key whose snapshot is built do not lock.
+ */
+class SecondaryItemIndex {
+
+    private static final class Bucket {
+
+        private final Map<String, Item> items = new LinkedHashMap<>();
+        private volatile List<Item> snapshot;
+    }
+
+    private final Function<Item, String> keyFunction;
+    private final Map<String, String> keysByUpc = new HashMap<>();
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor that accepts the function that gets the key of an item.
+     *
+     * @param keyFunction the function that gets the key of an item, which may return null for an item not to index
+     */
+    SecondaryItemIndex(@NonNull Function<Item, String> keyFunction) {
+        this.keyFunction = keyFunction;
+    }
+
+    /**
+     * Index an item under its current key, removing it from the key it was indexed under before, if any.
+     *
+     * @param item the item
+     */
+    synchronized void put(@NonNull Item item) {
+        remove(item.getUpc());
+        String key = keyFunction.apply(item);
+        if (key == null) {
+            return;
+        }
+        keysByUpc.put(item.getUpc(), key);
+        Bucket bucket = buckets.computeIfAbsent(key, it -> new Bucket());
+        bucket.items.put(item.getUpc(), item);
+        bucket.snapshot = null;
+    }
+
+    /**
+     * Remove the item with the UPC from the index.
+     *
+     * @param upc the UPC of the item
+     */
+    synchronized void remove(@NonNull String upc) {
+        String key = keysByUpc.remove(upc);
+        if (key == null) {
+            return;
+        }
+        Bucket bucket = buckets.get(key);
+        bucket.items.remove(upc);
+        bucket.snapshot = null;
+        if (bucket.items.isEmpty()) {
+            buckets.remove(key);
+        }
+    }
+
+    /**
+     * Get the items indexed under a key.
+     *
+     * @param key the key
+     * @return an immutable list of the items, which is empty if no item has the key
+     */
+    List<Item> get(@NonNull String key) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            return List.of();
+        }
+        List<Item> snapshot = bucket.snapshot;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (this) {
+            if (bucket.snapshot == null) {
+                bucket.snapshot = List.copyOf(bucket.items.values());
+            }
+            return bucket.snapshot;
+        }
+    }
+}
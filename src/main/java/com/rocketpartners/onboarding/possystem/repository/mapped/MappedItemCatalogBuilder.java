@@ -0,0 +1,229 @@
+package com.rocketpartners.onboarding.possystem.repository.mapped;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import com.rocketpartners.onboarding.commons.model.Item;
+import com.rocketpartners.onboarding.commons.utils.FileLineReader;
+import com.rocketpartners.onboarding.possystem.utils.Money;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.rocketpartners.onboarding.possystem.repository.mapped.MappedItemCatalogFormat.*;
+
+/**
+ * Builds the binary item catalog file that is memory-mapped by the {@link MappedItemRepository}, see
+ * {@link MappedItemCatalogFormat}, from an item book TSV file with the UPC, the name, and the price of an item on each
+ * line. Run it with {@code ./gradlew buildItemCatalog}.
+ * <p>
+ * The file is written next to the output path first and then moved over it, so that a lane process never maps a
+ * partially written catalog. A lane that has mapped the old file keeps reading it until it is restarted.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class MappedItemCatalogBuilder {
+
+    /**
+     * Command line arguments for the item catalog builder.
+     */
+    @Getter
+    @Setter
+    @ToString
+    public static class Arguments {
+
+        private static final String DEFAULT_INPUT = "src/main/resources/pricebook.tsv";
+        private static final String DEFAULT_OUTPUT = "pricebook.catalog";
+
+        @Parameter(names = "-input", description = "The item book TSV file. Default: src/main/resources/pricebook.tsv.")
+        private String input = DEFAULT_INPUT;
+
+        @Parameter(names = "-output", description = "The catalog file to write. Default: pricebook.catalog.")
+        private String output = DEFAULT_OUTPUT;
+    }
+
+    /**
+     * Read the items of an item book TSV file. Like the item book loader, the first line of a UPC wins.
+     *
+     * @param tsvFilePath the path of the TSV file
+     * @return the items, in the order of the file
+     * @throws RuntimeException if a line does not have 3 fields
+     */
+    public static List<Item> readTsv(@NonNull String tsvFilePath) {
+        Map<String, Item> items = new LinkedHashMap<>();
+        for (String[] line : new FileLineReader().read(tsvFilePath, "\t")) {
+            if (line.length != 3) {
+                throw new RuntimeException("Invalid TSV file format. Expected 3 fields per line. Invalid line: " +
+                        Arrays.toString(line));
+            }
+            items.putIfAbsent(line[0], new Item(line[0], line[1], new BigDecimal(line[2].trim()), null, null));
+        }
+        return new ArrayList<>(items.values());
+    }
+
+    /**
+     * Write a catalog file of items.
+     *
+     * @param items  the items, which must have distinct UPCs
+     * @param output the path of the catalog file, which is replaced if it exists
+     * @throws IOException              if the file cannot be written
+     * @throws IllegalArgumentException if an item has no UPC, two items have the same UPC, or the catalog would
+     *                                  exceed 2 GB
+     */
+    public static void write(@NonNull Collection<Item> items, @NonNull Path output) throws IOException {
+        int itemCount = items.size();
+        int slotCount = slotCount(itemCount);
+        long tableOffset = HEADER_SIZE;
+        long recordsOffset = tableOffset + (long) slotCount * SLOT_SIZE;
+        long stringsOffset = recordsOffset + (long) itemCount * RECORD_SIZE;
+        if (stringsOffset > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many items for one catalog file: " + itemCount);
+        }
+
+        ByteBuffer table = ByteBuffer.allocate(slotCount * SLOT_SIZE);
+        ByteBuffer records = ByteBuffer.allocate(itemCount * RECORD_SIZE);
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        Map<String, Integer> categoryOffsets = new HashMap<>();
+        Set<String> upcs = new HashSet<>(itemCount * 2);
+
+        int record = 0;
+        for (Item item : items) {
+            String upc = item.getUpc();
+            if (upc == null) {
+                throw new IllegalArgumentException("Cannot write an item without a UPC");
+            }
+            if (!upcs.add(upc)) {
+                throw new IllegalArgumentException("Duplicate UPC in catalog: " + upc);
+            }
+
+            records.putLong(item.getUnitPrice() != null ? Money.toCents(item.getUnitPrice()) : NO_PRICE);
+            putString(records, strings, upc);
+            putString(records, strings, item.getName());
+            String category = item.getCategory();
+            if (category != null && categoryOffsets.containsKey(category)) {
+                records.putInt(categoryOffsets.get(category));
+                records.putInt(category.getBytes(StandardCharsets.UTF_8).length);
+            } else {
+                int offset = putString(records, strings, category);
+                if (category != null) {
+                    categoryOffsets.put(category, offset);
+                }
+            }
+            putString(records, strings, item.getDescription());
+
+            int hash = hash(upc);
+            int slot = homeSlot(hash, slotCount);
+            while (table.getInt(slot * SLOT_SIZE + SLOT_RECORD) != 0) {
+                slot = (slot + 1) & (slotCount - 1);
+            }
+            table.putInt(slot * SLOT_SIZE + SLOT_HASH, hash);
+            table.putInt(slot * SLOT_SIZE + SLOT_RECORD, record + 1);
+            record++;
+        }
+
+        long fileSize = stringsOffset + strings.size();
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The catalog file would exceed 2 GB: " + fileSize + " bytes");
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC_OFFSET, MAGIC);
+        header.putInt(VERSION_OFFSET, VERSION);
+        header.putInt(ITEM_COUNT_OFFSET, itemCount);
+        header.putInt(SLOT_COUNT_OFFSET, slotCount);
+        header.putInt(TABLE_OFFSET_OFFSET, (int) tableOffset);
+        header.putInt(RECORDS_OFFSET_OFFSET, (int) recordsOffset);
+        header.putInt(STRINGS_OFFSET_OFFSET, (int) stringsOffset);
+        header.putInt(FILE_SIZE_OFFSET, (int) fileSize);
+
+        Path absoluteOutput = output.toAbsolutePath();
+        Path temporaryFile =
+                Files.createTempFile(absoluteOutput.getParent(), absoluteOutput.getFileName() + ".", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (ByteBuffer section : List.of(header, table.rewind(), records.rewind(),
+                        ByteBuffer.wrap(strings.toByteArray()))) {
+                    while (section.hasRemaining()) {
+                        channel.write(section);
+                    }
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(temporaryFile, absoluteOutput, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporaryFile, absoluteOutput, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    private static int putString(ByteBuffer records, ByteArrayOutputStream strings, String string) {
+        if (string == null) {
+            records.putInt(0);
+            records.putInt(NO_STRING);
+            return 0;
+        }
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        int offset = strings.size();
+        strings.write(bytes, 0, bytes.length);
+        records.putInt(offset);
+        records.putInt(bytes.length);
+        return offset;
+    }
+
+    /**
+     * The main entry point for the item catalog builder.
+     *
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        Arguments arguments = new Arguments();
+        JCommander jCommander = JCommander.newBuilder().addObject(arguments).build();
+        try {
+            jCommander.parse(args);
+        } catch (ParameterException e) {
+            System.err.println("[MappedItemCatalogBuilder] Error while parsing parameters: " + e.getMessage());
+            jCommander.usage();
+            System.exit(1);
+        }
+
+        long start = System.nanoTime();
+        List<Item> items = readTsv(arguments.getInput());
+        Path output = Path.of(arguments.getOutput());
+        try {
+            write(items, output);
+        } catch (IOException e) {
+            System.err.println("[MappedItemCatalogBuilder] Failed to write item catalog file " + output + ": " +
+                    e.getMessage());
+            System.exit(1);
+        }
+        System.out.printf("[MappedItemCatalogBuilder] Wrote %d items to %s in %.1f ms%n", items.size(),
+                output.toAbsolutePath(), (System.nanoTime() - start) / 1_000_000.0);
+    }
+}
@@ -0,0 +1,84 @@
+package com.rocketpartners.onboarding.possystem.repository.mapped;
+
+/**
+ * Layout of the binary item catalog file that is written by the {@link MappedItemCatalogBuilder} and memory-mapped by
+ * the {@link MappedItemRepository}. All numbers are big-endian, and the file is at most 2 GB, so that every offset is
+ * an {@code int} and the file fits in one mapped buffer. The file is made of four sections:
+ * <ol>
+ *     <li>A header of {@value #HEADER_SIZE} bytes: the magic number, the format version, the number of items, the
+ *     number of slots of the UPC table, and the offsets of the three sections below.</li>
+ *     <li>The UPC table, an open-addressing hash table with linear probing and a power of two number of slots, at
+ *     most half of them full. Each slot of {@value #SLOT_SIZE} bytes holds the hash of a UPC and the index of its
+ *     item plus 1, or 0 if the slot is empty.</li>
+ *     <li>The items, a record of {@value #RECORD_SIZE} bytes each: the price in cents, or {@link #NO_PRICE}, then the
+ *     offset and length of the UPC, the name, the category, and the description in the strings section. The length of
+ *     a string that is null is {@link #NO_STRING}.</li>
+ *     <li>The strings, in UTF-8. Each distinct category is stored once.</li>
+ * </ol>
+ */
+final class MappedItemCatalogFormat {
+
+    static final int MAGIC = 0x504F5343;
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 32;
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int ITEM_COUNT_OFFSET = 8;
+    static final int SLOT_COUNT_OFFSET = 12;
+    static final int TABLE_OFFSET_OFFSET = 16;
+    static final int RECORDS_OFFSET_OFFSET = 20;
+    static final int STRINGS_OFFSET_OFFSET = 24;
+    static final int FILE_SIZE_OFFSET = 28;
+
+    static final int SLOT_SIZE = 8;
+    static final int SLOT_HASH = 0;
+    static final int SLOT_RECORD = 4;
+
+    static final int RECORD_SIZE = 40;
+    static final int RECORD_PRICE = 0;
+    static final int RECORD_UPC = 8;
+    static final int RECORD_NAME = 16;
+    static final int RECORD_CATEGORY = 24;
+    static final int RECORD_DESCRIPTION = 32;
+
+    static final long NO_PRICE = Long.MIN_VALUE;
+    static final int NO_STRING = -1;
+
+    private MappedItemCatalogFormat() {
+    }
+
+    /**
+     * Get the number of slots of the UPC table for a number of items, which keeps the table at most half full.
+     *
+     * @param itemCount the number of items
+     * @return the number of slots, which is a power of two
+     */
+    static int slotCount(int itemCount) {
+        return Integer.highestOneBit(Math.max(itemCount, 1) * 2 - 1) << 1;
+    }
+
+    /**
+     * Get the hash of a UPC. {@link String#hashCode()} is specified by the language, so the hash is the same for the
+     * builder and every process that maps the file.
+     *
+     * @param upc the UPC
+     * @return the hash
+     */
+    static int hash(String upc) {
+        return upc.hashCode();
+    }
+
+    /**
+     * Get the home slot of a UPC hash. The hash is mixed first, since UPCs that differ in the last digit would
+     * otherwise cluster in consecutive slots.
+     *
+     * @param hash      the hash of the UPC
+     * @param slotCount the number of slots
+     * @return the index of the home slot
+     */
+    static int homeSlot(int hash, int slotCount) {
+        int mixed = hash * 0x9E3779B9;
+        return (mixed ^ (mixed >>> 16)) & (slotCount - 1);
+    }
+}
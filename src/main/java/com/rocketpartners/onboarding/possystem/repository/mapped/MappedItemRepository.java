@@ -0,0 +1,225 @@
+package com.rocketpartners.onboarding.possystem.repository.mapped;
+
+import com.rocketpartners.onboarding.commons.model.Item;
+import com.rocketpartners.onboarding.possystem.repository.ItemRepository;
+import com.rocketpartners.onboarding.possystem.repository.PositionalItemRepository;
+import com.rocketpartners.onboarding.possystem.utils.Money;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.rocketpartners.onboarding.possystem.repository.mapped.MappedItemCatalogFormat.*;
+
+/**
+ * A read-only implementation of the {@link ItemRepository} interface backed by a binary item catalog file, see
+ * {@link MappedItemCatalogFormat}, that is memory-mapped instead of read into the heap. Opening the catalog only maps
+ * the file, so a lane starts without parsing the item book, and every lane process on the host that maps the same
+ * file shares one copy of it in the page cache.
+ * <p>
+ * Looking up an item by UPC probes the UPC table of the file and builds a new {@link Item} from its record. Looking up
+ * items by name or by category scans the records, and the items can be read by record position, see
+ * {@link PositionalItemRepository}. Saving and deleting items throw an
+ * {@link UnsupportedOperationException}: the catalog is changed by building a new file with the
+ * {@link MappedItemCatalogBuilder}, which replaces the old file atomically, and the lanes see the new catalog when they
+ * are restarted. Reads do not change the state of the mapped buffer, so the repository is safe to share between
+ * threads.
+ */
+public class MappedItemRepository implements PositionalItemRepository {
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int itemCount;
+    private final int slotCount;
+    private final int tableOffset;
+    private final int recordsOffset;
+    private final int stringsOffset;
+    // Each distinct category is stored once, so its string is decoded once per offset
+    private final Map<Integer, String> categoriesByOffset = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor that maps a catalog file.
+     *
+     * @param path the path of the catalog file
+     * @throws RuntimeException if the file cannot be mapped or is not a valid catalog file
+     */
+    public MappedItemRepository(@NonNull Path path) {
+        this.path = path;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid item catalog file size: " + size + " bytes");
+            }
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (IOException e) {
+            System.err.println("[MappedItemRepository] Failed to map item catalog file " + path + ": " +
+                    e.getMessage());
+            throw new RuntimeException("Failed to map item catalog file " + path, e);
+        }
+
+        if (buffer.getInt(MAGIC_OFFSET) != MAGIC) {
+            throw new IllegalArgumentException("Not an item catalog file: " + path);
+        }
+        int version = buffer.getInt(VERSION_OFFSET);
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported item catalog file version " + version + ": " + path);
+        }
+        itemCount = buffer.getInt(ITEM_COUNT_OFFSET);
+        slotCount = buffer.getInt(SLOT_COUNT_OFFSET);
+        tableOffset = buffer.getInt(TABLE_OFFSET_OFFSET);
+        recordsOffset = buffer.getInt(RECORDS_OFFSET_OFFSET);
+        stringsOffset = buffer.getInt(STRINGS_OFFSET_OFFSET);
+        if (buffer.getInt(FILE_SIZE_OFFSET) != buffer.capacity() || itemCount < 0 || slotCount <= itemCount ||
+                Integer.bitCount(slotCount) != 1 || tableOffset + (long) slotCount * SLOT_SIZE > recordsOffset ||
+                recordsOffset + (long) itemCount * RECORD_SIZE > stringsOffset || stringsOffset > buffer.capacity()) {
+            throw new IllegalArgumentException("Corrupt or truncated item catalog file: " + path);
+        }
+    }
+
+    @Override
+    public void saveItem(Item item) {
+        throw new UnsupportedOperationException("The memory-mapped item catalog is read-only. Rebuild the catalog " +
+                "file to change items.");
+    }
+
+    @Override
+    public List<Item> getAllItems() {
+        List<Item> items = new ArrayList<>(itemCount);
+        for (int record = 0; record < itemCount; record++) {
+            items.add(toItem(record));
+        }
+        return items;
+    }
+
+    @Override
+    public void deleteItemByUpc(String upc) {
+        throw new UnsupportedOperationException("The memory-mapped item catalog is read-only. Rebuild the catalog " +
+                "file to change items.");
+    }
+
+    @Override
+    public Item getItemByUpc(@NonNull String upc) {
+        int record = findRecord(upc);
+        return record >= 0 ? toItem(record) : null;
+    }
+
+    @Override
+    public boolean itemExists(@NonNull String upc) {
+        return findRecord(upc) >= 0;
+    }
+
+    @Override
+    public List<Item> getItemsByName(@NonNull String name) {
+        return findByString(RECORD_NAME, name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public List<Item> getItemsByCategory(@NonNull String category) {
+        return findByString(RECORD_CATEGORY, category.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public int size() {
+        return itemCount;
+    }
+
+    @Override
+    public String getUpcAt(int position) {
+        return readString(recordPosition(Objects.checkIndex(position, itemCount)) + RECORD_UPC);
+    }
+
+    @Override
+    public String getNameAt(int position) {
+        return readString(recordPosition(Objects.checkIndex(position, itemCount)) + RECORD_NAME);
+    }
+
+    @Override
+    public Item getItemAt(int position) {
+        return toItem(Objects.checkIndex(position, itemCount));
+    }
+
+    @Override
+    public String toString() {
+        return "MappedItemRepository(path=" + path + ", items=" + itemCount + ", bytes=" + buffer.capacity() + ")";
+    }
+
+    private int findRecord(String upc) {
+        byte[] upcBytes = upc.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(upc);
+        int mask = slotCount - 1;
+        for (int slot = homeSlot(hash, slotCount); ; slot = (slot + 1) & mask) {
+            int slotPosition = tableOffset + slot * SLOT_SIZE;
+            int recordPlusOne = buffer.getInt(slotPosition + SLOT_RECORD);
+            if (recordPlusOne == 0) {
+                return -1;
+            }
+            if (buffer.getInt(slotPosition + SLOT_HASH) == hash &&
+                    stringEquals(recordPosition(recordPlusOne - 1) + RECORD_UPC, upcBytes)) {
+                return recordPlusOne - 1;
+            }
+        }
+    }
+
+    private List<Item> findByString(int field, byte[] bytes) {
+        List<Item> items = new ArrayList<>();
+        for (int record = 0; record < itemCount; record++) {
+            if (stringEquals(recordPosition(record) + field, bytes)) {
+                items.add(toItem(record));
+            }
+        }
+        return items;
+    }
+
+    private Item toItem(int record) {
+        int position = recordPosition(record);
+        long priceCents = buffer.getLong(position + RECORD_PRICE);
+        return new Item(readString(position + RECORD_UPC), readString(position + RECORD_NAME),
+                priceCents != NO_PRICE ? Money.toBigDecimal(priceCents) : null, readCategory(position),
+                readString(position + RECORD_DESCRIPTION));
+    }
+
+    private int recordPosition(int record) {
+        return recordsOffset + record * RECORD_SIZE;
+    }
+
+    private boolean stringEquals(int fieldPosition, byte[] bytes) {
+        if (buffer.getInt(fieldPosition + 4) != bytes.length) {
+            return false;
+        }
+        int position = stringsOffset + buffer.getInt(fieldPosition);
+        for (int i = 0; i < bytes.length; i++) {
+            if (buffer.get(position + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readString(int fieldPosition) {
+        int length = buffer.getInt(fieldPosition + 4);
+        if (length == NO_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(stringsOffset + buffer.getInt(fieldPosition), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private String readCategory(int position) {
+        int fieldPosition = position + RECORD_CATEGORY;
+        if (buffer.getInt(fieldPosition + 4) == NO_STRING) {
+            return null;
+        }
+        return categoriesByOffset.computeIfAbsent(buffer.getInt(fieldPosition), offset -> readString(fieldPosition));
+    }
+}
@@ -1,69 +1,242 @@
 package com.rocketpartners.onboarding.possystem.repository.mysql;
 
+import java.math.BigDecimal;
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.rocketpartners.onboarding.commons.model.LineItem;
 import com.rocketpartners.onboarding.commons.model.Transaction;
+import com.rocketpartners.onboarding.possystem.metrics.SizeStats;
 import com.rocketpartners.onboarding.possystem.repository.TransactionRepository;
+import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 
 @RequiredArgsConstructor
 public class MySQLTransactionRepository implements TransactionRepository {
 
+    private static final String SAVE_TRANSACTION_SQL = "INSERT INTO transactions (id, pos_system_id, " +
+            "transaction_number, subtotal, taxes, discounts, total, amount_tendered, change_due, customer_id, " +
+            "voided, tendered, time_created, time_completed) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON " +
+            "DUPLICATE KEY UPDATE pos_system_id = VALUES(pos_system_id), transaction_number = " +
+            "VALUES(transaction_number), subtotal = VALUES(subtotal), taxes = VALUES(taxes), discounts = " +
+            "VALUES(discounts), total = VALUES(total), amount_tendered = VALUES(amount_tendered), change_due = " +
+            "VALUES(change_due), customer_id = VALUES(customer_id), voided = VALUES(voided), tendered = " +
+            "VALUES(tendered), time_created = VALUES(time_created), time_completed = VALUES(time_completed)";
+    private static final String SAVE_LINE_ITEM_SQL = "INSERT INTO line_items (transaction_id, item_upc, quantity, " +
+            "voided) VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE quantity = VALUES(quantity), voided = VALUES(voided)";
+
+    private static final int MAX_TRACKED_TRANSACTIONS = 1024;
+
+    /**
+     * The header columns of a transaction as they were last written.
+     */
+    private record HeaderState(String posSystemId, int transactionNumber, BigDecimal subtotal, BigDecimal taxes,
+                               BigDecimal discounts, BigDecimal total, BigDecimal amountTendered,
+                               BigDecimal changeDue, String customerId, boolean voided, boolean tendered,
+                               LocalDateTime timeCreated, LocalDateTime timeCompleted) {
+
+        static HeaderState of(@NonNull Transaction transaction) {
+            return new HeaderState(transaction.getPosSystemId(), transaction.getTransactionNumber(),
+                    transaction.getSubtotal(), transaction.getTaxes(), transaction.getDiscountAmount(),
+                    transaction.getTotal(), transaction.getAmountTendered(), transaction.getChangeDue(),
+                    transaction.getCustomerId(), transaction.isVoided(), transaction.isTendered(),
+                    transaction.getTimeCreated(), transaction.getTimeCompleted());
+        }
+    }
+
+    /**
+     * The columns of a line item row as they were last written.
+     */
+    private record LineItemState(int quantity, boolean voided) {
+    }
+
+    /**
+     * What was last written for a transaction. Line items are keyed by UPC, like the primary key of the line item
+     * table.
+     */
+    private record WrittenState(HeaderState header, Map<String, LineItemState> lineItems) {
+    }
+
+    /**
+     * The rows of a transaction that a save has to write.
+     */
+    private record PendingWrite(Transaction transaction, WrittenState newState, boolean writeHeader,
+                                List<LineItem> changedLineItems) {
+    }
+
     private final DatabaseConnectionManager connectionManager;
 
+    // Transactions that are no longer in progress are dropped, and the least recently saved transactions are evicted
+    // beyond the limit. A transaction that is not tracked is simply written in full on its next save.
+    private final Map<String, WrittenState> writtenStates =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, WrittenState> eldest) {
+                    return size() > MAX_TRACKED_TRANSACTIONS;
+                }
+            };
+
+    @Getter
+    private final SizeStats lineItemsWrittenStats = new SizeStats("MySQL line items written per transaction save");
+    private final AtomicLong headersWrittenCount = new AtomicLong();
+    private final AtomicLong headersSkippedCount = new AtomicLong();
+
     @Override
     public void saveTransaction(@NonNull Transaction transaction) {
-        String sql = "INSERT INTO transactions (id, pos_system_id, transaction_number, subtotal, taxes, discounts, " +
-                "total, amount_tendered, change_due, customer_id, voided, tendered, time_created, time_completed) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE pos_system_id = VALUES" +
-                "(pos_system_id), transaction_number = VALUES(transaction_number), subtotal = VALUES(subtotal), taxes" +
-                " = VALUES(taxes), discounts = VALUES(discounts), total = VALUES(total), amount_tendered = VALUES" +
-                "(amount_tendered), change_due = VALUES(change_due), customer_id = VALUES(customer_id), voided = " +
-                "VALUES(voided), tendered = VALUES(tendered), time_created = VALUES(time_created), time_completed = " +
-                "VALUES(time_completed)";
-
-        try (Connection connection = connectionManager.startNewConnection();
-             PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, transaction.getId());
-            stmt.setString(2, transaction.getPosSystemId());
-            stmt.setInt(3, transaction.getTransactionNumber());
-            stmt.setBigDecimal(4, transaction.getSubtotal());
-            stmt.setBigDecimal(5, transaction.getTaxes());
-            stmt.setBigDecimal(6, transaction.getDiscountAmount());
-            stmt.setBigDecimal(7, transaction.getTotal());
-            stmt.setBigDecimal(8, transaction.getAmountTendered());
-            stmt.setBigDecimal(9, transaction.getChangeDue());
-            stmt.setString(10, transaction.getCustomerId());
-            stmt.setBoolean(11, transaction.isVoided());
-            stmt.setBoolean(12, transaction.isTendered());
-            stmt.setTimestamp(13, Timestamp.valueOf(transaction.getTimeCreated()));
-            if (transaction.getTimeCompleted() != null) {
-                stmt.setTimestamp(14, Timestamp.valueOf(transaction.getTimeCompleted()));
-            } else {
-                stmt.setNull(14, Types.TIMESTAMP);
+        try {
+            saveTransactions(List.of(transaction));
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only the rows that changed since the last save are written: the header if any of its columns changed, and the
+     * line items that are new or whose quantity or voided flag changed. All rows are written over one connection with
+     * one batch per table, and are committed together.
+     *
+     * @throws RuntimeException if the rows cannot be written, in which case none of them are
+     */
+    @Override
+    public void saveTransactions(@NonNull Collection<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+
+        List<PendingWrite> pendingWrites = new ArrayList<>(transactions.size());
+        synchronized (writtenStates) {
+            for (Transaction transaction : transactions) {
+                pendingWrites.add(computePendingWrite(transaction, writtenStates.get(transaction.getId())));
             }
-            stmt.executeUpdate();
-
-            // Save line items
-            String lineItemSql = "INSERT INTO line_items (transaction_id, item_upc, quantity, voided) " +
-                    "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE quantity = VALUES(quantity), voided = VALUES(voided)";
-            try (PreparedStatement lineItemStmt = connection.prepareStatement(lineItemSql)) {
-                for (LineItem lineItem : transaction.getLineItems()) {
-                    lineItemStmt.setString(1, lineItem.getTransactionId());
-                    lineItemStmt.setString(2, lineItem.getItemUpc());
-                    lineItemStmt.setInt(3, lineItem.getQuantity());
-                    lineItemStmt.setBoolean(4, lineItem.isVoided());
-                    lineItemStmt.addBatch();
+        }
+
+        try (Connection connection = connectionManager.startNewConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement stmt = connection.prepareStatement(SAVE_TRANSACTION_SQL);
+                 PreparedStatement lineItemStmt = connection.prepareStatement(SAVE_LINE_ITEM_SQL)) {
+                int headers = 0;
+                int lineItems = 0;
+                for (PendingWrite pendingWrite : pendingWrites) {
+                    if (pendingWrite.writeHeader()) {
+                        addTransactionToBatch(stmt, pendingWrite.transaction());
+                        headers++;
+                    }
+                    for (LineItem lineItem : pendingWrite.changedLineItems()) {
+                        lineItemStmt.setString(1, lineItem.getTransactionId());
+                        lineItemStmt.setString(2, lineItem.getItemUpc());
+                        lineItemStmt.setInt(3, lineItem.getQuantity());
+                        lineItemStmt.setBoolean(4, lineItem.isVoided());
+                        lineItemStmt.addBatch();
+                        lineItems++;
+                    }
+                }
+                // Transactions first, since line items reference them
+                if (headers > 0) {
+                    stmt.executeBatch();
                 }
-                lineItemStmt.executeBatch();
+                if (lineItems > 0) {
+                    lineItemStmt.executeBatch();
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
             }
         } catch (SQLException e) {
-            System.err.println("Failed to save transaction: " + e.getMessage());
+            // Nothing is recorded as written, so the next save writes these rows again.
+            throw new RuntimeException("Failed to save " + transactions.size() + " transactions: " + e.getMessage(),
+                    e);
+        }
+
+        synchronized (writtenStates) {
+            for (PendingWrite pendingWrite : pendingWrites) {
+                Transaction transaction = pendingWrite.transaction();
+                if (transaction.isVoided() || transaction.isTendered()) {
+                    writtenStates.remove(transaction.getId());
+                } else {
+                    writtenStates.put(transaction.getId(), pendingWrite.newState());
+                }
+            }
+        }
+        for (PendingWrite pendingWrite : pendingWrites) {
+            (pendingWrite.writeHeader() ? headersWrittenCount : headersSkippedCount).incrementAndGet();
+            lineItemsWrittenStats.record(pendingWrite.changedLineItems().size());
+        }
+    }
+
+    /**
+     * Get the number of saved transactions whose header was written.
+     *
+     * @return the number of headers written
+     */
+    public long getHeadersWrittenCount() {
+        return headersWrittenCount.get();
+    }
+
+    /**
+     * Get the number of saved transactions whose header was unchanged and therefore not written.
+     *
+     * @return the number of headers skipped
+     */
+    public long getHeadersSkippedCount() {
+        return headersSkippedCount.get();
+    }
+
+    /**
+     * Compute the rows of a transaction that differ from what was last written.
+     *
+     * @param transaction  the transaction to save
+     * @param writtenState what was last written for the transaction, or null if unknown
+     * @return the rows to write and the state after writing them
+     */
+    private static PendingWrite computePendingWrite(@NonNull Transaction transaction, WrittenState writtenState) {
+        HeaderState header = HeaderState.of(transaction);
+        boolean writeHeader = writtenState == null || !header.equals(writtenState.header());
+
+        // Rows are keyed by UPC, so when a UPC has several line items, the last one is the row that ends up written
+        Map<String, LineItem> rows = new LinkedHashMap<>();
+        transaction.getLineItems().forEach(lineItem -> rows.put(lineItem.getItemUpc(), lineItem));
+
+        Map<String, LineItemState> lineItemStates = new HashMap<>(rows.size() * 2);
+        List<LineItem> changedLineItems = new ArrayList<>();
+        rows.forEach((itemUpc, lineItem) -> {
+            LineItemState state = new LineItemState(lineItem.getQuantity(), lineItem.isVoided());
+            lineItemStates.put(itemUpc, state);
+            if (writtenState == null || !state.equals(writtenState.lineItems().get(itemUpc))) {
+                changedLineItems.add(lineItem);
+            }
+        });
+
+        return new PendingWrite(transaction, new WrittenState(header, lineItemStates), writeHeader,
+                changedLineItems);
+    }
+
+    private static void addTransactionToBatch(@NonNull PreparedStatement stmt, @NonNull Transaction transaction)
+            throws SQLException {
+        stmt.setString(1, transaction.getId());
+        stmt.setString(2, transaction.getPosSystemId());
+        stmt.setInt(3, transaction.getTransactionNumber());
+        stmt.setBigDecimal(4, transaction.getSubtotal());
+        stmt.setBigDecimal(5, transaction.getTaxes());
+        stmt.setBigDecimal(6, transaction.getDiscountAmount());
+        stmt.setBigDecimal(7, transaction.getTotal());
+        stmt.setBigDecimal(8, transaction.getAmountTendered());
+        stmt.setBigDecimal(9, transaction.getChangeDue());
+        stmt.setString(10, transaction.getCustomerId());
+        stmt.setBoolean(11, transaction.isVoided());
+        stmt.setBoolean(12, transaction.isTendered());
+        stmt.setTimestamp(13, Timestamp.valueOf(transaction.getTimeCreated()));
+        if (transaction.getTimeCompleted() != null) {
+            stmt.setTimestamp(14, Timestamp.valueOf(transaction.getTimeCompleted()));
+        } else {
+            stmt.setNull(14, Types.TIMESTAMP);
         }
+        stmt.addBatch();
     }
 
     @Override
@@ -85,6 +258,9 @@ public class MySQLTransactionRepository implements TransactionRepository {
 
     @Override
     public void deleteTransactionById(@NonNull String id) {
+        synchronized (writtenStates) {
+            writtenStates.remove(id);
+        }
         String transactionSql = "DELETE FROM transactions WHERE id = ?";
         String lineItemSql = "DELETE FROM line_items WHERE transaction_id = ?";
         try (Connection connection = connectionManager.startNewConnection(); PreparedStatement transactionStmt =
@@ -193,5 +369,10 @@ public class MySQLTransactionRepository implements TransactionRepository {
         }
         return lineItems;
     }
-}
 
+    @Override
+    public String toString() {
+        return "MySQLTransactionRepository(headersWritten=" + getHeadersWrittenCount() + ", headersSkipped=" +
+                getHeadersSkippedCount() + ", " + lineItemsWrittenStats + ")";
+    }
+}
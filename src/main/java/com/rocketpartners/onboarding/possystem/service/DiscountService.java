@@ -11,6 +11,7 @@ import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
 import org.apache.hc.core5.http.HttpEntity;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.apache.hc.core5.http.io.entity.StringEntity;
@@ -41,6 +42,28 @@ public class DiscountService {
         this.objectMapper = new ObjectMapper();
     }
 
+    /**
+     * Create a new DiscountService with the given base URL and a pool of at most the given number of connections to
+     * the discount engine. One such service can be shared by many lanes, e.g. in a lane host, since the HTTP client
+     * and the object mapper are thread-safe.
+     *
+     * @param baseUrl        the base URL
+     * @param maxConnections the maximum number of pooled connections
+     */
+    public DiscountService(@NonNull String baseUrl, int maxConnections) {
+        if (maxConnections <= 0) {
+            throw new IllegalArgumentException("Max connections must be greater than 0");
+        }
+        this.baseUrl = baseUrl;
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(maxConnections)
+                        .setMaxConnPerRoute(maxConnections)
+                        .build())
+                .build();
+        this.objectMapper = new ObjectMapper();
+    }
+
     /**
      * Get the map of discounts.
      *
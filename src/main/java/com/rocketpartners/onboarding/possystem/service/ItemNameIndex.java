@@ -0,0 +1,244 @@
+package com.rocketpartners.onboarding.possystem.service;
+
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trigram index of item names for partial-name search, e.g. type-ahead lookup on the register. Names are normalized to
+ * lower case letters and digits separated by single spaces and split into trigrams. The start of every word is also
+ * indexed padded with spaces, e.g. {@code "  m"} and {@code " mi"} for a word starting with "mi". A query of three or
+ * more characters matches the names that contain it, and a shorter query matches the names with a word that starts
+ * with it.
+ * <p>
+ * Every indexed name gets an increasing id, and the posting list of each trigram holds the ids of the names that
+ * contain it in ascending order. A search intersects the posting lists of the trigrams of the query, starting with the
+ * shortest, and then checks that the name really contains the query, since having the trigrams of the query is not
+ * enough. Removed names leave their ids in the posting lists until they make up half of the index, at which point the
+ * posting lists are rebuilt. The index is safe to share between threads.
+ */
+class ItemNameIndex {
+
+    private static final int MIN_COMPACTION_SIZE = 1024;
+
+    private static final class Postings {
+
+        private int[] ids = new int[4];
+        private int size;
+
+        private void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        private boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<String, Integer> idsByUpc = new HashMap<>();
+    private final List<String> upcs = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private int removedCount;
+
+    /**
+     * Index the name of an item, replacing the name it was indexed with before, if any.
+     *
+     * @param upc  the UPC of the item
+     * @param name the name of the item, or null to only remove the item from the index
+     */
+    synchronized void add(@NonNull String upc, String name) {
+        String normalizedName = name != null ? normalize(name) : "";
+        Integer id = idsByUpc.get(upc);
+        if (id != null && normalizedName.equals(names.get(id))) {
+            return;
+        }
+        removeId(id);
+        if (normalizedName.isEmpty()) {
+            idsByUpc.remove(upc);
+            return;
+        }
+
+        int newId = upcs.size();
+        upcs.add(upc);
+        names.add(normalizedName);
+        idsByUpc.put(upc, newId);
+        addPostings(newId, normalizedName);
+    }
+
+    /**
+     * Remove an item from the index.
+     *
+     * @param upc the UPC of the item
+     */
+    synchronized void remove(@NonNull String upc) {
+        removeId(idsByUpc.remove(upc));
+    }
+
+    synchronized int size() {
+        return idsByUpc.size();
+    }
+
+    /**
+     * Search the UPCs of the items whose name matches the query, in the order the names were indexed.
+     *
+     * @param query the partial name to search for
+     * @param max   the maximum number of UPCs to return
+     * @return the UPCs of the matching items
+     */
+    synchronized List<String> search(@NonNull String query, int max) {
+        String normalizedQuery = normalize(query);
+        if (normalizedQuery.isEmpty() || max <= 0) {
+            return List.of();
+        }
+
+        // A short query is a word prefix, which the trigram of the word start padded with spaces stands for
+        boolean prefix = normalizedQuery.length() < 3;
+        String pattern = prefix ? " " + normalizedQuery : normalizedQuery;
+        long[] trigrams = prefix ? new long[]{trigram(" " + pattern, pattern.length() - 2)} : trigramsOf(pattern);
+
+        Postings[] lists = new Postings[trigrams.length];
+        for (int i = 0; i < trigrams.length; i++) {
+            lists[i] = postings.get(trigrams[i]);
+            if (lists[i] == null) {
+                return List.of();
+            }
+        }
+        Arrays.sort(lists, (p1, p2) -> Integer.compare(p1.size, p2.size));
+
+        List<String> result = new ArrayList<>(Math.min(max, lists[0].size));
+        for (int i = 0; i < lists[0].size && result.size() < max; i++) {
+            int id = lists[0].ids[i];
+            String name = names.get(id);
+            if (name == null || !containsInAll(lists, id)) {
+                continue;
+            }
+            if (matches(name, normalizedQuery)) {
+                result.add(upcs.get(id));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Normalize a name or query to lower case letters and digits separated by single spaces. Package-private for
+     * testing purposes.
+     *
+     * @param text the name or query
+     * @return the normalized text
+     */
+    static String normalize(@NonNull String text) {
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (space && !normalized.isEmpty()) {
+                    normalized.append(' ');
+                }
+                normalized.append(Character.toLowerCase(c));
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Check whether a name matches a query, i.e. contains a query of three or more characters or has a word that starts
+     * with a shorter query, e.g. to search names that are not indexed.
+     *
+     * @param normalizedName  the name, see {@link #normalize(String)}
+     * @param normalizedQuery the query, see {@link #normalize(String)}
+     * @return true if the name matches the query, false otherwise
+     */
+    static boolean matches(@NonNull String normalizedName, @NonNull String normalizedQuery) {
+        if (normalizedQuery.length() < 3) {
+            return (" " + normalizedName).contains(" " + normalizedQuery);
+        }
+        return normalizedName.contains(normalizedQuery);
+    }
+
+    private static boolean containsInAll(Postings[] lists, int id) {
+        for (int i = 1; i < lists.length; i++) {
+            if (!lists[i].contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void addPostings(int id, String normalizedName) {
+        for (int i = 0; i + 3 <= normalizedName.length(); i++) {
+            addPosting(trigram(normalizedName, i), id);
+        }
+        for (int i = 0; i < normalizedName.length(); i++) {
+            if (i == 0 || normalizedName.charAt(i - 1) == ' ') {
+                String wordStart = "  " + normalizedName.substring(i, Math.min(i + 2, normalizedName.length()));
+                addPosting(trigram(wordStart, 0), id);
+                if (wordStart.length() == 4 && wordStart.charAt(3) != ' ') {
+                    addPosting(trigram(wordStart, 1), id);
+                }
+            }
+        }
+    }
+
+    private void addPosting(long trigram, int id) {
+        Postings list = postings.computeIfAbsent(trigram, key -> new Postings());
+        // Ids are increasing, so a trigram that repeats in a name is always the last id of the list
+        if (list.size == 0 || list.ids[list.size - 1] != id) {
+            list.add(id);
+        }
+    }
+
+    private void removeId(Integer id) {
+        if (id == null) {
+            return;
+        }
+        upcs.set(id, null);
+        names.set(id, null);
+        removedCount++;
+        if (removedCount >= MIN_COMPACTION_SIZE && removedCount * 2 >= upcs.size()) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        List<String> oldUpcs = new ArrayList<>(upcs);
+        List<String> oldNames = new ArrayList<>(names);
+        postings.clear();
+        idsByUpc.clear();
+        upcs.clear();
+        names.clear();
+        removedCount = 0;
+        for (int i = 0; i < oldUpcs.size(); i++) {
+            if (oldUpcs.get(i) != null) {
+                int id = upcs.size();
+                upcs.add(oldUpcs.get(i));
+                names.add(oldNames.get(i));
+                idsByUpc.put(oldUpcs.get(i), id);
+                addPostings(id, oldNames.get(i));
+            }
+        }
+    }
+
+    private static long[] trigramsOf(String text) {
+        long[] trigrams = new long[text.length() - 2];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = trigram(text, i);
+        }
+        return trigrams;
+    }
+
+    private static long trigram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+}
@@ -2,19 +2,76 @@ package com.rocketpartners.onboarding.possystem.service;
 
 import com.rocketpartners.onboarding.commons.model.Item;
 import com.rocketpartners.onboarding.possystem.repository.ItemRepository;
+import com.rocketpartners.onboarding.possystem.repository.PositionalItemRepository;
+import lombok.Getter;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
-@RequiredArgsConstructor
 public class ItemService {
 
+    static final int MIN_UPC_FILTER_CAPACITY = 1024;
+    static final double UPC_FILTER_FALSE_POSITIVE_RATE = 0.01;
+
     private final ItemRepository itemRepository;
+    // Set if the items can be sampled and scanned in place, in which case the catalog is neither indexed nor filtered
+    private final PositionalItemRepository positionalItemRepository;
+    private final RandomUpcIndex randomUpcIndex;
+    private final ItemNameIndex itemNameIndex;
+    private final PopularItemsTracker popularItemsTracker;
+    private final LongSupplier nanoTime;
+    private volatile boolean indexesLoaded;
+    private final Object upcFilterLock = new Object();
+    private volatile UpcBloomFilter upcFilter;
+    private volatile long upcFilterBuiltAtNanos;
+    @Getter
+    @Setter
+    private volatile long upcFilterMaxAgeMs;
+    private final AtomicLong upcFilterHitCount = new AtomicLong();
+    private final AtomicLong upcFilterMissCount = new AtomicLong();
+    private final AtomicLong upcFilterFalsePositiveCount = new AtomicLong();
+
+    /**
+     * Constructor that accepts the item repository.
+     *
+     * @param itemRepository the item repository
+     */
+    public ItemService(@NonNull ItemRepository itemRepository) {
+        this(itemRepository, new RandomUpcIndex(), new ItemNameIndex(), new PopularItemsTracker(), System::nanoTime);
+    }
+
+    /**
+     * Constructor that accepts the item repository, the indexes of the catalog, the tracker of the most scanned items,
+     * and the source of the current time in nanoseconds. Package-private for testing purposes.
+     *
+     * @param itemRepository      the item repository
+     * @param randomUpcIndex      the index of random UPCs
+     * @param itemNameIndex       the index of item names
+     * @param popularItemsTracker the tracker of the most scanned items
+     * @param nanoTime            the source of the current time in nanoseconds
+     */
+    ItemService(@NonNull ItemRepository itemRepository, @NonNull RandomUpcIndex randomUpcIndex,
+                @NonNull ItemNameIndex itemNameIndex, @NonNull PopularItemsTracker popularItemsTracker,
+                @NonNull LongSupplier nanoTime) {
+        this.itemRepository = itemRepository;
+        this.positionalItemRepository = itemRepository instanceof PositionalItemRepository positional ? positional :
+                null;
+        this.randomUpcIndex = randomUpcIndex;
+        this.itemNameIndex = itemNameIndex;
+        this.popularItemsTracker = popularItemsTracker;
+        this.nanoTime = nanoTime;
+    }
 
     /**
      * Create a new Item object and persist it. The UPC, name, and unit price are required fields. The category and
@@ -60,16 +117,31 @@ public class ItemService {
      */
     public void saveItem(@NonNull Item item) {
         itemRepository.saveItem(item);
+        indexItem(item);
+        synchronized (upcFilterLock) {
+            if (upcFilter != null) {
+                upcFilter.add(item.getUpc());
+            }
+        }
     }
 
     /**
-     * Retrieve the Item with the specified UPC from the repository.
+     * Retrieve the Item with the specified UPC from the repository. A UPC that is not in the catalog is rejected by the
+     * UPC filter without a lookup in the repository, see {@link #itemExists(String)}.
      *
      * @param upc the UPC of the item to be retrieved
      * @return the item with the specified UPC, or null if no such item exists
      */
     public Item getItemByUpc(@NonNull String upc) {
-        return itemRepository.getItemByUpc(upc);
+        if (positionalItemRepository != null) {
+            return itemRepository.getItemByUpc(upc);
+        }
+        if (!upcFilterMightContain(upc)) {
+            return null;
+        }
+        Item item = itemRepository.getItemByUpc(upc);
+        recordUpcFilterResult(item != null);
+        return item;
     }
 
     /**
@@ -88,6 +160,12 @@ public class ItemService {
      */
     public void deleteItemByUpc(@NonNull String upc) {
         itemRepository.deleteItemByUpc(upc);
+        unindexItem(upc);
+        synchronized (upcFilterLock) {
+            if (upcFilter != null) {
+                upcFilter.recordRemoval();
+            }
+        }
     }
 
     /**
@@ -112,12 +190,59 @@ public class ItemService {
 
     /**
      * Check whether an Item with the specified UPC exists in the repository.
+     * <p>
+     * The UPC is checked against a Bloom filter of the UPCs in the catalog first, so that a mis-scan or a junk barcode
+     * is rejected without a lookup in the repository, e.g. a round trip to MySQL. The filter is built with one read of
+     * the whole catalog the first time it is needed, and kept current by {@link #saveItem(Item)} and
+     * {@link #deleteItemByUpc(String)}. It is rebuilt when it fills up, when many items were deleted, and when it is
+     * older than {@link #getUpcFilterMaxAgeMs()}, so that items added to the repository without going through this
+     * service, e.g. by another lane host sharing the database, are found after at most that long. A max age of 0 never
+     * rebuilds the filter because of its age, which is only correct if every item is saved through this service.
+     * <p>
+     * A {@link PositionalItemRepository}, e.g. the memory-mapped catalog, is not filtered, since its lookups by UPC
+     * never leave memory and the filter would only add a copy of its UPCs to the heap.
      *
      * @param upc the UPC of the item to check for
      * @return true if an item with the specified UPC exists, false otherwise
      */
     public boolean itemExists(@NonNull String upc) {
-        return itemRepository.itemExists(upc);
+        if (positionalItemRepository != null) {
+            return itemRepository.itemExists(upc);
+        }
+        if (!upcFilterMightContain(upc)) {
+            return false;
+        }
+        boolean exists = itemRepository.itemExists(upc);
+        recordUpcFilterResult(exists);
+        return exists;
+    }
+
+    /**
+     * Get the number of lookups by UPC that passed the UPC filter and found the item.
+     *
+     * @return the number of hits
+     */
+    public long getUpcFilterHitCount() {
+        return upcFilterHitCount.get();
+    }
+
+    /**
+     * Get the number of lookups by UPC that the UPC filter rejected without a lookup in the repository.
+     *
+     * @return the number of misses
+     */
+    public long getUpcFilterMissCount() {
+        return upcFilterMissCount.get();
+    }
+
+    /**
+     * Get the number of lookups by UPC that passed the UPC filter but did not find the item, i.e. false positives of
+     * the filter and items that were deleted since it was built.
+     *
+     * @return the number of false positives
+     */
+    public long getUpcFilterFalsePositiveCount() {
+        return upcFilterFalsePositiveCount.get();
     }
 
     /**
@@ -136,25 +261,233 @@ public class ItemService {
      * Retrieve a list of random Item objects from the repository that are not contained in the provided list of UPCs.
      * The number of items returned is limited by the max parameter. If the number of items not contained in the list of
      * UPCs is less than max, all available items will be returned. The order of the items is randomized.
+     * <p>
+     * The first call reads the whole catalog to index its UPCs. After that, only the picked items are read from the
+     * repository, so the cost of a call depends on max and the number of excluded UPCs, not on the catalog size. The
+     * items of a {@link PositionalItemRepository} are picked by position instead, without reading the whole catalog.
      *
      * @param itemUpcs the list of UPCs to exclude
      * @param max      the maximum number of items to return
      * @return a list of random items not contained in the provided list of UPCs
      */
     public List<Item> getRandomItemsNotIn(@NonNull Set<String> itemUpcs, int max) {
-        List<Item> allItems = new ArrayList<>(itemRepository.getAllItems());
-        Collections.shuffle(allItems);
-        max = Math.min(max, allItems.size());
-        List<Item> itemsToReturn = new ArrayList<>();
-        for (Item item : allItems) {
-            if (itemUpcs.contains(item.getUpc())) {
-                continue;
+        if (positionalItemRepository != null) {
+            return getRandomItemsNotIn(positionalItemRepository, itemUpcs, max);
+        }
+        loadIndexesIfNeeded();
+
+        List<Item> itemsToReturn = new ArrayList<>(Math.max(max, 0));
+        Set<String> excludedUpcs = itemUpcs;
+        while (itemsToReturn.size() < max) {
+            List<String> upcs = randomUpcIndex.sample(max - itemsToReturn.size(), excludedUpcs);
+            if (upcs.isEmpty()) {
+                break;
+            }
+            if (excludedUpcs == itemUpcs) {
+                excludedUpcs = new HashSet<>(itemUpcs);
             }
-            itemsToReturn.add(item);
+            for (String upc : upcs) {
+                excludedUpcs.add(upc);
+                Item item = itemRepository.getItemByUpc(upc);
+                if (item != null) {
+                    itemsToReturn.add(item);
+                } else {
+                    // The item was deleted from the repository without going through this service
+                    unindexItem(upc);
+                }
+            }
+        }
+        return itemsToReturn;
+    }
+
+    /**
+     * Record that an item was scanned into a transaction, which counts towards it becoming a quick item.
+     *
+     * @param upc the UPC of the scanned item
+     */
+    public void recordItemScanned(@NonNull String upc) {
+        popularItemsTracker.recordScan(upc);
+    }
+
+    /**
+     * Retrieve the quick items to offer, which are the most scanned items, see {@link #recordItemScanned(String)}.
+     * If fewer than max items have been scanned recently, then the rest are random items.
+     *
+     * @param max the maximum number of items to return
+     * @return a list of quick items, most scanned first
+     */
+    public List<Item> getQuickItems(int max) {
+        return getQuickItemsNotIn(Set.of(), max);
+    }
+
+    /**
+     * Retrieve the quick items to offer that are not contained in the provided list of UPCs. The most scanned items
+     * come first, and if there are fewer than max of them, then the rest are random items. Only the returned items are
+     * read from the repository.
+     *
+     * @param itemUpcs the list of UPCs to exclude
+     * @param max      the maximum number of items to return
+     * @return a list of quick items not contained in the provided list of UPCs, most scanned first
+     */
+    public List<Item> getQuickItemsNotIn(@NonNull Set<String> itemUpcs, int max) {
+        List<Item> itemsToReturn = new ArrayList<>(Math.max(max, 0));
+        Set<String> pickedUpcs = new HashSet<>();
+        for (String upc : popularItemsTracker.getTopUpcs(max + itemUpcs.size())) {
             if (itemsToReturn.size() >= max) {
-                break;
+                return itemsToReturn;
+            }
+            if (itemUpcs.contains(upc)) {
+                continue;
+            }
+            Item item = itemRepository.getItemByUpc(upc);
+            if (item != null) {
+                itemsToReturn.add(item);
+                pickedUpcs.add(upc);
             }
         }
+        if (itemsToReturn.size() < max) {
+            Set<String> excludedUpcs = itemUpcs;
+            if (!pickedUpcs.isEmpty()) {
+                excludedUpcs = new HashSet<>(itemUpcs);
+                excludedUpcs.addAll(pickedUpcs);
+            }
+            itemsToReturn.addAll(getRandomItemsNotIn(excludedUpcs, max - itemsToReturn.size()));
+        }
         return itemsToReturn;
     }
+
+    /**
+     * Search the items whose name contains the query, ignoring case and punctuation, e.g. for type-ahead lookup. A
+     * query of one or two characters matches the items with a word in their name that starts with it instead. The
+     * search uses an index of the item names, so it does not scan the catalog, and only the returned items are read
+     * from the repository. The names of a {@link PositionalItemRepository} are scanned in place instead, so that the
+     * catalog is not copied into an index on the heap.
+     *
+     * @param query the partial name to search for
+     * @param max   the maximum number of items to return
+     * @return a list of matching items, in the order they were indexed
+     */
+    public List<Item> searchItemsByName(@NonNull String query, int max) {
+        if (positionalItemRepository != null) {
+            return searchItemsByName(positionalItemRepository, query, max);
+        }
+        loadIndexesIfNeeded();
+
+        List<Item> itemsToReturn = new ArrayList<>();
+        for (String upc : itemNameIndex.search(query, max)) {
+            Item item = itemRepository.getItemByUpc(upc);
+            if (item != null) {
+                itemsToReturn.add(item);
+            } else {
+                unindexItem(upc);
+            }
+        }
+        return itemsToReturn;
+    }
+
+    private static List<Item> getRandomItemsNotIn(PositionalItemRepository repository, Set<String> itemUpcs,
+                                                  int max) {
+        int size = repository.size();
+        List<Item> itemsToReturn = new ArrayList<>(Math.max(Math.min(max, size), 0));
+        // A Fisher-Yates shuffle of the positions that stops after max items and only stores the swapped positions
+        Map<Integer, Integer> swappedPositions = new HashMap<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < size && itemsToReturn.size() < max; i++) {
+            int j = i + random.nextInt(size - i);
+            int position = swappedPositions.getOrDefault(j, j);
+            swappedPositions.put(j, swappedPositions.getOrDefault(i, i));
+            if (!itemUpcs.contains(repository.getUpcAt(position))) {
+                itemsToReturn.add(repository.getItemAt(position));
+            }
+        }
+        return itemsToReturn;
+    }
+
+    private static List<Item> searchItemsByName(PositionalItemRepository repository, String query, int max) {
+        String normalizedQuery = ItemNameIndex.normalize(query);
+        List<Item> itemsToReturn = new ArrayList<>();
+        if (normalizedQuery.isEmpty()) {
+            return itemsToReturn;
+        }
+        for (int position = 0; position < repository.size() && itemsToReturn.size() < max; position++) {
+            String name = repository.getNameAt(position);
+            if (name != null && ItemNameIndex.matches(ItemNameIndex.normalize(name), normalizedQuery)) {
+                itemsToReturn.add(repository.getItemAt(position));
+            }
+        }
+        return itemsToReturn;
+    }
+
+    /**
+     * Load the indexes of the catalog with one read of the whole catalog the first time they are needed. Items saved
+     * and deleted through this service are indexed as they change, e.g. while the item book loads, so the read only
+     * matters for items that were already in the repository, e.g. in MySQL.
+     */
+    private void loadIndexesIfNeeded() {
+        if (indexesLoaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!indexesLoaded) {
+                itemRepository.getAllItems().forEach(this::indexItem);
+                indexesLoaded = true;
+            }
+        }
+    }
+
+    private boolean upcFilterMightContain(String upc) {
+        UpcBloomFilter filter = upcFilter;
+        if (filter == null || filter.needsRebuild() || isUpcFilterExpired()) {
+            filter = loadUpcFilter();
+        }
+        if (filter.mightContain(upc)) {
+            return true;
+        }
+        upcFilterMissCount.incrementAndGet();
+        return false;
+    }
+
+    private UpcBloomFilter loadUpcFilter() {
+        synchronized (upcFilterLock) {
+            if (upcFilter == null || upcFilter.needsRebuild() || isUpcFilterExpired()) {
+                long builtAtNanos = nanoTime.getAsLong();
+                List<Item> items = itemRepository.getAllItems();
+                // Sized for twice the catalog, so that it fills up only after the catalog doubles
+                UpcBloomFilter filter = new UpcBloomFilter(Math.max(items.size() * 2, MIN_UPC_FILTER_CAPACITY),
+                        UPC_FILTER_FALSE_POSITIVE_RATE);
+                for (Item item : items) {
+                    if (item.getUpc() != null) {
+                        filter.add(item.getUpc());
+                    }
+                }
+                upcFilter = filter;
+                upcFilterBuiltAtNanos = builtAtNanos;
+            }
+            return upcFilter;
+        }
+    }
+
+    private boolean isUpcFilterExpired() {
+        long maxAgeMs = upcFilterMaxAgeMs;
+        return maxAgeMs > 0 &&
+                nanoTime.getAsLong() - upcFilterBuiltAtNanos >= TimeUnit.MILLISECONDS.toNanos(maxAgeMs);
+    }
+
+    private void recordUpcFilterResult(boolean found) {
+        if (found) {
+            upcFilterHitCount.incrementAndGet();
+        } else {
+            upcFilterFalsePositiveCount.incrementAndGet();
+        }
+    }
+
+    private void indexItem(@NonNull Item item) {
+        randomUpcIndex.add(item.getUpc());
+        itemNameIndex.add(item.getUpc(), item.getName());
+    }
+
+    private void unindexItem(@NonNull String upc) {
+        randomUpcIndex.remove(upc);
+        itemNameIndex.remove(upc);
+    }
 }
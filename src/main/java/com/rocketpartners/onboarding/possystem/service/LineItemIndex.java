@@ -0,0 +1,106 @@
+package com.rocketpartners.onboarding.possystem.service;
+
+import com.rocketpartners.onboarding.commons.model.LineItem;
+import com.rocketpartners.onboarding.commons.model.Transaction;
+import lombok.NonNull;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Index from UPC to the active, i.e. not voided, line item of each transaction, so that scanning an item into a large
+ * basket does not search every line item. Transactions are held weakly, so the index of a transaction that is no
+ * longer referenced is discarded with it.
+ * <p>
+ * The index of a transaction is rebuilt from its line items when the line item list is replaced or changes size
+ * behind the back of the index, e.g. when the transaction is loaded from a repository, and when an indexed line item
+ * turns out to have been voided elsewhere.
+ */
+class LineItemIndex {
+
+    private static final class Entry {
+
+        private final List<LineItem> lineItems;
+        private final Map<String, LineItem> activeLineItems;
+        private int size;
+
+        private Entry(List<LineItem> lineItems) {
+            this.lineItems = lineItems;
+            activeLineItems = new HashMap<>();
+            size = lineItems.size();
+            for (LineItem lineItem : lineItems) {
+                if (!lineItem.isVoided()) {
+                    activeLineItems.putIfAbsent(lineItem.getItemUpc(), lineItem);
+                }
+            }
+        }
+    }
+
+    private final Map<Transaction, Entry> entries = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Get the active line item of the item with the UPC in a transaction.
+     *
+     * @param transaction the transaction
+     * @param itemUpc     the UPC of the item
+     * @return the active line item, or null if the transaction has no active line item for the item
+     */
+    LineItem getActiveLineItem(@NonNull Transaction transaction, @NonNull String itemUpc) {
+        Entry entry = getEntry(transaction);
+        LineItem lineItem = entry.activeLineItems.get(itemUpc);
+        if (lineItem != null && (lineItem.isVoided() || !itemUpc.equals(lineItem.getItemUpc()))) {
+            entry = rebuild(transaction);
+            lineItem = entry.activeLineItems.get(itemUpc);
+        }
+        return lineItem;
+    }
+
+    /**
+     * Record that a line item was appended to the line items of a transaction.
+     *
+     * @param transaction the transaction
+     * @param lineItem    the appended line item
+     */
+    void lineItemAdded(@NonNull Transaction transaction, @NonNull LineItem lineItem) {
+        Entry entry = entries.get(transaction);
+        if (entry == null || entry.lineItems != transaction.getLineItems()) {
+            rebuild(transaction);
+            return;
+        }
+        entry.size++;
+        if (!lineItem.isVoided()) {
+            entry.activeLineItems.put(lineItem.getItemUpc(), lineItem);
+        }
+    }
+
+    /**
+     * Record that a line item of a transaction was voided.
+     *
+     * @param transaction the transaction
+     * @param lineItem    the voided line item
+     */
+    void lineItemVoided(@NonNull Transaction transaction, @NonNull LineItem lineItem) {
+        Entry entry = entries.get(transaction);
+        if (entry != null) {
+            entry.activeLineItems.remove(lineItem.getItemUpc(), lineItem);
+        }
+    }
+
+    private Entry getEntry(Transaction transaction) {
+        Entry entry = entries.get(transaction);
+        List<LineItem> lineItems = transaction.getLineItems();
+        if (entry == null || entry.lineItems != lineItems || entry.size != lineItems.size()) {
+            entry = rebuild(transaction);
+        }
+        return entry;
+    }
+
+    private Entry rebuild(Transaction transaction) {
+        Entry entry = new Entry(transaction.getLineItems());
+        entries.put(transaction, entry);
+        return entry;
+    }
+}
@@ -0,0 +1,146 @@
+package com.rocketpartners.onboarding.possystem.service;
+
+import com.rocketpartners.onboarding.possystem.utils.CountMinSketch;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Streaming tracker of the most scanned items. Scans are counted in a {@link CountMinSketch}, and the items with the
+ * highest estimated counts are kept as candidates in a min-heap of fixed capacity, so that the memory is bounded no
+ * matter how large the catalog is, and getting the top items does not scan the catalog.
+ * <p>
+ * Popularity decays with the number of scans: every {@code decayInterval} scans, every count is halved, so that an
+ * item that is no longer scanned drops out of the top items after a few intervals. The tracker is safe to share
+ * between threads, e.g. by every lane of a lane host, which makes the popularity store-wide.
+ */
+class PopularItemsTracker {
+
+    static final int DEFAULT_CAPACITY = 64;
+    static final int DEFAULT_DECAY_INTERVAL = 10_000;
+
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_WIDTH = 4096;
+
+    private static final class Candidate {
+
+        private final String upc;
+        private int count;
+
+        private Candidate(String upc, int count) {
+            this.upc = upc;
+            this.count = count;
+        }
+    }
+
+    private final CountMinSketch sketch;
+    private final PriorityQueue<Candidate> heap;
+    private final Map<String, Candidate> candidates;
+    private final int capacity;
+    private final int decayInterval;
+    private int scansSinceDecay;
+
+    /**
+     * Constructor that uses the default capacity and decay interval.
+     */
+    PopularItemsTracker() {
+        this(DEFAULT_CAPACITY, DEFAULT_DECAY_INTERVAL);
+    }
+
+    /**
+     * Constructor that accepts the number of candidates to keep and the number of scans between decays.
+     * Package-private for testing purposes.
+     *
+     * @param capacity      the number of candidates, which bounds how many top items can be returned
+     * @param decayInterval the number of scans after which every count is halved, or 0 to never decay
+     */
+    PopularItemsTracker(int capacity, int decayInterval) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        }
+        if (decayInterval < 0) {
+            throw new IllegalArgumentException("Decay interval cannot be negative");
+        }
+        this.capacity = capacity;
+        this.decayInterval = decayInterval;
+        sketch = new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH);
+        heap = new PriorityQueue<>(capacity, (c1, c2) -> Integer.compare(c1.count, c2.count));
+        candidates = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Record that an item was scanned.
+     *
+     * @param upc the UPC of the item
+     */
+    synchronized void recordScan(@NonNull String upc) {
+        int count = sketch.increment(upc);
+
+        Candidate candidate = candidates.get(upc);
+        if (candidate != null) {
+            heap.remove(candidate);
+            candidate.count = count;
+            heap.offer(candidate);
+        } else if (candidates.size() < capacity) {
+            addCandidate(upc, count);
+        } else if (count > heap.peek().count) {
+            candidates.remove(heap.poll().upc);
+            addCandidate(upc, count);
+        }
+
+        if (decayInterval > 0 && ++scansSinceDecay >= decayInterval) {
+            decay();
+        }
+    }
+
+    /**
+     * Get the UPCs of the most scanned items, from most to least scanned. Only items with a count greater than 0 are
+     * returned. At most {@code capacity} UPCs can be returned.
+     *
+     * @param max the maximum number of UPCs to return
+     * @return the UPCs of the most scanned items
+     */
+    synchronized List<String> getTopUpcs(int max) {
+        List<Candidate> sorted = new ArrayList<>(candidates.values());
+        sorted.sort((c1, c2) -> Integer.compare(c2.count, c1.count));
+        List<String> topUpcs = new ArrayList<>(Math.min(Math.max(max, 0), sorted.size()));
+        for (Candidate candidate : sorted) {
+            if (topUpcs.size() >= max) {
+                break;
+            }
+            topUpcs.add(candidate.upc);
+        }
+        return topUpcs;
+    }
+
+    /**
+     * Get the estimated number of scans of an item, after decay.
+     *
+     * @param upc the UPC of the item
+     * @return the estimated number of scans
+     */
+    synchronized int estimateScans(@NonNull String upc) {
+        return sketch.estimate(upc);
+    }
+
+    private void addCandidate(String upc, int count) {
+        Candidate candidate = new Candidate(upc, count);
+        candidates.put(upc, candidate);
+        heap.offer(candidate);
+    }
+
+    private void decay() {
+        scansSinceDecay = 0;
+        sketch.halve();
+
+        // Halving every count keeps the order of the heap, so the candidates that decayed to nothing are on top
+        heap.forEach(candidate -> candidate.count >>>= 1);
+        while (!heap.isEmpty() && heap.peek().count == 0) {
+            candidates.remove(heap.poll().upc);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.rocketpartners.onboarding.possystem.service;
+
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Index of the UPCs of the item catalog that supports picking random UPCs in time and memory proportional to the
+ * number of picked UPCs, independent of the size of the catalog. The UPCs are held in an array, and a map from UPC to
+ * array position lets a UPC be removed in constant time by moving the last UPC into its slot.
+ * <p>
+ * The index is safe to share between threads.
+ */
+class RandomUpcIndex {
+
+    private final List<String> upcs = new ArrayList<>();
+    private final Map<String, Integer> positions = new HashMap<>();
+    private final Random random;
+
+    /**
+     * Constructor that picks UPCs with the random generator of the current thread.
+     */
+    RandomUpcIndex() {
+        this(null);
+    }
+
+    /**
+     * Constructor that picks UPCs with the given random generator. Package-private for testing purposes.
+     *
+     * @param random the random generator, or null to use the random generator of the current thread
+     */
+    RandomUpcIndex(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Add a UPC to the index. Adding a UPC that is already indexed is a no-op.
+     *
+     * @param upc the UPC
+     */
+    synchronized void add(@NonNull String upc) {
+        if (positions.putIfAbsent(upc, upcs.size()) == null) {
+            upcs.add(upc);
+        }
+    }
+
+    /**
+     * Remove a UPC from the index.
+     *
+     * @param upc the UPC
+     */
+    synchronized void remove(@NonNull String upc) {
+        Integer position = positions.remove(upc);
+        if (position == null) {
+            return;
+        }
+        String last = upcs.remove(upcs.size() - 1);
+        if (position < upcs.size()) {
+            upcs.set(position, last);
+            positions.put(last, position);
+        }
+    }
+
+    synchronized int size() {
+        return upcs.size();
+    }
+
+    /**
+     * Pick distinct random UPCs that are not excluded, in random order. If fewer than {@code count} UPCs are not
+     * excluded, all of them are returned.
+     * <p>
+     * This uses Floyd's sampling algorithm, which draws a uniformly random subset of {@code s} positions out of
+     * {@code n} with exactly {@code s} random numbers. Drawing {@code count} plus the number of indexed excluded UPCs
+     * positions guarantees {@code count} UPCs that are not excluded, and since the drawn subset is uniform, so are
+     * the ones that are kept.
+     *
+     * @param count        the number of UPCs to pick
+     * @param excludedUpcs the UPCs to exclude
+     * @return the picked UPCs
+     */
+    synchronized List<String> sample(int count, @NonNull Set<String> excludedUpcs) {
+        if (count <= 0 || upcs.isEmpty()) {
+            return List.of();
+        }
+        int excludedCount = 0;
+        for (String excludedUpc : excludedUpcs) {
+            if (positions.containsKey(excludedUpc)) {
+                excludedCount++;
+            }
+        }
+        Random random = this.random != null ? this.random : ThreadLocalRandom.current();
+
+        int n = upcs.size();
+        int drawCount = count + excludedCount;
+        List<String> sample = new ArrayList<>(Math.min(drawCount, n));
+        if (drawCount >= n) {
+            for (String upc : upcs) {
+                if (!excludedUpcs.contains(upc)) {
+                    sample.add(upc);
+                }
+            }
+        } else {
+            Set<Integer> drawn = new HashSet<>(drawCount * 2);
+            for (int j = n - drawCount; j < n; j++) {
+                int position = random.nextInt(j + 1);
+                if (!drawn.add(position)) {
+                    drawn.add(j);
+                    position = j;
+                }
+                String upc = upcs.get(position);
+                if (!excludedUpcs.contains(upc)) {
+                    sample.add(upc);
+                }
+            }
+        }
+
+        // Floyd's algorithm picks a uniform subset, but not in a uniform order
+        Collections.shuffle(sample, random);
+        return sample.size() > count ? new ArrayList<>(sample.subList(0, count)) : sample;
+    }
+}
@@ -1,6 +1,7 @@
 package com.rocketpartners.onboarding.possystem.service;
 
 import com.rocketpartners.onboarding.commons.model.Transaction;
+import com.rocketpartners.onboarding.possystem.utils.Money;
 import lombok.NonNull;
 
 import java.math.BigDecimal;
@@ -10,11 +11,17 @@ import java.math.BigDecimal;
  */
 public class TaxService {
 
+    /**
+     * The fixed tax rate of 4% in basis points.
+     */
+    public static final long TAX_RATE_BASIS_POINTS = 400L;
+
     /**
      * Compute the taxes for the given transaction. The taxes are computed based on the items in the transaction, the
      * customer, and any other relevant information. The tax rate is fetched from an API source. The tax amount is not
      * automatically applied to the transaction. The caller is responsible for applying the tax amount to the
-     * transaction.
+     * transaction. The tax amount is computed in cents by {@link #computeTaxCentsFor(long)}, so it is rounded half up
+     * to the cent like the taxes of the transaction totals.
      *
      * @param transaction The transaction for which to compute taxes.
      * @return The tax amount for the given transaction.
@@ -22,7 +29,19 @@ public class TaxService {
     public BigDecimal computeTaxesFor(@NonNull Transaction transaction) {
         // TODO: Implement this method to fetch standard tax rate from an API source
         //  for now we will use a fixed tax rate of 4%.
-        return transaction.getSubtotal().multiply(BigDecimal.valueOf(0.04));
+        return Money.toBigDecimal(computeTaxCentsFor(Money.toCents(transaction.getSubtotal())));
+    }
+
+    /**
+     * Compute the taxes for a subtotal in cents, rounded half up to the cent. This is the allocation-free variant of
+     * {@link #computeTaxesFor(Transaction)} used when the totals of a transaction are computed.
+     *
+     * @param subtotalCents The subtotal in cents.
+     * @return The tax amount in cents.
+     * @see Money#applyRate(long, long)
+     */
+    public long computeTaxCentsFor(long subtotalCents) {
+        return Money.applyRate(subtotalCents, TAX_RATE_BASIS_POINTS);
     }
 
 }
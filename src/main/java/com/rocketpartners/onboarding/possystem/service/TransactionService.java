@@ -5,27 +5,56 @@ import com.rocketpartners.onboarding.commons.model.Item;
 import com.rocketpartners.onboarding.commons.model.LineItem;
 import com.rocketpartners.onboarding.commons.model.Transaction;
 import com.rocketpartners.onboarding.possystem.repository.TransactionRepository;
+import com.rocketpartners.onboarding.possystem.utils.Money;
+import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service class for Transaction objects. This class provides methods for creating, saving, and modifying transactions.
  * It also provides methods for computing the subtotal, taxes, discounts, and total for a transaction.
+ * <p>
+ * By default, adding, removing, and voiding items maintain running totals: only the change of the affected line item
+ * is applied to the subtotal, which costs one item lookup no matter how many line items the transaction has. The taxes
+ * and the total are derived from the subtotal. Every {@code verificationInterval}-th change does a full recompute
+ * instead, which verifies the running subtotal and corrects it if it has drifted, e.g. because the price of an item
+ * changed during the transaction.
+ * <p>
+ * The active line item of a UPC is found through a {@link LineItemIndex} instead of a search of the line items.
+ * <p>
+ * The totals are computed in cents with {@link Money}, and are converted to {@link BigDecimal} only when they are set
+ * on the transaction. The taxes and the total are therefore rounded to the cent.
  */
 @SuppressWarnings("DuplicatedCode")
 @ToString
 @RequiredArgsConstructor
 public class TransactionService {
 
+    private static final int DEFAULT_VERIFICATION_INTERVAL = 64;
+
     private final TransactionRepository transactionRepository;
     private final ItemService itemService;
     private final TaxService taxService;
+    private final AtomicLong runningTotalsUpdateCount = new AtomicLong();
+    private final AtomicLong runningTotalsMismatchCount = new AtomicLong();
+    private final LineItemIndex lineItemIndex = new LineItemIndex();
+
+    @Getter
+    @Setter
+    private volatile boolean runningTotals = true;
+    @Getter
+    @Setter
+    private volatile int verificationInterval = DEFAULT_VERIFICATION_INTERVAL;
 
     /**
      * Create a new Transaction object and persist it.
@@ -59,32 +88,117 @@ public class TransactionService {
      * @param transaction the transaction to recompute and save
      */
     public void recomputeAndSaveTransaction(@NonNull Transaction transaction) {
-        transaction.setSubtotal(BigDecimal.ZERO);
+        applyTotals(transaction, computeSubtotalCents(transaction));
+        saveTransaction(transaction);
+    }
 
-        transaction.getLineItems().stream().filter(it -> !it.isVoided()).forEach(lineItem -> {
-            Item item = itemService.getItemByUpc(lineItem.getItemUpc());
-            if (item != null) {
-                BigDecimal itemPrice = item.getUnitPrice();
-                BigDecimal lineItemSubtotal = itemPrice.multiply(BigDecimal.valueOf(lineItem.getQuantity()));
-                BigDecimal currentSubtotal = transaction.getSubtotal();
-                transaction.setSubtotal(currentSubtotal.add(lineItemSubtotal));
-            }
-        });
+    /**
+     * Get the number of full recomputes that found a running subtotal that differed from the recomputed subtotal.
+     *
+     * @return the number of mismatches
+     */
+    public long getRunningTotalsMismatchCount() {
+        return runningTotalsMismatchCount.get();
+    }
 
-        BigDecimal subtotal = transaction.getSubtotal();
+    /**
+     * Apply the change of the quantity of one line item to the running totals of a transaction and save it. Falls
+     * back to {@link #recomputeAndSaveTransaction(Transaction)} if running totals are disabled, and verifies the
+     * running subtotal with a full recompute every {@code verificationInterval}-th change.
+     *
+     * @param transaction   the transaction whose line item changed
+     * @param itemUpc       the UPC of the item of the line item
+     * @param quantityDelta the change of the quantity of the line item
+     */
+    private void applyLineItemDeltaAndSaveTransaction(@NonNull Transaction transaction, @NonNull String itemUpc,
+                                                      int quantityDelta) {
+        if (!runningTotals) {
+            recomputeAndSaveTransaction(transaction);
+            return;
+        }
 
-        BigDecimal taxes = taxService.computeTaxesFor(transaction);
-        transaction.setTaxes(taxes);
+        long runningSubtotalCents =
+                Money.add(Money.toCents(transaction.getSubtotal()), computeLineItemDeltaCents(itemUpc, quantityDelta));
+        verifyRunningSubtotalAndSaveTransaction(transaction, runningSubtotalCents);
+    }
 
-        BigDecimal total = BigDecimal.ZERO;
-        total = total.add(subtotal);
-        total = total.add(taxes);
-        total = total.subtract(transaction.getDiscountAmount());
-        transaction.setTotal(total);
+    /**
+     * Apply the changes of the quantities of several line items to the running totals of a transaction as one change,
+     * and save it once. See {@link #applyLineItemDeltaAndSaveTransaction(Transaction, String, int)}.
+     *
+     * @param transaction    the transaction whose line items changed
+     * @param quantityDeltas the change of the quantity per UPC
+     */
+    private void applyLineItemDeltasAndSaveTransaction(@NonNull Transaction transaction,
+                                                       @NonNull Map<String, Integer> quantityDeltas) {
+        if (!runningTotals) {
+            recomputeAndSaveTransaction(transaction);
+            return;
+        }
 
+        long runningSubtotalCents = Money.toCents(transaction.getSubtotal());
+        for (Map.Entry<String, Integer> entry : quantityDeltas.entrySet()) {
+            runningSubtotalCents =
+                    Money.add(runningSubtotalCents, computeLineItemDeltaCents(entry.getKey(), entry.getValue()));
+        }
+        verifyRunningSubtotalAndSaveTransaction(transaction, runningSubtotalCents);
+    }
+
+    private long computeLineItemDeltaCents(@NonNull String itemUpc, int quantityDelta) {
+        if (quantityDelta == 0) {
+            return 0L;
+        }
+        Item item = itemService.getItemByUpc(itemUpc);
+        return item != null ? Money.multiply(Money.toCents(item.getUnitPrice()), quantityDelta) : 0L;
+    }
+
+    private void verifyRunningSubtotalAndSaveTransaction(@NonNull Transaction transaction, long runningSubtotalCents) {
+        int verificationInterval = this.verificationInterval;
+        if (verificationInterval > 0 && runningTotalsUpdateCount.incrementAndGet() % verificationInterval == 0) {
+            long subtotalCents = computeSubtotalCents(transaction);
+            if (subtotalCents != runningSubtotalCents) {
+                runningTotalsMismatchCount.incrementAndGet();
+                System.err.println("[TransactionService] Running subtotal " + Money.format(runningSubtotalCents) +
+                        " of transaction " + transaction.getId() + " differs from recomputed subtotal " +
+                        Money.format(subtotalCents) + ", using the recomputed subtotal");
+            }
+            runningSubtotalCents = subtotalCents;
+        }
+
+        applyTotals(transaction, runningSubtotalCents);
         saveTransaction(transaction);
     }
 
+    private long computeSubtotalCents(@NonNull Transaction transaction) {
+        long subtotalCents = 0L;
+        for (LineItem lineItem : transaction.getLineItems()) {
+            if (lineItem.isVoided()) {
+                continue;
+            }
+            Item item = itemService.getItemByUpc(lineItem.getItemUpc());
+            if (item != null) {
+                subtotalCents = Money.add(subtotalCents,
+                        Money.multiply(Money.toCents(item.getUnitPrice()), lineItem.getQuantity()));
+            }
+        }
+        return subtotalCents;
+    }
+
+    /**
+     * Compute the taxes and the total from the subtotal and the discount amount in cents, and set the subtotal, the
+     * taxes, and the total of the transaction. This is the only place where the totals are converted back to
+     * {@link BigDecimal}.
+     */
+    private void applyTotals(@NonNull Transaction transaction, long subtotalCents) {
+        long taxCents = taxService.computeTaxCentsFor(subtotalCents);
+        long totalCents = Money.subtract(Money.add(subtotalCents, taxCents),
+                Money.toCents(transaction.getDiscountAmount()));
+
+        transaction.setSubtotal(Money.toBigDecimal(subtotalCents));
+        transaction.setTaxes(Money.toBigDecimal(taxCents));
+        transaction.setTotal(Money.toBigDecimal(totalCents));
+    }
+
     /**
      * Save a transaction. The transaction should already exist in the repository. To recompute the transaction before
      * saving it, use {@link #recomputeAndSaveTransaction(Transaction)} instead.
@@ -95,48 +209,97 @@ public class TransactionService {
         transactionRepository.saveTransaction(transaction);
     }
 
+    /**
+     * Write any saved transactions that the repository has not written yet, e.g. when the repository writes behind.
+     * This should be called when a transaction reaches a state that must not be lost, such as completed or voided.
+     */
+    public void flushTransactions() {
+        transactionRepository.flush();
+    }
+
+    /**
+     * Write any saved transactions that the repository has not written yet without waiting for the write, so that a
+     * slow or failing database does not block the caller, e.g. the Event Dispatch Thread.
+     *
+     * @return a future that completes when the transactions are written, or completes exceptionally if the write fails
+     */
+    public CompletableFuture<Void> flushTransactionsAsync() {
+        return transactionRepository.flushAsync();
+    }
+
     /**
      * Add an item to a transaction. If the item is already in the transaction, the quantity of the line item is
      * incremented by one. If the item is not in the transaction, a new line item is created with a quantity of one.
-     * After the item is added, the transaction is recomputed and saved via
-     * {@link #recomputeAndSaveTransaction(Transaction)}.
+     * After the item is added, the running totals of the transaction are updated and the transaction is saved.
      *
      * @param transaction the transaction to add the item to
      * @param itemUpc     the UPC of the item to add
      */
     public boolean addItemToTransaction(@NonNull Transaction transaction, @NonNull String itemUpc) {
-        List<LineItem> lineItems = transaction.getLineItems();
-        LineItem lineItem = null;
-        for (LineItem item : lineItems) {
-            if (item.getItemUpc().equals(itemUpc) && !item.isVoided()) {
-                lineItem = item;
-                break;
+        addToActiveLineItem(transaction, itemUpc, 1);
+
+        applyLineItemDeltaAndSaveTransaction(transaction, itemUpc, 1);
+
+        if (Application.DEBUG) {
+            System.out.println("[TransactionService] Added item with UPC " + itemUpc + " to transaction: " + transaction);
+        }
+
+        return true;
+    }
+
+    /**
+     * Add several items to a transaction as one batch, e.g. a keyed-in quantity or a pre-built basket. Each item is
+     * added like {@link #addItemToTransaction(Transaction, String)} adds it, but the running totals are updated and the
+     * transaction is saved once for the whole batch instead of once per item.
+     *
+     * @param transaction     the transaction to add the items to
+     * @param quantitiesByUpc the quantity to add per UPC, in the order the line items should be created
+     * @return true if the items were added
+     * @throws IllegalArgumentException if a quantity is not greater than zero
+     */
+    public boolean addItemsToTransaction(@NonNull Transaction transaction,
+                                         @NonNull Map<String, Integer> quantitiesByUpc) {
+        quantitiesByUpc.forEach((itemUpc, quantity) -> {
+            if (quantity == null || quantity <= 0) {
+                throw new IllegalArgumentException("Quantity of item with UPC " + itemUpc + " must be greater than " +
+                        "0, but was " + quantity);
             }
+        });
+        if (quantitiesByUpc.isEmpty()) {
+            return false;
         }
+
+        quantitiesByUpc.forEach((itemUpc, quantity) -> addToActiveLineItem(transaction, itemUpc, quantity));
+
+        applyLineItemDeltasAndSaveTransaction(transaction, quantitiesByUpc);
+
+        if (Application.DEBUG) {
+            System.out.println("[TransactionService] Added items " + quantitiesByUpc + " to transaction: " +
+                    transaction);
+        }
+
+        return true;
+    }
+
+    private void addToActiveLineItem(@NonNull Transaction transaction, @NonNull String itemUpc, int quantity) {
+        List<LineItem> lineItems = transaction.getLineItems();
+        LineItem lineItem = lineItemIndex.getActiveLineItem(transaction, itemUpc);
         if (lineItem == null) {
             lineItem = new LineItem();
             lineItem.setItemUpc(itemUpc);
             lineItem.setTransactionId(transaction.getId());
             lineItems.add(lineItem);
+            lineItemIndex.lineItemAdded(transaction, lineItem);
         }
-        lineItem.setQuantity(lineItem.getQuantity() + 1);
+        lineItem.setQuantity(lineItem.getQuantity() + quantity);
         transaction.setLineItems(lineItems);
-
-        recomputeAndSaveTransaction(transaction);
-
-        if (Application.DEBUG) {
-            System.out.println("[TransactionService] Added item with UPC " + itemUpc + " to transaction: " + transaction);
-        }
-
-        return true;
     }
 
     /**
      * Remove one item from a transaction. If the item is in the transaction, the quantity of the line item is
      * decremented by one. The quantity of the line item cannot be less than one. If the quantity would be less than
      * one, the quantity is set to one. To completely remove an item from a transaction, void the line item instead.
-     * After the item is removed, the transaction is recomputed and saved via
-     * {@link #recomputeAndSaveTransaction(Transaction)}.
+     * After the item is removed, the running totals of the transaction are updated and the transaction is saved.
      *
      * @param transaction the transaction to remove the item from
      * @param itemUpc     the UPC of the item to remove
@@ -144,13 +307,7 @@ public class TransactionService {
      */
     public boolean removeItemFromTransaction(@NonNull Transaction transaction, @NonNull String itemUpc) {
         List<LineItem> lineItems = transaction.getLineItems();
-        LineItem foundLineItem = null;
-        for (LineItem lineItem : lineItems) {
-            if (itemUpc.equals(lineItem.getItemUpc()) && !lineItem.isVoided()) {
-                foundLineItem = lineItem;
-                break;
-            }
-        }
+        LineItem foundLineItem = lineItemIndex.getActiveLineItem(transaction, itemUpc);
 
         boolean decremented = false;
         if (foundLineItem != null) {
@@ -170,7 +327,7 @@ public class TransactionService {
                 decremented = true;
             }
             transaction.setLineItems(lineItems);
-            recomputeAndSaveTransaction(transaction);
+            applyLineItemDeltaAndSaveTransaction(transaction, itemUpc, decremented ? -1 : 0);
         }
 
         return decremented;
@@ -178,26 +335,21 @@ public class TransactionService {
 
     /**
      * Void a line item in a transaction. If the line item is in the transaction and has not already been voided, it
-     * is voided. After the line item is voided, the transaction is recomputed and saved via
-     * {@link #recomputeAndSaveTransaction(Transaction)}.
+     * is voided. After the line item is voided, the running totals of the transaction are updated and the transaction
+     * is saved.
      *
      * @param transaction the transaction to void the line item in
      * @param itemUpc     the UPC of the line item to void
      */
     public void voidLineItemInTransaction(@NonNull Transaction transaction, @NonNull String itemUpc) {
         List<LineItem> lineItems = transaction.getLineItems();
-        LineItem lineItem = null;
-        for (LineItem item : lineItems) {
-            if (item.getItemUpc().equals(itemUpc) && !item.isVoided()) {
-                lineItem = item;
-                break;
-            }
-        }
+        LineItem lineItem = lineItemIndex.getActiveLineItem(transaction, itemUpc);
 
         if (lineItem != null) {
             lineItem.setVoided(true);
+            lineItemIndex.lineItemVoided(transaction, lineItem);
             transaction.setLineItems(lineItems);
-            recomputeAndSaveTransaction(transaction);
+            applyLineItemDeltaAndSaveTransaction(transaction, itemUpc, -lineItem.getQuantity());
             if (Application.DEBUG) {
                 System.out.println("[TransactionService] Voided line item with UPC " + itemUpc + " in transaction: " + transaction);
             }
@@ -0,0 +1,139 @@
+package com.rocketpartners.onboarding.possystem.service;
+
+import lombok.NonNull;
+
+/**
+ * Bloom filter of the UPCs in the catalog, which tells that a UPC is certainly not in the catalog without looking it
+ * up, e.g. for a mis-scan or a junk barcode. A UPC that was added is always reported as possibly present, and a UPC
+ * that was not is reported as possibly present with about the false positive rate the filter was sized for, as long as
+ * no more UPCs than expected were added.
+ * <p>
+ * UPCs cannot be removed from a Bloom filter, so a removed UPC keeps being reported as possibly present. Removals are
+ * only counted, and the filter tells when it should be rebuilt from the catalog, i.e. when more UPCs than expected were
+ * added or a quarter of the added UPCs were removed. The filter is safe to share between threads.
+ */
+class UpcBloomFilter {
+
+    private final long[] bits;
+    private final int bitMask;
+    private final int hashCount;
+    private final int expectedUpcs;
+    private int addedCount;
+    private int removedCount;
+
+    /**
+     * Constructor that sizes the filter for a number of UPCs and a false positive rate. The number of bits is rounded
+     * up to a power of two.
+     *
+     * @param expectedUpcs      the number of UPCs the filter is sized for
+     * @param falsePositiveRate the rate of UPCs that were not added but are reported as possibly present
+     */
+    UpcBloomFilter(int expectedUpcs, double falsePositiveRate) {
+        if (expectedUpcs <= 0) {
+            throw new IllegalArgumentException("Expected UPCs must be greater than 0");
+        }
+        if (falsePositiveRate <= 0.0 || falsePositiveRate >= 1.0) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+        }
+        double optimalBits = -expectedUpcs * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        int bitCount = (int) Math.min(1L << 30, Long.highestOneBit((long) Math.ceil(optimalBits) - 1) << 1);
+        bitCount = Math.max(bitCount, Long.SIZE);
+        bits = new long[bitCount / Long.SIZE];
+        bitMask = bitCount - 1;
+        hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedUpcs * Math.log(2)));
+        this.expectedUpcs = expectedUpcs;
+    }
+
+    /**
+     * Add a UPC to the filter.
+     *
+     * @param upc the UPC
+     */
+    synchronized void add(@NonNull String upc) {
+        long hash = hash64(upc);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        boolean added = false;
+        for (int i = 0; i < hashCount; i++) {
+            int bit = (h1 + i * h2) & bitMask;
+            long mask = 1L << bit;
+            if ((bits[bit >>> 6] & mask) == 0) {
+                bits[bit >>> 6] |= mask;
+                added = true;
+            }
+        }
+        // A UPC whose bits were all set already is most likely saved again, so it does not count towards the capacity
+        if (added) {
+            addedCount++;
+        }
+    }
+
+    /**
+     * Check whether a UPC may have been added to the filter.
+     *
+     * @param upc the UPC
+     * @return false if the UPC was certainly not added, true if it possibly was
+     */
+    synchronized boolean mightContain(@NonNull String upc) {
+        long hash = hash64(upc);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            int bit = (h1 + i * h2) & bitMask;
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Count a UPC that was removed from the catalog. The UPC stays in the filter until it is rebuilt.
+     */
+    synchronized void recordRemoval() {
+        removedCount++;
+    }
+
+    /**
+     * Check whether the filter should be rebuilt from the catalog, because more UPCs were added than it was sized for,
+     * which raises the false positive rate, or because many of its UPCs were removed.
+     *
+     * @return true if the filter should be rebuilt
+     */
+    synchronized boolean needsRebuild() {
+        return addedCount > expectedUpcs || removedCount * 4L > Math.max(addedCount, expectedUpcs / 2);
+    }
+
+    /**
+     * Get the number of bits of the filter. Package-private for testing purposes.
+     *
+     * @return the number of bits
+     */
+    int getBitCount() {
+        return bitMask + 1;
+    }
+
+    /**
+     * Get the number of hash functions of the filter. Package-private for testing purposes.
+     *
+     * @return the number of hash functions
+     */
+    int getHashCount() {
+        return hashCount;
+    }
+
+    private static long hash64(String upc) {
+        // FNV-1a over the characters, then the finalizer of MurmurHash3 to spread the bits of similar UPCs
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < upc.length(); i++) {
+            hash ^= upc.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,90 @@
+package com.rocketpartners.onboarding.possystem.utils;
+
+import lombok.NonNull;
+
+/**
+ * Count-Min Sketch of how often keys were seen. The memory is fixed at {@code depth * width} counters no matter how
+ * many distinct keys are counted. Each row maps a key to one counter with its own hash function, and the estimate of a
+ * key is the smallest of its counters, so it never undercounts and overcounts only by the colliding keys.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class CountMinSketch {
+
+    private final int[][] counters;
+    private final int widthMask;
+
+    /**
+     * Constructor that accepts the dimensions of the sketch.
+     *
+     * @param depth the number of rows, i.e. hash functions
+     * @param width the number of counters per row, which must be a power of two
+     */
+    public CountMinSketch(int depth, int width) {
+        if (depth <= 0) {
+            throw new IllegalArgumentException("Depth must be greater than 0");
+        }
+        if (width <= 0 || Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Width must be a power of two");
+        }
+        counters = new int[depth][width];
+        widthMask = width - 1;
+    }
+
+    /**
+     * Count a key once.
+     *
+     * @param key the key
+     * @return the estimated count of the key after counting it
+     */
+    public int increment(@NonNull String key) {
+        int hash = key.hashCode();
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < counters.length; row++) {
+            int[] rowCounters = counters[row];
+            int index = indexOf(hash, row);
+            if (rowCounters[index] < Integer.MAX_VALUE) {
+                rowCounters[index]++;
+            }
+            estimate = Math.min(estimate, rowCounters[index]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Get the estimated count of a key.
+     *
+     * @param key the key
+     * @return the estimated count
+     */
+    public int estimate(@NonNull String key) {
+        int hash = key.hashCode();
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < counters.length; row++) {
+            estimate = Math.min(estimate, counters[row][indexOf(hash, row)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Halve every counter, so that old counts weigh less than new ones.
+     */
+    public void halve() {
+        for (int[] rowCounters : counters) {
+            for (int i = 0; i < rowCounters.length; i++) {
+                rowCounters[i] >>>= 1;
+            }
+        }
+    }
+
+    private int indexOf(int hash, int row) {
+        // Derives a hash function per row by mixing the key hash with a row seed, see MurmurHash3's finalizer
+        int h = hash + (row + 1) * 0x9E3779B9;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h & widthMask;
+    }
+}
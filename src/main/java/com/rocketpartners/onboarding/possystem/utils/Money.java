@@ -0,0 +1,129 @@
+package com.rocketpartners.onboarding.possystem.utils;
+
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money arithmetic on amounts held as a primitive {@code long} number of cents. This is used for the math
+ * inside a transaction, so that computing totals does not allocate a {@link BigDecimal} per operation. Amounts are
+ * converted from and to {@link BigDecimal} only where they enter or leave the transaction, i.e. item prices, the
+ * discount amount, and the fields of the transaction that are persisted and put in DTOs.
+ * <p>
+ * Rounding rules:
+ * <ul>
+ *     <li>Converting a {@link BigDecimal} with more than two decimal places to cents rounds half up, which is also
+ *     what the {@code DECIMAL(10, 2)} money columns of the database do.</li>
+ *     <li>Applying a rate rounds the result half up to the cent, see {@link #applyRate(long, long)}.</li>
+ *     <li>Adding, subtracting, and multiplying by a quantity are exact. They throw an {@link ArithmeticException} on
+ *     overflow instead of wrapping around.</li>
+ * </ul>
+ */
+@NoArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+public class Money {
+
+    /**
+     * The number of basis points in a whole, i.e. a rate of 100%.
+     */
+    public static final long BASIS_POINTS_PER_WHOLE = 10_000L;
+
+    private static final int CENTS_SCALE = 2;
+    private static final double CENTS_PER_UNIT = 100.0;
+    private static final int MAX_EXACT_DOUBLE_PRECISION = 15;
+
+    /**
+     * Convert an amount to cents, rounding half up if it has more than two decimal places.
+     *
+     * @param amount the amount
+     * @return the amount in cents
+     * @throws ArithmeticException if the amount does not fit in a long number of cents
+     */
+    public static long toCents(@NonNull BigDecimal amount) {
+        // Fast path for prices, which have two decimal places. For a BigDecimal of up to 15 digits the double
+        // conversion does not allocate, and its relative error is far too small to round to the wrong cent.
+        if (amount.scale() == CENTS_SCALE && amount.precision() <= MAX_EXACT_DOUBLE_PRECISION) {
+            return Math.round(amount.doubleValue() * CENTS_PER_UNIT);
+        }
+        BigDecimal cents = amount.movePointRight(CENTS_SCALE);
+        if (cents.scale() > 0) {
+            cents = cents.setScale(0, RoundingMode.HALF_UP);
+        }
+        return cents.longValueExact();
+    }
+
+    /**
+     * Convert an amount in cents to a {@link BigDecimal} with two decimal places.
+     *
+     * @param cents the amount in cents
+     * @return the amount
+     */
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, CENTS_SCALE);
+    }
+
+    /**
+     * Add two amounts.
+     *
+     * @param cents      the first amount in cents
+     * @param otherCents the second amount in cents
+     * @return the sum in cents
+     * @throws ArithmeticException on overflow
+     */
+    public static long add(long cents, long otherCents) {
+        return Math.addExact(cents, otherCents);
+    }
+
+    /**
+     * Subtract an amount from another.
+     *
+     * @param cents      the amount in cents
+     * @param otherCents the amount in cents to subtract
+     * @return the difference in cents
+     * @throws ArithmeticException on overflow
+     */
+    public static long subtract(long cents, long otherCents) {
+        return Math.subtractExact(cents, otherCents);
+    }
+
+    /**
+     * Multiply a unit price by a quantity.
+     *
+     * @param unitPriceCents the unit price in cents
+     * @param quantity       the quantity, which may be negative, e.g. for the change of a line item
+     * @return the extended price in cents
+     * @throws ArithmeticException on overflow
+     */
+    public static long multiply(long unitPriceCents, long quantity) {
+        return Math.multiplyExact(unitPriceCents, quantity);
+    }
+
+    /**
+     * Apply a rate given in basis points to an amount, e.g. 400 basis points for a tax rate of 4%. The result is
+     * rounded half up to the cent, where a half cent is rounded away from zero like {@link RoundingMode#HALF_UP}.
+     *
+     * @param cents       the amount in cents
+     * @param basisPoints the rate in basis points
+     * @return the rounded result in cents
+     * @throws ArithmeticException on overflow
+     */
+    public static long applyRate(long cents, long basisPoints) {
+        long product = Math.multiplyExact(cents, basisPoints);
+        long result = product / BASIS_POINTS_PER_WHOLE;
+        if (Math.abs(product % BASIS_POINTS_PER_WHOLE) >= BASIS_POINTS_PER_WHOLE / 2) {
+            result += Long.signum(product);
+        }
+        return result;
+    }
+
+    /**
+     * Format an amount in cents as a plain decimal string with two decimal places, e.g. {@code -1.05}.
+     *
+     * @param cents the amount in cents
+     * @return the formatted amount
+     */
+    public static String format(long cents) {
+        return toBigDecimal(cents).toPlainString();
+    }
+}
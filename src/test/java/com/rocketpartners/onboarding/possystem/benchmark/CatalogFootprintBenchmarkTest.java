@@ -0,0 +1,47 @@
+package com.rocketpartners.onboarding.possystem.benchmark;
+
+import com.rocketpartners.onboarding.commons.model.Item;
+import com.rocketpartners.onboarding.possystem.repository.ItemRepository;
+import com.rocketpartners.onboarding.possystem.repository.inmemory.CompactInMemoryItemRepository;
+import com.rocketpartners.onboarding.possystem.repository.inmemory.InMemoryItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogFootprintBenchmarkTest {
+
+    private CatalogFootprintBenchmark benchmark;
+
+    @BeforeEach
+    void setUp() {
+        benchmark = new CatalogFootprintBenchmark(1000, 42);
+    }
+
+    @Test
+    void testLoad_BothCatalogsHoldTheSameItems() {
+        ItemRepository mapRepository = benchmark.load(new InMemoryItemRepository());
+        ItemRepository compactRepository = benchmark.load(new CompactInMemoryItemRepository());
+
+        assertEquals(1000, compactRepository.getAllItems().size());
+        for (Item expected : mapRepository.getAllItems()) {
+            Item actual = compactRepository.getItemByUpc(expected.getUpc());
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getUnitPrice(), actual.getUnitPrice());
+            assertEquals(expected.getCategory(), actual.getCategory());
+            assertEquals(expected.getDescription(), actual.getDescription());
+        }
+    }
+
+    @Test
+    void testMeasure_ReportsEveryLookup() {
+        CatalogFootprintBenchmark.Result mapResult = benchmark.measureMap(100);
+        CatalogFootprintBenchmark.Result compactResult = benchmark.measureCompact(100);
+
+        assertEquals(100, mapResult.lookups());
+        assertEquals(100, compactResult.lookups());
+        assertEquals(1000, compactResult.items());
+        assertTrue(compactResult.elapsedNanos() > 0);
+        assertFalse(compactResult.toString().isBlank());
+    }
+}
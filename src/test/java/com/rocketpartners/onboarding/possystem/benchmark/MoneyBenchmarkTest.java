@@ -0,0 +1,48 @@
+package com.rocketpartners.onboarding.possystem.benchmark;
+
+import com.rocketpartners.onboarding.commons.model.Item;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyBenchmarkTest {
+
+    private MoneyBenchmark benchmark;
+
+    @BeforeEach
+    void setUp() {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Item item = new Item();
+            item.setUpc(String.format("%04d", i));
+            item.setName("Item " + i);
+            item.setUnitPrice(BigDecimal.valueOf(17 + i * 131L, 2));
+            items.add(item);
+        }
+        benchmark = new MoneyBenchmark(items, 500, 25, 42);
+    }
+
+    @Test
+    void testComputeWithCents_MatchesBigDecimalRoundedToTheCent() {
+        for (int basket = 0; basket < benchmark.getBasketCount(); basket++) {
+            MoneyBenchmark.Totals expected = benchmark.computeWithBigDecimal(basket).roundedToCents();
+            assertEquals(expected, benchmark.computeWithCents(basket), "basket " + basket);
+        }
+    }
+
+    @Test
+    void testMeasure_ReportsEveryBasket() {
+        MoneyBenchmark.Result bigDecimalResult = benchmark.measureBigDecimal(2);
+        MoneyBenchmark.Result centsResult = benchmark.measureCents(2);
+
+        assertEquals(1000, bigDecimalResult.baskets());
+        assertEquals(1000, centsResult.baskets());
+        assertTrue(centsResult.elapsedNanos() > 0);
+        assertFalse(centsResult.toString().isBlank());
+    }
+}
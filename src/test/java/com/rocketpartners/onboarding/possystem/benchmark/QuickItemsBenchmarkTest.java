@@ -0,0 +1,41 @@
+package com.rocketpartners.onboarding.possystem.benchmark;
+
+import com.rocketpartners.onboarding.commons.model.Item;
+import com.rocketpartners.onboarding.possystem.constant.ConstVals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuickItemsBenchmarkTest {
+
+    private QuickItemsBenchmark benchmark;
+
+    @BeforeEach
+    void setUp() {
+        benchmark = new QuickItemsBenchmark(1000, 20);
+    }
+
+    @Test
+    void testPicks_AreDistinctAndNotInTheBasket() {
+        assertEquals(20, benchmark.getBasketUpcs().size());
+        for (List<Item> items : List.of(benchmark.pickByShuffling(), benchmark.pickFromIndex())) {
+            assertEquals(ConstVals.QUICK_ITEMS_COUNT, items.size());
+            assertEquals(ConstVals.QUICK_ITEMS_COUNT, items.stream().map(Item::getUpc).distinct().count());
+            assertTrue(items.stream().noneMatch(it -> benchmark.getBasketUpcs().contains(it.getUpc())));
+        }
+    }
+
+    @Test
+    void testMeasure_ReportsEveryPick() {
+        QuickItemsBenchmark.Result shuffleResult = benchmark.measureShuffling(3);
+        QuickItemsBenchmark.Result indexResult = benchmark.measureIndex(3);
+
+        assertEquals(3, shuffleResult.picks());
+        assertEquals(3, indexResult.picks());
+        assertTrue(indexResult.elapsedNanos() > 0);
+        assertFalse(indexResult.toString().isBlank());
+    }
+}
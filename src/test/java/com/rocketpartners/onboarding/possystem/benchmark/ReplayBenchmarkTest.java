@@ -0,0 +1,42 @@
+package com.rocketpartners.onboarding.possystem.benchmark;
+
+import com.rocketpartners.onboarding.possystem.component.PosEventRecording;
+import com.rocketpartners.onboarding.possystem.event.PosEvent;
+import com.rocketpartners.onboarding.possystem.event.PosEventType;
+import com.rocketpartners.onboarding.possystem.repository.inmemory.InMemoryItemRepository;
+import com.rocketpartners.onboarding.possystem.service.ItemService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayBenchmarkTest {
+
+    private ReplayBenchmark benchmark;
+
+    @BeforeEach
+    void setUp() {
+        ItemService itemService = new ItemService(new InMemoryItemRepository());
+        for (int i = 0; i < 20; i++) {
+            itemService.createAndPersist(String.format("%04d", i), "Item " + i, new BigDecimal("1.99"), null, null);
+        }
+        benchmark = new ReplayBenchmark(itemService);
+    }
+
+    @Test
+    void testReplay_GeneratedDayCompletesEveryTransactionWithoutErrors() {
+        List<PosEvent> events = PosEventRecording.generateDay(benchmark.getItemUpcs(), 100, 42);
+
+        ReplayBenchmark.Result result = benchmark.replay(events);
+
+        assertEquals(events.size(), result.events());
+        assertEquals(100, result.transactions());
+        assertEquals(0, result.errors());
+        assertTrue(result.elapsedNanos() > 0);
+        assertEquals(100, result.latencyStatsByType().get(PosEventType.REQUEST_RESET_POS).getCount());
+        assertFalse(result.toReport().isBlank());
+    }
+}
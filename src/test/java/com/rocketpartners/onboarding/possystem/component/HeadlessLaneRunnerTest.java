@@ -0,0 +1,86 @@
+package com.rocketpartners.onboarding.possystem.component;
+
+import com.rocketpartners.onboarding.commons.model.PosSystem;
+import com.rocketpartners.onboarding.possystem.event.PosEvent;
+import com.rocketpartners.onboarding.possystem.repository.inmemory.InMemoryItemRepository;
+import com.rocketpartners.onboarding.possystem.repository.inmemory.InMemoryTransactionRepository;
+import com.rocketpartners.onboarding.possystem.service.ItemService;
+import com.rocketpartners.onboarding.possystem.service.TaxService;
+import com.rocketpartners.onboarding.possystem.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeadlessLaneRunnerTest {
+
+    private static final List<String> ITEM_UPCS = List.of("0001", "0002", "0003", "0004");
+
+    private PosComponent posComponent;
+
+    @BeforeEach
+    void setUp() {
+        ItemService itemService = new ItemService(new InMemoryItemRepository());
+        TransactionService transactionService =
+                new TransactionService(new InMemoryTransactionRepository(), itemService, new TaxService());
+        ItemBookLoaderComponent itemBookLoaderComponent = service -> ITEM_UPCS.forEach(upc ->
+                service.createAndPersist(upc, "Item " + upc, new BigDecimal("2.50"), null, null));
+        posComponent =
+                new PosComponent(itemBookLoaderComponent, transactionService, itemService, new StubDiscountService());
+
+        PosSystem posSystem = new PosSystem();
+        posSystem.setId(UUID.randomUUID().toString());
+        posSystem.setStoreName("Test Store");
+        posSystem.setPosLane(1);
+        posComponent.setPosSystem(posSystem);
+    }
+
+    @Test
+    void testRun_GeneratedInput() {
+        HeadlessLaneRunner runner =
+                new HeadlessLaneRunner(posComponent, () -> PosEventRecording.generate(ITEM_UPCS, 250, 3), 0);
+
+        runner.run();
+
+        assertFalse(runner.isRunning());
+        assertEquals(250, runner.getCompletedCount() + runner.getVoidedCount());
+        assertEquals(0, runner.getErrorCount());
+        assertTrue(runner.awaitStopped(0));
+    }
+
+    @Test
+    void testRun_StopsWhenRequested() {
+        HeadlessLaneRunner[] runner = new HeadlessLaneRunner[1];
+        Iterator<PosEvent> generated = PosEventRecording.generate(ITEM_UPCS, -1, 3);
+        Iterator<PosEvent> inputSource = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return generated.hasNext();
+            }
+
+            @Override
+            public PosEvent next() {
+                if (runner[0].getDispatchedCount() == 100) {
+                    runner[0].stop();
+                }
+                return generated.next();
+            }
+        };
+        runner[0] = new HeadlessLaneRunner(posComponent, () -> inputSource, 0);
+
+        runner[0].run();
+
+        assertEquals(101, runner[0].getDispatchedCount());
+    }
+
+    @Test
+    void testConstructor_NegativeTargetThrows() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new HeadlessLaneRunner(posComponent, () -> PosEventRecording.generate(ITEM_UPCS, 1, 3), -1));
+    }
+}
@@ -0,0 +1,86 @@
+package com.rocketpartners.onboarding.possystem.component;
+
+import com.rocketpartners.onboarding.possystem.repository.inmemory.InMemoryItemRepository;
+import com.rocketpartners.onboarding.possystem.repository.inmemory.InMemoryPosSystemRepository;
+import com.rocketpartners.onboarding.possystem.repository.inmemory.InMemoryTransactionRepository;
+import com.rocketpartners.onboarding.possystem.service.ItemService;
+import com.rocketpartners.onboarding.possystem.service.PosSystemService;
+import com.rocketpartners.onboarding.possystem.service.TaxService;
+import com.rocketpartners.onboarding.possystem.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LaneHostTest {
+
+    private static final List<String> ITEM_UPCS = List.of("0001", "0002", "0003", "0004", "0005");
+
+    private AtomicInteger itemBookLoads;
+    private PosSystemService posSystemService;
+    private LaneHost laneHost;
+
+    @BeforeEach
+    void setUp() {
+        itemBookLoads = new AtomicInteger();
+        ItemService itemService = new ItemService(new InMemoryItemRepository());
+        TransactionService transactionService =
+                new TransactionService(new InMemoryTransactionRepository(), itemService, new TaxService());
+        posSystemService = new PosSystemService(new InMemoryPosSystemRepository());
+        ItemBookLoaderComponent itemBookLoaderComponent = service -> {
+            itemBookLoads.incrementAndGet();
+            ITEM_UPCS.forEach(upc -> service.createAndPersist(upc, "Item " + upc, new BigDecimal("1.25"), null, null));
+        };
+        laneHost = new LaneHost(itemBookLoaderComponent, itemService, transactionService, new StubDiscountService(),
+                posSystemService, "Test Store");
+    }
+
+    @Test
+    void testStart_RunsEveryLaneOnItsOwnThread() {
+        for (int laneNumber = 1; laneNumber <= 4; laneNumber++) {
+            long seed = laneNumber;
+            laneHost.addLane(laneNumber, () -> PosEventRecording.generate(ITEM_UPCS, 50, seed), 0);
+        }
+
+        laneHost.start();
+
+        assertTrue(laneHost.awaitStopped(30000));
+        assertEquals(1, itemBookLoads.get());
+        assertEquals(0, laneHost.getRunningLaneCount());
+        for (LaneHost.Lane lane : laneHost.getLanes()) {
+            assertEquals(50, lane.runner().getCompletedCount() + lane.runner().getVoidedCount());
+            assertEquals(0, lane.runner().getErrorCount());
+            assertEquals(lane.laneNumber(), lane.posComponent().getPosSystem().getPosLane());
+        }
+        assertEquals(4, posSystemService.getPosSystemsByStoreName("Test Store").size());
+    }
+
+    @Test
+    void testStop_StopsEveryLane() {
+        laneHost.addLane(1, () -> PosEventRecording.generate(ITEM_UPCS, -1, 1), 0);
+        laneHost.addLane(2, () -> PosEventRecording.generate(ITEM_UPCS, -1, 2), 0);
+
+        laneHost.start();
+        laneHost.stop();
+
+        assertTrue(laneHost.awaitStopped(30000));
+        assertEquals(0, laneHost.getRunningLaneCount());
+    }
+
+    @Test
+    void testAddLane_Errors() {
+        laneHost.addLane(1, () -> PosEventRecording.generate(ITEM_UPCS, 1, 1), 0);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> laneHost.addLane(1, () -> PosEventRecording.generate(ITEM_UPCS, 1, 1), 0));
+
+        laneHost.start();
+        assertThrows(IllegalStateException.class,
+                () -> laneHost.addLane(2, () -> PosEventRecording.generate(ITEM_UPCS, 1, 1), 0));
+        assertTrue(laneHost.awaitStopped(30000));
+    }
+}
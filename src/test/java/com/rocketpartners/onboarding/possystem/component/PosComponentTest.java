@@ -5,7 +5,10 @@ import com.rocketpartners.onboarding.commons.utils.UtilMethods;
 import com.rocketpartners.onboarding.possystem.constant.ConstKeys;
 import com.rocketpartners.onboarding.possystem.constant.ConstVals;
 import com.rocketpartners.onboarding.possystem.constant.TransactionState;
+import com.rocketpartners.onboarding.possystem.event.IPosEventCoalescer;
+import com.rocketpartners.onboarding.possystem.event.IPosEventListener;
 import com.rocketpartners.onboarding.possystem.event.PosEvent;
+import com.rocketpartners.onboarding.possystem.event.PosEventLog;
 import com.rocketpartners.onboarding.possystem.event.PosEventType;
 import com.rocketpartners.onboarding.possystem.service.DiscountService;
 import com.rocketpartners.onboarding.possystem.service.ItemService;
@@ -17,6 +20,7 @@ import org.mockito.Mockito;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyInt;
@@ -44,6 +48,7 @@ class PosComponentTest {
             transaction.setTransactionNumber(transactionNumber);
             return transaction;
         });
+        when(transactionService.flushTransactionsAsync()).thenReturn(CompletableFuture.completedFuture(null));
 
         itemService = mock(ItemService.class);
         when(itemService.createAndPersist(anyString(), anyString(), any(BigDecimal.class), anyString(),
@@ -261,6 +266,66 @@ class PosComponentTest {
         verify(itemService, times(1)).itemExists(itemUpc);
     }
 
+    @Test
+    void testHandlePosEvent_RequestAddItem_Batch() {
+        posComponent.startTransaction(null);
+        for (String itemUpc : List.of("A", "B")) {
+            Item item = new Item();
+            item.setUpc(itemUpc);
+            item.setName("Item " + itemUpc);
+            item.setUnitPrice(BigDecimal.ONE);
+            when(itemService.itemExists(itemUpc)).thenReturn(true);
+            when(itemService.getItemByUpc(itemUpc)).thenReturn(item);
+        }
+        when(transactionService.addItemsToTransaction(any(), any())).thenReturn(true);
+        PosEvent addItemsEvent = new PosEvent(PosEventType.REQUEST_ADD_ITEM,
+                Map.of(ConstKeys.ITEM_UPCS, List.of("A", "B", "A"), ConstKeys.QUANTITY, 2));
+
+        ArgumentCaptor<PosEvent> eventCaptor = ArgumentCaptor.forClass(PosEvent.class);
+        posComponent.dispatchPosEvent(addItemsEvent);
+        verify(posComponent, atLeastOnce()).dispatchPosEvent(eventCaptor.capture());
+
+        List<PosEvent> itemAddedEvents = eventCaptor.getAllValues().stream()
+                .filter(it -> it.getType() == PosEventType.ITEM_ADDED).toList();
+        assertEquals(1, itemAddedEvents.size());
+        List<?> itemDtos = (List<?>) itemAddedEvents.get(0).getProperty(ConstKeys.ITEM_DTOS);
+        assertEquals(2, itemDtos.size());
+        verify(transactionService, times(1)).addItemsToTransaction(any(Transaction.class),
+                eq(Map.of("A", 4, "B", 2)));
+        verify(transactionService, never()).addItemToTransaction(any(Transaction.class), anyString());
+    }
+
+    @Test
+    void testHandlePosEvent_RequestAddItem_BatchWithUnknownItem() {
+        posComponent.startTransaction(null);
+        when(itemService.itemExists("A")).thenReturn(true);
+        when(itemService.itemExists("B")).thenReturn(false);
+        PosEvent addItemsEvent = new PosEvent(PosEventType.REQUEST_ADD_ITEM,
+                Map.of(ConstKeys.ITEM_UPCS, List.of("A", "B")));
+
+        ArgumentCaptor<PosEvent> eventCaptor = ArgumentCaptor.forClass(PosEvent.class);
+        posComponent.dispatchPosEvent(addItemsEvent);
+        verify(posComponent, atLeastOnce()).dispatchPosEvent(eventCaptor.capture());
+
+        List<PosEventType> eventTypes = eventCaptor.getAllValues().stream().map(PosEvent::getType).toList();
+        assertTrue(eventTypes.contains(PosEventType.ERROR));
+        assertFalse(eventTypes.contains(PosEventType.ITEM_ADDED));
+        verify(transactionService, never()).addItemsToTransaction(any(Transaction.class), any());
+    }
+
+    @Test
+    void testHandlePosEvent_RequestAddItem_InvalidQuantity() {
+        posComponent.startTransaction(null);
+        when(itemService.itemExists("A")).thenReturn(true);
+        PosEvent addItemsEvent = new PosEvent(PosEventType.REQUEST_ADD_ITEM,
+                Map.of(ConstKeys.ITEM_UPC, "A", ConstKeys.QUANTITY, 0));
+
+        posComponent.dispatchPosEvent(addItemsEvent);
+
+        verify(transactionService, never()).addItemsToTransaction(any(Transaction.class), any());
+        verify(transactionService, never()).addItemToTransaction(any(Transaction.class), anyString());
+    }
+
     @Test
     void testHandlePosEvent_RequestStartTransaction() {
         PosEvent startTransactionEvent = new PosEvent(PosEventType.REQUEST_START_TRANSACTION);
@@ -389,7 +454,7 @@ class PosComponentTest {
 
         posComponent.dispatchPosEvent(updateQuickItemsEvent);
 
-        verify(itemService, never()).getRandomItemsNotIn(anySet(), anyInt());
+        verify(itemService, never()).getQuickItemsNotIn(anySet(), anyInt());
     }
 
     @Test
@@ -399,7 +464,20 @@ class PosComponentTest {
 
         posComponent.dispatchPosEvent(updateQuickItemsEvent);
 
-        verify(itemService, times(1)).getRandomItemsNotIn(anySet(), eq(ConstVals.QUICK_ITEMS_COUNT));
+        verify(itemService, times(1)).getQuickItemsNotIn(anySet(), eq(ConstVals.QUICK_ITEMS_COUNT));
+    }
+
+    @Test
+    void testHandlePosEvent_ItemAdded_RecordsScans() {
+        ItemDto itemDto1 = new ItemDto("A", "Item A", BigDecimal.ONE);
+        ItemDto itemDto2 = new ItemDto("B", "Item B", BigDecimal.ONE);
+
+        posComponent.dispatchPosEvent(new PosEvent(PosEventType.ITEM_ADDED, Map.of(ConstKeys.ITEM_DTO, itemDto1)));
+        posComponent.dispatchPosEvent(new PosEvent(PosEventType.ITEM_ADDED,
+                Map.of(ConstKeys.ITEM_DTO, itemDto2, ConstKeys.ITEM_DTOS, List.of(itemDto1, itemDto2))));
+
+        verify(itemService, times(2)).recordItemScanned("A");
+        verify(itemService, times(1)).recordItemScanned("B");
     }
 
     @Test
@@ -585,5 +663,298 @@ class PosComponentTest {
         List<PosEvent> capturedEvents = eventCaptor.getAllValues();
         assertTrue(capturedEvents.stream().map(PosEvent::getType).toList().contains(PosEventType.INSUFFICIENT_FUNDS));
     }
-}
 
+    @Test
+    void testDeliveryScheduler_CoalescesDispatchesIntoOneDelivery() {
+        List<Runnable> scheduledDeliveries = new ArrayList<>();
+        posComponent.setDeliveryScheduler(scheduledDeliveries::add);
+
+        IPosEventListener listener = mock(IPosEventListener.class);
+        when(listener.getEventTypesToListenFor()).thenReturn(EnumSet.of(PosEventType.LOG));
+        posComponent.registerPosEventListener(listener);
+
+        posComponent.bootUp();
+        posComponent.dispatchPosEvent(new PosEvent(PosEventType.LOG, Map.of(ConstKeys.MESSAGE, "1")));
+        posComponent.dispatchPosEvent(new PosEvent(PosEventType.LOG, Map.of(ConstKeys.MESSAGE, "2")));
+
+        assertEquals(1, scheduledDeliveries.size());
+        verify(listener, never()).onPosEvent(any());
+
+        scheduledDeliveries.get(0).run();
+
+        verify(listener, times(2)).onPosEvent(any());
+        assertEquals(1, posComponent.getDeliveryLatencyStats().getCount());
+
+        posComponent.dispatchPosEvent(new PosEvent(PosEventType.LOG, Map.of(ConstKeys.MESSAGE, "3")));
+        assertEquals(2, scheduledDeliveries.size());
+    }
+
+    @Test
+    void testUpdate_DeliversPendingEventsWithoutScheduler() {
+        IPosEventListener listener = mock(IPosEventListener.class);
+        when(listener.getEventTypesToListenFor()).thenReturn(EnumSet.of(PosEventType.POS_BOOTUP));
+        posComponent.registerPosEventListener(listener);
+
+        posComponent.bootUp();
+        verify(listener, never()).onPosEvent(any());
+
+        posComponent.update();
+        verify(listener, times(1)).onPosEvent(any());
+    }
+
+    @Test
+    void testDeliverPosEvents_DeliversInDispatchOrderThroughRoutingTable() {
+        List<PosEventType> received = new ArrayList<>();
+        IPosEventListener logAndResetListener = mock(IPosEventListener.class);
+        when(logAndResetListener.getEventTypesToListenFor())
+                .thenReturn(EnumSet.of(PosEventType.LOG, PosEventType.POS_RESET));
+        doAnswer(invocation -> received.add(invocation.getArgument(0, PosEvent.class).getType()))
+                .when(logAndResetListener).onPosEvent(any());
+        posComponent.registerPosEventListener(logAndResetListener);
+
+        IPosEventListener unrelatedListener = mock(IPosEventListener.class);
+        when(unrelatedListener.getEventTypesToListenFor()).thenReturn(EnumSet.of(PosEventType.ERROR));
+        posComponent.registerPosEventListener(unrelatedListener);
+
+        posComponent.bootUp();
+        posComponent.dispatchPosEvent(new PosEvent(PosEventType.POS_RESET));
+        posComponent.dispatchPosEvent(new PosEvent(PosEventType.LOG, Map.of(ConstKeys.MESSAGE, "1")));
+        posComponent.dispatchPosEvent(new PosEvent(PosEventType.POS_RESET));
+        posComponent.deliverPosEvents();
+
+        assertEquals(List.of(PosEventType.POS_RESET, PosEventType.LOG, PosEventType.POS_RESET), received);
+        verify(unrelatedListener, never()).onPosEvent(any());
+        verify(logAndResetListener, times(1)).getEventTypesToListenFor();
+
+        posComponent.unregisterPosEventListener(logAndResetListener);
+        posComponent.dispatchPosEvent(new PosEvent(PosEventType.POS_RESET));
+        posComponent.deliverPosEvents();
+        assertEquals(3, received.size());
+    }
+
+    @Test
+    void testDispatchPosEvent_HandlesCascadeIterativelyInCausalOrder() {
+        List<PosEventType> received = new ArrayList<>();
+        IPosEventListener listener = mock(IPosEventListener.class);
+        when(listener.getEventTypesToListenFor()).thenReturn(EnumSet.of(PosEventType.REQUEST_ADD_ITEM,
+                PosEventType.REQUEST_START_TRANSACTION, PosEventType.TRANSACTION_STARTED, PosEventType.ITEM_ADDED));
+        doAnswer(invocation -> received.add(invocation.getArgument(0, PosEvent.class).getType()))
+                .when(listener).onPosEvent(any());
+        posComponent.registerPosEventListener(listener);
+        posComponent.bootUp();
+
+        String itemUpc = "1234567890";
+        Item item = new Item();
+        item.setUpc(itemUpc);
+        item.setName("Test Item");
+        item.setUnitPrice(BigDecimal.TEN);
+        when(itemService.itemExists(itemUpc)).thenReturn(true);
+        when(itemService.getItemByUpc(itemUpc)).thenReturn(item);
+        when(transactionService.addItemToTransaction(any(), any())).thenReturn(true);
+
+        posComponent.dispatchPosEvent(
+                new PosEvent(PosEventType.REQUEST_ADD_ITEM, Map.of(ConstKeys.ITEM_UPC, itemUpc)));
+        posComponent.deliverPosEvents();
+
+        assertEquals(List.of(PosEventType.REQUEST_ADD_ITEM, PosEventType.REQUEST_START_TRANSACTION,
+                PosEventType.TRANSACTION_STARTED, PosEventType.REQUEST_ADD_ITEM, PosEventType.ITEM_ADDED), received);
+        assertEquals(3, posComponent.getLastCascadeDepth());
+        assertEquals(3, posComponent.getMaxCascadeDepth());
+
+        posComponent.dispatchPosEvent(new PosEvent(PosEventType.LOG, Map.of(ConstKeys.MESSAGE, "Test")));
+        assertEquals(0, posComponent.getLastCascadeDepth());
+        assertEquals(3, posComponent.getMaxCascadeDepth());
+    }
+
+    @Test
+    void testDispatchPosEvent_HandlerExceptionDiscardsQueuedEvents() {
+        posComponent.bootUp();
+        String itemUpc = "1234567890";
+        when(itemService.itemExists(itemUpc)).thenReturn(true);
+        when(transactionService.addItemToTransaction(any(), any())).thenThrow(new RuntimeException("Test"));
+
+        assertThrows(RuntimeException.class, () -> posComponent.dispatchPosEvent(
+                new PosEvent(PosEventType.REQUEST_ADD_ITEM, Map.of(ConstKeys.ITEM_UPC, itemUpc))));
+        assertEquals(TransactionState.SCANNING_IN_PROGRESS, posComponent.getTransactionState());
+
+        IPosEventListener listener = mock(IPosEventListener.class);
+        when(listener.getEventTypesToListenFor()).thenReturn(EnumSet.of(PosEventType.LOG));
+        posComponent.registerPosEventListener(listener);
+        posComponent.dispatchPosEvent(new PosEvent(PosEventType.LOG, Map.of(ConstKeys.MESSAGE, "Test")));
+        posComponent.deliverPosEvents();
+
+        verify(listener, atLeastOnce()).onPosEvent(any());
+    }
+
+    @Test
+    void testDeliverPosEvents_CoalescesDeclaredEventTypes() {
+        List<PosEvent> coalescedReceived = new ArrayList<>();
+        IPosEventListener coalescingListener = mock(IPosEventListener.class);
+        when(coalescingListener.getEventTypesToListenFor())
+                .thenReturn(EnumSet.of(PosEventType.LOG, PosEventType.POS_RESET));
+        when(coalescingListener.getCoalescer(PosEventType.LOG)).thenReturn(IPosEventCoalescer.LATEST_WINS);
+        doAnswer(invocation -> coalescedReceived.add(invocation.getArgument(0)))
+                .when(coalescingListener).onPosEvent(any());
+        posComponent.registerPosEventListener(coalescingListener);
+
+        IPosEventListener plainListener = mock(IPosEventListener.class);
+        when(plainListener.getEventTypesToListenFor()).thenReturn(EnumSet.of(PosEventType.LOG));
+        posComponent.registerPosEventListener(plainListener);
+
+        posComponent.bootUp();
+        PosEvent log1 = new PosEvent(PosEventType.LOG, Map.of(ConstKeys.MESSAGE, "1"));
+        PosEvent log2 = new PosEvent(PosEventType.LOG, Map.of(ConstKeys.MESSAGE, "2"));
+        PosEvent reset = new PosEvent(PosEventType.POS_RESET);
+        PosEvent log3 = new PosEvent(PosEventType.LOG, Map.of(ConstKeys.MESSAGE, "3"));
+        PosEvent lastReset = new PosEvent(PosEventType.POS_RESET);
+        posComponent.dispatchPosEvent(log1);
+        posComponent.dispatchPosEvent(log2);
+        posComponent.dispatchPosEvent(reset);
+        posComponent.dispatchPosEvent(log3);
+        posComponent.dispatchPosEvent(lastReset);
+        posComponent.deliverPosEvents();
+
+        assertEquals(List.of(reset, log3, lastReset), coalescedReceived);
+        verify(plainListener, times(3)).onPosEvent(any());
+        assertEquals(2, posComponent.getCoalescedEventCount());
+
+        posComponent.dispatchPosEvent(log1);
+        posComponent.deliverPosEvents();
+        assertEquals(log1, coalescedReceived.get(coalescedReceived.size() - 1));
+    }
+
+    @Test
+    void testShutDown_ShutsDownChildComponents() {
+        IComponent childComponent = mock(IComponent.class);
+        posComponent.registerChildComponent(childComponent);
+
+        posComponent.bootUp();
+        posComponent.shutDown();
+
+        verify(childComponent).bootUp();
+        verify(childComponent).shutDown();
+    }
+
+    @Test
+    void testBootUp_RestoresTransactionFromEventLog() {
+        PosEventLog eventLog = mock(PosEventLog.class);
+        when(eventLog.getNextTransactionNumber()).thenReturn(3);
+        when(eventLog.getRecoveredEntries()).thenReturn(List.of(
+                new PosEventLog.Entry(PosEventType.TRANSACTION_STARTED, List.of("TRANS5", "5", "")),
+                new PosEventLog.Entry(PosEventType.ITEM_ADDED, List.of("1234")),
+                new PosEventLog.Entry(PosEventType.LINE_ITEMS_VOIDED, List.of("1234")),
+                new PosEventLog.Entry(PosEventType.REQUEST_INSERT_CASH, List.of("2.50"))));
+        posComponent.setEventLog(eventLog);
+
+        posComponent.bootUp();
+
+        assertEquals(TransactionState.SCANNING_IN_PROGRESS, posComponent.getTransactionState());
+        assertEquals("TRANS5", posComponent.getTransaction().getId());
+        assertEquals(5, posComponent.getTransaction().getTransactionNumber());
+        assertEquals(new BigDecimal("2.50"), posComponent.getTransaction().getAmountTendered());
+        assertEquals(6, posComponent.getTransactionNumber());
+        verify(transactionService).addItemToTransaction(posComponent.getTransaction(), "1234");
+        verify(transactionService).voidLineItemInTransaction(posComponent.getTransaction(), "1234");
+
+        ArgumentCaptor<PosEvent> eventCaptor = ArgumentCaptor.forClass(PosEvent.class);
+        verify(posComponent, atLeastOnce()).dispatchPosEvent(eventCaptor.capture());
+        assertTrue(UtilMethods.containsInOrder(eventCaptor.getAllValues().stream().map(PosEvent::getType).toList(),
+                List.of(PosEventType.POS_BOOTUP, PosEventType.TRANSACTION_STARTED,
+                        PosEventType.TRANSACTION_RESTORED)));
+    }
+
+    @Test
+    void testEventLog_AppendsTransactionChangesAndCompactsOnEnd() {
+        PosEventLog eventLog = mock(PosEventLog.class);
+        when(eventLog.getRecoveredEntries()).thenReturn(List.of());
+        posComponent.setEventLog(eventLog);
+        posComponent.bootUp();
+
+        posComponent.startTransaction(null);
+        verify(eventLog).append(PosEventType.TRANSACTION_STARTED, "TRANS1", "1", "");
+
+        posComponent.voidTransaction();
+        verify(eventLog).append(PosEventType.TRANSACTION_VOIDED);
+        verify(eventLog).compact(2);
+    }
+
+    @Test
+    void testCompleteTransaction_KeepsEventLogUntilFlushSucceeds() {
+        PosEventLog eventLog = mock(PosEventLog.class);
+        when(eventLog.getRecoveredEntries()).thenReturn(List.of());
+        posComponent.setEventLog(eventLog);
+        posComponent.bootUp();
+        CompletableFuture<Void> failedFlush = CompletableFuture.failedFuture(new RuntimeException("down"));
+        when(transactionService.flushTransactionsAsync()).thenReturn(failedFlush);
+
+        posComponent.startTransaction(null);
+        posComponent.completeTransaction();
+
+        assertEquals(TransactionState.COMPLETED, posComponent.getTransactionState());
+        ArgumentCaptor<PosEvent> eventCaptor = ArgumentCaptor.forClass(PosEvent.class);
+        verify(posComponent, atLeastOnce()).dispatchPosEvent(eventCaptor.capture());
+        assertTrue(eventCaptor.getAllValues().stream().anyMatch(
+                event -> event.getType() == PosEventType.TRANSACTION_COMPLETED));
+        verify(transactionService, never()).flushTransactions();
+
+        // The next transaction is appended after the one that was not written
+        posComponent.resetPos();
+        posComponent.startTransaction(null);
+        verify(eventLog, never()).compact(anyInt());
+
+        when(transactionService.flushTransactionsAsync()).thenReturn(CompletableFuture.completedFuture(null));
+        posComponent.voidTransaction();
+        verify(eventLog).compact(3);
+    }
+
+    @Test
+    void testBootUp_SavesEndedTransactionsFromEventLog() {
+        PosEventLog eventLog = mock(PosEventLog.class);
+        when(eventLog.getRecoveredEntries()).thenReturn(List.of(
+                new PosEventLog.Entry(PosEventType.TRANSACTION_STARTED, List.of("TRANS1", "1", "")),
+                new PosEventLog.Entry(PosEventType.ITEM_ADDED, List.of("1234")),
+                new PosEventLog.Entry(PosEventType.TRANSACTION_COMPLETED,
+                        List.of("2026-01-02T10:15:30", "0.50", "10.00", "1.25")),
+                new PosEventLog.Entry(PosEventType.TRANSACTION_STARTED, List.of("TRANS2", "2", "")),
+                new PosEventLog.Entry(PosEventType.TRANSACTION_VOIDED, List.of())));
+        posComponent.setEventLog(eventLog);
+
+        posComponent.bootUp();
+
+        ArgumentCaptor<Transaction> transactionCaptor = ArgumentCaptor.forClass(Transaction.class);
+        verify(transactionService, times(2)).recomputeAndSaveTransaction(transactionCaptor.capture());
+        Transaction completed = transactionCaptor.getAllValues().get(0);
+        assertEquals("TRANS1", completed.getId());
+        assertTrue(completed.isTendered());
+        assertEquals(new BigDecimal("0.50"), completed.getDiscountAmount());
+        assertEquals(new BigDecimal("10.00"), completed.getAmountTendered());
+        assertEquals(new BigDecimal("1.25"), completed.getChangeDue());
+        assertTrue(transactionCaptor.getAllValues().get(1).isVoided());
+
+        assertNull(posComponent.getTransaction());
+        assertEquals(TransactionState.NOT_STARTED, posComponent.getTransactionState());
+        verify(transactionService).flushTransactionsAsync();
+        verify(eventLog).compact(3);
+    }
+
+    @Test
+    void testBootUp_DropsEventLogThatCannotBeReplayed() {
+        PosEventLog eventLog = mock(PosEventLog.class);
+        when(eventLog.getNextTransactionNumber()).thenReturn(3);
+        when(eventLog.getRecoveredEntries()).thenReturn(List.of(
+                new PosEventLog.Entry(PosEventType.TRANSACTION_STARTED, List.of("TRANS5", "5", "")),
+                new PosEventLog.Entry(PosEventType.REQUEST_INSERT_CASH, List.of("not a number"))));
+        posComponent.setEventLog(eventLog);
+
+        posComponent.bootUp();
+
+        assertNull(posComponent.getTransaction());
+        assertEquals(TransactionState.NOT_STARTED, posComponent.getTransactionState());
+        verify(eventLog).compact(6);
+        ArgumentCaptor<PosEvent> eventCaptor = ArgumentCaptor.forClass(PosEvent.class);
+        verify(posComponent, atLeastOnce()).dispatchPosEvent(eventCaptor.capture());
+        assertTrue(eventCaptor.getAllValues().stream().anyMatch(event -> event.getType() == PosEventType.ERROR));
+        assertTrue(eventCaptor.getAllValues().stream().noneMatch(
+                event -> event.getType() == PosEventType.TRANSACTION_RESTORED));
+    }
+}
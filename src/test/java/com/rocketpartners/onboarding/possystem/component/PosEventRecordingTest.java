@@ -0,0 +1,71 @@
+package com.rocketpartners.onboarding.possystem.component;
+
+import com.rocketpartners.onboarding.possystem.event.PosEvent;
+import com.rocketpartners.onboarding.possystem.event.PosEventKey;
+import com.rocketpartners.onboarding.possystem.event.PosEventType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PosEventRecordingTest {
+
+    private static final List<String> ITEM_UPCS = List.of("0001", "0002", "0003");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testGenerateDay_IsDeterministic() {
+        List<PosEvent> day1 = PosEventRecording.generateDay(ITEM_UPCS, 50, 7);
+        List<PosEvent> day2 = PosEventRecording.generateDay(ITEM_UPCS, 50, 7);
+
+        assertEquals(day1.size(), day2.size());
+        for (int i = 0; i < day1.size(); i++) {
+            assertEquals(day1.get(i).getType(), day2.get(i).getType());
+            assertEquals(day1.get(i).getCopyOfProps(), day2.get(i).getCopyOfProps());
+        }
+        assertEquals(50, day1.stream().filter(it -> it.getType() == PosEventType.REQUEST_RESET_POS).count());
+    }
+
+    @Test
+    void testGenerate_MatchesBatchesOfGeneratedDays() {
+        Iterator<PosEvent> generated = PosEventRecording.generate(ITEM_UPCS, 150, 7);
+        List<PosEvent> expected = new ArrayList<>(PosEventRecording.generateDay(ITEM_UPCS, 100, 7));
+        expected.addAll(PosEventRecording.generateDay(ITEM_UPCS, 50, 8));
+
+        for (PosEvent expectedEvent : expected) {
+            assertTrue(generated.hasNext());
+            PosEvent event = generated.next();
+            assertEquals(expectedEvent.getType(), event.getType());
+            assertEquals(expectedEvent.getCopyOfProps(), event.getCopyOfProps());
+        }
+        assertFalse(generated.hasNext());
+    }
+
+    @Test
+    void testWriteAndRead() throws IOException {
+        List<PosEvent> events = List.of(
+                new PosEvent(PosEventType.REQUEST_ADD_ITEM, PosEventKey.ITEM_UPC, "0001"),
+                new PosEvent(PosEventType.REQUEST_VOID_LINE_ITEMS, PosEventKey.ITEM_UPCS, Set.of("0001")),
+                new PosEvent(PosEventType.REQUEST_START_PAY_WITH_CASH_PROCESS),
+                new PosEvent(PosEventType.REQUEST_INSERT_CASH, PosEventKey.CASH_AMOUNT, "20.00"));
+        Path path = tempDir.resolve("day.tsv");
+
+        PosEventRecording.write(path, events);
+        List<PosEvent> readEvents = PosEventRecording.read(path);
+
+        assertEquals(events.size(), readEvents.size());
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(events.get(i).getType(), readEvents.get(i).getType());
+            assertEquals(events.get(i).getCopyOfProps(), readEvents.get(i).getCopyOfProps());
+        }
+    }
+}
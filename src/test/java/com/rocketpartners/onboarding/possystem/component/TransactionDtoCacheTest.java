@@ -0,0 +1,156 @@
+package com.rocketpartners.onboarding.possystem.component;
+
+import com.rocketpartners.onboarding.commons.model.*;
+import com.rocketpartners.onboarding.possystem.service.ItemService;
+import com.rocketpartners.onboarding.possystem.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TransactionDtoCacheTest {
+
+    private ItemService itemService;
+    private TransactionService transactionService;
+    private TransactionDtoCache cache;
+    private PosSystem posSystem;
+
+    @BeforeEach
+    void setUp() {
+        itemService = mock(ItemService.class);
+        when(itemService.getItemByUpc("A")).thenReturn(createItem("A", "Apple", "0.50"));
+        when(itemService.getItemByUpc("B")).thenReturn(createItem("B", "Bread", "2.00"));
+        transactionService = mock(TransactionService.class);
+        cache = new TransactionDtoCache(itemService, transactionService);
+
+        posSystem = new PosSystem();
+        posSystem.setId("1");
+        posSystem.setPosLane(1);
+        posSystem.setStoreName("Test Store");
+    }
+
+    @Test
+    void testGetSnapshot_ReusesSnapshotWhileUnchanged() {
+        Transaction transaction = createTransaction();
+        transaction.getLineItems().add(new LineItem("A", "tx1", 1, false));
+
+        TransactionDto snapshot1 = cache.getSnapshot(transaction, posSystem);
+        TransactionDto snapshot2 = cache.getSnapshot(transaction, posSystem);
+
+        assertSame(snapshot1, snapshot2);
+        assertEquals(1, snapshot1.getLineItemDtos().size());
+        assertEquals("Apple", snapshot1.getLineItemDtos().get(0).getItemName());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot1.getLineItemDtos().clear());
+    }
+
+    @Test
+    void testGetSnapshot_LooksUpEachUpcOnce() {
+        Transaction transaction = createTransaction();
+        transaction.getLineItems().add(new LineItem("A", "tx1", 1, false));
+        cache.getSnapshot(transaction, posSystem);
+
+        transaction.getLineItems().get(0).setQuantity(2);
+        transaction.getLineItems().add(new LineItem("B", "tx1", 1, false));
+        cache.getSnapshot(transaction, posSystem);
+        transaction.getLineItems().get(0).setVoided(true);
+        transaction.getLineItems().add(new LineItem("A", "tx1", 1, false));
+        TransactionDto snapshot = cache.getSnapshot(transaction, posSystem);
+
+        verify(itemService, times(1)).getItemByUpc("A");
+        verify(itemService, times(1)).getItemByUpc("B");
+        assertEquals(3, snapshot.getLineItemDtos().size());
+        LineItemDto voided = snapshot.getLineItemDtos().get(0);
+        assertTrue(voided.isVoided());
+        assertEquals(2, voided.getQuantity());
+        assertEquals(new BigDecimal("0.50"), snapshot.getLineItemDtos().get(2).getUnitPrice());
+        assertFalse(snapshot.getLineItemDtos().get(2).isVoided());
+    }
+
+    @Test
+    void testGetSnapshot_DoesNotModifyPublishedSnapshots() {
+        Transaction transaction = createTransaction();
+        transaction.getLineItems().add(new LineItem("A", "tx1", 1, false));
+        TransactionDto snapshot1 = cache.getSnapshot(transaction, posSystem);
+        LineItemDto lineItemDto1 = snapshot1.getLineItemDtos().get(0);
+
+        transaction.getLineItems().get(0).setQuantity(3);
+        transaction.setSubtotal(new BigDecimal("1.50"));
+        TransactionDto snapshot2 = cache.getSnapshot(transaction, posSystem);
+
+        assertNotSame(snapshot1, snapshot2);
+        assertEquals(1, lineItemDto1.getQuantity());
+        assertEquals(BigDecimal.ZERO, snapshot1.getSubtotal());
+        assertEquals(3, snapshot2.getLineItemDtos().get(0).getQuantity());
+        assertEquals(new BigDecimal("1.50"), snapshot2.getSubtotal());
+    }
+
+    @Test
+    void testGetSnapshot_PicksUpChangedTotals() {
+        Transaction transaction = createTransaction();
+        TransactionDto snapshot1 = cache.getSnapshot(transaction, posSystem);
+
+        transaction.setAmountTendered(new BigDecimal("5.00"));
+        TransactionDto snapshot2 = cache.getSnapshot(transaction, posSystem);
+
+        assertNotSame(snapshot1, snapshot2);
+        assertEquals(new BigDecimal("5.00"), snapshot2.getAmountTendered());
+    }
+
+    @Test
+    void testGetSnapshot_RebuildsLineItemsWhenRunningSubtotalDrifted() {
+        Transaction transaction = createTransaction();
+        transaction.getLineItems().add(new LineItem("A", "tx1", 1, false));
+        TransactionDto snapshot1 = cache.getSnapshot(transaction, posSystem);
+        assertEquals(new BigDecimal("0.50"), snapshot1.getLineItemDtos().get(0).getUnitPrice());
+
+        // The price changed, and a full recompute corrected the subtotal
+        when(itemService.getItemByUpc("A")).thenReturn(createItem("A", "Apple", "0.75"));
+        transaction.getLineItems().add(new LineItem("A", "tx1", 1, false));
+        assertEquals(new BigDecimal("0.50"), cache.getSnapshot(transaction, posSystem).getLineItemDtos().get(1)
+                .getUnitPrice());
+        when(transactionService.getRunningTotalsMismatchCount()).thenReturn(1L);
+
+        TransactionDto snapshot2 = cache.getSnapshot(transaction, posSystem);
+        assertEquals(new BigDecimal("0.75"), snapshot2.getLineItemDtos().get(0).getUnitPrice());
+        assertEquals(new BigDecimal("0.75"), snapshot2.getLineItemDtos().get(1).getUnitPrice());
+        assertSame(snapshot2, cache.getSnapshot(transaction, posSystem));
+        verify(itemService, times(2)).getItemByUpc("A");
+    }
+
+    @Test
+    void testGetSnapshot_RebuildsForNewTransaction() {
+        Transaction transaction1 = createTransaction();
+        transaction1.getLineItems().add(new LineItem("A", "tx1", 1, false));
+        cache.getSnapshot(transaction1, posSystem);
+
+        Transaction transaction2 = createTransaction();
+        transaction2.setTransactionNumber(2);
+        transaction2.getLineItems().add(new LineItem("B", "tx2", 1, false));
+        TransactionDto snapshot = cache.getSnapshot(transaction2, posSystem);
+
+        assertEquals(1, snapshot.getLineItemDtos().size());
+        assertEquals("B", snapshot.getLineItemDtos().get(0).getItemUpc());
+        assertEquals(2, snapshot.getTransactionNumber());
+    }
+
+    private static Transaction createTransaction() {
+        Transaction transaction = new Transaction();
+        transaction.setId("tx1");
+        transaction.setPosSystemId("1");
+        transaction.setTransactionNumber(1);
+        return transaction;
+    }
+
+    private static Item createItem(String upc, String name, String unitPrice) {
+        Item item = new Item();
+        item.setUpc(upc);
+        item.setName(name);
+        item.setUnitPrice(new BigDecimal(unitPrice));
+        item.setCategory("Category");
+        item.setDescription("Description");
+        return item;
+    }
+}
@@ -0,0 +1,42 @@
+package com.rocketpartners.onboarding.possystem.component.journal;
+
+import com.rocketpartners.onboarding.possystem.event.PosEvent;
+import com.rocketpartners.onboarding.possystem.event.PosEventKey;
+import com.rocketpartners.onboarding.possystem.event.PosEventType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpillJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testOnPosEvent_AppendsLogsAndErrors() throws IOException {
+        Path spillFile = tempDir.resolve("remote-journal.spill");
+        SpillJournal spillJournal = new SpillJournal(spillFile);
+        assertFalse(Files.exists(spillFile));
+
+        spillJournal.onPosEvent(new PosEvent(PosEventType.LOG, PosEventKey.MESSAGE, "Item added"));
+        spillJournal.onPosEvent(new PosEvent(PosEventType.ERROR, PosEventKey.MESSAGE, "Item not found"));
+        spillJournal.onPosEvent(new PosEvent(PosEventType.POS_RESET));
+        spillJournal.shutDown();
+
+        SpillJournal reopenedSpillJournal = new SpillJournal(spillFile);
+        reopenedSpillJournal.onPosEvent(new PosEvent(PosEventType.LOG, PosEventKey.MESSAGE, "Transaction voided"));
+        reopenedSpillJournal.shutDown();
+
+        List<String> lines = Files.readAllLines(spillFile);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).endsWith("LOG: Item added"));
+        assertTrue(lines.get(1).endsWith("ERROR: Item not found"));
+        assertTrue(lines.get(2).endsWith("LOG: Transaction voided"));
+    }
+}
@@ -5,6 +5,7 @@ import com.rocketpartners.onboarding.possystem.constant.TransactionState;
 import com.rocketpartners.onboarding.commons.model.ItemDto;
 import com.rocketpartners.onboarding.commons.model.LineItemDto;
 import com.rocketpartners.onboarding.commons.model.TransactionDto;
+import com.rocketpartners.onboarding.possystem.event.IPosEventCoalescer;
 import com.rocketpartners.onboarding.possystem.event.IPosEventDispatcher;
 import com.rocketpartners.onboarding.possystem.event.PosEvent;
 import com.rocketpartners.onboarding.possystem.event.PosEventType;
@@ -15,6 +16,8 @@ import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
@@ -157,5 +160,12 @@ class CustomerViewControllerTest {
         customerViewController.bootUp();
         verify(customerViewMock).setVisible(true);
     }
-}
 
+    @Test
+    void testGetCoalescer() {
+        assertSame(IPosEventCoalescer.LATEST_WINS, customerViewController.getCoalescer(PosEventType.ITEM_ADDED));
+        assertSame(IPosEventCoalescer.LATEST_WINS, customerViewController.getCoalescer(PosEventType.ITEM_REMOVED));
+        assertSame(IPosEventCoalescer.LATEST_WINS, customerViewController.getCoalescer(PosEventType.LINE_ITEMS_VOIDED));
+        assertNull(customerViewController.getCoalescer(PosEventType.TRANSACTION_STARTED));
+    }
+}
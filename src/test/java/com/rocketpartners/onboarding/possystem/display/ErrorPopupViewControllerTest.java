@@ -1,7 +1,7 @@
 package com.rocketpartners.onboarding.possystem.display;
 
-import com.rocketpartners.onboarding.possystem.constant.ConstKeys;
 import com.rocketpartners.onboarding.possystem.event.PosEvent;
+import com.rocketpartners.onboarding.possystem.event.PosEventKey;
 import com.rocketpartners.onboarding.possystem.event.PosEventType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -34,7 +34,7 @@ class ErrorPopupViewControllerTest {
     void testOnPosEvent_Error() {
         PosEvent event = Mockito.mock(PosEvent.class);
         when(event.getType()).thenReturn(PosEventType.ERROR);
-        when(event.getProperty(ConstKeys.MESSAGE, String.class)).thenReturn("Test Error");
+        when(event.getProperty(PosEventKey.MESSAGE, String.class)).thenReturn("Test Error");
 
         MockedStatic<JOptionPane> mockedJOptionPane = mockStatic(JOptionPane.class);
 
@@ -49,9 +49,14 @@ class ErrorPopupViewControllerTest {
     }
 
     @Test
-    void testDispatchPosEvent() {
+    void testOnPosEvent_IgnoresOtherEvents() {
         PosEvent event = Mockito.mock(PosEvent.class);
-        controller.dispatchPosEvent(event);
-        verifyNoInteractions(event);
+        when(event.getType()).thenReturn(PosEventType.TRANSACTION_STARTED);
+
+        try (MockedStatic<JOptionPane> mockedJOptionPane = mockStatic(JOptionPane.class)) {
+            controller.onPosEvent(event);
+
+            mockedJOptionPane.verifyNoInteractions();
+        }
     }
 }
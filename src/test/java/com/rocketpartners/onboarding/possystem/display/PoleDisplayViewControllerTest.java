@@ -8,6 +8,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -55,6 +56,19 @@ class PoleDisplayViewControllerTest {
         verify(mockPoleDisplayView).addItem(mockItemDto);
     }
 
+    @Test
+    void testOnPosEvent_ItemsAddedInBatch() {
+        ItemDto mockItemDto1 = Mockito.mock(ItemDto.class);
+        ItemDto mockItemDto2 = Mockito.mock(ItemDto.class);
+        PosEvent event = new PosEvent(PosEventType.ITEM_ADDED,
+                Map.of(ConstKeys.ITEM_DTO, mockItemDto2, ConstKeys.ITEM_DTOS, List.of(mockItemDto1, mockItemDto2)));
+
+        controller.onPosEvent(event);
+
+        verify(mockPoleDisplayView).addItem(mockItemDto1);
+        verify(mockPoleDisplayView).addItem(mockItemDto2);
+    }
+
     @Test
     void testOnPosEvent_ItemRemoved() {
         ItemDto mockItemDto = Mockito.mock(ItemDto.class);
@@ -1,8 +1,8 @@
 package com.rocketpartners.onboarding.possystem.display;
 
-import com.rocketpartners.onboarding.possystem.constant.ConstKeys;
 import com.rocketpartners.onboarding.commons.model.TransactionDto;
 import com.rocketpartners.onboarding.possystem.event.PosEvent;
+import com.rocketpartners.onboarding.possystem.event.PosEventKey;
 import com.rocketpartners.onboarding.possystem.event.PosEventType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -29,7 +29,7 @@ class ReceiptViewControllerTest {
         TransactionDto mockTransactionDto = Mockito.mock(TransactionDto.class);
 
         when(event.getType()).thenReturn(PosEventType.TRANSACTION_COMPLETED);
-        when(event.getProperty(ConstKeys.TRANSACTION_DTO, TransactionDto.class)).thenReturn(mockTransactionDto);
+        when(event.getProperty(PosEventKey.TRANSACTION_DTO, TransactionDto.class)).thenReturn(mockTransactionDto);
 
         controller.onPosEvent(event);
 
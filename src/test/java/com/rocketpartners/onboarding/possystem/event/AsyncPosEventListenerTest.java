@@ -0,0 +1,153 @@
+package com.rocketpartners.onboarding.possystem.event;
+
+import com.rocketpartners.onboarding.possystem.component.IComponent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AsyncPosEventListenerTest {
+
+    interface ComponentListener extends IPosEventListener, IComponent {
+    }
+
+    private ComponentListener delegate;
+    private List<String> delegateThreadNames;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(ComponentListener.class);
+        when(delegate.getEventTypesToListenFor()).thenReturn(EnumSet.of(PosEventType.LOG));
+        delegateThreadNames = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> delegateThreadNames.add(Thread.currentThread().getName()))
+                .when(delegate).onPosEvent(any());
+    }
+
+    @Test
+    void testDeliversEventsInOrderOnWorkerThread() {
+        AsyncPosEventListener listener =
+                new AsyncPosEventListener("Test", delegate, 8, AsyncPosEventListener.OverflowPolicy.BLOCK);
+        assertEquals(EnumSet.of(PosEventType.LOG), listener.getEventTypesToListenFor());
+
+        listener.bootUp();
+        PosEvent event1 = new PosEvent(PosEventType.LOG, PosEventKey.MESSAGE, "1");
+        PosEvent event2 = new PosEvent(PosEventType.LOG, PosEventKey.MESSAGE, "2");
+        listener.onPosEvent(event1);
+        listener.onPosEvent(event2);
+        listener.shutDown();
+
+        InOrder inOrder = inOrder(delegate);
+        inOrder.verify(delegate).bootUp();
+        inOrder.verify(delegate).onPosEvent(event1);
+        inOrder.verify(delegate).onPosEvent(event2);
+        inOrder.verify(delegate).shutDown();
+        assertEquals(List.of("async-listener-Test", "async-listener-Test"), delegateThreadNames);
+        assertEquals(2, listener.getDeliveredCount());
+        assertEquals(2, listener.getLagStats().getCount());
+        assertEquals(0, listener.getQueueDepth());
+    }
+
+    @Test
+    void testDropNewest() {
+        AsyncPosEventListener listener =
+                new AsyncPosEventListener("Test", delegate, 2, AsyncPosEventListener.OverflowPolicy.DROP_NEWEST);
+        List<PosEvent> events = createLogEvents(3);
+        events.forEach(listener::onPosEvent);
+
+        assertEquals(2, listener.getQueueDepth());
+        assertEquals(1, listener.getDroppedCount());
+        assertTrue(listener.getCurrentLagNanos() >= 0);
+
+        listener.bootUp();
+        listener.shutDown();
+        assertEquals(events.subList(0, 2), captureDelegateEvents(2));
+    }
+
+    @Test
+    void testDropOldest() {
+        AsyncPosEventListener listener =
+                new AsyncPosEventListener("Test", delegate, 2, AsyncPosEventListener.OverflowPolicy.DROP_OLDEST);
+        List<PosEvent> events = createLogEvents(3);
+        events.forEach(listener::onPosEvent);
+
+        assertEquals(2, listener.getQueueDepth());
+        assertEquals(1, listener.getDroppedCount());
+
+        listener.bootUp();
+        listener.shutDown();
+        assertEquals(events.subList(1, 3), captureDelegateEvents(2));
+    }
+
+    @Test
+    void testSpill() {
+        IPosEventListener spillListener = mock(IPosEventListener.class);
+        AsyncPosEventListener listener = new AsyncPosEventListener("Test", delegate, 2,
+                AsyncPosEventListener.OverflowPolicy.SPILL, spillListener);
+        List<PosEvent> events = createLogEvents(3);
+        events.forEach(listener::onPosEvent);
+
+        verify(spillListener).onPosEvent(events.get(2));
+        assertEquals(1, listener.getSpilledCount());
+        assertEquals(0, listener.getDroppedCount());
+
+        listener.bootUp();
+        listener.shutDown();
+        assertEquals(events.subList(0, 2), captureDelegateEvents(2));
+    }
+
+    @Test
+    void testShutDown_ShutsDownSpillListenerAfterDraining() {
+        ComponentListener spillListener = mock(ComponentListener.class);
+        AsyncPosEventListener listener = new AsyncPosEventListener("Test", delegate, 2,
+                AsyncPosEventListener.OverflowPolicy.SPILL, spillListener);
+        listener.bootUp();
+        verify(spillListener).bootUp();
+        createLogEvents(3).forEach(listener::onPosEvent);
+
+        listener.shutDown();
+        InOrder inOrder = inOrder(delegate, spillListener);
+        inOrder.verify(delegate).shutDown();
+        inOrder.verify(spillListener).shutDown();
+    }
+
+    @Test
+    void testSpillRequiresSpillListener() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new AsyncPosEventListener("Test", delegate, 2, AsyncPosEventListener.OverflowPolicy.SPILL));
+    }
+
+    @Test
+    void testDelegateExceptionDoesNotStopWorker() {
+        doThrow(new RuntimeException("Test")).doNothing().when(delegate).onPosEvent(any());
+        AsyncPosEventListener listener =
+                new AsyncPosEventListener("Test", delegate, 8, AsyncPosEventListener.OverflowPolicy.BLOCK);
+        createLogEvents(2).forEach(listener::onPosEvent);
+
+        listener.bootUp();
+        listener.shutDown();
+        verify(delegate, times(2)).onPosEvent(any());
+        assertEquals(2, listener.getDeliveredCount());
+    }
+
+    private List<PosEvent> createLogEvents(int count) {
+        List<PosEvent> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            events.add(new PosEvent(PosEventType.LOG, PosEventKey.MESSAGE, String.valueOf(i)));
+        }
+        return events;
+    }
+
+    private List<PosEvent> captureDelegateEvents(int count) {
+        ArgumentCaptor<PosEvent> captor = ArgumentCaptor.forClass(PosEvent.class);
+        verify(delegate, times(count)).onPosEvent(captor.capture());
+        return captor.getAllValues();
+    }
+}
@@ -0,0 +1,177 @@
+package com.rocketpartners.onboarding.possystem.event;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PosEventLogTest {
+
+    // The length, the CRC, and the payload of an ITEM_ADDED record with a four character UPC
+    private static final int RECORD_SIZE = 8 + 1 + "ITEM_ADDED".length() + 2 + 4 + "1234".length();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testAppendAndRecover() throws IOException {
+        Path path = tempDir.resolve("events.log");
+        try (PosEventLog eventLog = new PosEventLog(path, -1)) {
+            assertTrue(eventLog.getRecoveredEntries().isEmpty());
+            assertEquals(1, eventLog.getNextTransactionNumber());
+            eventLog.append(PosEventType.TRANSACTION_STARTED, "id", "1", "");
+            eventLog.append(PosEventType.ITEM_ADDED, "1234");
+            eventLog.append(PosEventType.LINE_ITEMS_VOIDED, "1234", "5678");
+            assertEquals(3, eventLog.getAppendLatencyStats().getCount());
+        }
+
+        try (PosEventLog eventLog = new PosEventLog(path, -1)) {
+            assertEquals(List.of(
+                    new PosEventLog.Entry(PosEventType.TRANSACTION_STARTED, List.of("id", "1", "")),
+                    new PosEventLog.Entry(PosEventType.ITEM_ADDED, List.of("1234")),
+                    new PosEventLog.Entry(PosEventType.LINE_ITEMS_VOIDED, List.of("1234", "5678"))),
+                    eventLog.getRecoveredEntries());
+
+            eventLog.append(PosEventType.ITEM_REMOVED, "1234");
+        }
+
+        try (PosEventLog eventLog = new PosEventLog(path, 0)) {
+            assertEquals(4, eventLog.getRecoveredEntries().size());
+            assertEquals(new PosEventLog.Entry(PosEventType.ITEM_REMOVED, List.of("1234")),
+                    eventLog.getRecoveredEntries().get(3));
+        }
+    }
+
+    @Test
+    void testCompact() throws IOException {
+        Path path = tempDir.resolve("events.log");
+        try (PosEventLog eventLog = new PosEventLog(path, 0)) {
+            eventLog.append(PosEventType.TRANSACTION_STARTED, "id", "1", "");
+            eventLog.append(PosEventType.ITEM_ADDED, "1234");
+            eventLog.compact(2);
+            eventLog.append(PosEventType.TRANSACTION_STARTED, "id2", "2", "");
+        }
+
+        try (PosEventLog eventLog = new PosEventLog(path, 0)) {
+            assertEquals(2, eventLog.getNextTransactionNumber());
+            assertEquals(List.of(new PosEventLog.Entry(PosEventType.TRANSACTION_STARTED, List.of("id2", "2", ""))),
+                    eventLog.getRecoveredEntries());
+        }
+    }
+
+    @Test
+    void testUncommittedRecordIsIgnored() throws IOException {
+        Path path = tempDir.resolve("events.log");
+        try (PosEventLog eventLog = new PosEventLog(path, 0)) {
+            eventLog.append(PosEventType.ITEM_ADDED, "1234");
+            eventLog.append(PosEventType.ITEM_ADDED, "5678");
+        }
+
+        // Simulate a crash before the length of the second record was written
+        int secondRecordPosition = 16 + RECORD_SIZE;
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(secondRecordPosition);
+            file.writeInt(0);
+        }
+
+        try (PosEventLog eventLog = new PosEventLog(path, 0)) {
+            assertEquals(List.of(new PosEventLog.Entry(PosEventType.ITEM_ADDED, List.of("1234"))),
+                    eventLog.getRecoveredEntries());
+        }
+    }
+
+    @Test
+    void testRecoveryStopsAtCorruptRecordAndTruncatesLog() throws IOException {
+        Path path = tempDir.resolve("events.log");
+        try (PosEventLog eventLog = new PosEventLog(path, 0)) {
+            eventLog.append(PosEventType.ITEM_ADDED, "1234");
+            eventLog.append(PosEventType.ITEM_ADDED, "5678");
+            eventLog.append(PosEventType.ITEM_ADDED, "9012");
+        }
+
+        // Flip a byte of the UPC of the second record, which the CRC catches
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(16 + RECORD_SIZE * 2L - 1);
+            file.writeByte('9');
+        }
+
+        try (PosEventLog eventLog = new PosEventLog(path, 0)) {
+            assertEquals(List.of(new PosEventLog.Entry(PosEventType.ITEM_ADDED, List.of("1234"))),
+                    eventLog.getRecoveredEntries());
+            eventLog.append(PosEventType.ITEM_REMOVED, "1234");
+        }
+
+        try (PosEventLog eventLog = new PosEventLog(path, 0)) {
+            assertEquals(List.of(new PosEventLog.Entry(PosEventType.ITEM_ADDED, List.of("1234")),
+                    new PosEventLog.Entry(PosEventType.ITEM_REMOVED, List.of("1234"))),
+                    eventLog.getRecoveredEntries());
+        }
+    }
+
+    @Test
+    void testRecoveryRejectsOutOfBoundsLengths() throws IOException {
+        Path path = tempDir.resolve("events.log");
+        try (PosEventLog eventLog = new PosEventLog(path, 0)) {
+            eventLog.append(PosEventType.ITEM_ADDED, "1234");
+            eventLog.append(PosEventType.ITEM_ADDED, "5678");
+        }
+
+        // A record length past the end of the file, as a torn write could leave behind
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(16 + RECORD_SIZE);
+            file.writeInt(Integer.MAX_VALUE - 8);
+        }
+
+        try (PosEventLog eventLog = new PosEventLog(path, 0)) {
+            assertEquals(1, eventLog.getRecoveredEntries().size());
+        }
+    }
+
+    @Test
+    void testDiscardsRecordsOfOlderVersion() throws IOException {
+        Path path = tempDir.resolve("events.log");
+        try (PosEventLog eventLog = new PosEventLog(path, 0)) {
+            eventLog.append(PosEventType.ITEM_ADDED, "1234");
+            eventLog.compact(7);
+            eventLog.append(PosEventType.ITEM_ADDED, "1234");
+        }
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(4);
+            file.writeInt(1);
+        }
+
+        try (PosEventLog eventLog = new PosEventLog(path, 0)) {
+            assertTrue(eventLog.getRecoveredEntries().isEmpty());
+            assertEquals(7, eventLog.getNextTransactionNumber());
+        }
+    }
+
+    @Test
+    void testGrowsBeyondInitialCapacity() throws IOException {
+        Path path = tempDir.resolve("events.log");
+        String field = "x".repeat(64 * 1024);
+        try (PosEventLog eventLog = new PosEventLog(path, -1)) {
+            for (int i = 0; i < 40; i++) {
+                eventLog.append(PosEventType.ITEM_ADDED, field);
+            }
+        }
+
+        try (PosEventLog eventLog = new PosEventLog(path, -1)) {
+            assertEquals(40, eventLog.getRecoveredEntries().size());
+            assertTrue(Files.size(path) > 40L * 64 * 1024);
+        }
+    }
+
+    @Test
+    void testRejectsOtherFiles() throws IOException {
+        Path path = tempDir.resolve("other.txt");
+        Files.writeString(path, "not an event log");
+        assertThrows(IOException.class, () -> new PosEventLog(path, 0));
+    }
+}
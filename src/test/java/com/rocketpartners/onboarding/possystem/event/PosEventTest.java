@@ -0,0 +1,64 @@
+package com.rocketpartners.onboarding.possystem.event;
+
+import com.rocketpartners.onboarding.possystem.constant.ConstKeys;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PosEventTest {
+
+    @Test
+    void testTypedProperties_ReadableThroughStringKeys() {
+        PosEvent event = new PosEvent(PosEventType.ITEM_ADDED, PosEventKey.ITEM_UPC, "1234", PosEventKey.MESSAGE,
+                "Added");
+
+        assertTrue(event.containsProperty(PosEventKey.ITEM_UPC));
+        assertEquals("1234", event.getProperty(PosEventKey.ITEM_UPC, String.class));
+        assertEquals("1234", event.getProperty(ConstKeys.ITEM_UPC, String.class));
+        assertEquals("Added", event.getProperty(ConstKeys.MESSAGE));
+        assertFalse(event.containsProperty(PosEventKey.TRANSACTION_DTO));
+        assertFalse(event.containsProperty(ConstKeys.TRANSACTION_DTO));
+    }
+
+    @Test
+    void testMapProperties_ReadableThroughTypedKeys() {
+        PosEvent event = new PosEvent(PosEventType.REQUEST_ADD_ITEM,
+                Map.of(ConstKeys.ITEM_UPC, "1234", "custom_key", 5));
+
+        assertEquals("1234", event.getProperty(PosEventKey.ITEM_UPC, String.class));
+        assertEquals(5, event.getProperty("custom_key", Integer.class));
+        assertEquals(Map.of(ConstKeys.ITEM_UPC, "1234", "custom_key", 5), event.getCopyOfProps());
+    }
+
+    @Test
+    void testGetOrDefaultProperty() {
+        PosEvent event = new PosEvent(PosEventType.LOG, PosEventKey.MESSAGE, "Hello");
+
+        assertEquals("Hello", event.getOrDefaultProperty(PosEventKey.MESSAGE, String.class, "Default"));
+        assertEquals("Default", event.getOrDefaultProperty(PosEventKey.ITEM_UPC, String.class, "Default"));
+        assertEquals("Default", event.getOrDefaultProperty("missing", String.class, "Default"));
+    }
+
+    @Test
+    void testCopyAs_CopiesPropertiesIndependently() {
+        PosEvent event = new PosEvent(PosEventType.REQUEST_ADD_ITEM,
+                Map.of(ConstKeys.ITEM_UPC, "1234", "custom_key", 5));
+
+        PosEvent copy = event.copyAs(PosEventType.REQUEST_START_TRANSACTION);
+
+        assertEquals(PosEventType.REQUEST_START_TRANSACTION, copy.getType());
+        assertEquals("1234", copy.getProperty(PosEventKey.ITEM_UPC));
+        assertEquals(5, copy.getProperty("custom_key"));
+        assertEquals(event.getCopyOfProps(), copy.getCopyOfProps());
+    }
+
+    @Test
+    void testPosEventKey_FromName() {
+        for (PosEventKey key : PosEventKey.values()) {
+            assertSame(key, PosEventKey.fromName(key.getName()));
+        }
+        assertNull(PosEventKey.fromName("missing"));
+    }
+}
@@ -0,0 +1,64 @@
+package com.rocketpartners.onboarding.possystem.event;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PosEventWorkQueueTest {
+
+    private PosEventWorkQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = new PosEventWorkQueue(2);
+    }
+
+    @Test
+    void testOfferAndPoll_FifoOrder() {
+        PosEvent first = new PosEvent(PosEventType.LOG);
+        PosEvent second = new PosEvent(PosEventType.ERROR);
+        queue.offer(first, 0);
+        queue.offer(second, 1);
+
+        assertEquals(2, queue.size());
+        assertEquals(0, queue.peekDepth());
+        assertSame(first, queue.poll());
+        assertEquals(1, queue.peekDepth());
+        assertSame(second, queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void testOffer_GrowsWhenWrappedAround() {
+        queue.offer(new PosEvent(PosEventType.LOG), 0);
+        queue.offer(new PosEvent(PosEventType.LOG), 1);
+        queue.poll();
+
+        PosEvent[] expected = {new PosEvent(PosEventType.ERROR), new PosEvent(PosEventType.POS_RESET),
+                new PosEvent(PosEventType.POS_BOOTUP)};
+        for (int i = 0; i < expected.length; i++) {
+            queue.offer(expected[i], i + 2);
+        }
+
+        assertEquals(4, queue.size());
+        assertEquals(4, queue.capacity());
+        assertEquals(1, queue.peekDepth());
+        queue.poll();
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(i + 2, queue.peekDepth());
+            assertSame(expected[i], queue.poll());
+        }
+    }
+
+    @Test
+    void testClear() {
+        queue.offer(new PosEvent(PosEventType.LOG), 0);
+        queue.offer(new PosEvent(PosEventType.LOG), 1);
+        queue.clear();
+
+        assertTrue(queue.isEmpty());
+        assertThrows(IllegalStateException.class, () -> queue.poll());
+        assertThrows(IllegalStateException.class, () -> queue.peekDepth());
+    }
+}
@@ -0,0 +1,134 @@
+package com.rocketpartners.onboarding.possystem.repository;
+
+import com.rocketpartners.onboarding.commons.model.Item;
+import com.rocketpartners.onboarding.possystem.repository.inmemory.InMemoryItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class CachingItemRepositoryTest {
+
+    private ItemRepository delegate;
+    private AtomicLong nanoTime;
+    private CachingItemRepository repository;
+    private Item milk;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(ItemRepository.class);
+        nanoTime = new AtomicLong();
+        repository = new CachingItemRepository(delegate, 100, 1000, nanoTime::get);
+        milk = new Item("000000000001", "Milk", new BigDecimal("3.49"), "Dairy", "Whole milk");
+        when(delegate.getItemByUpc("000000000001")).thenReturn(milk);
+    }
+
+    @Test
+    void testGetItemByUpc_ServesHitsFromCache() {
+        assertSame(milk, repository.getItemByUpc("000000000001"));
+        assertSame(milk, repository.getItemByUpc("000000000001"));
+        assertTrue(repository.itemExists("000000000001"));
+
+        verify(delegate, times(1)).getItemByUpc("000000000001");
+        verify(delegate, never()).itemExists(anyString());
+        assertEquals(2, repository.getHitCount());
+        assertEquals(1, repository.getMissCount());
+        assertEquals(2.0 / 3.0, repository.getHitRatio(), 1e-9);
+    }
+
+    @Test
+    void testGetItemByUpc_CachesMisses() {
+        assertNull(repository.getItemByUpc("unknown"));
+        assertNull(repository.getItemByUpc("unknown"));
+        assertFalse(repository.itemExists("unknown"));
+
+        verify(delegate, times(1)).getItemByUpc("unknown");
+        assertEquals(2, repository.getNegativeHitCount());
+        assertEquals(1, repository.size());
+    }
+
+    @Test
+    void testSaveAndDelete_InvalidateEntry() {
+        repository.getItemByUpc("000000000001");
+        Item cheaperMilk = new Item("000000000001", "Milk", new BigDecimal("2.99"), "Dairy", "Whole milk");
+        when(delegate.getItemByUpc("000000000001")).thenReturn(cheaperMilk);
+
+        repository.saveItem(cheaperMilk);
+        verify(delegate).saveItem(cheaperMilk);
+        assertSame(cheaperMilk, repository.getItemByUpc("000000000001"));
+
+        when(delegate.getItemByUpc("000000000001")).thenReturn(null);
+        repository.deleteItemByUpc("000000000001");
+        verify(delegate).deleteItemByUpc("000000000001");
+        assertFalse(repository.itemExists("000000000001"));
+        verify(delegate, times(3)).getItemByUpc("000000000001");
+    }
+
+    @Test
+    void testGetItemByUpc_DoesNotCacheLookupRacingWithSave() {
+        when(delegate.getItemByUpc("000000000002")).thenAnswer(invocation -> {
+            // Another thread saves the item while it is looked up
+            repository.invalidate("000000000002");
+            return null;
+        });
+
+        assertNull(repository.getItemByUpc("000000000002"));
+        assertEquals(0, repository.size());
+    }
+
+    @Test
+    void testGetItemByUpc_ExpiresEntries() {
+        repository.getItemByUpc("000000000001");
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        repository.getItemByUpc("000000000001");
+        verify(delegate, times(1)).getItemByUpc("000000000001");
+
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        repository.getItemByUpc("000000000001");
+        verify(delegate, times(2)).getItemByUpc("000000000001");
+        assertEquals(1, repository.getExpirationCount());
+    }
+
+    @Test
+    void testEviction_KeepsFrequentlyUsedUpcsThroughScan() {
+        ItemRepository itemRepository = spy(new InMemoryItemRepository());
+        for (int i = 0; i < 10_000; i++) {
+            itemRepository.saveItem(new Item(String.valueOf(i), "Item " + i, BigDecimal.ONE, null, null));
+        }
+        CachingItemRepository cache = new CachingItemRepository(itemRepository, 100, 0);
+
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 50; i++) {
+                cache.getItemByUpc(String.valueOf(i));
+            }
+        }
+        // Every other UPC is looked up once between the hot UPCs, which would flush them out of an LRU cache
+        for (int i = 50; i < 10_000; i++) {
+            cache.getItemByUpc(String.valueOf(i));
+            if (i % 4 == 0) {
+                cache.getItemByUpc(String.valueOf(i / 4 % 50));
+            }
+        }
+        clearInvocations(itemRepository);
+        for (int i = 0; i < 50; i++) {
+            assertTrue(cache.isInMainSpace(String.valueOf(i)));
+            assertNotNull(cache.getItemByUpc(String.valueOf(i)));
+        }
+
+        verify(itemRepository, never()).getItemByUpc(anyString());
+        assertEquals(100, cache.size());
+        assertTrue(cache.getEvictionCount() >= 10_000 - 100);
+    }
+
+    @Test
+    void testConstructor_InvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new CachingItemRepository(delegate, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new CachingItemRepository(delegate, 1, -1));
+    }
+}
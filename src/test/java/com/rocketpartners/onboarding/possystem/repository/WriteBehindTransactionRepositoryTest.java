@@ -0,0 +1,171 @@
+package com.rocketpartners.onboarding.possystem.repository;
+
+import com.rocketpartners.onboarding.commons.model.LineItem;
+import com.rocketpartners.onboarding.commons.model.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class WriteBehindTransactionRepositoryTest {
+
+    private TransactionRepository delegate;
+    private WriteBehindTransactionRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(TransactionRepository.class);
+        repository = new WriteBehindTransactionRepository(delegate, 60000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_WritesLatestSnapshotsInOneBatch() {
+        Transaction transaction1 = createTransaction("tx1");
+        Transaction transaction2 = createTransaction("tx2");
+
+        repository.saveTransaction(transaction1);
+        transaction1.getLineItems().add(new LineItem("A", "tx1", 1, false));
+        repository.saveTransaction(transaction1);
+        repository.saveTransaction(transaction2);
+        verify(delegate, never()).saveTransactions(any());
+        assertEquals(2, repository.getDirtyCount());
+
+        repository.flush();
+
+        ArgumentCaptor<Collection<Transaction>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(delegate, times(1)).saveTransactions(captor.capture());
+        Collection<Transaction> batch = captor.getValue();
+        assertEquals(2, batch.size());
+        Transaction flushed1 = batch.stream().filter(it -> it.getId().equals("tx1")).findFirst().orElseThrow();
+        assertEquals(1, flushed1.getLineItems().size());
+        assertNotSame(transaction1, flushed1);
+
+        assertEquals(0, repository.getDirtyCount());
+        assertEquals(1, repository.getFlushCount());
+        assertEquals(2, repository.getFlushedTransactionCount());
+        assertEquals(2, repository.getDurabilityWindowStats().getCount());
+    }
+
+    @Test
+    void testSnapshotIsolatedFromLaterChanges() {
+        Transaction transaction = createTransaction("tx1");
+        repository.saveTransaction(transaction);
+        transaction.setSubtotal(new BigDecimal("99.00"));
+
+        Transaction read = repository.getTransactionById("tx1");
+
+        assertEquals(BigDecimal.ZERO, read.getSubtotal());
+        assertTrue(repository.transactionExists("tx1"));
+        verify(delegate, never()).getTransactionById(any());
+    }
+
+    @Test
+    void testFlush_RequeuesBatchOnFailure() {
+        doThrow(new RuntimeException("down")).when(delegate).saveTransactions(any());
+        repository.saveTransaction(createTransaction("tx1"));
+
+        assertThrows(RuntimeException.class, () -> repository.flush());
+
+        assertEquals(1, repository.getDirtyCount());
+        assertEquals(0, repository.getFlushCount());
+
+        doNothing().when(delegate).saveTransactions(any());
+        repository.flush();
+
+        assertEquals(0, repository.getDirtyCount());
+        assertEquals(1, repository.getFlushCount());
+    }
+
+    @Test
+    void testFlushAsync_WritesOnWriteBehindThread() throws Exception {
+        AtomicReference<String> flushThreadName = new AtomicReference<>();
+        doAnswer(invocation -> {
+            flushThreadName.set(Thread.currentThread().getName());
+            return null;
+        }).when(delegate).saveTransactions(any());
+        repository.saveTransaction(createTransaction("tx1"));
+
+        repository.flushAsync().get(5, TimeUnit.SECONDS);
+
+        assertEquals("transaction-write-behind", flushThreadName.get());
+        assertEquals(0, repository.getDirtyCount());
+        assertEquals(1, repository.getFlushCount());
+    }
+
+    @Test
+    void testFlushAsync_CompletesExceptionallyAndRequeuesBatchOnFailure() {
+        doThrow(new RuntimeException("down")).when(delegate).saveTransactions(any());
+        repository.saveTransaction(createTransaction("tx1"));
+
+        CompletableFuture<Void> future = repository.flushAsync();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertEquals("down", e.getCause().getMessage());
+        assertEquals(1, repository.getDirtyCount());
+        doNothing().when(delegate).saveTransactions(any());
+    }
+
+    @Test
+    void testClose_LogsFailedFlush() {
+        WriteBehindTransactionRepository failingRepository = new WriteBehindTransactionRepository(delegate, 60000);
+        doThrow(new RuntimeException("down")).when(delegate).saveTransactions(any());
+        failingRepository.saveTransaction(createTransaction("tx1"));
+
+        assertDoesNotThrow(failingRepository::close);
+
+        assertEquals(1, failingRepository.getDirtyCount());
+        doNothing().when(delegate).saveTransactions(any());
+    }
+
+    @Test
+    void testDeleteTransactionById_DropsDirtySnapshot() {
+        repository.saveTransaction(createTransaction("tx1"));
+
+        repository.deleteTransactionById("tx1");
+        repository.flush();
+
+        verify(delegate).deleteTransactionById("tx1");
+        verify(delegate, never()).saveTransactions(any());
+    }
+
+    @Test
+    void testFlushesOnInterval() {
+        WriteBehindTransactionRepository fastRepository = new WriteBehindTransactionRepository(delegate, 10);
+        try {
+            fastRepository.saveTransaction(createTransaction("tx1"));
+
+            await().atMost(Duration.ofSeconds(5)).until(() -> fastRepository.getFlushCount() == 1);
+            verify(delegate, times(1)).saveTransactions(any());
+        } finally {
+            fastRepository.close();
+        }
+    }
+
+    private static Transaction createTransaction(String id) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setPosSystemId("pos1");
+        transaction.setTimeCreated(LocalDateTime.now());
+        return transaction;
+    }
+}
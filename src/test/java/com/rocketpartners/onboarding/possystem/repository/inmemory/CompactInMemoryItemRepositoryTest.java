@@ -0,0 +1,136 @@
+package com.rocketpartners.onboarding.possystem.repository.inmemory;
+
+import com.rocketpartners.onboarding.commons.model.Item;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactInMemoryItemRepositoryTest {
+
+    private CompactInMemoryItemRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new CompactInMemoryItemRepository();
+        repository.saveItem(new Item("000000000001", "Milk", new BigDecimal("3.49"), "Dairy", "Whole milk"));
+        repository.saveItem(new Item("000000000002", "Cheese", new BigDecimal("5.99"), "Dairy", null));
+        repository.saveItem(new Item("BREAD-1", "Bread", new BigDecimal("2.5"), "Bakery",
+                "Cr\u00e8me br\u00fbl\u00e9e bread"));
+    }
+
+    @Test
+    void testGetItemByUpc() {
+        Item milk = repository.getItemByUpc("000000000001");
+        assertEquals("000000000001", milk.getUpc());
+        assertEquals("Milk", milk.getName());
+        assertEquals(new BigDecimal("3.49"), milk.getUnitPrice());
+        assertEquals("Dairy", milk.getCategory());
+        assertEquals("Whole milk", milk.getDescription());
+
+        Item bread = repository.getItemByUpc("BREAD-1");
+        assertEquals(new BigDecimal("2.50"), bread.getUnitPrice());
+        assertEquals("Cr\u00e8me br\u00fbl\u00e9e bread", bread.getDescription());
+        assertNull(repository.getItemByUpc("000000000002").getDescription());
+
+        // Leading zeros are part of the UPC
+        assertNull(repository.getItemByUpc("1"));
+        assertNull(repository.getItemByUpc("00000000001"));
+        assertFalse(repository.itemExists("unknown"));
+        assertTrue(repository.itemExists("BREAD-1"));
+    }
+
+    @Test
+    void testSaveItem_ReplacesItem() {
+        repository.saveItem(new Item("000000000001", "Skim Milk", new BigDecimal("3.195"), null, null));
+
+        Item milk = repository.getItemByUpc("000000000001");
+        assertEquals("Skim Milk", milk.getName());
+        assertEquals(new BigDecimal("3.20"), milk.getUnitPrice());
+        assertNull(milk.getCategory());
+        assertEquals(3, repository.size());
+        assertEquals(List.of("000000000002"),
+                repository.getItemsByCategory("Dairy").stream().map(Item::getUpc).toList());
+    }
+
+    @Test
+    void testGetItemsByNameAndCategory() {
+        assertEquals(List.of("000000000002"), repository.getItemsByName("Cheese").stream().map(Item::getUpc).toList());
+        assertTrue(repository.getItemsByName("Chee").isEmpty());
+        assertEquals(2, repository.getItemsByCategory("Dairy").size());
+        assertEquals(List.of("BREAD-1"), repository.getItemsByCategory("Bakery").stream().map(Item::getUpc).toList());
+        assertTrue(repository.getItemsByCategory("Produce").isEmpty());
+    }
+
+    @Test
+    void testDeleteItemByUpc_MovesLastItemIntoPlace() {
+        repository.deleteItemByUpc("000000000001");
+        repository.deleteItemByUpc("unknown");
+
+        assertFalse(repository.itemExists("000000000001"));
+        assertEquals(2, repository.size());
+        assertEquals("Bread", repository.getItemByUpc("BREAD-1").getName());
+        assertEquals("Cheese", repository.getItemByUpc("000000000002").getName());
+
+        repository.deleteItemByUpc("BREAD-1");
+        assertFalse(repository.itemExists("BREAD-1"));
+        assertEquals(List.of("000000000002"), repository.getAllItems().stream().map(Item::getUpc).toList());
+    }
+
+    @Test
+    void testEncodeUpc() {
+        for (String upc : List.of("0", "007", "012345678905", "99999999999999999")) {
+            long key = CompactInMemoryItemRepository.encodeUpc(upc);
+            assertNotEquals(0L, key, upc);
+            assertEquals(upc, CompactInMemoryItemRepository.decodeUpc(key));
+        }
+        assertNotEquals(CompactInMemoryItemRepository.encodeUpc("07"), CompactInMemoryItemRepository.encodeUpc("7"));
+        assertEquals(0L, CompactInMemoryItemRepository.encodeUpc(""));
+        assertEquals(0L, CompactInMemoryItemRepository.encodeUpc("12A"));
+        assertEquals(0L, CompactInMemoryItemRepository.encodeUpc("123456789012345678"));
+    }
+
+    @Test
+    void testRandomOperations_MatchMapRepository() {
+        CompactInMemoryItemRepository compactRepository = new CompactInMemoryItemRepository();
+        Map<String, Item> expectedItems = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            int id = random.nextInt(5000);
+            String upc = id % 10 == 0 ? "UPC-" + id : String.format("%012d", id);
+            if (random.nextInt(3) == 0) {
+                compactRepository.deleteItemByUpc(upc);
+                expectedItems.remove(upc);
+            } else {
+                Item item = new Item(upc, "Item " + id + " version " + i,
+                        BigDecimal.valueOf(random.nextInt(10_000), 2), "Category " + id % 7,
+                        random.nextBoolean() ? "Description " + i : null);
+                compactRepository.saveItem(item);
+                expectedItems.put(upc, item);
+            }
+        }
+
+        assertEquals(expectedItems.size(), compactRepository.size());
+        assertEquals(expectedItems.size(), compactRepository.getAllItems().size());
+        for (Item expected : expectedItems.values()) {
+            Item actual = compactRepository.getItemByUpc(expected.getUpc());
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getUnitPrice(), actual.getUnitPrice());
+            assertEquals(expected.getCategory(), actual.getCategory());
+            assertEquals(expected.getDescription(), actual.getDescription());
+        }
+        for (int id = 0; id < 5000; id++) {
+            String upc = id % 10 == 0 ? "UPC-" + id : String.format("%012d", id);
+            assertEquals(expectedItems.containsKey(upc), compactRepository.itemExists(upc), upc);
+        }
+        // Replaced and deleted strings are compacted away instead of growing the arena forever
+        assertTrue(compactRepository.getArenaSize() < 1 << 20);
+    }
+}
@@ -0,0 +1,94 @@
+package com.rocketpartners.onboarding.possystem.repository.inmemory;
+
+import com.rocketpartners.onboarding.commons.model.Item;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryItemRepositoryTest {
+
+    private InMemoryItemRepository repository;
+    private Item milk;
+    private Item cheese;
+    private Item bread;
+
+    @BeforeEach
+    void setUp() {
+        repository = new InMemoryItemRepository();
+        milk = createItem("1", "Milk", "Dairy");
+        cheese = createItem("2", "Cheese", "Dairy");
+        bread = createItem("3", "Bread", "Bakery");
+        repository.saveItem(milk);
+        repository.saveItem(cheese);
+        repository.saveItem(bread);
+    }
+
+    @Test
+    void testGetItemsByCategory() {
+        assertEquals(List.of(milk, cheese), repository.getItemsByCategory("Dairy"));
+        assertEquals(List.of(bread), repository.getItemsByCategory("Bakery"));
+        assertTrue(repository.getItemsByCategory("Produce").isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> repository.getItemsByCategory("Dairy").clear());
+    }
+
+    @Test
+    void testGetItemsByName() {
+        assertEquals(List.of(cheese), repository.getItemsByName("Cheese"));
+        assertTrue(repository.getItemsByName("Chee").isEmpty());
+    }
+
+    @Test
+    void testGetItemsByCategory_SharesSnapshotUntilChanged() {
+        List<Item> dairy = repository.getItemsByCategory("Dairy");
+        assertSame(dairy, repository.getItemsByCategory("Dairy"));
+
+        repository.saveItem(createItem("4", "Butter", "Dairy"));
+        List<Item> updatedDairy = repository.getItemsByCategory("Dairy");
+
+        assertNotSame(dairy, updatedDairy);
+        assertEquals(2, dairy.size());
+        assertEquals(3, updatedDairy.size());
+    }
+
+    @Test
+    void testSaveItem_MovesItemToNewCategory() {
+        // Modified in place, like a caller that saves the item it got from the repository
+        milk.setCategory("Beverages");
+        milk.setName("Whole Milk");
+        repository.saveItem(milk);
+
+        assertEquals(List.of(cheese), repository.getItemsByCategory("Dairy"));
+        assertEquals(List.of(milk), repository.getItemsByCategory("Beverages"));
+        assertTrue(repository.getItemsByName("Milk").isEmpty());
+        assertEquals(List.of(milk), repository.getItemsByName("Whole Milk"));
+
+        Item replacement = createItem("2", "Cheddar", null);
+        repository.saveItem(replacement);
+        assertTrue(repository.getItemsByCategory("Dairy").isEmpty());
+        assertSame(replacement, repository.getItemByUpc("2"));
+    }
+
+    @Test
+    void testDeleteItemByUpc_RemovesItemFromIndexes() {
+        repository.deleteItemByUpc("3");
+        repository.deleteItemByUpc("unknown");
+
+        assertTrue(repository.getItemsByCategory("Bakery").isEmpty());
+        assertTrue(repository.getItemsByName("Bread").isEmpty());
+        assertFalse(repository.itemExists("3"));
+        assertEquals(2, repository.getAllItems().size());
+    }
+
+    private static Item createItem(String upc, String name, String category) {
+        Item item = new Item();
+        item.setUpc(upc);
+        item.setName(name);
+        item.setUnitPrice(BigDecimal.ONE);
+        item.setCategory(category);
+        return item;
+    }
+}
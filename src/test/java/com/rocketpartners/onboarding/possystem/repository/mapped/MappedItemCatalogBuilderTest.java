@@ -0,0 +1,69 @@
+package com.rocketpartners.onboarding.possystem.repository.mapped;
+
+import com.rocketpartners.onboarding.commons.model.Item;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedItemCatalogBuilderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testReadTsv_FirstLineOfUpcWins() throws IOException {
+        Path tsvFile = tempDir.resolve("pricebook.tsv");
+        Files.writeString(tsvFile,
+                "041594904794\tPOLAR POP 42OZ\t8.91\n80\tLOTTO\t9.00\n041594904794\tDUPLICATE\t1.00\n");
+
+        List<Item> items = MappedItemCatalogBuilder.readTsv(tsvFile.toString());
+
+        assertEquals(List.of("041594904794", "80"), items.stream().map(Item::getUpc).toList());
+        assertEquals("POLAR POP 42OZ", items.get(0).getName());
+        assertEquals(new BigDecimal("9.00"), items.get(1).getUnitPrice());
+    }
+
+    @Test
+    void testReadTsv_RejectsInvalidLine() throws IOException {
+        Path tsvFile = tempDir.resolve("pricebook.tsv");
+        Files.writeString(tsvFile, "041594904794\tPOLAR POP 42OZ\n");
+
+        assertThrows(RuntimeException.class, () -> MappedItemCatalogBuilder.readTsv(tsvFile.toString()));
+    }
+
+    @Test
+    void testWrite_ReplacesCatalogFile() throws IOException {
+        Path catalogFile = tempDir.resolve("pricebook.catalog");
+        MappedItemCatalogBuilder.write(List.of(new Item("1", "Milk", new BigDecimal("3.49"), null, null)),
+                catalogFile);
+        MappedItemRepository oldRepository = new MappedItemRepository(catalogFile);
+
+        MappedItemCatalogBuilder.write(List.of(new Item("2", "Cheese", new BigDecimal("5.99"), null, null)),
+                catalogFile);
+        MappedItemRepository newRepository = new MappedItemRepository(catalogFile);
+
+        // The old mapping still reads the old catalog, and no temporary file is left behind
+        assertTrue(oldRepository.itemExists("1"));
+        assertFalse(newRepository.itemExists("1"));
+        assertTrue(newRepository.itemExists("2"));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(List.of(catalogFile), files.toList());
+        }
+    }
+
+    @Test
+    void testWrite_RejectsDuplicateUpc() {
+        List<Item> items = List.of(new Item("1", "Milk", new BigDecimal("3.49"), null, null),
+                new Item("1", "Cheese", new BigDecimal("5.99"), null, null));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> MappedItemCatalogBuilder.write(items, tempDir.resolve("pricebook.catalog")));
+    }
+}
@@ -0,0 +1,128 @@
+package com.rocketpartners.onboarding.possystem.repository.mapped;
+
+import com.rocketpartners.onboarding.commons.model.Item;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedItemRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path catalogFile;
+    private MappedItemRepository repository;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        catalogFile = tempDir.resolve("pricebook.catalog");
+        MappedItemCatalogBuilder.write(List.of(
+                new Item("000000000001", "Milk", new BigDecimal("3.49"), "Dairy", "Whole milk"),
+                new Item("000000000002", "Cheese", new BigDecimal("5.99"), "Dairy", null),
+                new Item("BREAD-1", "Bread", new BigDecimal("2.5"), "Bakery", "Cr\u00e8me br\u00fbl\u00e9e bread"),
+                new Item("80", "Lotto", null, null, null)), catalogFile);
+        repository = new MappedItemRepository(catalogFile);
+    }
+
+    @Test
+    void testGetItemByUpc() {
+        Item milk = repository.getItemByUpc("000000000001");
+        assertEquals("000000000001", milk.getUpc());
+        assertEquals("Milk", milk.getName());
+        assertEquals(new BigDecimal("3.49"), milk.getUnitPrice());
+        assertEquals("Dairy", milk.getCategory());
+        assertEquals("Whole milk", milk.getDescription());
+
+        Item bread = repository.getItemByUpc("BREAD-1");
+        assertEquals(new BigDecimal("2.50"), bread.getUnitPrice());
+        assertEquals("Cr\u00e8me br\u00fbl\u00e9e bread", bread.getDescription());
+
+        Item lotto = repository.getItemByUpc("80");
+        assertNull(lotto.getUnitPrice());
+        assertNull(lotto.getCategory());
+
+        assertNull(repository.getItemByUpc("1"));
+        assertTrue(repository.itemExists("000000000002"));
+        assertFalse(repository.itemExists("unknown"));
+    }
+
+    @Test
+    void testGetItemsByNameAndCategory() {
+        assertEquals(List.of("000000000002"), repository.getItemsByName("Cheese").stream().map(Item::getUpc).toList());
+        assertTrue(repository.getItemsByName("Chee").isEmpty());
+        assertEquals(List.of("000000000001", "000000000002"),
+                repository.getItemsByCategory("Dairy").stream().map(Item::getUpc).toList());
+        assertTrue(repository.getItemsByCategory("Produce").isEmpty());
+        assertEquals(4, repository.getAllItems().size());
+    }
+
+    @Test
+    void testGetAtPosition() {
+        assertEquals(4, repository.size());
+        List<String> upcs = new ArrayList<>();
+        for (int position = 0; position < repository.size(); position++) {
+            String upc = repository.getUpcAt(position);
+            upcs.add(upc);
+            Item item = repository.getItemAt(position);
+            assertEquals(upc, item.getUpc());
+            assertEquals(item.getName(), repository.getNameAt(position));
+        }
+        upcs.sort(null);
+        assertEquals(List.of("000000000001", "000000000002", "80", "BREAD-1"), upcs);
+        assertThrows(IndexOutOfBoundsException.class, () -> repository.getItemAt(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> repository.getUpcAt(-1));
+    }
+
+    @Test
+    void testSaveAndDelete_AreNotSupported() {
+        Item milk = repository.getItemByUpc("000000000001");
+        assertThrows(UnsupportedOperationException.class, () -> repository.saveItem(milk));
+        assertThrows(UnsupportedOperationException.class, () -> repository.deleteItemByUpc("000000000001"));
+    }
+
+    @Test
+    void testLargeCatalog_FindsEveryItem() throws IOException {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            items.add(new Item(String.format("%012d", i * 3L), "Item " + i, BigDecimal.valueOf(i, 2),
+                    "Category " + i % 20, null));
+        }
+        Path largeCatalogFile = tempDir.resolve("large.catalog");
+        MappedItemCatalogBuilder.write(items, largeCatalogFile);
+        MappedItemRepository largeRepository = new MappedItemRepository(largeCatalogFile);
+
+        assertEquals(50_000, largeRepository.size());
+        for (Item expected : items) {
+            Item actual = largeRepository.getItemByUpc(expected.getUpc());
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getUnitPrice(), actual.getUnitPrice());
+            assertEquals(expected.getCategory(), actual.getCategory());
+        }
+        assertFalse(largeRepository.itemExists(String.format("%012d", 1)));
+        assertEquals(2500, largeRepository.getItemsByCategory("Category 7").size());
+    }
+
+    @Test
+    void testConstructor_RejectsInvalidFiles() throws IOException {
+        Path notACatalog = tempDir.resolve("pricebook.tsv");
+        Files.writeString(notACatalog, "000000000001\tMilk\t3.49\n".repeat(4));
+        assertThrows(IllegalArgumentException.class, () -> new MappedItemRepository(notACatalog));
+
+        Path truncated = tempDir.resolve("truncated.catalog");
+        byte[] bytes = Files.readAllBytes(catalogFile);
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IllegalArgumentException.class, () -> new MappedItemRepository(truncated));
+
+        assertThrows(RuntimeException.class, () -> new MappedItemRepository(tempDir.resolve("missing.catalog")));
+    }
+}
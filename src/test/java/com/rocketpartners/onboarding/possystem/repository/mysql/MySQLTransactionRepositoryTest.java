@@ -0,0 +1,142 @@
+package com.rocketpartners.onboarding.possystem.repository.mysql;
+
+import com.rocketpartners.onboarding.commons.model.LineItem;
+import com.rocketpartners.onboarding.commons.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MySQLTransactionRepositoryTest {
+
+    private Connection connection;
+    private PreparedStatement transactionStmt;
+    private PreparedStatement lineItemStmt;
+    private MySQLTransactionRepository repository;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DatabaseConnectionManager connectionManager = mock(DatabaseConnectionManager.class);
+        connection = mock(Connection.class);
+        transactionStmt = mock(PreparedStatement.class);
+        lineItemStmt = mock(PreparedStatement.class);
+        when(connectionManager.startNewConnection()).thenReturn(connection);
+        when(connection.prepareStatement(startsWith("INSERT INTO transactions"))).thenReturn(transactionStmt);
+        when(connection.prepareStatement(startsWith("INSERT INTO line_items"))).thenReturn(lineItemStmt);
+        repository = new MySQLTransactionRepository(connectionManager);
+    }
+
+    @Test
+    void testSaveTransaction_WritesEverythingOnFirstSave() throws SQLException {
+        Transaction transaction = createTransaction("tx1");
+        transaction.getLineItems().add(new LineItem("A", "tx1", 1, false));
+        transaction.getLineItems().add(new LineItem("B", "tx1", 2, false));
+
+        repository.saveTransaction(transaction);
+
+        verify(transactionStmt, times(1)).addBatch();
+        verify(lineItemStmt, times(2)).addBatch();
+        verify(connection, times(1)).commit();
+        assertEquals(1, repository.getHeadersWrittenCount());
+        assertEquals(0, repository.getHeadersSkippedCount());
+        assertEquals(2, repository.getLineItemsWrittenStats().getTotal());
+    }
+
+    @Test
+    void testSaveTransaction_WritesOnlyChangedRows() throws SQLException {
+        Transaction transaction = createTransaction("tx1");
+        transaction.getLineItems().add(new LineItem("A", "tx1", 1, false));
+        transaction.getLineItems().add(new LineItem("B", "tx1", 2, false));
+        repository.saveTransaction(transaction);
+        clearInvocations(transactionStmt, lineItemStmt);
+
+        transaction.getLineItems().get(1).setQuantity(3);
+        repository.saveTransaction(transaction);
+
+        verify(transactionStmt, never()).addBatch();
+        verify(transactionStmt, never()).executeBatch();
+        verify(lineItemStmt, times(1)).setString(2, "B");
+        verify(lineItemStmt, times(1)).setInt(3, 3);
+        verify(lineItemStmt, times(1)).addBatch();
+        assertEquals(1, repository.getHeadersSkippedCount());
+
+        clearInvocations(transactionStmt, lineItemStmt);
+        transaction.setSubtotal(new BigDecimal("5.00"));
+        repository.saveTransaction(transaction);
+
+        verify(transactionStmt, times(1)).addBatch();
+        verify(lineItemStmt, never()).addBatch();
+        assertEquals(2, repository.getHeadersWrittenCount());
+    }
+
+    @Test
+    void testSaveTransaction_WritesEverythingAgainAfterFailedSave() throws SQLException {
+        Transaction transaction = createTransaction("tx1");
+        transaction.getLineItems().add(new LineItem("A", "tx1", 1, false));
+        doThrow(new SQLException("Lost connection")).doReturn(new int[]{1}).when(lineItemStmt).executeBatch();
+
+        repository.saveTransaction(transaction);
+        verify(connection, times(1)).rollback();
+        clearInvocations(transactionStmt, lineItemStmt);
+
+        repository.saveTransaction(transaction);
+
+        verify(transactionStmt, times(1)).addBatch();
+        verify(lineItemStmt, times(1)).addBatch();
+    }
+
+    @Test
+    void testSaveTransactions_ThrowsWhenBatchFails() throws SQLException {
+        Transaction transaction = createTransaction("tx1");
+        doThrow(new SQLException("Lost connection")).when(transactionStmt).executeBatch();
+
+        assertThrows(RuntimeException.class, () -> repository.saveTransactions(List.of(transaction)));
+        verify(connection, times(1)).rollback();
+        assertEquals(0, repository.getHeadersWrittenCount());
+    }
+
+    @Test
+    void testSaveTransaction_WritesLastLineItemOfUpc() throws SQLException {
+        Transaction transaction = createTransaction("tx1");
+        transaction.getLineItems().add(new LineItem("A", "tx1", 1, true));
+        transaction.getLineItems().add(new LineItem("A", "tx1", 4, false));
+
+        repository.saveTransaction(transaction);
+
+        verify(lineItemStmt, times(1)).addBatch();
+        verify(lineItemStmt, times(1)).setInt(3, 4);
+        verify(lineItemStmt, times(1)).setBoolean(4, false);
+    }
+
+    @Test
+    void testSaveTransaction_ForgetsCompletedTransactions() throws SQLException {
+        Transaction transaction = createTransaction("tx1");
+        transaction.getLineItems().add(new LineItem("A", "tx1", 1, false));
+        transaction.setTendered(true);
+        repository.saveTransaction(transaction);
+        clearInvocations(transactionStmt, lineItemStmt);
+
+        repository.saveTransaction(transaction);
+
+        verify(transactionStmt, times(1)).addBatch();
+        verify(lineItemStmt, times(1)).addBatch();
+    }
+
+    private static Transaction createTransaction(String id) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setPosSystemId("pos1");
+        transaction.setTimeCreated(LocalDateTime.now());
+        return transaction;
+    }
+}
@@ -0,0 +1,93 @@
+package com.rocketpartners.onboarding.possystem.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemNameIndexTest {
+
+    private ItemNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ItemNameIndex();
+        index.add("1", "Milk Chocolate Bar");
+        index.add("2", "Whole Milk, 1 Gallon");
+        index.add("3", "Dark chocolate");
+        index.add("4", "Buttermilk");
+    }
+
+    @Test
+    void testNormalize() {
+        assertEquals("whole milk 1 gallon", ItemNameIndex.normalize("  Whole Milk, 1 Gallon!"));
+        assertEquals("", ItemNameIndex.normalize(" - "));
+    }
+
+    @Test
+    void testSearch_Substring() {
+        assertEquals(List.of("1", "2", "4"), index.search("milk", 10));
+        assertEquals(List.of("1", "3"), index.search("CHOCOLATE", 10));
+        assertEquals(List.of("1", "3"), index.search("k choc", 10));
+        assertEquals(List.of("1"), index.search("milk choc", 10));
+        assertEquals(List.of("4"), index.search("ermil", 10));
+        assertEquals(List.of("1", "2"), index.search("milk", 2));
+        assertTrue(index.search("milk bar", 10).isEmpty());
+        assertTrue(index.search("soda", 10).isEmpty());
+    }
+
+    @Test
+    void testSearch_ShortQueryMatchesWordStart() {
+        assertEquals(List.of("1", "2"), index.search("mi", 10));
+        assertEquals(List.of("1", "3"), index.search("c", 10));
+        assertEquals(List.of("2"), index.search("1", 10));
+        assertTrue(index.search("lk", 10).isEmpty());
+        assertTrue(index.search("", 10).isEmpty());
+        assertTrue(index.search("m", 0).isEmpty());
+    }
+
+    @Test
+    void testAddAndRemove() {
+        index.add("4", "Soda");
+        index.remove("1");
+        index.add("5", null);
+
+        assertEquals(List.of("2"), index.search("milk", 10));
+        assertEquals(List.of("4"), index.search("soda", 10));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void testSearch_AfterCompaction() {
+        ItemNameIndex largeIndex = new ItemNameIndex();
+        Random random = new Random(42);
+        List<String> words = List.of("apple", "banana", "cherry", "bread", "cheese", "coffee");
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            String name = words.get(random.nextInt(words.size())) + " " + words.get(random.nextInt(words.size()));
+            names.add(name);
+            largeIndex.add(String.valueOf(i), name);
+        }
+        for (int i = 0; i < 5000; i += 2) {
+            largeIndex.remove(String.valueOf(i));
+        }
+        for (int i = 1; i < 5000; i += 4) {
+            names.set(i, "renamed " + i);
+            largeIndex.add(String.valueOf(i), names.get(i));
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 1; i < 5000; i += 2) {
+            if (names.get(i).contains("chee")) {
+                expected.add(String.valueOf(i));
+            }
+        }
+        assertEquals(2500, largeIndex.size());
+        assertEquals(expected.stream().sorted().toList(), largeIndex.search("chee", 5000).stream().sorted().toList());
+        assertEquals(List.of("1"), largeIndex.search("renamed 1", 1));
+    }
+}
@@ -2,6 +2,7 @@ package com.rocketpartners.onboarding.possystem.service;
 
 import com.rocketpartners.onboarding.commons.model.Item;
 import com.rocketpartners.onboarding.possystem.repository.ItemRepository;
+import com.rocketpartners.onboarding.possystem.repository.PositionalItemRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -9,8 +10,11 @@ import org.mockito.ArgumentCaptor;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -100,6 +104,7 @@ class ItemServiceTest {
         Item expectedItem = new Item();
         expectedItem.setUpc(upc);
 
+        when(itemRepository.getAllItems()).thenReturn(List.of(expectedItem));
         when(itemRepository.getItemByUpc(upc)).thenReturn(expectedItem);
 
         Item item = itemService.getItemByUpc(upc);
@@ -151,7 +156,10 @@ class ItemServiceTest {
     @Test
     void testItemExists() {
         String upc = "1234567890";
+        Item item = new Item();
+        item.setUpc(upc);
 
+        when(itemRepository.getAllItems()).thenReturn(List.of(item));
         when(itemRepository.itemExists(upc)).thenReturn(true);
 
         assertTrue(itemService.itemExists(upc));
@@ -167,6 +175,7 @@ class ItemServiceTest {
         }
 
         when(itemRepository.getAllItems()).thenReturn(allItems);
+        allItems.forEach(it -> when(itemRepository.getItemByUpc(it.getUpc())).thenReturn(it));
 
         List<Item> randomItems = itemService.getRandomItems(2);
         assertEquals(2, randomItems.size());
@@ -183,6 +192,7 @@ class ItemServiceTest {
         }
 
         when(itemRepository.getAllItems()).thenReturn(allItems);
+        allItems.forEach(it -> when(itemRepository.getItemByUpc(it.getUpc())).thenReturn(it));
 
         List<Item> randomItems = itemService.getRandomItems(4);
         assertEquals(3, randomItems.size());
@@ -200,10 +210,212 @@ class ItemServiceTest {
         }
 
         when(itemRepository.getAllItems()).thenReturn(allItems);
+        allItems.forEach(it -> when(itemRepository.getItemByUpc(it.getUpc())).thenReturn(it));
 
         List<Item> randomItems = itemService.getRandomItemsNotIn(excludedUpcs, 2);
         assertEquals(1, randomItems.size());
         assertEquals(allItems.get(1), randomItems.get(0));
     }
-}
 
+    @Test
+    void testGetRandomItemsNotIn_ReadsCatalogOnce() {
+        List<Item> allItems = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Item item = new Item();
+            item.setUpc(String.valueOf(i));
+            allItems.add(item);
+        }
+        when(itemRepository.getAllItems()).thenReturn(allItems);
+        allItems.forEach(it -> when(itemRepository.getItemByUpc(it.getUpc())).thenReturn(it));
+
+        Set<String> excludedUpcs = Set.of("0", "1", "2");
+        for (int i = 0; i < 50; i++) {
+            List<Item> randomItems = itemService.getRandomItemsNotIn(excludedUpcs, 8);
+            assertEquals(8, randomItems.size());
+            assertEquals(8, randomItems.stream().distinct().count());
+            assertTrue(randomItems.stream().noneMatch(it -> excludedUpcs.contains(it.getUpc())));
+        }
+
+        verify(itemRepository, times(1)).getAllItems();
+        verify(itemRepository, times(400)).getItemByUpc(anyString());
+    }
+
+    @Test
+    void testGetRandomItemsNotIn_FollowsSavedAndDeletedItems() {
+        Item item1 = new Item();
+        item1.setUpc("1");
+        when(itemRepository.getAllItems()).thenReturn(List.of(item1));
+        when(itemRepository.getItemByUpc("1")).thenReturn(item1);
+        assertEquals(List.of(item1), itemService.getRandomItems(8));
+
+        Item item2 = new Item();
+        item2.setUpc("2");
+        when(itemRepository.getItemByUpc("2")).thenReturn(item2);
+        itemService.saveItem(item2);
+        assertEquals(Set.of(item1, item2), Set.copyOf(itemService.getRandomItems(8)));
+
+        itemService.deleteItemByUpc("1");
+        assertEquals(List.of(item2), itemService.getRandomItems(8));
+
+        // Deleted behind the back of the service
+        when(itemRepository.getItemByUpc("2")).thenReturn(null);
+        assertTrue(itemService.getRandomItems(8).isEmpty());
+        verify(itemRepository, times(1)).getAllItems();
+    }
+
+    @Test
+    void testGetQuickItemsNotIn_MostScannedFirstThenRandom() {
+        List<Item> allItems = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Item item = new Item();
+            item.setUpc(String.valueOf(i));
+            allItems.add(item);
+        }
+        when(itemRepository.getAllItems()).thenReturn(allItems);
+        allItems.forEach(it -> when(itemRepository.getItemByUpc(it.getUpc())).thenReturn(it));
+
+        for (int i = 0; i < 3; i++) {
+            itemService.recordItemScanned("5");
+        }
+        itemService.recordItemScanned("7");
+        itemService.recordItemScanned("7");
+        itemService.recordItemScanned("9");
+
+        List<Item> quickItems = itemService.getQuickItemsNotIn(Set.of("7"), 8);
+        assertEquals(8, quickItems.size());
+        assertEquals(allItems.get(5), quickItems.get(0));
+        assertEquals(allItems.get(9), quickItems.get(1));
+        assertEquals(8, quickItems.stream().distinct().count());
+        assertFalse(quickItems.contains(allItems.get(7)));
+
+        List<Item> topItems = itemService.getQuickItems(2);
+        assertEquals(List.of(allItems.get(5), allItems.get(7)), topItems);
+    }
+
+    @Test
+    void testSearchItemsByName() {
+        Item milk = new Item();
+        milk.setUpc("1");
+        milk.setName("Whole Milk");
+        Item bread = new Item();
+        bread.setUpc("2");
+        bread.setName("Bread");
+        when(itemRepository.getAllItems()).thenReturn(List.of(milk));
+        when(itemRepository.getItemByUpc("1")).thenReturn(milk);
+        when(itemRepository.getItemByUpc("2")).thenReturn(bread);
+
+        assertEquals(List.of(milk), itemService.searchItemsByName("milk", 10));
+
+        itemService.saveItem(bread);
+        assertEquals(List.of(bread), itemService.searchItemsByName("bre", 10));
+        assertEquals(List.of(milk), itemService.searchItemsByName("m", 10));
+
+        itemService.deleteItemByUpc("1");
+        assertTrue(itemService.searchItemsByName("milk", 10).isEmpty());
+        verify(itemRepository, times(1)).getAllItems();
+    }
+
+    @Test
+    void testItemExists_UpcFilterRejectsUnknownUpcs() {
+        Item milk = new Item();
+        milk.setUpc("1");
+        when(itemRepository.getAllItems()).thenReturn(List.of(milk));
+        when(itemRepository.itemExists("1")).thenReturn(true);
+        when(itemRepository.getItemByUpc("1")).thenReturn(milk);
+
+        assertTrue(itemService.itemExists("1"));
+        assertEquals(milk, itemService.getItemByUpc("1"));
+        for (int i = 0; i < 100; i++) {
+            itemService.itemExists("junk" + i);
+            itemService.getItemByUpc("junk" + i);
+        }
+
+        // A filter sized for 1024 UPCs that holds one has practically no false positives
+        assertEquals(2, itemService.getUpcFilterHitCount());
+        assertEquals(200, itemService.getUpcFilterMissCount());
+        assertEquals(0, itemService.getUpcFilterFalsePositiveCount());
+        verify(itemRepository, times(1)).getAllItems();
+        verify(itemRepository, times(1)).itemExists(anyString());
+        verify(itemRepository, times(1)).getItemByUpc(anyString());
+    }
+
+    @Test
+    void testItemExists_UpcFilterFollowsSavedAndDeletedItems() {
+        when(itemRepository.getAllItems()).thenReturn(List.of());
+        assertFalse(itemService.itemExists("1"));
+
+        Item milk = new Item();
+        milk.setUpc("1");
+        itemService.saveItem(milk);
+        when(itemRepository.itemExists("1")).thenReturn(true);
+        assertTrue(itemService.itemExists("1"));
+
+        // A deleted UPC passes the filter until it is rebuilt, and the repository rejects it
+        itemService.deleteItemByUpc("1");
+        when(itemRepository.itemExists("1")).thenReturn(false);
+        assertFalse(itemService.itemExists("1"));
+        assertEquals(1, itemService.getUpcFilterFalsePositiveCount());
+        verify(itemRepository, times(1)).getAllItems();
+    }
+
+    @Test
+    void testItemExists_RebuildsUpcFilterAfterMaxAge() {
+        AtomicLong nanoTime = new AtomicLong();
+        ItemService service = new ItemService(itemRepository, new RandomUpcIndex(), new ItemNameIndex(),
+                new PopularItemsTracker(), nanoTime::get);
+        service.setUpcFilterMaxAgeMs(60000);
+        when(itemRepository.getAllItems()).thenReturn(List.of());
+        assertFalse(service.itemExists("1"));
+
+        // Another process adds the item to the repository
+        Item milk = new Item();
+        milk.setUpc("1");
+        when(itemRepository.getAllItems()).thenReturn(List.of(milk));
+        when(itemRepository.itemExists("1")).thenReturn(true);
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(59999));
+        assertFalse(service.itemExists("1"));
+
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertTrue(service.itemExists("1"));
+        assertTrue(service.itemExists("1"));
+        verify(itemRepository, times(2)).getAllItems();
+    }
+
+    @Test
+    void testPositionalItemRepository_IsSampledAndSearchedInPlace() {
+        PositionalItemRepository positionalRepository = mock(PositionalItemRepository.class);
+        List<Item> allItems = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Item item = new Item();
+            item.setUpc(String.valueOf(i));
+            item.setName(i % 2 == 0 ? "Whole Milk " + i : "Bread " + i);
+            allItems.add(item);
+        }
+        when(positionalRepository.size()).thenReturn(allItems.size());
+        when(positionalRepository.getUpcAt(anyInt())).thenAnswer(invocation ->
+                allItems.get(invocation.<Integer>getArgument(0)).getUpc());
+        when(positionalRepository.getNameAt(anyInt())).thenAnswer(invocation ->
+                allItems.get(invocation.<Integer>getArgument(0)).getName());
+        when(positionalRepository.getItemAt(anyInt())).thenAnswer(invocation ->
+                allItems.get(invocation.<Integer>getArgument(0)));
+        when(positionalRepository.itemExists("1")).thenReturn(true);
+        ItemService service = new ItemService(positionalRepository);
+
+        List<Item> randomItems = service.getRandomItemsNotIn(Set.of("0", "1"), 5);
+        assertEquals(5, randomItems.size());
+        assertEquals(5, new HashSet<>(randomItems).size());
+        assertTrue(randomItems.stream().noneMatch(item -> item.getUpc().equals("0") || item.getUpc().equals("1")));
+        assertEquals(8, service.getRandomItemsNotIn(Set.of("0", "1"), 20).size());
+
+        assertEquals(List.of(allItems.get(1), allItems.get(3)), service.searchItemsByName("bread", 2));
+        assertEquals(List.of(allItems.get(0)), service.searchItemsByName("WHOLE-milk", 1));
+        assertEquals(5, service.searchItemsByName("m", 10).size());
+        assertTrue(service.searchItemsByName("milk 1", 10).isEmpty());
+
+        // Lookups by UPC go straight to the repository, without a UPC filter
+        assertTrue(service.itemExists("1"));
+        assertFalse(service.itemExists("junk"));
+        assertEquals(0, service.getUpcFilterMissCount());
+        verify(positionalRepository, never()).getAllItems();
+    }
+}
@@ -0,0 +1,71 @@
+package com.rocketpartners.onboarding.possystem.service;
+
+import com.rocketpartners.onboarding.commons.model.LineItem;
+import com.rocketpartners.onboarding.commons.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineItemIndexTest {
+
+    private LineItemIndex lineItemIndex;
+    private Transaction transaction;
+
+    @BeforeEach
+    void setUp() {
+        lineItemIndex = new LineItemIndex();
+        transaction = new Transaction();
+        transaction.setId("tx1");
+    }
+
+    @Test
+    void testGetActiveLineItem_SkipsVoidedLineItems() {
+        LineItem voided = new LineItem("A", "tx1", 2, true);
+        LineItem active = new LineItem("A", "tx1", 1, false);
+        transaction.getLineItems().add(voided);
+        transaction.getLineItems().add(active);
+
+        assertSame(active, lineItemIndex.getActiveLineItem(transaction, "A"));
+        assertNull(lineItemIndex.getActiveLineItem(transaction, "B"));
+    }
+
+    @Test
+    void testLineItemAddedAndVoided() {
+        assertNull(lineItemIndex.getActiveLineItem(transaction, "A"));
+
+        LineItem lineItem = new LineItem("A", "tx1", 1, false);
+        transaction.getLineItems().add(lineItem);
+        lineItemIndex.lineItemAdded(transaction, lineItem);
+        assertSame(lineItem, lineItemIndex.getActiveLineItem(transaction, "A"));
+
+        lineItem.setVoided(true);
+        lineItemIndex.lineItemVoided(transaction, lineItem);
+        assertNull(lineItemIndex.getActiveLineItem(transaction, "A"));
+    }
+
+    @Test
+    void testGetActiveLineItem_RebuildsAfterChangesBehindItsBack() {
+        LineItem lineItem = new LineItem("A", "tx1", 1, false);
+        transaction.getLineItems().add(lineItem);
+        assertSame(lineItem, lineItemIndex.getActiveLineItem(transaction, "A"));
+
+        // Voided without telling the index
+        lineItem.setVoided(true);
+        assertNull(lineItemIndex.getActiveLineItem(transaction, "A"));
+
+        // Appended without telling the index
+        LineItem appended = new LineItem("B", "tx1", 1, false);
+        transaction.getLineItems().add(appended);
+        assertSame(appended, lineItemIndex.getActiveLineItem(transaction, "B"));
+
+        // Line item list replaced, e.g. when loaded from a repository
+        LineItem replaced = new LineItem("C", "tx1", 1, false);
+        transaction.setLineItems(new ArrayList<>(List.of(replaced)));
+        assertSame(replaced, lineItemIndex.getActiveLineItem(transaction, "C"));
+        assertNull(lineItemIndex.getActiveLineItem(transaction, "B"));
+    }
+}
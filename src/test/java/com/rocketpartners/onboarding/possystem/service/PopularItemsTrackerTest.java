@@ -0,0 +1,68 @@
+package com.rocketpartners.onboarding.possystem.service;
+
+import com.rocketpartners.onboarding.possystem.utils.CountMinSketch;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PopularItemsTrackerTest {
+
+    @Test
+    void testGetTopUpcs_MostScannedFirst() {
+        PopularItemsTracker tracker = new PopularItemsTracker(8, 0);
+        for (int i = 0; i < 5; i++) {
+            tracker.recordScan("A");
+        }
+        for (int i = 0; i < 3; i++) {
+            tracker.recordScan("B");
+        }
+        tracker.recordScan("C");
+
+        assertEquals(List.of("A", "B", "C"), tracker.getTopUpcs(8));
+        assertEquals(List.of("A", "B"), tracker.getTopUpcs(2));
+        assertTrue(tracker.getTopUpcs(0).isEmpty());
+        assertEquals(5, tracker.estimateScans("A"));
+    }
+
+    @Test
+    void testGetTopUpcs_FindsHeavyHittersInLongTail() {
+        PopularItemsTracker tracker = new PopularItemsTracker(32, 0);
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            // Every tenth scan is one of 8 popular items, the rest are spread over 100,000 items
+            String upc = i % 10 == 0 ? "POPULAR" + random.nextInt(8) : "ITEM" + random.nextInt(100_000);
+            tracker.recordScan(upc);
+        }
+
+        List<String> topUpcs = tracker.getTopUpcs(8);
+        assertEquals(8, topUpcs.size());
+        assertTrue(topUpcs.stream().allMatch(upc -> upc.startsWith("POPULAR")), topUpcs.toString());
+    }
+
+    @Test
+    void testRecordScan_DecaysOldPopularity() {
+        PopularItemsTracker tracker = new PopularItemsTracker(4, 100);
+        for (int i = 0; i < 99; i++) {
+            tracker.recordScan("OLD");
+        }
+        assertEquals(List.of("OLD"), tracker.getTopUpcs(4));
+
+        // Each interval of scans of NEW halves what is left of OLD
+        for (int i = 0; i < 700; i++) {
+            tracker.recordScan("NEW");
+        }
+
+        assertEquals(List.of("NEW"), tracker.getTopUpcs(4));
+        assertEquals(0, tracker.estimateScans("OLD"));
+    }
+
+    @Test
+    void testConstructor_InvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new PopularItemsTracker(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new PopularItemsTracker(1, -1));
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(4, 1000));
+    }
+}
@@ -0,0 +1,83 @@
+package com.rocketpartners.onboarding.possystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RandomUpcIndexTest {
+
+    @Test
+    void testSample_DistinctAndNotExcluded() {
+        RandomUpcIndex index = new RandomUpcIndex(new Random(42));
+        IntStream.range(0, 1000).mapToObj(String::valueOf).forEach(index::add);
+        Set<String> excludedUpcs = Set.of("1", "2", "3", "not indexed");
+
+        for (int i = 0; i < 1000; i++) {
+            List<String> sample = index.sample(8, excludedUpcs);
+            assertEquals(8, sample.size());
+            assertEquals(8, new HashSet<>(sample).size());
+            assertTrue(sample.stream().noneMatch(excludedUpcs::contains));
+        }
+    }
+
+    @Test
+    void testSample_ReturnsAllWhenTooFewAreNotExcluded() {
+        RandomUpcIndex index = new RandomUpcIndex(new Random(42));
+        List.of("A", "B", "C", "D").forEach(index::add);
+
+        assertEquals(Set.of("B", "D"), Set.copyOf(index.sample(8, Set.of("A", "C"))));
+        assertEquals(3, index.sample(3, Set.of("A")).size());
+        assertTrue(index.sample(0, Set.of()).isEmpty());
+    }
+
+    @Test
+    void testSample_IsUniform() {
+        RandomUpcIndex index = new RandomUpcIndex(new Random(42));
+        IntStream.range(0, 20).mapToObj(String::valueOf).forEach(index::add);
+        Set<String> excludedUpcs = Set.of("0", "19");
+
+        Map<String, Integer> counts = new HashMap<>();
+        Map<String, Integer> firstCounts = new HashMap<>();
+        int samples = 90_000;
+        for (int i = 0; i < samples; i++) {
+            List<String> sample = index.sample(3, excludedUpcs);
+            sample.forEach(upc -> counts.merge(upc, 1, Integer::sum));
+            firstCounts.merge(sample.get(0), 1, Integer::sum);
+        }
+
+        // Every one of the 18 UPCs that are not excluded is expected in 3 of 18 samples, and first in 1 of 18
+        assertEquals(18, counts.size());
+        counts.values().forEach(count -> assertEquals(samples / 6.0, count, samples / 6.0 * 0.05));
+        firstCounts.values().forEach(count -> assertEquals(samples / 18.0, count, samples / 18.0 * 0.1));
+    }
+
+    @Test
+    void testRemove_MovesLastUpcIntoTheSlot() {
+        RandomUpcIndex index = new RandomUpcIndex(new Random(42));
+        List.of("A", "B", "C").forEach(index::add);
+
+        index.remove("A");
+        index.remove("not indexed");
+        assertEquals(2, index.size());
+        assertEquals(Set.of("B", "C"), Set.copyOf(index.sample(8, Set.of())));
+
+        index.remove("B");
+        index.add("D");
+        index.add("D");
+        assertEquals(2, index.size());
+        assertEquals(Set.of("C", "D"), Set.copyOf(index.sample(8, Set.of())));
+
+        index.remove("D");
+        index.remove("C");
+        assertEquals(0, index.size());
+        assertTrue(index.sample(8, Set.of()).isEmpty());
+    }
+}
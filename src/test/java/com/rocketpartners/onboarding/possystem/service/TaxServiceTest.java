@@ -1,11 +1,13 @@
 package com.rocketpartners.onboarding.possystem.service;
 
 import com.rocketpartners.onboarding.commons.model.Transaction;
+import com.rocketpartners.onboarding.possystem.utils.Money;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -27,7 +29,7 @@ class TaxServiceTest {
         BigDecimal subtotal = new BigDecimal("100.00");
         when(mockTransaction.getSubtotal()).thenReturn(subtotal);
 
-        BigDecimal expectedTax = subtotal.multiply(BigDecimal.valueOf(0.04));
+        BigDecimal expectedTax = new BigDecimal("4.00");
         BigDecimal actualTax = taxService.computeTaxesFor(mockTransaction);
 
         assertEquals(expectedTax, actualTax);
@@ -56,4 +58,26 @@ class TaxServiceTest {
             taxService.computeTaxesFor(mockTransaction);
         });
     }
+
+    @Test
+    void testComputeTaxCentsFor_RoundsHalfUpToTheCent() {
+        assertEquals(400, taxService.computeTaxCentsFor(10000));
+        assertEquals(8, taxService.computeTaxCentsFor(199));
+        assertEquals(0, taxService.computeTaxCentsFor(0));
+    }
+
+    @Test
+    void testComputeTaxesFor_MatchesComputeTaxCentsFor() {
+        Transaction mockTransaction = Mockito.mock(Transaction.class);
+        for (long subtotalCents = 0; subtotalCents < 20000; subtotalCents += 7) {
+            BigDecimal subtotal = BigDecimal.valueOf(subtotalCents, 2);
+            when(mockTransaction.getSubtotal()).thenReturn(subtotal);
+
+            BigDecimal expectedTax = subtotal.multiply(BigDecimal.valueOf(0.04)).setScale(2, RoundingMode.HALF_UP);
+            long taxCents = taxService.computeTaxCentsFor(subtotalCents);
+
+            assertEquals(expectedTax, Money.toBigDecimal(taxCents));
+            assertEquals(expectedTax, taxService.computeTaxesFor(mockTransaction));
+        }
+    }
 }
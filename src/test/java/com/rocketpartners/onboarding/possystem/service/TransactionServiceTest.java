@@ -1,5 +1,6 @@
 package com.rocketpartners.onboarding.possystem.service;
 
+import com.rocketpartners.onboarding.commons.model.Item;
 import com.rocketpartners.onboarding.commons.model.LineItem;
 import com.rocketpartners.onboarding.commons.model.Transaction;
 import com.rocketpartners.onboarding.possystem.repository.TransactionRepository;
@@ -9,6 +10,12 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -290,5 +297,159 @@ class TransactionServiceTest {
         verify(transactionRepository, times(1)).saveTransaction(transactionCaptor.capture());
         assertEquals(transaction, transactionCaptor.getValue());
     }
-}
 
+    @Test
+    void testRunningTotals_AppliesOnlyTheChangedLineItem() {
+        ItemService itemService = Mockito.mock(ItemService.class);
+        Item itemA = createItem("A", "2.00");
+        Item itemB = createItem("B", "3.50");
+        when(itemService.getItemByUpc("A")).thenReturn(itemA);
+        when(itemService.getItemByUpc("B")).thenReturn(itemB);
+        TransactionService runningTotalsService =
+                new TransactionService(transactionRepository, itemService, new TaxService());
+        runningTotalsService.setVerificationInterval(0);
+
+        runningTotalsService.addItemToTransaction(transaction, "A");
+        runningTotalsService.addItemToTransaction(transaction, "A");
+        runningTotalsService.addItemToTransaction(transaction, "B");
+        assertEquals(0, new BigDecimal("7.50").compareTo(transaction.getSubtotal()));
+
+        runningTotalsService.removeItemFromTransaction(transaction, "A");
+        assertEquals(0, new BigDecimal("5.50").compareTo(transaction.getSubtotal()));
+
+        runningTotalsService.voidLineItemInTransaction(transaction, "B");
+        assertEquals(0, new BigDecimal("2.00").compareTo(transaction.getSubtotal()));
+        assertEquals(0, new BigDecimal("0.08").compareTo(transaction.getTaxes()));
+        assertEquals(0, new BigDecimal("2.08").compareTo(transaction.getTotal()));
+
+        // One lookup per change instead of one per line item
+        verify(itemService, times(3)).getItemByUpc("A");
+        verify(itemService, times(2)).getItemByUpc("B");
+        assertEquals(0, runningTotalsService.getRunningTotalsMismatchCount());
+    }
+
+    @Test
+    void testRunningTotals_VerificationCorrectsDrift() {
+        ItemService itemService = Mockito.mock(ItemService.class);
+        Item item = createItem("A", "2.00");
+        when(itemService.getItemByUpc("A")).thenReturn(item);
+        TransactionService runningTotalsService =
+                new TransactionService(transactionRepository, itemService, new TaxService());
+        runningTotalsService.setVerificationInterval(2);
+
+        runningTotalsService.addItemToTransaction(transaction, "A");
+        item.setUnitPrice(new BigDecimal("3.00"));
+        runningTotalsService.addItemToTransaction(transaction, "A");
+
+        assertEquals(0, new BigDecimal("6.00").compareTo(transaction.getSubtotal()));
+        assertEquals(1, runningTotalsService.getRunningTotalsMismatchCount());
+    }
+
+    @Test
+    void testRunningTotalsDisabled_RecomputesEveryLineItem() {
+        ItemService itemService = Mockito.mock(ItemService.class);
+        when(itemService.getItemByUpc("A")).thenReturn(createItem("A", "2.00"));
+        when(itemService.getItemByUpc("B")).thenReturn(createItem("B", "1.00"));
+        TransactionService recomputingService =
+                new TransactionService(transactionRepository, itemService, new TaxService());
+        recomputingService.setRunningTotals(false);
+
+        recomputingService.addItemToTransaction(transaction, "A");
+        recomputingService.addItemToTransaction(transaction, "B");
+
+        assertEquals(0, new BigDecimal("3.00").compareTo(transaction.getSubtotal()));
+        verify(itemService, times(2)).getItemByUpc("A");
+        verify(itemService, times(1)).getItemByUpc("B");
+    }
+
+    @Test
+    void testTotals_MatchBigDecimalArithmeticRoundedToTheCent() {
+        ItemService itemService = Mockito.mock(ItemService.class);
+        Random random = new Random(42);
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Item item = createItem("U" + i, BigDecimal.valueOf(1 + random.nextInt(5000), 2).toPlainString());
+            items.add(item);
+            when(itemService.getItemByUpc(item.getUpc())).thenReturn(item);
+        }
+        TransactionService centsService = new TransactionService(transactionRepository, itemService, new TaxService());
+
+        for (int basket = 0; basket < 200; basket++) {
+            Transaction basketTransaction = new Transaction();
+            basketTransaction.setId("basket" + basket);
+            BigDecimal expectedSubtotal = BigDecimal.ZERO;
+            int scans = 1 + random.nextInt(40);
+            for (int i = 0; i < scans; i++) {
+                Item item = items.get(random.nextInt(items.size()));
+                centsService.addItemToTransaction(basketTransaction, item.getUpc());
+                expectedSubtotal = expectedSubtotal.add(item.getUnitPrice());
+            }
+            BigDecimal discount = BigDecimal.valueOf(random.nextInt(300), 2);
+            basketTransaction.setDiscountAmount(discount);
+            centsService.recomputeAndSaveTransaction(basketTransaction);
+
+            // The arithmetic of the transaction service before it switched to cents
+            BigDecimal expectedTaxes = expectedSubtotal.multiply(BigDecimal.valueOf(0.04));
+            BigDecimal expectedTotal = expectedSubtotal.add(expectedTaxes).subtract(discount);
+
+            assertEquals(expectedSubtotal.setScale(2, RoundingMode.HALF_UP), basketTransaction.getSubtotal());
+            assertEquals(expectedTaxes.setScale(2, RoundingMode.HALF_UP), basketTransaction.getTaxes());
+            assertEquals(expectedTotal.setScale(2, RoundingMode.HALF_UP), basketTransaction.getTotal());
+        }
+    }
+
+    @Test
+    void testAddItemsToTransaction_AppliesQuantitiesWithOneSave() {
+        ItemService itemService = Mockito.mock(ItemService.class);
+        when(itemService.getItemByUpc("A")).thenReturn(createItem("A", "2.00"));
+        when(itemService.getItemByUpc("B")).thenReturn(createItem("B", "0.25"));
+        TransactionService batchService = new TransactionService(transactionRepository, itemService, new TaxService());
+        batchService.setVerificationInterval(0);
+        transaction.getLineItems().add(new LineItem("A", "tx1", 1, false));
+        transaction.getLineItems().add(new LineItem("B", "tx1", 2, true));
+        transaction.setSubtotal(new BigDecimal("2.00"));
+
+        Map<String, Integer> quantitiesByUpc = new LinkedHashMap<>();
+        quantitiesByUpc.put("A", 2);
+        quantitiesByUpc.put("B", 12);
+        assertTrue(batchService.addItemsToTransaction(transaction, quantitiesByUpc));
+
+        assertEquals(3, transaction.getLineItems().size());
+        assertEquals(3, transaction.getLineItems().get(0).getQuantity());
+        assertEquals(2, transaction.getLineItems().get(1).getQuantity());
+        assertTrue(transaction.getLineItems().get(1).isVoided());
+        assertEquals(12, transaction.getLineItems().get(2).getQuantity());
+        assertFalse(transaction.getLineItems().get(2).isVoided());
+        assertEquals(new BigDecimal("9.00"), transaction.getSubtotal());
+        assertEquals(new BigDecimal("0.36"), transaction.getTaxes());
+        assertEquals(new BigDecimal("9.36"), transaction.getTotal());
+        verify(transactionRepository, times(1)).saveTransaction(transaction);
+        verify(itemService, times(1)).getItemByUpc("B");
+    }
+
+    @Test
+    void testAddItemsToTransaction_InvalidQuantity() {
+        Map<String, Integer> quantitiesByUpc = new LinkedHashMap<>();
+        quantitiesByUpc.put("A", 2);
+        quantitiesByUpc.put("B", 0);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionService.addItemsToTransaction(transaction, quantitiesByUpc));
+        assertTrue(transaction.getLineItems().isEmpty());
+        verify(transactionRepository, never()).saveTransaction(any());
+    }
+
+    @Test
+    void testAddItemsToTransaction_EmptyBatch() {
+        assertFalse(transactionService.addItemsToTransaction(transaction, Map.of()));
+        verify(transactionRepository, never()).saveTransaction(any());
+    }
+
+    private static Item createItem(String upc, String unitPrice) {
+        Item item = new Item();
+        item.setUpc(upc);
+        item.setName("Item " + upc);
+        item.setUnitPrice(new BigDecimal(unitPrice));
+        return item;
+    }
+}
@@ -0,0 +1,64 @@
+package com.rocketpartners.onboarding.possystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpcBloomFilterTest {
+
+    @Test
+    void testMightContain_NoFalseNegativesAndFewFalsePositives() {
+        UpcBloomFilter filter = new UpcBloomFilter(100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) {
+            filter.add(String.format("%012d", i * 2L));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(filter.mightContain(String.format("%012d", i * 2L)));
+            if (filter.mightContain(String.format("%012d", i * 2L + 1))) {
+                falsePositives++;
+            }
+        }
+        // The number of bits is rounded up to a power of two, so the rate is at most the one the filter is sized for
+        assertTrue(falsePositives < 1000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void testConstructor_SizesFilter() {
+        UpcBloomFilter filter = new UpcBloomFilter(1024, 0.01);
+        assertEquals(16384, filter.getBitCount());
+        assertEquals(11, filter.getHashCount());
+        assertEquals(64, new UpcBloomFilter(1, 0.5).getBitCount());
+
+        assertThrows(IllegalArgumentException.class, () -> new UpcBloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new UpcBloomFilter(1024, 0.0));
+        assertThrows(IllegalArgumentException.class, () -> new UpcBloomFilter(1024, 1.0));
+    }
+
+    @Test
+    void testNeedsRebuild_WhenFullOrAfterManyRemovals() {
+        UpcBloomFilter filter = new UpcBloomFilter(100, 0.01);
+        for (int i = 0; i < 100; i++) {
+            filter.add(String.valueOf(i));
+            // Saving an item again does not count towards the capacity
+            filter.add(String.valueOf(i));
+        }
+        assertFalse(filter.needsRebuild());
+        filter.add("100");
+        assertTrue(filter.needsRebuild());
+
+        UpcBloomFilter removedFilter = new UpcBloomFilter(100, 0.01);
+        for (int i = 0; i < 80; i++) {
+            removedFilter.add(String.valueOf(i));
+        }
+        for (int i = 0; i < 20; i++) {
+            removedFilter.recordRemoval();
+        }
+        assertFalse(removedFilter.needsRebuild());
+        removedFilter.recordRemoval();
+        assertTrue(removedFilter.needsRebuild());
+        // A removed UPC is still reported as possibly present
+        assertTrue(removedFilter.mightContain("0"));
+    }
+}
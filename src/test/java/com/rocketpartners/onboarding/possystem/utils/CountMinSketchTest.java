@@ -0,0 +1,48 @@
+package com.rocketpartners.onboarding.possystem.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountMinSketchTest {
+
+    @Test
+    void testEstimate_NeverUndercounts() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        Map<String, Integer> counts = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            String key = "K" + random.nextInt(5000);
+            counts.merge(key, 1, Integer::sum);
+            assertTrue(sketch.increment(key) >= counts.get(key));
+        }
+
+        long overcount = 0;
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            int estimate = sketch.estimate(entry.getKey());
+            assertTrue(estimate >= entry.getValue());
+            overcount += estimate - entry.getValue();
+        }
+        // The expected overcount per key is at most the total count divided by the width
+        assertTrue((double) overcount / counts.size() < 50_000.0 / 1024, "overcount: " + overcount);
+        assertTrue(sketch.estimate("never counted") < 200);
+    }
+
+    @Test
+    void testHalve() {
+        CountMinSketch sketch = new CountMinSketch(2, 64);
+        for (int i = 0; i < 7; i++) {
+            sketch.increment("A");
+        }
+
+        sketch.halve();
+        assertEquals(3, sketch.estimate("A"));
+        sketch.halve();
+        sketch.halve();
+        assertEquals(0, sketch.estimate("A"));
+    }
+}
@@ -0,0 +1,89 @@
+package com.rocketpartners.onboarding.possystem.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void testToCents() {
+        assertEquals(199, Money.toCents(new BigDecimal("1.99")));
+        assertEquals(500, Money.toCents(new BigDecimal("5")));
+        assertEquals(0, Money.toCents(BigDecimal.ZERO));
+        assertEquals(-105, Money.toCents(new BigDecimal("-1.05")));
+        assertEquals(8, Money.toCents(new BigDecimal("0.0796")));
+        assertEquals(1, Money.toCents(new BigDecimal("0.005")));
+        assertEquals(-1, Money.toCents(new BigDecimal("-0.005")));
+        assertEquals(0, Money.toCents(new BigDecimal("0.0049")));
+    }
+
+    @Test
+    void testToCents_TwoDecimalPlacesRoundTrip() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long cents = i % 2 == 0 ? random.nextInt() : random.nextLong() % 1_000_000_000_000_000L;
+            assertEquals(cents, Money.toCents(BigDecimal.valueOf(cents, 2)));
+        }
+        assertEquals(Long.MAX_VALUE, Money.toCents(BigDecimal.valueOf(Long.MAX_VALUE, 2)));
+        assertEquals(-999_999_999_999_999L, Money.toCents(BigDecimal.valueOf(-999_999_999_999_999L, 2)));
+    }
+
+    @Test
+    void testToCents_Overflow() {
+        assertThrows(ArithmeticException.class, () -> Money.toCents(new BigDecimal("1E20")));
+    }
+
+    @Test
+    void testToBigDecimal() {
+        assertEquals(new BigDecimal("1.99"), Money.toBigDecimal(199));
+        assertEquals(new BigDecimal("0.00"), Money.toBigDecimal(0));
+        assertEquals(new BigDecimal("-1.05"), Money.toBigDecimal(-105));
+    }
+
+    @Test
+    void testArithmetic() {
+        assertEquals(300, Money.add(100, 200));
+        assertEquals(-100, Money.subtract(100, 200));
+        assertEquals(597, Money.multiply(199, 3));
+        assertEquals(-199, Money.multiply(199, -1));
+        assertThrows(ArithmeticException.class, () -> Money.add(Long.MAX_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> Money.subtract(Long.MIN_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> Money.multiply(Long.MAX_VALUE, 2));
+    }
+
+    @Test
+    void testApplyRate() {
+        assertEquals(8, Money.applyRate(199, 400));
+        assertEquals(400, Money.applyRate(10000, 400));
+        assertEquals(1, Money.applyRate(13, 400));
+        assertEquals(0, Money.applyRate(12, 400));
+        assertEquals(-8, Money.applyRate(-199, 400));
+        assertEquals(1, Money.applyRate(1, 5000));
+        assertEquals(-1, Money.applyRate(-1, 5000));
+        assertEquals(0, Money.applyRate(0, 400));
+    }
+
+    @Test
+    void testApplyRate_MatchesBigDecimalHalfUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long cents = random.nextInt(2_000_000) - 1_000_000;
+            long basisPoints = random.nextInt(3000);
+            BigDecimal expected = BigDecimal.valueOf(cents, 2).multiply(BigDecimal.valueOf(basisPoints, 4))
+                    .setScale(2, RoundingMode.HALF_UP);
+            assertEquals(expected, Money.toBigDecimal(Money.applyRate(cents, basisPoints)),
+                    "cents=" + cents + ", basisPoints=" + basisPoints);
+        }
+    }
+
+    @Test
+    void testFormat() {
+        assertEquals("1.05", Money.format(105));
+        assertEquals("-0.07", Money.format(-7));
+    }
+}